@@ -14,6 +14,8 @@ import org.sunbird.common.models.util.JsonKey;
 import org.sunbird.common.models.util.LoggerEnum;
 import org.sunbird.common.models.util.ProjectLogger;
 import org.sunbird.helper.ServiceFactory;
+import org.sunbird.learner.util.CompiledPage;
+import org.sunbird.learner.util.CompiledSection;
 import org.sunbird.learner.util.DataCacheHandler;
 
 public class PageCacheLoaderService implements Runnable {
@@ -126,14 +128,79 @@ public class PageCacheLoaderService implements Runnable {
       cache.put(mapName, key, obj);
       return true;
     } else {
-      Map<String, Map<String, Object>> map = getDCMap(mapName);
-      if (map != null) {
-        map.put(key, (Map<String, Object>) obj);
+      switch (mapName) {
+        case "getPageData":
+          DataCacheHandler.putPage(key, (Map<String, Object>) obj);
+          break;
+        case "getSection":
+          DataCacheHandler.putSection(key, (Map<String, Object>) obj);
+          break;
       }
     }
     return false;
   }
 
+  /**
+   * Returns the compiled form of a cached page. Pages are compiled when they are put into the
+   * cache, and compiled again here if the cached page was replaced without being compiled.
+   *
+   * @param key Page cache key (orgId:pageName)
+   * @return Compiled page, or null if the page is not cached
+   */
+  @SuppressWarnings("unchecked")
+  public static CompiledPage getCompiledPage(String key) {
+    String mapName = ActorOperations.GET_PAGE_DATA.getValue();
+    Map<String, Object> page = getDataFromCache(mapName, key, Map.class);
+    if (page == null) {
+      return null;
+    }
+    CompiledPage compiledPage =
+        isCacheEnabled ? null : DataCacheHandler.getCompiledPageMap().get(key);
+    if (compiledPage == null || !compiledPage.isCompiledFrom(page)) {
+      compiledPage = (CompiledPage) compile(mapName, key, page);
+    }
+    return compiledPage;
+  }
+
+  /**
+   * Returns the compiled form of a cached page section.
+   *
+   * @param id Section ID
+   * @return Compiled section, or null if the section is not cached
+   */
+  @SuppressWarnings("unchecked")
+  public static CompiledSection getCompiledSection(String id) {
+    String mapName = ActorOperations.GET_SECTION.getValue();
+    Map<String, Object> section = getDataFromCache(mapName, id, Map.class);
+    if (section == null) {
+      return null;
+    }
+    CompiledSection compiledSection =
+        isCacheEnabled ? null : DataCacheHandler.getCompiledSectionMap().get(id);
+    if (compiledSection == null || !compiledSection.isCompiledFrom(section)) {
+      compiledSection = (CompiledSection) compile(mapName, id, section);
+    }
+    return compiledSection;
+  }
+
+  private static Object compile(String mapName, String key, Map<String, Object> data) {
+    switch (mapName) {
+      case "getPageData":
+        CompiledPage compiledPage = CompiledPage.compile(data);
+        if (!isCacheEnabled) {
+          DataCacheHandler.putCompiledPage(key, compiledPage);
+        }
+        return compiledPage;
+      case "getSection":
+        CompiledSection compiledSection = CompiledSection.compile(data);
+        if (!isCacheEnabled) {
+          DataCacheHandler.putCompiledSection(key, compiledSection);
+        }
+        return compiledSection;
+    }
+    return null;
+  }
+
   private static Map<String, Map<String, Object>> getDCMap(String mapName) {
     switch (mapName) {
       case "getPageData":
@@ -0,0 +1,315 @@
+package org.sunbird.common.http;
+
+import akka.dispatch.Futures;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.util.EntityUtils;
+import org.sunbird.common.models.util.LoggerEnum;
+import org.sunbird.common.models.util.ProjectLogger;
+import org.sunbird.learner.constants.CourseJsonKey;
+import org.sunbird.learner.util.ConfigValueUtil;
+import scala.concurrent.Await;
+import scala.concurrent.Future;
+import scala.concurrent.Promise;
+import scala.concurrent.duration.Duration;
+
+/**
+ * Non-blocking HTTP client for one downstream service. Connections are pooled and kept alive
+ * between requests, the number of connections per host is limited, and a request waits at most
+ * the pool timeout for a free connection. A blocking call waits at most the request timeout, which
+ * defaults to the sum of the pool, connect and socket timeouts.
+ *
+ * <p>Each setting is read from {@code sunbird_http_<setting>_<name>}, falling back to {@code
+ * sunbird_http_<setting>} and then to the default.
+ *
+ * @see OutboundHttpClients
+ */
+public final class OutboundHttpClient {
+
+  private static final int DEFAULT_MAX_CONNECTIONS = 200;
+  private static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 50;
+  private static final int DEFAULT_CONNECT_TIMEOUT_MS = 5000;
+  private static final int DEFAULT_SOCKET_TIMEOUT_MS = 30000;
+  private static final int DEFAULT_POOL_TIMEOUT_MS = 5000;
+  private static final long DEFAULT_KEEP_ALIVE_MS = 60000;
+  private static final long EVICTION_INTERVAL_MS = 10000;
+
+  private static final ScheduledExecutorService evictor =
+      Executors.newSingleThreadScheduledExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "http-connection-evictor");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  private final String name;
+  private final long keepAliveMs;
+  private final long requestTimeoutMs;
+  private final PoolingNHttpClientConnectionManager connectionManager;
+  private final CloseableHttpAsyncClient client;
+  private final ScheduledFuture<?> eviction;
+
+  private final AtomicLong requests = new AtomicLong();
+  private final AtomicLong errorResponses = new AtomicLong();
+  private final AtomicLong failures = new AtomicLong();
+  private final AtomicLong timeouts = new AtomicLong();
+  private final AtomicLong totalLatencyMs = new AtomicLong();
+  private final AtomicLong maxLatencyMs = new AtomicLong();
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  OutboundHttpClient(String name) {
+    this(
+        name,
+        getConfig(name, CourseJsonKey.HTTP_CONNECT_TIMEOUT_MS, DEFAULT_CONNECT_TIMEOUT_MS),
+        getConfig(name, CourseJsonKey.HTTP_SOCKET_TIMEOUT_MS, DEFAULT_SOCKET_TIMEOUT_MS),
+        getConfig(name, CourseJsonKey.HTTP_POOL_TIMEOUT_MS, DEFAULT_POOL_TIMEOUT_MS),
+        getConfig(name, CourseJsonKey.HTTP_MAX_CONNECTIONS, DEFAULT_MAX_CONNECTIONS),
+        getConfig(
+            name, CourseJsonKey.HTTP_MAX_CONNECTIONS_PER_HOST, DEFAULT_MAX_CONNECTIONS_PER_HOST),
+        getConfig(name, CourseJsonKey.HTTP_KEEP_ALIVE_MS, DEFAULT_KEEP_ALIVE_MS),
+        getConfig(name, CourseJsonKey.HTTP_REQUEST_TIMEOUT_MS, 0L));
+  }
+
+  OutboundHttpClient(
+      String name,
+      int connectTimeout,
+      int socketTimeout,
+      int poolTimeout,
+      int maxConnections,
+      int maxConnectionsPerHost,
+      long keepAliveMs,
+      long requestTimeoutMs) {
+    this.name = name;
+    this.keepAliveMs = keepAliveMs;
+    this.requestTimeoutMs =
+        requestTimeoutMs > 0
+            ? requestTimeoutMs
+            : (long) poolTimeout + connectTimeout + socketTimeout;
+    try {
+      connectionManager =
+          new PoolingNHttpClientConnectionManager(
+              new DefaultConnectingIOReactor(
+                  IOReactorConfig.custom()
+                      .setConnectTimeout(connectTimeout)
+                      .setSoTimeout(socketTimeout)
+                      .setSoKeepAlive(true)
+                      .build()));
+    } catch (IOReactorException e) {
+      throw new IllegalStateException("Unable to create HTTP client " + name, e);
+    }
+    connectionManager.setMaxTotal(maxConnections);
+    connectionManager.setDefaultMaxPerRoute(maxConnectionsPerHost);
+    client =
+        HttpAsyncClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(
+                RequestConfig.custom()
+                    .setConnectTimeout(connectTimeout)
+                    .setSocketTimeout(socketTimeout)
+                    .setConnectionRequestTimeout(poolTimeout)
+                    .build())
+            .setKeepAliveStrategy(
+                (response, context) -> {
+                  long duration =
+                      DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(
+                          response, context);
+                  return duration > 0 ? Math.min(duration, keepAliveMs) : keepAliveMs;
+                })
+            .build();
+    client.start();
+    eviction =
+        evictor.scheduleWithFixedDelay(
+            this::evictConnections,
+            EVICTION_INTERVAL_MS,
+            EVICTION_INTERVAL_MS,
+            TimeUnit.MILLISECONDS);
+    ProjectLogger.log("OutboundHttpClient: Created HTTP client " + name, LoggerEnum.INFO.name());
+  }
+
+  private static int getConfig(String name, String key, int defaultValue) {
+    return (int) getConfig(name, key, (long) defaultValue);
+  }
+
+  private static long getConfig(String name, String key, long defaultValue) {
+    return ConfigValueUtil.getLong(key + "_" + name, ConfigValueUtil.getLong(key, defaultValue));
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Sends a request without blocking the calling thread. The returned future fails if the request
+   * could not be sent or no response was received in time, and completes with the response
+   * otherwise, whatever its status.
+   *
+   * @param request Request to send
+   * @return Future of the response
+   */
+  public Future<OutboundHttpResponse> execute(HttpUriRequest request) {
+    Promise<OutboundHttpResponse> promise = Futures.promise();
+    long startTime = System.currentTimeMillis();
+    requests.incrementAndGet();
+    inFlight.incrementAndGet();
+    client.execute(
+        request,
+        new FutureCallback<HttpResponse>() {
+          @Override
+          public void completed(HttpResponse response) {
+            try {
+              OutboundHttpResponse result =
+                  new OutboundHttpResponse(
+                      response.getStatusLine().getStatusCode(),
+                      response.getEntity() != null
+                          ? EntityUtils.toByteArray(response.getEntity())
+                          : null);
+              if (result.getStatus() >= 400) {
+                errorResponses.incrementAndGet();
+              }
+              complete(startTime);
+              promise.success(result);
+            } catch (IOException e) {
+              failed(e);
+            }
+          }
+
+          @Override
+          public void failed(Exception e) {
+            failures.incrementAndGet();
+            if (e instanceof InterruptedIOException || e instanceof TimeoutException) {
+              timeouts.incrementAndGet();
+            }
+            complete(startTime);
+            promise.failure(e);
+          }
+
+          @Override
+          public void cancelled() {
+            failed(new IOException("Request cancelled"));
+          }
+        });
+    return promise.future();
+  }
+
+  /**
+   * Sends a request and waits for its response, at most the request timeout. A request which
+   * takes longer is aborted.
+   *
+   * @param request Request to send
+   * @return Response, whatever its status
+   * @throws IOException if the request could not be sent or no response was received in time
+   */
+  public OutboundHttpResponse executeSync(HttpUriRequest request) throws IOException {
+    try {
+      return Await.result(
+          execute(request), Duration.create(requestTimeoutMs, TimeUnit.MILLISECONDS));
+    } catch (TimeoutException e) {
+      timeouts.incrementAndGet();
+      request.abort();
+      throw new InterruptedIOException(
+          "Request to " + name + " timed out after " + requestTimeoutMs + " ms");
+    } catch (IOException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new IOException(e.getMessage(), e);
+    }
+  }
+
+  public Future<OutboundHttpResponse> post(String url, Map<String, String> headers, String body) {
+    return execute(createPost(url, headers, body));
+  }
+
+  public OutboundHttpResponse postSync(String url, Map<String, String> headers, String body)
+      throws IOException {
+    return executeSync(createPost(url, headers, body));
+  }
+
+  public OutboundHttpResponse getSync(String url, Map<String, String> headers) throws IOException {
+    HttpGet get = new HttpGet(url);
+    addHeaders(get, headers);
+    return executeSync(get);
+  }
+
+  private HttpPost createPost(String url, Map<String, String> headers, String body) {
+    HttpPost post = new HttpPost(url);
+    addHeaders(post, headers);
+    post.setEntity(new StringEntity(body, ContentType.APPLICATION_JSON));
+    return post;
+  }
+
+  private void addHeaders(HttpUriRequest request, Map<String, String> headers) {
+    if (headers != null) {
+      headers.forEach(request::setHeader);
+    }
+  }
+
+  private void complete(long startTime) {
+    inFlight.decrementAndGet();
+    long latency = System.currentTimeMillis() - startTime;
+    totalLatencyMs.addAndGet(latency);
+    maxLatencyMs.accumulateAndGet(latency, Math::max);
+  }
+
+  /** Closes the client and its connections. Only used for clients which are not shared. */
+  void close() throws IOException {
+    eviction.cancel(false);
+    client.close();
+  }
+
+  private void evictConnections() {
+    try {
+      connectionManager.closeExpiredConnections();
+      connectionManager.closeIdleConnections(keepAliveMs, TimeUnit.MILLISECONDS);
+    } catch (Exception e) {
+      ProjectLogger.log("OutboundHttpClient:evictConnections: Failed for " + name, e);
+    }
+  }
+
+  /**
+   * Returns request counts, latency and connection pool usage of this client since it was
+   * created.
+   *
+   * @return Map of metric name and value
+   */
+  public Map<String, Object> getMetrics() {
+    Map<String, Object> metrics = new HashMap<>();
+    long count = requests.get();
+    metrics.put("requests", count);
+    metrics.put("errorResponses", errorResponses.get());
+    metrics.put("failures", failures.get());
+    metrics.put("timeouts", timeouts.get());
+    metrics.put("inFlight", inFlight.get());
+    metrics.put("avgLatencyMs", count > 0 ? totalLatencyMs.get() / count : 0);
+    metrics.put("maxLatencyMs", maxLatencyMs.get());
+    PoolStats stats = connectionManager.getTotalStats();
+    metrics.put("leasedConnections", stats.getLeased());
+    metrics.put("availableConnections", stats.getAvailable());
+    metrics.put("pendingConnections", stats.getPending());
+    return metrics;
+  }
+}
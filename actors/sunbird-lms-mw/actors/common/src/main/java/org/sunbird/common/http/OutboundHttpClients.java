@@ -0,0 +1,37 @@
+package org.sunbird.common.http;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared HTTP clients, one per downstream service. A client is created on first use with the
+ * settings configured for its name, and is reused for the lifetime of the process.
+ */
+public final class OutboundHttpClients {
+
+  public static final String CONTENT_SEARCH = "contentSearch";
+  public static final String USER_ORG = "userOrg";
+  public static final String ANALYTICS = "analytics";
+
+  private static final Map<String, OutboundHttpClient> clients = new ConcurrentHashMap<>();
+
+  private OutboundHttpClients() {}
+
+  /**
+   * Returns the client of given downstream service.
+   *
+   * @param name Downstream service name, e.g. {@link #CONTENT_SEARCH}
+   * @return Shared client
+   */
+  public static OutboundHttpClient get(String name) {
+    return clients.computeIfAbsent(name, OutboundHttpClient::new);
+  }
+
+  /** @return Metrics of each client created so far, by client name */
+  public static Map<String, Object> getMetrics() {
+    Map<String, Object> metrics = new HashMap<>();
+    clients.forEach((name, client) -> metrics.put(name, client.getMetrics()));
+    return metrics;
+  }
+}
@@ -0,0 +1,35 @@
+package org.sunbird.common.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/** Status and fully read body of a response received by an {@link OutboundHttpClient}. */
+public final class OutboundHttpResponse {
+
+  private final int status;
+  private final byte[] body;
+
+  public OutboundHttpResponse(int status, byte[] body) {
+    this.status = status;
+    this.body = body != null ? body : new byte[0];
+  }
+
+  public int getStatus() {
+    return status;
+  }
+
+  /** @return true for a 2xx status */
+  public boolean isSuccessful() {
+    return status >= 200 && status < 300;
+  }
+
+  /** @return Body decoded as UTF-8 */
+  public String getBody() {
+    return new String(body, StandardCharsets.UTF_8);
+  }
+
+  public InputStream getBodyAsStream() {
+    return new ByteArrayInputStream(body);
+  }
+}
@@ -1,5 +1,10 @@
 package org.sunbird.learner.actors;
 
+import akka.dispatch.Futures;
+import akka.dispatch.Mapper;
+import akka.dispatch.OnComplete;
+import akka.dispatch.Recover;
+import akka.pattern.Patterns;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.*;
@@ -26,9 +31,13 @@ import org.sunbird.dto.SearchDTO;
 import org.sunbird.helper.ServiceFactory;
 import org.sunbird.learner.actors.coursebatch.CourseEnrollmentActor;
 import org.sunbird.learner.actors.coursebatch.service.UserCoursesService;
+import org.sunbird.learner.constants.CourseJsonKey;
 import org.sunbird.learner.util.ContentSearchUtil;
 import org.sunbird.learner.util.CourseBatchSchedulerUtil;
+import org.sunbird.learner.util.CourseMetadataCache;
+import org.sunbird.learner.util.CourseMetadataCache.CourseMetadata;
 import org.sunbird.learner.util.Util;
+import scala.concurrent.ExecutionContextExecutor;
 import scala.concurrent.Future;
 
 /**
@@ -47,6 +56,7 @@ public class LearnerStateActor extends BaseActor {
   private UserCoursesService userCoursesService = new UserCoursesService();
   private ElasticSearchService esService = EsClientFactory.getInstance(JsonKey.REST);
   private static final String COMPLETE_PERCENT = "completionPercentage";
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
   /**
    * Receives the actor message and perform the operation like get course , get content etc.
@@ -73,86 +83,129 @@ public class LearnerStateActor extends BaseActor {
     }
   }
 
-  public void getCourse(Request request) throws Exception {
+  /**
+   * Reads the active courses of the user and then, concurrently, the course contents and the
+   * requested batch details. The merged response is piped to the sender without blocking the actor.
+   *
+   * @param request Request with user ID, and optionally batch details to include in the context
+   */
+  public void getCourse(Request request) {
+    long startTime = System.currentTimeMillis();
     String userId = (String) request.getRequest().get(JsonKey.USER_ID);
-    Map<String, Object> result = userCoursesService.getActiveUserCourses(userId);
-    List<Map<String, Object>> updatedCourses = calculateProgressForUserCourses(request, result);
-    if (MapUtils.isNotEmpty(result)) {
-      addCourseDetails(request, updatedCourses);
-    } else {
-      ProjectLogger.log(
-          "LearnerStateActor:getCourse: returning batch without course details",
-          LoggerEnum.INFO.name());
-    }
-    Response response = new Response();
-    response.put(JsonKey.COURSES, updatedCourses);
-    sender().tell(response, self());
+    ExecutionContextExecutor ec = getContext().dispatcher();
+    Future<Map<String, Object>> userCoursesF =
+        logTiming(
+            userCoursesService.getActiveUserCoursesAsync(userId), "userCourses", startTime, ec);
+    Future<Object> responseF =
+        userCoursesF.flatMap(
+            new Mapper<Map<String, Object>, Future<Object>>() {
+              @Override
+              public Future<Object> apply(Map<String, Object> result) {
+                List<Map<String, Object>> activeCourses =
+                    MapUtils.isEmpty(result)
+                        ? null
+                        : (List<Map<String, Object>>) result.get(JsonKey.CONTENT);
+                if (CollectionUtils.isEmpty(activeCourses)) {
+                  ProjectLogger.log(
+                      "LearnerStateActor:getCourse: No active courses for user " + userId,
+                      LoggerEnum.INFO.name());
+                  Response response = new Response();
+                  response.put(JsonKey.COURSES, new ArrayList<>());
+                  return Futures.successful(response);
+                }
+                long stageStartTime = System.currentTimeMillis();
+                Future<Map<String, Object>> contentsF =
+                    logTiming(
+                        searchCourseContents(request, activeCourses, ec),
+                        "contentSearch",
+                        stageStartTime,
+                        ec);
+                Future<Map<String, Object>> courseBatchesF =
+                    logTiming(
+                        getCourseBatches(request, activeCourses),
+                        "batchSearch",
+                        stageStartTime,
+                        ec);
+                return contentsF.flatMap(
+                    new Mapper<Map<String, Object>, Future<Object>>() {
+                      @Override
+                      public Future<Object> apply(Map<String, Object> contents) {
+                        return courseBatchesF.map(
+                            new Mapper<Map<String, Object>, Object>() {
+                              @Override
+                              public Object checkedApply(Map<String, Object> courseBatches)
+                                  throws Throwable {
+                                return getCourseResponse(activeCourses, contents, courseBatches);
+                              }
+                            },
+                            ec);
+                      }
+                    },
+                    ec);
+              }
+            },
+            ec);
+    responseF =
+        responseF.recover(
+            new Recover<Object>() {
+              @Override
+              public Object recover(Throwable e) {
+                ProjectLogger.log(
+                    "LearnerStateActor:getCourse: Exception occurred with error message = "
+                        + e.getMessage(),
+                    e);
+                if (e instanceof ProjectCommonException) {
+                  return e;
+                }
+                return new ProjectCommonException(
+                    ResponseCode.internalError.getErrorCode(),
+                    ResponseCode.internalError.getErrorMessage(),
+                    ResponseCode.SERVER_ERROR.getResponseCode());
+              }
+            },
+            ec);
+    logTiming(responseF, "total", startTime, ec);
+    Patterns.pipe(responseF, ec).to(sender());
   }
 
-  @SuppressWarnings("unchecked")
-  private void addCourseDetails(Request request, List<Map<String, Object>> batches) {
-
-    ProjectLogger.log(
-        "LearnerStateActor:addCourseDetails: batches size = " + batches.size(),
-        LoggerEnum.INFO.name());
-
-    if (CollectionUtils.isEmpty(batches)) {
-      return;
-    }
-    String requestBody = prepareCourseSearchRequest(batches, null);
+  /**
+   * Searches the contents of given courses with a single request. No fields are requested, so that
+   * the response carries both the course details returned to the caller and the leaf nodes used to
+   * compute progress.
+   */
+  private Future<Map<String, Object>> searchCourseContents(
+      Request request, List<Map<String, Object>> activeCourses, ExecutionContextExecutor ec) {
+    String requestBody = prepareCourseSearchRequest(activeCourses, null);
     ProjectLogger.log(
         MessageFormatter.format(
-                "LearnerStateActor:addCourseDetails: request body = {0}, query string = {1}",
+                "LearnerStateActor:searchCourseContents: request body = {0}, query string = {1}",
                 requestBody, (String) request.getContext().get(JsonKey.URL_QUERY_STRING))
             .getMessage(),
         LoggerEnum.INFO.name());
+    return ContentSearchUtil.searchContent(
+        (String) request.getContext().get(JsonKey.URL_QUERY_STRING),
+        requestBody,
+        (Map<String, String>) request.getRequest().get(JsonKey.HEADER),
+        ec);
+  }
 
-    Map<String, Object> contents = null;
-    contents =
-        ContentSearchUtil.searchContentSync(
-            (String) request.getContext().get(JsonKey.URL_QUERY_STRING),
-            requestBody,
-            (Map<String, String>) request.getRequest().get(JsonKey.HEADER));
-
-    Map<String, Object> courseBatchesMap = null;
-    List<String> requestedFields = null;
+  private Future<Map<String, Object>> getCourseBatches(
+      Request request, List<Map<String, Object>> batches) {
     String[] queryParams = (String[]) request.getContext().get(JsonKey.BATCH_DETAILS);
-
-    if (queryParams != null && queryParams.length > 0) {
-
-      ProjectLogger.log(
-          "LearnerStateActor:addCourseDetails: queryParam[0] = " + queryParams[0],
-          LoggerEnum.INFO.name());
-      requestedFields = new ArrayList<>(Arrays.asList(queryParams[0].split(",")));
-      if (CollectionUtils.isNotEmpty(requestedFields))
-        courseBatchesMap = getCourseBatch(batches, requestedFields);
+    if (queryParams == null || queryParams.length == 0) {
+      return Futures.successful(null);
     }
-
-    Map<String, Object> courseBatches = new HashMap<>();
-    if (MapUtils.isNotEmpty(courseBatchesMap)) {
-      List<Map<String, Object>> courses =
-          (List<Map<String, Object>>) courseBatchesMap.get(JsonKey.CONTENT);
-      if (CollectionUtils.isNotEmpty(courses)) {
-        courses.forEach(
-            course -> courseBatches.put((String) course.get(JsonKey.IDENTIFIER), course));
-      }
-      ProjectLogger.log(
-          "LearnerStateActor:addCourseDetails: coursesBathces = " + courseBatches,
-          LoggerEnum.INFO.name());
-    }
-    mergeDetailsAndSendCourses(contents, batches, courseBatches);
-  }
-
-  private Map<String, Object> getCourseBatch(
-      List<Map<String, Object>> batches, List<String> requestedFields) {
+    ProjectLogger.log(
+        "LearnerStateActor:getCourseBatches: queryParam[0] = " + queryParams[0],
+        LoggerEnum.INFO.name());
+    List<String> requestedFields = new ArrayList<>(Arrays.asList(queryParams[0].split(",")));
     List<String> courseBatchIds =
-        (List<String>)
-            batches
-                .stream()
-                .map(batch -> (String) batch.get(JsonKey.BATCH_ID))
-                .collect(Collectors.toList());
+        batches
+            .stream()
+            .map(batch -> (String) batch.get(JsonKey.BATCH_ID))
+            .collect(Collectors.toList());
     ProjectLogger.log(
-        "LearnerStateActor:getCourseBatch: coursesBatchIds = " + courseBatchIds,
+        "LearnerStateActor:getCourseBatches: coursesBatchIds = " + courseBatchIds,
         LoggerEnum.INFO.name());
 
     Map<String, Object> esQueryMap = new HashMap<>();
@@ -161,41 +214,68 @@ public class LearnerStateActor extends BaseActor {
     requestedFields.add(JsonKey.IDENTIFIER);
     dto.setFields(requestedFields);
     dto.getAdditionalProperties().put(JsonKey.FILTERS, esQueryMap);
-
-    Future<Map<String, Object>> responseF =
-        esService.search(dto, ProjectUtil.EsType.courseBatch.getTypeName());
-    Map<String, Object> response =
-        (Map<String, Object>) ElasticSearchHelper.getResponseFromFuture(responseF);
-    return response;
+    return esService.search(dto, ProjectUtil.EsType.courseBatch.getTypeName());
   }
 
-  public void mergeDetailsAndSendCourses(
+  private Response getCourseResponse(
+      List<Map<String, Object>> activeCourses,
       Map<String, Object> coursesContents,
-      List<Map<String, Object>> batches,
-      Map<String, Object> courseBatches) {
-
-    ProjectLogger.log(
-        "LearnerStateActor:mergeDetailsAndSendCourses coursesContents =" + coursesContents,
-        LoggerEnum.INFO.name());
+      Map<String, Object> courseBatchesMap)
+      throws Exception {
+    List<Map<String, Object>> contents =
+        MapUtils.isEmpty(coursesContents)
+            ? null
+            : (List<Map<String, Object>>) coursesContents.get(JsonKey.CONTENTS);
+    Set<String> courseIds =
+        activeCourses
+            .stream()
+            .map(course -> (String) course.get(JsonKey.COURSE_ID))
+            .collect(Collectors.toSet());
+    CourseMetadataCache.getInstance().refresh(contents);
+    Map<String, CourseMetadata> courseMetadata =
+        CourseMetadataCache.getInstance().getAll(courseIds, ids -> contents);
+    List<Map<String, Object>> updatedCourses =
+        calculateProgressForUserCourses(activeCourses, courseMetadata);
 
-    if (MapUtils.isNotEmpty(courseBatches)) {
-      ProjectLogger.log(
-          "LearnerStateActor:mergeDetailsAndSendCourses courseBatchContents ="
-              + "for requested data "
-              + courseBatches,
-          LoggerEnum.INFO.name());
+    Map<String, Object> courseBatches = new HashMap<>();
+    if (MapUtils.isNotEmpty(courseBatchesMap)) {
+      List<Map<String, Object>> courses =
+          (List<Map<String, Object>>) courseBatchesMap.get(JsonKey.CONTENT);
+      if (CollectionUtils.isNotEmpty(courses)) {
+        courses.forEach(
+            course -> courseBatches.put((String) course.get(JsonKey.IDENTIFIER), course));
+      }
     }
-
     Map<String, Object> contentsByCourseId = getContentAsMap(coursesContents);
-
     List<Map<String, Object>> batchesWithCourseDetails =
-        getMergedContents(batches, contentsByCourseId, JsonKey.CONTENT, JsonKey.COURSE_ID);
+        getMergedContents(updatedCourses, contentsByCourseId, JsonKey.CONTENT, JsonKey.COURSE_ID);
     batchesWithCourseDetails =
         getMergedContents(batchesWithCourseDetails, courseBatches, JsonKey.BATCH, JsonKey.BATCH_ID);
 
     Response response = new Response();
     response.put(JsonKey.COURSES, batchesWithCourseDetails);
-    sender().tell(response, self());
+    return response;
+  }
+
+  private static <T> Future<T> logTiming(
+      Future<T> future, String stage, long startTime, ExecutionContextExecutor ec) {
+    future.onComplete(
+        new OnComplete<T>() {
+          @Override
+          public void onComplete(Throwable failure, T result) {
+            ProjectLogger.log(
+                "LearnerStateActor:getCourse: stage = "
+                    + stage
+                    + ", success = "
+                    + (failure == null)
+                    + ", timeTaken = "
+                    + (System.currentTimeMillis() - startTime)
+                    + " ms",
+                LoggerEnum.INFO.name());
+          }
+        },
+        ec);
+    return future;
   }
 
   public List<Map<String, Object>> getMergedContents(
@@ -220,7 +300,7 @@ public class LearnerStateActor extends BaseActor {
               .collect(Collectors.toList());
     }
     ProjectLogger.log(
-        "LearnerStateActor:mergeDetailsAndSendCourses batchesWithCourseDetails ="
+        "LearnerStateActor:getMergedContents batchesWithCourseDetails ="
             + batchesWithCourseDetails,
         LoggerEnum.INFO.name());
     return batchesWithCourseDetails;
@@ -246,6 +326,10 @@ public class LearnerStateActor extends BaseActor {
             .stream()
             .map(batch -> (String) batch.get(JsonKey.COURSE_ID))
             .collect(Collectors.toSet());
+    return prepareCourseSearchRequest(courseIds, fields);
+  }
+
+  private String prepareCourseSearchRequest(Collection<String> courseIds, List<String> fields) {
     Map<String, Object> filters = new HashMap<String, Object>();
     filters.put(JsonKey.CONTENT_TYPE, new String[] {JsonKey.COURSE});
     filters.put(JsonKey.IDENTIFIER, courseIds);
@@ -279,16 +363,20 @@ public class LearnerStateActor extends BaseActor {
     String courseId = (String) requestMap.get(JsonKey.COURSE_ID);
     List<String> contentIds = (List<String>) requestMap.get(JsonKey.CONTENT_IDS);
     if (CollectionUtils.isEmpty(contentIds)) {
-      Map<String, Object> courseData =
-          CourseEnrollmentActor.getCourseObjectFromEkStep(
-              courseId, CourseBatchSchedulerUtil.headerMap);
-      if (MapUtils.isEmpty(courseData)) {
+      CourseMetadata courseData =
+          CourseMetadataCache.getInstance()
+              .get(
+                  courseId,
+                  id ->
+                      CourseEnrollmentActor.getCourseObjectFromEkStep(
+                          id, CourseBatchSchedulerUtil.headerMap));
+      if (courseData == null) {
         throw new ProjectCommonException(
             ResponseCode.invalidCourseId.getErrorCode(),
             ResponseCode.invalidCourseId.getErrorMessage(),
             ResponseCode.CLIENT_ERROR.getResponseCode());
       }
-      List<String> leafNodes = (List<String>) courseData.get("leafNodes");
+      List<String> leafNodes = courseData.getLeafNodes();
       if (CollectionUtils.isNotEmpty(leafNodes)) {
         contentIds = leafNodes;
       }
@@ -335,24 +423,25 @@ public class LearnerStateActor extends BaseActor {
       Request request, Map<String, Object> result) throws Exception {
     List<Map<String, Object>> activeCourses =
         (List<Map<String, Object>>) (result.get(JsonKey.CONTENT));
-    List<Map<String, Object>> contentsForCourses = getcontentsForCourses(request, activeCourses);
-    Set<String> courseIds = new HashSet<>();
-    Map<String, Map<String, Object>> contentIdsMapForCourses = new HashMap<>();
-    if (contentsForCourses != null) {
-      courseIds =
-          contentsForCourses
-              .stream()
-              .map(course -> (String) course.get(JsonKey.IDENTIFIER))
-              .collect(Collectors.toSet());
-      ProjectLogger.log(
-          "LearnerStateActor:prepareCourseSearchRequest:Response courseIds = " + courseIds,
-          LoggerEnum.INFO.name());
-      contentIdsMapForCourses =
-          contentsForCourses
-              .stream()
-              .collect(
-                  Collectors.toMap(cMap -> (String) cMap.get(JsonKey.IDENTIFIER), cMap -> cMap));
-    }
+    Set<String> requestedCourseIds =
+        activeCourses
+            .stream()
+            .map(course -> (String) course.get(JsonKey.COURSE_ID))
+            .collect(Collectors.toSet());
+    Map<String, CourseMetadata> contentIdsMapForCourses =
+        CourseMetadataCache.getInstance()
+            .getAll(requestedCourseIds, courseIds -> getcontentsForCourses(request, courseIds));
+    return calculateProgressForUserCourses(activeCourses, contentIdsMapForCourses);
+  }
+
+  private List<Map<String, Object>> calculateProgressForUserCourses(
+      List<Map<String, Object>> activeCourses,
+      Map<String, CourseMetadata> contentIdsMapForCourses)
+      throws Exception {
+    ProjectLogger.log(
+        "LearnerStateActor:calculateProgressForUserCourses: Response courseIds = "
+            + contentIdsMapForCourses.keySet(),
+        LoggerEnum.INFO.name());
 
     List<Map<String, Object>> updatedCourses = new ArrayList<>();
     for (Map<String, Object> course : activeCourses) {
@@ -360,30 +449,18 @@ public class LearnerStateActor extends BaseActor {
       if (!contentIdsMapForCourses.containsKey(course.get(JsonKey.COURSE_ID))) {
         continue;
       }
-      Map<String, Object> courseContent =
-          contentIdsMapForCourses.get(course.get(JsonKey.COURSE_ID));
-      course.put(JsonKey.COURSE_NAME, courseContent.get(JsonKey.NAME));
-      course.put(JsonKey.DESCRIPTION, courseContent.get(JsonKey.DESCRIPTION));
-      course.put(JsonKey.LEAF_NODE_COUNT, courseContent.get(JsonKey.LEAF_NODE_COUNT));
-      course.put(JsonKey.COURSE_LOGO_URL, courseContent.get(JsonKey.APP_ICON));
+      CourseMetadata courseContent = contentIdsMapForCourses.get(course.get(JsonKey.COURSE_ID));
+      course.put(JsonKey.COURSE_NAME, courseContent.getName());
+      course.put(JsonKey.DESCRIPTION, courseContent.getDescription());
+      course.put(JsonKey.LEAF_NODE_COUNT, courseContent.getLeafNodeCount());
+      course.put(JsonKey.COURSE_LOGO_URL, courseContent.getAppIcon());
       course.put(JsonKey.CONTENT_ID, course.get(JsonKey.COURSE_ID));
-      List<String> leafNodes = (List<String>) courseContent.get("leafNodes");
+      List<String> leafNodes = courseContent.getLeafNodes();
       if (course.get("contentStatus") != null && CollectionUtils.isNotEmpty(leafNodes)) {
         Map<String, Object> contentStatus =
-            new ObjectMapper()
-                .readValue(
-                    ((String) course.get("contentStatus")).replaceAll("\\\\", ""), Map.class);
-        int contentIdscompleted =
-            (int)
-                contentStatus
-                    .entrySet()
-                    .stream()
-                    .filter(
-                        content ->
-                            ProjectUtil.ProgressStatus.COMPLETED.getValue()
-                                == (Integer) content.getValue())
-                    .filter(content -> (leafNodes).contains((String) content.getKey()))
-                    .count();
+            OBJECT_MAPPER.readValue(
+                ((String) course.get("contentStatus")).replaceAll("\\\\", ""), Map.class);
+        int contentIdscompleted = courseContent.countCompletedLeafNodes(contentStatus);
 
         Integer completionPercentage =
             (int) Math.round((contentIdscompleted * 100.0) / (leafNodes).size());
@@ -396,21 +473,25 @@ public class LearnerStateActor extends BaseActor {
   }
 
   private List<Map<String, Object>> getcontentsForCourses(
-      Request request, List<Map<String, Object>> activeCourses) {
+      Request request, Collection<String> courseIds) {
     List<String> fields = new ArrayList<>();
     fields.add(JsonKey.IDENTIFIER);
     fields.add(JsonKey.DESCRIPTION);
     fields.add(JsonKey.NAME);
     fields.add(JsonKey.LEAF_NODE_COUNT);
     fields.add(JsonKey.APP_ICON);
-    fields.add("leafNodes");
-    String requestBody = prepareCourseSearchRequest(activeCourses, fields);
+    fields.add(CourseJsonKey.LEAF_NODES);
+    fields.add(JsonKey.VERSION_KEY);
+    String requestBody = prepareCourseSearchRequest(courseIds, fields);
     ProjectLogger.log(
         "LearnerStateActor:getcontentsForCourses: Request Body = " + requestBody,
         LoggerEnum.INFO.name());
     Map<String, Object> contentsList =
         ContentSearchUtil.searchContentSync(
-            null, requestBody, (Map<String, String>) request.getRequest().get(JsonKey.HEADER));
+            null,
+            requestBody,
+            (Map<String, String>) request.getRequest().get(JsonKey.HEADER),
+            new HashSet<>(fields));
     if (contentsList == null) {
       new ProjectCommonException(
           ResponseCode.internalError.getErrorCode(),
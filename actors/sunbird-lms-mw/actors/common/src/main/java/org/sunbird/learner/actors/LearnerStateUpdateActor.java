@@ -1,5 +1,6 @@
 package org.sunbird.learner.actors;
 
+import java.sql.Timestamp;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.*;
@@ -12,10 +13,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.sunbird.actor.core.BaseActor;
 import org.sunbird.actor.router.ActorConfig;
 import org.sunbird.cassandra.CassandraOperation;
-import org.sunbird.common.ElasticSearchHelper;
 import org.sunbird.common.exception.ProjectCommonException;
-import org.sunbird.common.factory.EsClientFactory;
-import org.sunbird.common.inf.ElasticSearchService;
 import org.sunbird.common.models.response.Response;
 import org.sunbird.common.models.util.ActorOperations;
 import org.sunbird.common.models.util.JsonKey;
@@ -26,14 +24,14 @@ import org.sunbird.common.models.util.datasecurity.OneWayHashing;
 import org.sunbird.common.request.ExecutionContext;
 import org.sunbird.common.request.Request;
 import org.sunbird.common.responsecode.ResponseCode;
-import org.sunbird.dto.SearchDTO;
 import org.sunbird.helper.ServiceFactory;
 import org.sunbird.kafka.client.InstructionEventGenerator;
 import org.sunbird.kafka.client.KafkaClient;
 import org.sunbird.learner.constants.CourseJsonKey;
 import org.sunbird.learner.constants.InstructionEvent;
+import org.sunbird.learner.util.ContentStateWriteBehindBuffer;
+import org.sunbird.learner.util.CourseBatchCache;
 import org.sunbird.learner.util.Util;
-import scala.concurrent.Future;
 
 /**
  * This actor to handle learner's state update operation .
@@ -51,9 +49,9 @@ public class LearnerStateUpdateActor extends BaseActor {
 
   private Util.DbInfo consumptionDBInfo = Util.dbInfoMap.get(JsonKey.LEARNER_CONTENT_DB);
   private Util.DbInfo userCourseDBInfo = Util.dbInfoMap.get(JsonKey.LEARNER_COURSE_DB);
-  private ElasticSearchService esService = EsClientFactory.getInstance(JsonKey.REST);
   private SimpleDateFormat simpleDateFormat = ProjectUtil.getDateFormatter();
   private ObjectMapper mapper = new ObjectMapper();
+  private boolean writeBehindEnabled = ContentStateWriteBehindBuffer.isEnabled();
 
   private enum ContentUpdateResponseKeys {
     SUCCESS_CONTENTS,
@@ -161,6 +159,22 @@ public class LearnerStateUpdateActor extends BaseActor {
                       .stream()
                       .map(c -> (String) c.get("contentId"))
                       .collect(Collectors.toList());
+              if (writeBehindEnabled
+                  && ContentStateWriteBehindBuffer.getInstance(ContentStateSink::new)
+                      .update(
+                          userId,
+                          batchId,
+                          courseId,
+                          input.getValue(),
+                          ids -> getContents(userId, ids, batchId),
+                          (inputContent, existingContent) ->
+                              processContent(inputContent, existingContent, userId))) {
+                contentIds.forEach(
+                    contentId -> {
+                      updateMessages(respMessages, contentId, JsonKey.SUCCESS);
+                    });
+                continue;
+              }
               Map<String, Map<String, Object>> existingContents =
                   getContents(userId, contentIds, batchId)
                       .stream()
@@ -186,7 +200,8 @@ public class LearnerStateUpdateActor extends BaseActor {
 
               cassandraOperation.batchInsert(
                   consumptionDBInfo.getKeySpace(), consumptionDBInfo.getTableName(), contents);
-              Map<String, Object> updatedBatch = getBatchCurrentStatus(batchId, userId, contents);
+              Map<String, Object> updatedBatch =
+                  getBatchCurrentStatus(batchId, userId, contents, simpleDateFormat);
               cassandraOperation.upsertRecord(
                   userCourseDBInfo.getKeySpace(), userCourseDBInfo.getTableName(), updatedBatch);
               // Generate Instruction event. Send userId, batchId, courseId, contents.
@@ -214,19 +229,7 @@ public class LearnerStateUpdateActor extends BaseActor {
   }
 
   private List<Map<String, Object>> getBatches(List<String> batchIds) {
-    Map<String, Object> filters =
-        new HashMap<String, Object>() {
-          {
-            put("batchId", batchIds);
-          }
-        };
-    SearchDTO dto = new SearchDTO();
-    dto.getAdditionalProperties().put(JsonKey.FILTERS, filters);
-    Future<Map<String, Object>> searchFuture =
-        esService.search(dto, ProjectUtil.EsType.courseBatch.getTypeName());
-    Map<String, Object> response =
-        (Map<String, Object>) ElasticSearchHelper.getResponseFromFuture(searchFuture);
-    return (List<Map<String, Object>>) response.get(JsonKey.CONTENT);
+    return new ArrayList<>(CourseBatchCache.getInstance().getAll(batchIds).values());
   }
 
   private List<Map<String, Object>> getContents(
@@ -296,13 +299,18 @@ public class LearnerStateUpdateActor extends BaseActor {
       inputContent.put(JsonKey.LAST_ACCESS_TIME, compareTime(null, inputAccessTime));
     }
     inputContent.put(JsonKey.LAST_UPDATED_TIME, ProjectUtil.getFormattedDate());
+    // indexed change time, read by incremental ES syncs
+    inputContent.put(JsonKey.LAST_UPDATED_ON, new Timestamp(System.currentTimeMillis()));
     inputContent.put("status", inputStatus);
     inputContent.put("userId", userId);
     return inputContent;
   }
 
-  private Map<String, Object> getBatchCurrentStatus(
-      String batchId, String userId, List<Map<String, Object>> contents) {
+  private static Map<String, Object> getBatchCurrentStatus(
+      String batchId,
+      String userId,
+      List<Map<String, Object>> contents,
+      SimpleDateFormat simpleDateFormat) {
     Map<String, Object> lastAccessedContent =
         contents
             .stream()
@@ -342,7 +350,7 @@ public class LearnerStateUpdateActor extends BaseActor {
     return value;
   }
 
-  private Date parseDate(Object obj, SimpleDateFormat formatter) {
+  private static Date parseDate(Object obj, SimpleDateFormat formatter) {
     if (null == obj || ((String) obj).equalsIgnoreCase(JsonKey.NULL)) {
       return null;
     }
@@ -398,7 +406,7 @@ public class LearnerStateUpdateActor extends BaseActor {
    * @param contents
    * @throws Exception
    */
-  private void pushInstructionEvent(
+  private static void pushInstructionEvent(
       String userId, String batchId, String courseId, List<Map<String, Object>> contents)
       throws Exception {
     Map<String, Object> data = new HashMap<>();
@@ -464,4 +472,50 @@ public class LearnerStateUpdateActor extends BaseActor {
               ResponseCode.CLIENT_ERROR.getResponseCode());
     }
   }
+
+  /**
+   * Persists contents flushed by {@link ContentStateWriteBehindBuffer}, with the same writes and
+   * instruction event as a synchronous update.
+   */
+  private static class ContentStateSink implements ContentStateWriteBehindBuffer.Sink {
+
+    private CassandraOperation cassandraOperation = ServiceFactory.getInstance();
+    private Util.DbInfo consumptionDBInfo = Util.dbInfoMap.get(JsonKey.LEARNER_CONTENT_DB);
+    private Util.DbInfo userCourseDBInfo = Util.dbInfoMap.get(JsonKey.LEARNER_COURSE_DB);
+    private SimpleDateFormat simpleDateFormat = ProjectUtil.getDateFormatter();
+    private int writeBatchSize = getWriteBatchSize();
+
+    @Override
+    public void writeContents(List<Map<String, Object>> contents) {
+      for (int from = 0; from < contents.size(); from += writeBatchSize) {
+        cassandraOperation.batchInsert(
+            consumptionDBInfo.getKeySpace(),
+            consumptionDBInfo.getTableName(),
+            contents.subList(from, Math.min(contents.size(), from + writeBatchSize)));
+      }
+    }
+
+    @Override
+    public void writeUserBatch(
+        String userId, String batchId, String courseId, List<Map<String, Object>> contents)
+        throws Exception {
+      cassandraOperation.upsertRecord(
+          userCourseDBInfo.getKeySpace(),
+          userCourseDBInfo.getTableName(),
+          getBatchCurrentStatus(batchId, userId, contents, simpleDateFormat));
+      pushInstructionEvent(userId, batchId, courseId, contents);
+    }
+
+    private static int getWriteBatchSize() {
+      int batchSize = ProjectUtil.DEFAULT_BATCH_SIZE;
+      try {
+        batchSize =
+            Integer.parseInt(ProjectUtil.getConfigValue(JsonKey.CASSANDRA_WRITE_BATCH_SIZE));
+      } catch (Exception ex) {
+        ProjectLogger.log(
+            "LearnerStateUpdateActor:getWriteBatchSize: Failed to read cassandra batch size", ex);
+      }
+      return batchSize;
+    }
+  }
 }
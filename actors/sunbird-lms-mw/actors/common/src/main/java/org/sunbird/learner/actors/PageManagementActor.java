@@ -4,8 +4,10 @@ import static org.sunbird.common.models.util.JsonKey.*;
 
 import akka.dispatch.Futures;
 import akka.dispatch.Mapper;
+import akka.dispatch.OnComplete;
 import akka.pattern.Patterns;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.google.common.collect.Lists;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -36,13 +38,21 @@ import org.sunbird.common.models.util.ProjectLogger;
 import org.sunbird.common.models.util.ProjectUtil;
 import org.sunbird.common.models.util.TelemetryEnvKey;
 import org.sunbird.common.request.ExecutionContext;
+import org.sunbird.common.request.HeaderParam;
 import org.sunbird.common.request.Request;
 import org.sunbird.common.responsecode.ResponseCode;
 import org.sunbird.dto.SearchDTO;
 import org.sunbird.helper.ServiceFactory;
+import org.sunbird.learner.constants.CourseJsonKey;
+import org.sunbird.learner.util.CacheInvalidationBus;
+import org.sunbird.learner.util.CompiledPage;
+import org.sunbird.learner.util.CompiledSection;
+import org.sunbird.learner.util.ConfigValueUtil;
 import org.sunbird.learner.util.ContentSearchUtil;
+import org.sunbird.learner.util.PageAssembleCache;
+import org.sunbird.learner.util.PageDeadline;
+import org.sunbird.learner.util.SingleFlight;
 import org.sunbird.learner.util.Util;
-import org.sunbird.notification.utils.JsonUtil;
 import org.sunbird.telemetry.util.TelemetryUtil;
 import org.sunbird.userorg.UserOrgService;
 import org.sunbird.userorg.UserOrgServiceImpl;
@@ -78,9 +88,17 @@ public class PageManagementActor extends BaseActor {
   private CassandraOperation cassandraOperation = ServiceFactory.getInstance();
   private ObjectMapper mapper = new ObjectMapper();
   private UserOrgService userOrgService = UserOrgServiceImpl.getInstance();
-  private boolean isCacheEnabled = false;
   private ElasticSearchService esService = EsClientFactory.getInstance(JsonKey.REST);
-  // Boolean.parseBoolean(ProjectUtil.propertiesCache.getProperty(JsonKey.SUNBIRD_CACHE_ENABLE));
+  private static final SingleFlight<String, Map<String, Object>> sectionSearches =
+      new SingleFlight<>();
+  private static final ObjectMapper sortedMapper =
+      new ObjectMapper().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+  private static final String SECTION_TIMED_OUT = "timedOut";
+  private static final String SECTION_FAILED = "failed";
+  private final long sectionTimeoutMillis =
+      ConfigValueUtil.getLong(CourseJsonKey.PAGE_SECTION_TIMEOUT_MS, 5000);
+  private final long pageTimeoutMillis =
+      ConfigValueUtil.getLong(CourseJsonKey.PAGE_ASSEMBLE_TIMEOUT_MS, 10000);
 
   @Override
   public void onReceive(Request request) throws Throwable {
@@ -204,7 +222,7 @@ public class PageManagementActor extends BaseActor {
             null);
     TelemetryUtil.telemetryProcessingCall(
         actorMessage.getRequest(), targetObject, correlatedObject);
-    // update DataCacheHandler section map with updated page section data
+    // update section map of all nodes with updated page section data
     ProjectLogger.log("Calling  updateSectionDataCache method", LoggerEnum.INFO);
     updateSectionDataCache(response, sectionMap);
   }
@@ -248,27 +266,20 @@ public class PageManagementActor extends BaseActor {
             uniqueId, TelemetryEnvKey.PAGE_SECTION, JsonKey.CREATE, null);
     TelemetryUtil.telemetryProcessingCall(
         actorMessage.getRequest(), targetObject, correlatedObject);
-    // update DataCacheHandler section map with new page section data
+    // update section map of all nodes with new page section data
     ProjectLogger.log("Calling  updateSectionDataCache method", LoggerEnum.INFO);
     updateSectionDataCache(response, sectionMap);
   }
 
   private void updateSectionDataCache(Response response, Map<String, Object> sectionMap) {
-    new Thread(
-            () -> {
-              if ((JsonKey.SUCCESS).equalsIgnoreCase((String) response.get(JsonKey.RESPONSE))) {
-                PageCacheLoaderService.putDataIntoCache(
-                    ActorOperations.GET_SECTION.getValue(),
-                    (String) sectionMap.get(JsonKey.ID),
-                    sectionMap);
-              }
-            })
-        .start();
+    if ((JsonKey.SUCCESS).equalsIgnoreCase((String) response.get(JsonKey.RESPONSE))) {
+      CacheInvalidationBus.getInstance()
+          .publish(CacheInvalidationBus.SECTION, (String) sectionMap.get(JsonKey.ID));
+    }
   }
 
   @SuppressWarnings("unchecked")
   private void getPageData(Request actorMessage) throws Exception {
-    String sectionQuery = null;
     Map<String, Object> filterMap = new HashMap<>();
     Map<String, Object> req = (Map<String, Object>) actorMessage.getRequest().get(JsonKey.PAGE);
     String pageName = (String) req.get(JsonKey.PAGE_NAME);
@@ -285,31 +296,25 @@ public class PageManagementActor extends BaseActor {
     filterMap.remove(JsonKey.CREATED_BY);
     Map<String, Object> reqFilters = (Map<String, Object>) req.get(JsonKey.FILTERS);
 
-    Map<String, Object> pageMap = getPageMapData(pageName, orgId);
-    if (null == pageMap && StringUtils.isNotBlank(orgId)) pageMap = getPageMapData(pageName, "NA");
+    CompiledPage compiledPage = getPageMapData(pageName, orgId);
+    if (null == compiledPage && StringUtils.isNotBlank(orgId)) {
+      compiledPage = getPageMapData(pageName, "NA");
+    }
 
-    if (null == pageMap) {
+    if (null == compiledPage) {
       throw new ProjectCommonException(
           ResponseCode.pageDoesNotExist.getErrorCode(),
           ResponseCode.pageDoesNotExist.getErrorMessage(),
           ResponseCode.RESOURCE_NOT_FOUND.getResponseCode());
     }
-    if (source.equalsIgnoreCase(ProjectUtil.Source.WEB.getValue())) {
-      if (null != pageMap && null != pageMap.get(JsonKey.PORTAL_MAP)) {
-        sectionQuery = (String) pageMap.get(JsonKey.PORTAL_MAP);
-      }
-    } else {
-      if (null != pageMap && null != pageMap.get(JsonKey.APP_MAP)) {
-        sectionQuery = (String) pageMap.get(JsonKey.APP_MAP);
-      }
-    }
-    Object[] arr = null;
-    try {
-      arr = mapper.readValue(sectionQuery, Object[].class);
-    } catch (Exception e) {
+    Map<String, Object> pageMap = compiledPage.getPage();
+    List<Map<String, Object>> arr =
+        source.equalsIgnoreCase(ProjectUtil.Source.WEB.getValue())
+            ? compiledPage.getPortalSections()
+            : compiledPage.getAppSections();
+    if (arr == null) {
       ProjectLogger.log(
-          "PageManagementActor:getPageData: Exception occurred with error message =  "
-              + e.getMessage(),
+          "PageManagementActor:getPageData: Invalid sections for page " + pageMap.get(JsonKey.ID),
           LoggerEnum.INFO);
       throw new ProjectCommonException(
           ResponseCode.errorInvalidPageSection.getErrorCode(),
@@ -317,93 +322,237 @@ public class PageManagementActor extends BaseActor {
           ResponseCode.CLIENT_ERROR.getResponseCode());
     }
 
-    String requestHashCode = "";
-    if (isCacheEnabled) {
+    PageAssembleCache pageAssembleCache = PageAssembleCache.getInstance();
+    String requestHashCode = null;
+    if (pageAssembleCache.isEnabled()) {
       Map<String, Object> reqMap = new HashMap<>();
+      reqMap.put(JsonKey.PAGE_ID, pageMap.get(JsonKey.ID));
       reqMap.put(JsonKey.SECTION, arr);
       reqMap.put(JsonKey.FILTERS, reqFilters);
-      reqMap.put(JsonKey.HEADER, headers);
+      reqMap.put(JsonKey.CHANNEL, getChannel(headers));
       reqMap.put(JsonKey.FILTER, filterMap);
       reqMap.put(JsonKey.URL_QUERY_STRING, urlQueryString);
-      requestHashCode = HashGeneratorUtil.getHashCode(JsonUtil.toJson(reqMap));
-      Response cachedResponse =
-          PageCacheLoaderService.getDataFromCache(
-              JsonKey.PAGE_ASSEMBLE, requestHashCode, Response.class);
-      if (StringUtils.isNotBlank(requestHashCode) && cachedResponse != null) {
+      requestHashCode = HashGeneratorUtil.getHashCode(sortedMapper.writeValueAsString(reqMap));
+      PageAssembleCache.CachedResponse cachedResponse = pageAssembleCache.get(requestHashCode);
+      if (cachedResponse != null) {
         ProjectLogger.log(
-            "PageManagementActor : getPageData : response returned from cache",
+            "PageManagementActor:getPageData: response returned from cache, refreshRequired = "
+                + cachedResponse.isRefreshRequired(),
             LoggerEnum.INFO.name());
-        sender().tell(cachedResponse, self());
+        sender().tell(cachedResponse.getResponse(), self());
+        if (cachedResponse.isRefreshRequired()) {
+          try {
+            cachePageData(
+                requestHashCode,
+                pageName,
+                pageMap,
+                arr,
+                assemblePageData(pageMap, arr, reqFilters, headers, filterMap, urlQueryString));
+          } catch (Exception e) {
+            ProjectLogger.log(
+                "PageManagementActor:getPageData: Failed to refresh cached page " + pageName, e);
+            pageAssembleCache.refreshFailed(requestHashCode);
+          }
+        }
         return;
       }
+      Future<Response> response =
+          assemblePageData(pageMap, arr, reqFilters, headers, filterMap, urlQueryString);
+      cachePageData(requestHashCode, pageName, pageMap, arr, response);
+      Patterns.pipe(response, getContext().dispatcher()).to(sender());
+      return;
     }
-    String reqHashCode = requestHashCode;
-    try {
-      List<Future<Map<String, Object>>> sectionList = new ArrayList<>();
-      if (arr != null) {
-        for (Object obj : arr) {
-          Map<String, Object> sectionMap = (Map<String, Object>) obj;
-
-          if (MapUtils.isNotEmpty(sectionMap)) {
-
-            Map<String, Object> sectionData =
-                new HashMap<String, Object>(
-                    PageCacheLoaderService.getDataFromCache(
-                        ActorOperations.GET_SECTION.getValue(),
-                        (String) sectionMap.get(JsonKey.ID),
-                        Map.class));
-            if (MapUtils.isNotEmpty(sectionData)) {
-              Future<Map<String, Object>> contentFuture =
-                  getContentData(
-                      sectionData,
-                      reqFilters,
-                      headers,
-                      filterMap,
-                      urlQueryString,
-                      sectionMap.get(JsonKey.GROUP),
-                      sectionMap.get(JsonKey.INDEX),
-                      context().dispatcher());
-              sectionList.add(contentFuture);
-            }
+    Future<Response> response =
+        assemblePageData(pageMap, arr, reqFilters, headers, filterMap, urlQueryString);
+    Patterns.pipe(response, getContext().dispatcher()).to(sender());
+  }
+
+  private Future<Response> assemblePageData(
+      Map<String, Object> pageMap,
+      List<Map<String, Object>> arr,
+      Map<String, Object> reqFilters,
+      Map<String, String> headers,
+      Map<String, Object> filterMap,
+      String urlQueryString)
+      throws Exception {
+    List<Future<Map<String, Object>>> sectionList = new ArrayList<>();
+    PageDeadline deadline =
+        new PageDeadline(
+            getContext().system().scheduler(),
+            getContext().dispatcher(),
+            pageTimeoutMillis,
+            sectionTimeoutMillis);
+    for (Map<String, Object> sectionMap : arr) {
+      if (MapUtils.isNotEmpty(sectionMap)) {
+        CompiledSection section =
+            PageCacheLoaderService.getCompiledSection((String) sectionMap.get(JsonKey.ID));
+        if (section != null) {
+          Future<Map<String, Object>> contentFuture;
+          try {
+            contentFuture =
+                getContentData(
+                    section,
+                    reqFilters,
+                    headers,
+                    filterMap,
+                    urlQueryString,
+                    sectionMap.get(JsonKey.GROUP),
+                    sectionMap.get(JsonKey.INDEX),
+                    context().dispatcher());
+          } catch (Exception e) {
+            contentFuture = Futures.failed(e);
           }
+          sectionList.add(
+              withSectionDeadline(
+                  contentFuture,
+                  section,
+                  sectionMap,
+                  (String) pageMap.get(JsonKey.ID),
+                  deadline));
         }
       }
+    }
 
-      Future<Iterable<Map<String, Object>>> sectionsFuture =
-          Futures.sequence(sectionList, getContext().dispatcher());
-      Map<String, Object> finalPageMap = pageMap;
-      Future<Response> response =
-          sectionsFuture.map(
-              new Mapper<Iterable<Map<String, Object>>, Response>() {
-                @Override
-                public Response apply(Iterable<Map<String, Object>> sections) {
-                  ArrayList<Map<String, Object>> sectionList = Lists.newArrayList(sections);
-                  Map<String, Object> result = new HashMap<>();
-                  result.put(JsonKey.NAME, finalPageMap.get(JsonKey.NAME));
-                  result.put(JsonKey.ID, finalPageMap.get(JsonKey.ID));
-                  result.put(JsonKey.SECTIONS, sectionList);
-                  Response response = new Response();
-                  response.put(JsonKey.RESPONSE, result);
-                  ProjectLogger.log(
-                      "PageManagementActor:getPageData:apply: Response before caching it = "
-                          + response,
-                      LoggerEnum.INFO);
-                  return response;
-                }
-              },
-              getContext().dispatcher());
-      Patterns.pipe(response, getContext().dispatcher()).to(sender());
+    Future<Iterable<Map<String, Object>>> sectionsFuture =
+        Futures.sequence(sectionList, getContext().dispatcher());
+    sectionsFuture.onComplete(
+        new OnComplete<Iterable<Map<String, Object>>>() {
+          @Override
+          public void onComplete(Throwable failure, Iterable<Map<String, Object>> sections) {
+            deadline.cancel();
+          }
+        },
+        getContext().dispatcher());
+    return sectionsFuture.map(
+        new Mapper<Iterable<Map<String, Object>>, Response>() {
+          @Override
+          public Response apply(Iterable<Map<String, Object>> sections) {
+            ArrayList<Map<String, Object>> sectionList = Lists.newArrayList(sections);
+            Map<String, Object> result = new HashMap<>();
+            result.put(JsonKey.NAME, pageMap.get(JsonKey.NAME));
+            result.put(JsonKey.ID, pageMap.get(JsonKey.ID));
+            result.put(JsonKey.SECTIONS, sectionList);
+            Response response = new Response();
+            response.put(JsonKey.RESPONSE, result);
+            ProjectLogger.log(
+                "PageManagementActor:getPageData:apply: Response before caching it = " + response,
+                LoggerEnum.INFO);
+            ProjectLogger.log(
+                "PageManagementActor:getPageData:apply: Section search metrics = "
+                    + sectionSearches.getMetrics(),
+                LoggerEnum.INFO);
+            return response;
+          }
+        },
+        getContext().dispatcher());
+  }
 
-    } catch (Exception e) {
-      ProjectLogger.log(
-          "PageManagementActor:getPageData: Exception occurred with error message = "
-              + e.getMessage(),
-          LoggerEnum.ERROR);
-      ProjectLogger.log(
-          "PageManagementActor:getPageData: Exception occurred with error message = "
-              + e.getMessage(),
-          e);
+  /**
+   * Completes with the section data, or with the section marked as timed out or failed if its
+   * search does not succeed before the section timeout or the page deadline, so that one section
+   * cannot fail or stall the whole page. The latency of each section search is logged when it
+   * completes.
+   */
+  private Future<Map<String, Object>> withSectionDeadline(
+      Future<Map<String, Object>> contentFuture,
+      CompiledSection section,
+      Map<String, Object> sectionMap,
+      String pageId,
+      PageDeadline deadline) {
+    String sectionId = (String) sectionMap.get(JsonKey.ID);
+    long startTime = System.currentTimeMillis();
+    contentFuture.onComplete(
+        new OnComplete<Map<String, Object>>() {
+          @Override
+          public void onComplete(Throwable failure, Map<String, Object> result) {
+            long elapsed = System.currentTimeMillis() - startTime;
+            ProjectLogger.log(
+                "PageManagementActor:withSectionDeadline: pageId = "
+                    + pageId
+                    + ", sectionId = "
+                    + sectionId
+                    + ", status = "
+                    + (failure == null ? "success" : SECTION_FAILED)
+                    + ", timedOut = "
+                    + (elapsed > sectionTimeoutMillis || deadline.isExpired())
+                    + ", latency = "
+                    + elapsed
+                    + " ms",
+                LoggerEnum.INFO.name());
+          }
+        },
+        getContext().dispatcher());
+    return deadline.limit(
+        contentFuture,
+        failure -> {
+          ProjectLogger.log(
+              "PageManagementActor:withSectionDeadline: Search failed for section " + sectionId,
+              failure);
+          return getIncompleteSection(section, sectionMap, SECTION_FAILED);
+        },
+        () -> getIncompleteSection(section, sectionMap, SECTION_TIMED_OUT));
+  }
+
+  private Map<String, Object> getIncompleteSection(
+      CompiledSection section, Map<String, Object> sectionMap, String status) {
+    Map<String, Object> sectionData = section.newSectionData();
+    sectionData.put(JsonKey.GROUP, sectionMap.get(JsonKey.GROUP));
+    sectionData.put(JsonKey.INDEX, sectionMap.get(JsonKey.INDEX));
+    removeUnwantedData(sectionData, "getPageData");
+    sectionData.put(CourseJsonKey.SECTION_STATUS, status);
+    return sectionData;
+  }
+
+  /**
+   * Writes the assembled page into the page assemble cache once it is available. The response is
+   * cached against the page name, page ID and section IDs so that it can be invalidated when any
+   * of them changes.
+   */
+  private void cachePageData(
+      String requestHashCode,
+      String pageName,
+      Map<String, Object> pageMap,
+      List<Map<String, Object>> arr,
+      Future<Response> response) {
+    PageAssembleCache pageAssembleCache = PageAssembleCache.getInstance();
+    long version = pageAssembleCache.getVersion();
+    Set<String> dependencies = new HashSet<>();
+    dependencies.add(pageName);
+    dependencies.add((String) pageMap.get(JsonKey.ID));
+    for (Map<String, Object> sectionMap : arr) {
+      if (sectionMap != null) {
+        dependencies.add((String) sectionMap.get(JsonKey.ID));
+      }
     }
+    response.onComplete(
+        new OnComplete<Response>() {
+          @Override
+          public void onComplete(Throwable failure, Response result) {
+            if (failure == null && !isPartialPage(result)) {
+              pageAssembleCache.put(requestHashCode, pageName, dependencies, result, version);
+            } else if (failure == null) {
+              pageAssembleCache.refreshFailed(requestHashCode);
+            } else {
+              ProjectLogger.log(
+                  "PageManagementActor:cachePageData: Failed to assemble page " + pageName,
+                  failure);
+              pageAssembleCache.refreshFailed(requestHashCode);
+            }
+          }
+        },
+        getContext().dispatcher());
+  }
+
+  /** Pages with timed out or failed sections are not cached. */
+  @SuppressWarnings("unchecked")
+  private boolean isPartialPage(Response response) {
+    Map<String, Object> result = (Map<String, Object>) response.get(JsonKey.RESPONSE);
+    for (Map<String, Object> section : (List<Map<String, Object>>) result.get(JsonKey.SECTIONS)) {
+      if (section.containsKey(CourseJsonKey.SECTION_STATUS)) {
+        return true;
+      }
+    }
+    return false;
   }
 
   @SuppressWarnings("unchecked")
@@ -540,7 +689,7 @@ public class PageManagementActor extends BaseActor {
             (String) pageMap.get(JsonKey.ID), JsonKey.PAGE, JsonKey.CREATE, null);
     TelemetryUtil.telemetryProcessingCall(
         actorMessage.getRequest(), targetObject, correlatedObject);
-    // update DataCacheHandler page map with updated page data
+    // update page map of all nodes with updated page data
     ProjectLogger.log(
         "Calling updatePageDataCacheHandler while updating page data ", LoggerEnum.INFO);
     updatePageDataCacheHandler(response, pageMap);
@@ -608,26 +757,16 @@ public class PageManagementActor extends BaseActor {
   }
 
   private void updatePageDataCacheHandler(Response response, Map<String, Object> pageMap) {
-    // update DataCacheHandler page map with new page data
-    new Thread(
-            () -> {
-              if (JsonKey.SUCCESS.equalsIgnoreCase((String) response.get(JsonKey.RESPONSE))) {
-                String orgId = "NA";
-                if (pageMap.containsKey(JsonKey.ORGANISATION_ID)) {
-                  orgId = (String) pageMap.get(JsonKey.ORGANISATION_ID);
-                }
-                PageCacheLoaderService.putDataIntoCache(
-                    ActorOperations.GET_PAGE_DATA.getValue(),
-                    orgId + ":" + (String) pageMap.get(JsonKey.PAGE_NAME),
-                    pageMap);
-              }
-            })
-        .start();
+    // update page map of all nodes with new page data
+    if (JsonKey.SUCCESS.equalsIgnoreCase((String) response.get(JsonKey.RESPONSE))) {
+      CacheInvalidationBus.getInstance()
+          .publish(CacheInvalidationBus.PAGE, (String) pageMap.get(JsonKey.ID));
+    }
   }
 
   @SuppressWarnings("unchecked")
   private Future<Map<String, Object>> getContentData(
-      Map<String, Object> section,
+      CompiledSection compiledSection,
       Map<String, Object> reqFilters,
       Map<String, String> headers,
       Map<String, Object> filterMap,
@@ -637,12 +776,8 @@ public class PageManagementActor extends BaseActor {
       ExecutionContextExecutor ec)
       throws Exception {
 
-    Map<String, Object> searchQueryMap =
-        mapper.readValue((String) section.get(JsonKey.SEARCH_QUERY), HashMap.class);
-    if (MapUtils.isEmpty(searchQueryMap)) {
-      searchQueryMap = new HashMap<String, Object>();
-      searchQueryMap.put(JsonKey.REQUEST, new HashMap<String, Object>());
-    }
+    Map<String, Object> section = compiledSection.newSectionData();
+    Map<String, Object> searchQueryMap = compiledSection.newSearchQuery();
     Map<String, Object> request = (Map<String, Object>) searchQueryMap.get(JsonKey.REQUEST);
 
     for (Entry<String, Object> entry : filterMap.entrySet()) {
@@ -653,20 +788,27 @@ public class PageManagementActor extends BaseActor {
     request.put("limit", 10);
 
     Map<String, Object> filters = (Map<String, Object>) request.get(JsonKey.FILTERS);
+    if (null == filters && MapUtils.isNotEmpty(reqFilters)) {
+      filters = new HashMap<>();
+      request.put(JsonKey.FILTERS, filters);
+    }
 
     applyFilters(filters, reqFilters);
-    String queryRequestBody = mapper.writeValueAsString(searchQueryMap);
-    if (StringUtils.isBlank(queryRequestBody)) {
-      queryRequestBody = (String) section.get(JsonKey.SEARCH_QUERY);
-    }
+    // Serialized once, with sorted keys so that it also identifies identical section searches
+    String queryRequestBody = sortedMapper.writeValueAsString(searchQueryMap);
 
     Future<Map<String, Object>> result = null;
     String dataSource = (String) section.get(JsonKey.DATA_SOURCE);
     section.put(JsonKey.GROUP, group);
     section.put(JsonKey.INDEX, index);
     if (StringUtils.isEmpty(dataSource) || JsonKey.CONTENT.equalsIgnoreCase(dataSource)) {
-
-      result = ContentSearchUtil.searchContent(urlQueryString, queryRequestBody, headers, ec);
+      result =
+          sectionSearches.execute(
+              getSectionSearchKey(urlQueryString, queryRequestBody, headers),
+              () ->
+                  ContentSearchUtil.searchContent(
+                      urlQueryString, queryRequestBody, headers, ec),
+              ec);
       return result.map(
           new Mapper<Map<String, Object>, Map<String, Object>>() {
             @Override
@@ -699,6 +841,26 @@ public class PageManagementActor extends BaseActor {
     }
   }
 
+  /**
+   * Returns the key identifying identical section searches: the URL query string, the channel
+   * header and the search request body, which is serialized with its map entries sorted by key.
+   */
+  private String getSectionSearchKey(
+      String urlQueryString, String searchRequestBody, Map<String, String> headers) {
+    return urlQueryString + "|" + getChannel(headers) + "|" + searchRequestBody;
+  }
+
+  private String getChannel(Map<String, String> headers) {
+    if (headers != null) {
+      for (Entry<String, String> header : headers.entrySet()) {
+        if (HeaderParam.CHANNEL_ID.getName().equalsIgnoreCase(header.getKey())) {
+          return header.getValue();
+        }
+      }
+    }
+    return null;
+  }
+
   private Map<String, Object> searchFromES(Map<String, Object> map, String dataSource) {
     SearchDTO searcDto = new SearchDTO();
     searcDto.setQuery((String) map.get(JsonKey.QUERY));
@@ -837,17 +999,13 @@ public class PageManagementActor extends BaseActor {
     }
   }
 
-  private Map<String, Object> getPageMapData(String pageName, String orgId) {
+  private CompiledPage getPageMapData(String pageName, String orgId) {
     /** if orgId is not then consider default page */
     if (StringUtils.isBlank(orgId)) {
       orgId = "NA";
     }
     ProjectLogger.log(
         "Fetching data from Cache for " + orgId + ":" + pageName, LoggerEnum.INFO.name());
-    Map<String, Object> pageMapData =
-        PageCacheLoaderService.getDataFromCache(
-            ActorOperations.GET_PAGE_DATA.getValue(), orgId + ":" + pageName, Map.class);
-
-    return pageMapData;
+    return PageCacheLoaderService.getCompiledPage(orgId + ":" + pageName);
   }
 }
@@ -8,6 +8,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.ArrayUtils;
@@ -142,9 +143,24 @@ public abstract class BaseBulkUploadActor extends BaseActor {
   }
 
   public List<String[]> parseCsvFile(byte[] byteArray, String processId) throws IOException {
-    CSVReader csvReader = null;
     // Create List for holding objects
     List<String[]> rows = new ArrayList<>();
+    readCsvFile(byteArray, processId, rows::add);
+    return rows;
+  }
+
+  /**
+   * Method to read the non empty lines of a csv file one at a time, without holding all lines in
+   * memory. A line which can not be parsed marks the bulk upload process as failed.
+   *
+   * @param byteArray represents the content of file in bytes.
+   * @param processId Bulk upload process ID.
+   * @param rowConsumer Consumer called with each line, in file order.
+   * @throws IOException
+   */
+  public void readCsvFile(byte[] byteArray, String processId, Consumer<String[]> rowConsumer)
+      throws IOException {
+    CSVReader csvReader = null;
     try {
       csvReader = getCsvReader(byteArray, ',', '"', 0);
       String[] strArray;
@@ -153,12 +169,10 @@ public abstract class BaseBulkUploadActor extends BaseActor {
         if (ProjectUtil.isNotEmptyStringArray(strArray)) {
           continue;
         }
-        List<String> list = new ArrayList<>();
-        for (String token : strArray) {
-          list.add(token);
-        }
-        rows.add(list.toArray(list.toArray(new String[strArray.length])));
+        rowConsumer.accept(strArray);
       }
+    } catch (ProjectCommonException ex) {
+      throw ex;
     } catch (Exception ex) {
       ProjectLogger.log("Exception occurred while processing csv file : ", ex);
       BulkUploadProcess bulkUploadProcess =
@@ -172,7 +186,6 @@ public abstract class BaseBulkUploadActor extends BaseActor {
         ProjectLogger.log("Exception occurred while closing csv reader : ", e);
       }
     }
-    return rows;
   }
 
   /**
@@ -1,5 +1,9 @@
 package org.sunbird.learner.actors.bulkupload;
 
+import akka.actor.ActorRef;
+import akka.actor.Cancellable;
+import com.datastax.driver.core.SimpleStatement;
+import com.datastax.driver.core.Statement;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.IOException;
@@ -8,15 +12,25 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
 import org.sunbird.actor.core.BaseActor;
 import org.sunbird.actor.router.ActorConfig;
-import org.sunbird.cassandra.CassandraOperation;
 import org.sunbird.common.ElasticSearchHelper;
+import org.sunbird.cassandra.CassandraOperation;
 import org.sunbird.common.factory.EsClientFactory;
 import org.sunbird.common.inf.ElasticSearchService;
 import org.sunbird.common.models.response.Response;
@@ -31,15 +45,25 @@ import org.sunbird.common.request.ExecutionContext;
 import org.sunbird.common.request.Request;
 import org.sunbird.common.responsecode.ResponseCode;
 import org.sunbird.helper.ServiceFactory;
+import org.sunbird.learner.actors.bulkupload.dao.BulkUploadProcessResultDao;
+import org.sunbird.learner.actors.bulkupload.dao.BulkUploadProcessTaskDao;
+import org.sunbird.learner.actors.bulkupload.dao.impl.BulkUploadProcessResultDaoImpl;
+import org.sunbird.learner.actors.bulkupload.dao.impl.BulkUploadProcessTaskDaoImpl;
+import org.sunbird.learner.actors.bulkupload.model.BulkUploadProcessResult;
+import org.sunbird.learner.actors.bulkupload.model.BulkUploadProcessTask;
 import org.sunbird.learner.actors.coursebatch.dao.UserCoursesDao;
 import org.sunbird.learner.actors.coursebatch.dao.impl.UserCoursesDaoImpl;
 import org.sunbird.learner.actors.coursebatch.service.UserCoursesService;
+import org.sunbird.learner.constants.CourseJsonKey;
+import org.sunbird.learner.util.ConfigValueUtil;
+import org.sunbird.learner.util.CourseBatchCache;
 import org.sunbird.learner.util.Util;
 import org.sunbird.models.user.courses.UserCourses;
 import org.sunbird.telemetry.util.TelemetryUtil;
 import org.sunbird.userorg.UserOrgService;
 import org.sunbird.userorg.UserOrgServiceImpl;
 import scala.concurrent.Future;
+import scala.concurrent.duration.FiniteDuration;
 
 /**
  * This actor will handle bulk upload operation .
@@ -48,17 +72,72 @@ import scala.concurrent.Future;
  */
 @ActorConfig(
   tasks = {},
-  asyncTasks = {"processBulkUpload"}
+  asyncTasks = {"processBulkUpload", "resumeBulkUpload"}
 )
 public class BulkUploadBackGroundJobActor extends BaseActor {
 
+  public static final String RESUME_BULK_UPLOAD = "resumeBulkUpload";
+  private static final long DEFAULT_RESUME_INTERVAL_MS = 60000L;
+  private static final long DEFAULT_RESUME_AFTER_MS = 600000L;
+  // chunked processes being processed in this JVM, a resume never runs them twice
+  private static final Set<String> runningProcesses = ConcurrentHashMap.newKeySet();
+  private static final int DEFAULT_WRITE_PARALLELISM = 4;
+  private static final ExecutorService enrollmentExecutor =
+      Executors.newFixedThreadPool(
+          Math.max(
+              1,
+              ConfigValueUtil.getInt(
+                  CourseJsonKey.ENROLLMENT_WRITE_PARALLELISM, DEFAULT_WRITE_PARALLELISM)),
+          runnable -> {
+            Thread thread = new Thread(runnable, "bulk-enrollment-writer");
+            thread.setDaemon(true);
+            return thread;
+          });
+
   private String processId = "";
+  // read per process, so that the mode can be changed without a restart
+  private boolean batchedMode = false;
   private final Util.DbInfo bulkDb = Util.dbInfoMap.get(JsonKey.BULK_OP_DB);
   private final CassandraOperation cassandraOperation = ServiceFactory.getInstance();
   private ObjectMapper mapper = new ObjectMapper();
   private static ElasticSearchService esService = EsClientFactory.getInstance(JsonKey.REST);
   private UserCoursesDao userCourseDao = UserCoursesDaoImpl.getInstance();
   private UserOrgService userOrgService = UserOrgServiceImpl.getInstance();
+  private BulkUploadProcessTaskDao bulkUploadTaskDao = new BulkUploadProcessTaskDaoImpl();
+  private BulkUploadProcessResultDao bulkUploadResultDao = new BulkUploadProcessResultDaoImpl();
+  private Cancellable resumeSchedule = null;
+
+  @Override
+  public void preStart() throws Exception {
+    super.preStart();
+    long intervalMillis =
+        ConfigValueUtil.getLong(
+            CourseJsonKey.BULK_UPLOAD_RESUME_INTERVAL_MS, DEFAULT_RESUME_INTERVAL_MS);
+    if (intervalMillis > 0) {
+      FiniteDuration interval = FiniteDuration.create(intervalMillis, TimeUnit.MILLISECONDS);
+      Request request = new Request();
+      request.setOperation(RESUME_BULK_UPLOAD);
+      resumeSchedule =
+          getContext()
+              .system()
+              .scheduler()
+              .schedule(
+                  interval,
+                  interval,
+                  self(),
+                  request,
+                  getContext().dispatcher(),
+                  ActorRef.noSender());
+    }
+  }
+
+  @Override
+  public void postStop() throws Exception {
+    if (resumeSchedule != null) {
+      resumeSchedule.cancel();
+    }
+    super.postStop();
+  }
 
   @Override
   public void onReceive(Request request) throws Throwable {
@@ -66,6 +145,8 @@ public class BulkUploadBackGroundJobActor extends BaseActor {
     ExecutionContext.setRequestId(request.getRequestId());
     if (request.getOperation().equalsIgnoreCase(ActorOperations.PROCESS_BULK_UPLOAD.getValue())) {
       process(request);
+    } else if (RESUME_BULK_UPLOAD.equals(request.getOperation())) {
+      resumeStalledProcesses();
     } else {
       onReceiveUnsupportedOperation(request.getOperation());
     }
@@ -73,10 +154,22 @@ public class BulkUploadBackGroundJobActor extends BaseActor {
 
   private void process(Request actorMessage) {
     processId = (String) actorMessage.get(JsonKey.PROCESS_ID);
+    batchedMode =
+        Boolean.parseBoolean(
+            ProjectUtil.getConfigValue(CourseJsonKey.BULK_ENROLLMENT_BATCHED_MODE));
     Map<String, Object> dataMap = getBulkData(processId);
     int status = (int) dataMap.get(JsonKey.STATUS);
     if (!(status == (ProjectUtil.BulkProcessStatus.COMPLETED.getValue())
         || status == (ProjectUtil.BulkProcessStatus.INTERRUPT.getValue()))) {
+      String objectType = (String) dataMap.get(JsonKey.OBJECT_TYPE);
+      Integer taskCount = getInteger(dataMap, CourseJsonKey.TASK_COUNT);
+      if (taskCount != null) {
+        if (JsonKey.BATCH_LEARNER_ENROL.equalsIgnoreCase(objectType)
+            || JsonKey.BATCH_LEARNER_UNENROL.equalsIgnoreCase(objectType)) {
+          processBatchEnrollmentTasks(processId, objectType, taskCount);
+        }
+        return;
+      }
       TypeReference<List<Map<String, Object>>> mapType =
           new TypeReference<List<Map<String, Object>>>() {};
       List<Map<String, Object>> jsonList = null;
@@ -103,67 +196,287 @@ public class BulkUploadBackGroundJobActor extends BaseActor {
     List<Map<String, Object>> successResultList = new ArrayList<>();
     List<Map<String, Object>> failureResultList = new ArrayList<>();
 
-    Map<String, Object> successListMap = null;
-    Map<String, Object> failureListMap = null;
     for (Map<String, Object> batchMap : jsonList) {
-      successListMap = new HashMap<>();
-      failureListMap = new HashMap<>();
-      Map<String, Object> tempFailList = new HashMap<>();
-      Map<String, Object> tempSuccessList = new HashMap<>();
-
-      String batchId = (String) batchMap.get(JsonKey.BATCH_ID);
-      Future<Map<String, Object>> resultF =
-          esService.getDataByIdentifier(ProjectUtil.EsType.courseBatch.getTypeName(), batchId);
-      Map<String, Object> courseBatchObject =
-          (Map<String, Object>) ElasticSearchHelper.getResponseFromFuture(resultF);
-      String msg = validateBatchInfo(courseBatchObject);
-      if (msg.equals(JsonKey.SUCCESS)) {
-        try {
-          List<String> userList =
-              new ArrayList<>(
-                  Arrays.asList((((String) batchMap.get(JsonKey.USER_IDs)).split(","))));
-          if (JsonKey.BATCH_LEARNER_ENROL.equalsIgnoreCase(objectType)) {
+      processBatchRow(batchMap, objectType, successResultList, failureResultList);
+    }
+
+    // Insert record to BulkDb table
+    Map<String, Object> map = new HashMap<>();
+    map.put(JsonKey.ID, processId);
+    map.put(JsonKey.SUCCESS_RESULT, ProjectUtil.convertMapToJsonString(successResultList));
+    map.put(JsonKey.FAILURE_RESULT, ProjectUtil.convertMapToJsonString(failureResultList));
+    map.put(JsonKey.PROCESS_END_TIME, ProjectUtil.getFormattedDate());
+    map.put(JsonKey.STATUS, ProjectUtil.BulkProcessStatus.COMPLETED.getValue());
+    try {
+      cassandraOperation.updateRecord(bulkDb.getKeySpace(), bulkDb.getTableName(), map);
+    } catch (Exception e) {
+      ProjectLogger.log(
+          "Exception Occurred while updating bulk_upload_process in BulkUploadBackGroundJobActor : ",
+          e);
+    }
+  }
+
+  /**
+   * Enrols or unenrols the users of one csv row and adds the outcome to the given result lists.
+   * Failures of the row are recorded in the failure list instead of being thrown.
+   */
+  @SuppressWarnings("unchecked")
+  private void processBatchRow(
+      Map<String, Object> batchMap,
+      String objectType,
+      List<Map<String, Object>> successResultList,
+      List<Map<String, Object>> failureResultList) {
+    Map<String, Object> successListMap = new HashMap<>();
+    Map<String, Object> failureListMap = new HashMap<>();
+    Map<String, Object> tempFailList = new HashMap<>();
+    Map<String, Object> tempSuccessList = new HashMap<>();
+
+    String batchId = (String) batchMap.get(JsonKey.BATCH_ID);
+    Map<String, Object> courseBatchObject = CourseBatchCache.getInstance().get(batchId);
+    String msg = validateBatchInfo(courseBatchObject);
+    if (msg.equals(JsonKey.SUCCESS)) {
+      try {
+        List<String> userList =
+            new ArrayList<>(
+                Arrays.asList((((String) batchMap.get(JsonKey.USER_IDs)).split(","))));
+        if (JsonKey.BATCH_LEARNER_ENROL.equalsIgnoreCase(objectType)) {
+          if (batchedMode) {
+            validateBatchUserListAndAddInChunks(
+                courseBatchObject, batchId, userList, tempFailList, tempSuccessList);
+          } else {
             validateBatchUserListAndAdd(
                 courseBatchObject, batchId, userList, tempFailList, tempSuccessList);
-          } else if (JsonKey.BATCH_LEARNER_UNENROL.equalsIgnoreCase(objectType)) {
+          }
+        } else if (JsonKey.BATCH_LEARNER_UNENROL.equalsIgnoreCase(objectType)) {
+          if (batchedMode) {
+            validateBatchUserListAndRemoveInChunks(
+                batchId, userList, tempFailList, tempSuccessList);
+          } else {
             validateBatchUserListAndRemove(
                 courseBatchObject, batchId, userList, tempFailList, tempSuccessList);
           }
-          failureListMap.put(batchId, tempFailList.get(JsonKey.FAILURE_RESULT));
-          successListMap.put(batchId, tempSuccessList.get(JsonKey.SUCCESS_RESULT));
-        } catch (Exception ex) {
-          ProjectLogger.log("Exception Occurred while bulk enrollment : batchId=" + batchId, ex);
-          batchMap.put(JsonKey.ERROR_MSG, ex.getMessage());
-          failureResultList.add(batchMap);
         }
-      } else {
-        batchMap.put(JsonKey.ERROR_MSG, msg);
+        failureListMap.put(batchId, tempFailList.get(JsonKey.FAILURE_RESULT));
+        successListMap.put(batchId, tempSuccessList.get(JsonKey.SUCCESS_RESULT));
+      } catch (Exception ex) {
+        ProjectLogger.log("Exception Occurred while bulk enrollment : batchId=" + batchId, ex);
+        batchMap.put(JsonKey.ERROR_MSG, ex.getMessage());
         failureResultList.add(batchMap);
       }
-      if (!successListMap.isEmpty()) {
-        successResultList.add(successListMap);
+    } else {
+      batchMap.put(JsonKey.ERROR_MSG, msg);
+      failureResultList.add(batchMap);
+    }
+    if (!successListMap.isEmpty()) {
+      successResultList.add(successListMap);
+    }
+    if (!failureListMap.isEmpty()) {
+      failureResultList.add(failureListMap);
+    }
+  }
+
+  /**
+   * Processes the chunks of a process in sequence ID order. The results of a chunk are saved before
+   * the chunk is marked completed and the process counts are updated after it, so an interrupted
+   * process continues with the first chunk that is not completed.
+   */
+  private void processBatchEnrollmentTasks(String processId, String objectType, int taskCount) {
+    if (!runningProcesses.add(processId)) {
+      ProjectLogger.log(
+          "BulkUploadBackGroundJobActor:processBatchEnrollmentTasks: Process already running "
+              + processId,
+          LoggerEnum.INFO.name());
+      return;
+    }
+    try {
+      Set<Integer> completedTasks = new HashSet<>();
+      int successCount = 0;
+      int failureCount = 0;
+      for (BulkUploadProcessTask task : bulkUploadTaskDao.readProgress(processId)) {
+        if (Integer.valueOf(ProjectUtil.BulkProcessStatus.COMPLETED.getValue())
+            .equals(task.getStatus())) {
+          completedTasks.add(task.getSequenceId());
+          successCount += nullToZero(task.getSuccessCount());
+          failureCount += nullToZero(task.getFailureCount());
+        }
       }
-      if (!failureListMap.isEmpty()) {
-        failureResultList.add(failureListMap);
+      for (int sequenceId = 0; sequenceId < taskCount; sequenceId++) {
+        if (completedTasks.contains(sequenceId)) {
+          continue;
+        }
+        BulkUploadProcessTask task = bulkUploadTaskDao.read(processId, sequenceId);
+        List<Map<String, Object>> successResultList = new ArrayList<>();
+        List<Map<String, Object>> failureResultList = new ArrayList<>();
+        for (Map<String, Object> batchMap : readTaskData(task)) {
+          processBatchRow(batchMap, objectType, successResultList, failureResultList);
+        }
+        BulkUploadProcessResult chunkResult = new BulkUploadProcessResult();
+        chunkResult.setProcessId(processId);
+        chunkResult.setSequenceId(sequenceId);
+        chunkResult.setSuccessResult(ProjectUtil.convertMapToJsonString(successResultList));
+        chunkResult.setFailureResult(ProjectUtil.convertMapToJsonString(failureResultList));
+        bulkUploadResultDao.create(chunkResult);
+        BulkUploadProcessTask result = new BulkUploadProcessTask();
+        result.setProcessId(processId);
+        result.setSequenceId(sequenceId);
+        result.setStatus(ProjectUtil.BulkProcessStatus.COMPLETED.getValue());
+        result.setSuccessCount(countResults(successResultList));
+        result.setFailureCount(countResults(failureResultList));
+        bulkUploadTaskDao.update(result);
+        completedTasks.add(sequenceId);
+        successCount += result.getSuccessCount();
+        failureCount += result.getFailureCount();
+        updateProgress(processId, completedTasks.size(), successCount, failureCount, null);
       }
+      Map<String, Object> map = new HashMap<>();
+      map.put(JsonKey.PROCESS_END_TIME, ProjectUtil.getFormattedDate());
+      map.put(JsonKey.STATUS, ProjectUtil.BulkProcessStatus.COMPLETED.getValue());
+      updateProgress(processId, taskCount, successCount, failureCount, map);
+    } finally {
+      runningProcesses.remove(processId);
     }
+  }
 
-    // Insert record to BulkDb table
+  private List<Map<String, Object>> readTaskData(BulkUploadProcessTask task) {
+    if (task == null || task.getData() == null) {
+      return new ArrayList<>();
+    }
+    try {
+      return mapper.readValue(task.getData(), new TypeReference<List<Map<String, Object>>>() {});
+    } catch (IOException e) {
+      ProjectLogger.log(
+          "BulkUploadBackGroundJobActor:readTaskData: Exception occurred while reading chunk "
+              + task.getSequenceId()
+              + " of process "
+              + task.getProcessId(),
+          e);
+      return new ArrayList<>();
+    }
+  }
+
+  /** Counts one result per user, or one per row that failed as a whole. */
+  private int countResults(List<Map<String, Object>> resultList) {
+    int count = 0;
+    for (Map<String, Object> result : resultList) {
+      if (result.containsKey(JsonKey.ERROR_MSG)) {
+        count++;
+        continue;
+      }
+      for (Object userResults : result.values()) {
+        if (userResults instanceof List) {
+          count += ((List) userResults).size();
+        }
+      }
+    }
+    return count;
+  }
+
+  private void updateProgress(
+      String processId,
+      int completedTaskCount,
+      int successCount,
+      int failureCount,
+      Map<String, Object> attributes) {
     Map<String, Object> map = new HashMap<>();
+    if (attributes != null) {
+      map.putAll(attributes);
+    }
     map.put(JsonKey.ID, processId);
-    map.put(JsonKey.SUCCESS_RESULT, ProjectUtil.convertMapToJsonString(successResultList));
-    map.put(JsonKey.FAILURE_RESULT, ProjectUtil.convertMapToJsonString(failureResultList));
-    map.put(JsonKey.PROCESS_END_TIME, ProjectUtil.getFormattedDate());
-    map.put(JsonKey.STATUS, ProjectUtil.BulkProcessStatus.COMPLETED.getValue());
+    map.put(CourseJsonKey.COMPLETED_TASK_COUNT, completedTaskCount);
+    map.put(CourseJsonKey.SUCCESS_COUNT, successCount);
+    map.put(CourseJsonKey.FAILURE_COUNT, failureCount);
+    map.put(JsonKey.LAST_UPDATED_ON, new Timestamp(System.currentTimeMillis()));
+    cassandraOperation.updateRecord(bulkDb.getKeySpace(), bulkDb.getTableName(), map);
+  }
+
+  /**
+   * Sends the chunked processes that are not completed and have not been updated within {@code
+   * sunbird_bulk_upload_resume_after_ms} back for processing, e.g. after a restart of the service.
+   * A process is only resumed by the node which claims it.
+   */
+  @SuppressWarnings("unchecked")
+  private void resumeStalledProcesses() {
+    long staleBefore =
+        System.currentTimeMillis()
+            - ConfigValueUtil.getLong(
+                CourseJsonKey.BULK_UPLOAD_RESUME_AFTER_MS, DEFAULT_RESUME_AFTER_MS);
+    for (int status :
+        Arrays.asList(
+            ProjectUtil.BulkProcessStatus.NEW.getValue(),
+            ProjectUtil.BulkProcessStatus.IN_PROGRESS.getValue())) {
+      Response response =
+          cassandraOperation.getRecordsByProperty(
+              bulkDb.getKeySpace(), bulkDb.getTableName(), JsonKey.STATUS, status);
+      List<Map<String, Object>> processes =
+          (List<Map<String, Object>>) response.get(JsonKey.RESPONSE);
+      if (CollectionUtils.isEmpty(processes)) {
+        continue;
+      }
+      for (Map<String, Object> process : processes) {
+        String id = (String) process.get(JsonKey.ID);
+        if (getInteger(process, CourseJsonKey.TASK_COUNT) == null
+            || runningProcesses.contains(id)) {
+          continue;
+        }
+        Object lastUpdatedOn = getValue(process, JsonKey.LAST_UPDATED_ON);
+        if (lastUpdatedOn instanceof Date && ((Date) lastUpdatedOn).getTime() > staleBefore) {
+          continue;
+        }
+        if (!claimProcess(id, lastUpdatedOn)) {
+          continue;
+        }
+        ProjectLogger.log(
+            "BulkUploadBackGroundJobActor:resumeStalledProcesses: Resuming process " + id,
+            LoggerEnum.INFO.name());
+        Request request = new Request();
+        request.put(JsonKey.PROCESS_ID, id);
+        request.setOperation(ActorOperations.PROCESS_BULK_UPLOAD.getValue());
+        self().tell(request, ActorRef.noSender());
+      }
+    }
+  }
+
+  /**
+   * Claims a stalled process for this node by moving its last update time with a lightweight
+   * transaction, which only applies if no other node has updated the process since it was read. A
+   * process which is still running on another node stays with it, as each completed chunk updates
+   * the last update time.
+   *
+   * @return True if this node may resume the process
+   */
+  private boolean claimProcess(String id, Object lastUpdatedOn) {
     try {
-      cassandraOperation.updateRecord(bulkDb.getKeySpace(), bulkDb.getTableName(), map);
+      Statement claim =
+          new SimpleStatement(
+              "UPDATE "
+                  + bulkDb.getKeySpace()
+                  + "."
+                  + bulkDb.getTableName()
+                  + " SET lastupdatedon = ? WHERE id = ? IF lastupdatedon = ?",
+              new Date(),
+              id,
+              lastUpdatedOn instanceof Date ? lastUpdatedOn : null);
+      return Util.getSession(bulkDb.getKeySpace()).execute(claim).wasApplied();
     } catch (Exception e) {
       ProjectLogger.log(
-          "Exception Occurred while updating bulk_upload_process in BulkUploadBackGroundJobActor : ",
-          e);
+          "BulkUploadBackGroundJobActor:claimProcess: Failed to claim process " + id, e);
+      return false;
     }
   }
 
+  private Object getValue(Map<String, Object> map, String key) {
+    return map.containsKey(key) ? map.get(key) : map.get(key.toLowerCase());
+  }
+
+  private Integer getInteger(Map<String, Object> map, String key) {
+    Object value = getValue(map, key);
+    return value instanceof Number ? ((Number) value).intValue() : null;
+  }
+
+  private int nullToZero(Integer value) {
+    return value == null ? 0 : value;
+  }
+
   @SuppressWarnings("unchecked")
   private void validateBatchUserListAndAdd(
       Map<String, Object> courseBatchObject,
@@ -217,6 +530,370 @@ public class BulkUploadBackGroundJobActor extends BaseActor {
     failList.put(JsonKey.FAILURE_RESULT, failedUserList);
   }
 
+  /**
+   * Same as {@link #validateBatchUserListAndAdd(Map, String, List, Map, Map)} with the same
+   * results, but reads the existing user courses with one query per chunk of users and writes
+   * inserts and updates as batch statements. A user is only reported as enrolled once its write
+   * succeeded. Chunks are written in parallel, bounded by {@code
+   * sunbird_enrollment_write_parallelism}.
+   */
+  @SuppressWarnings("unchecked")
+  private void validateBatchUserListAndAddInChunks(
+      Map<String, Object> courseBatchObject,
+      String batchId,
+      List<String> userIds,
+      Map<String, Object> failList,
+      Map<String, Object> successList) {
+    List<Map<String, Object>> failedUserList = new ArrayList<>();
+    List<Map<String, Object>> passedUserList = new ArrayList<>();
+    List<String> createdFor = (List<String>) courseBatchObject.get(JsonKey.COURSE_CREATED_FOR);
+    List<Map<String, Object>> userDetails = userOrgService.getUsersByIds(userIds);
+    Map<String, String> userToRootOrg =
+        userDetails
+            .stream()
+            .collect(
+                Collectors.toMap(
+                    user -> (String) user.get(JsonKey.ID), user -> getRootOrgFromUserMap(user)));
+    Set<String> enrolUserIds = new LinkedHashSet<>();
+    for (String userId : userIds) {
+      if (userToRootOrg.containsKey(userId) && createdFor.contains(userToRootOrg.get(userId))) {
+        enrolUserIds.add(userId);
+      }
+    }
+    String courseId = (String) courseBatchObject.get(JsonKey.COURSE_ID);
+    Map<String, String> outcomes =
+        writeInChunks(
+            new ArrayList<>(enrolUserIds), chunk -> enrolChunk(batchId, courseId, chunk));
+    for (String userId : userIds) {
+      String outcome =
+          enrolUserIds.contains(userId)
+              ? outcomes.get(userId)
+              : ResponseCode.userNotAssociatedToOrg.getErrorMessage();
+      Map<String, Object> map = new HashMap<>();
+      map.put(userId, outcome);
+      (JsonKey.SUCCESS.equals(outcome) ? passedUserList : failedUserList).add(map);
+    }
+    successList.put(JsonKey.SUCCESS_RESULT, passedUserList);
+    failList.put(JsonKey.FAILURE_RESULT, failedUserList);
+  }
+
+  /** @return Map of user ID and {@code SUCCESS} or the error message of the user */
+  private Map<String, String> enrolChunk(String batchId, String courseId, List<String> userIds) {
+    Map<String, String> outcomes = new HashMap<>();
+    Map<String, UserCourses> existing;
+    try {
+      existing = readUserCourses(batchId, userIds);
+    } catch (Exception ex) {
+      ProjectLogger.log(
+          "BulkUploadBackgroundJobActor:enrolChunk: Exception occurred while reading users of "
+              + "batch "
+              + batchId,
+          ex);
+      for (String userId : userIds) {
+        outcomes.put(userId, ex.getMessage());
+      }
+      return outcomes;
+    }
+    Timestamp ts = new Timestamp(new Date().getTime());
+    List<Map<String, Object>> inserts = new ArrayList<>();
+    List<Map<String, Object>> updates = new ArrayList<>();
+    for (String userId : userIds) {
+      // users which are already enrolled need no write
+      outcomes.put(userId, JsonKey.SUCCESS);
+      UserCourses userCourses = existing.get(userId);
+      if (userCourses == null) {
+        Map<String, Object> insert = new HashMap<>();
+        insert.put(JsonKey.BATCH_ID, batchId);
+        insert.put(JsonKey.USER_ID, userId);
+        insert.put(JsonKey.COURSE_ID, courseId);
+        insert.put(JsonKey.COURSE_ENROLL_DATE, ProjectUtil.getFormattedDate());
+        insert.put(JsonKey.ACTIVE, ProjectUtil.ActiveStatus.ACTIVE.getValue());
+        insert.put(JsonKey.STATUS, ProjectUtil.ProgressStatus.NOT_STARTED.getValue());
+        insert.put(JsonKey.DATE_TIME, ts);
+        insert.put(JsonKey.COURSE_PROGRESS, 0);
+        inserts.add(insert);
+      } else if (!userCourses.isActive()) {
+        Map<String, Object> update = new HashMap<>();
+        update.put(JsonKey.BATCH_ID, batchId);
+        update.put(JsonKey.USER_ID, userId);
+        update.put(JsonKey.ACTIVE, ProjectUtil.ActiveStatus.ACTIVE.getValue());
+        update.put(JsonKey.COURSE_ENROLL_DATE, ProjectUtil.getFormattedDate());
+        updates.add(update);
+      }
+    }
+
+    Map<String, String> insertFailures = insertUserCourses(inserts);
+    outcomes.putAll(insertFailures);
+    List<Map<String, Object>> inserted = withoutFailures(inserts, insertFailures);
+    List<Map<String, Object>> docs = new ArrayList<>();
+    for (Map<String, Object> userCourses : inserted) {
+      Map<String, Object> doc = new HashMap<>(userCourses);
+      doc.put(JsonKey.DATE_TIME, ProjectUtil.formatDate(ts));
+      String id =
+          UserCoursesService.generateUserCourseESId(batchId, (String) doc.get(JsonKey.USER_ID));
+      doc.put(JsonKey.ID, id);
+      doc.put(JsonKey.IDENTIFIER, id);
+      docs.add(doc);
+    }
+    upsertUserCoursesToES(docs);
+    for (Map<String, Object> doc : docs) {
+      Map<String, Object> targetObject =
+          TelemetryUtil.generateTargetObject(
+              (String) doc.get(JsonKey.USER_ID), JsonKey.USER, JsonKey.UPDATE, null);
+      List<Map<String, Object>> correlatedObject = new ArrayList<>();
+      TelemetryUtil.generateCorrelatedObject(batchId, JsonKey.BATCH, null, correlatedObject);
+      TelemetryUtil.telemetryProcessingCall(doc, targetObject, correlatedObject);
+    }
+
+    Map<String, String> updateFailures = updateUserCourses(updates);
+    outcomes.putAll(updateFailures);
+    for (Map<String, Object> userCourses : withoutFailures(updates, updateFailures)) {
+      Map<String, Object> updateAttributes = new HashMap<>(userCourses);
+      updateAttributes.remove(JsonKey.BATCH_ID);
+      updateAttributes.remove(JsonKey.USER_ID);
+      String id =
+          UserCoursesService.generateUserCourseESId(
+              batchId, (String) userCourses.get(JsonKey.USER_ID));
+      esService.update(EsType.usercourses.getTypeName(), id, updateAttributes);
+    }
+    return outcomes;
+  }
+
+  /**
+   * Same as {@link #validateBatchUserListAndRemove(Map, String, List, Map, Map)} with the same
+   * results, but reads and deactivates the user courses in chunks like {@link
+   * #validateBatchUserListAndAddInChunks(Map, String, List, Map, Map)}.
+   */
+  private void validateBatchUserListAndRemoveInChunks(
+      String batchId,
+      List<String> userIds,
+      Map<String, Object> failList,
+      Map<String, Object> successList) {
+    if (CollectionUtils.isEmpty(userIds)) {
+      return;
+    }
+    Map<String, String> outcomes =
+        writeInChunks(
+            new ArrayList<>(new LinkedHashSet<>(userIds)),
+            chunk -> unenrolChunk(batchId, chunk));
+    List<Map<String, Object>> failedUserList = new ArrayList<>();
+    List<Map<String, Object>> passedUserList = new ArrayList<>();
+    Set<String> unenrolled = new HashSet<>();
+    for (String userId : userIds) {
+      String outcome = outcomes.get(userId);
+      Map<String, Object> map = new HashMap<>();
+      if (JsonKey.SUCCESS.equals(outcome) && unenrolled.add(userId)) {
+        map.put(userId, JsonKey.SUCCESS);
+        passedUserList.add(map);
+      } else {
+        // a repeated user is no longer enrolled once unenrolled
+        map.put(
+            userId,
+            JsonKey.SUCCESS.equals(outcome)
+                ? ResponseCode.userNotEnrolledCourse.getErrorMessage()
+                : outcome);
+        failedUserList.add(map);
+      }
+    }
+    successList.put(JsonKey.SUCCESS_RESULT, passedUserList);
+    failList.put(JsonKey.FAILURE_RESULT, failedUserList);
+  }
+
+  /** @return Map of user ID and {@code SUCCESS} or the error message of the user */
+  private Map<String, String> unenrolChunk(String batchId, List<String> userIds) {
+    Map<String, String> outcomes = new HashMap<>();
+    Map<String, UserCourses> existing;
+    try {
+      existing = readUserCourses(batchId, userIds);
+    } catch (Exception ex) {
+      ProjectLogger.log(
+          "BulkUploadBackgroundJobActor:unenrolChunk: Exception occurred while reading users of "
+              + "batch "
+              + batchId,
+          ex);
+      for (String userId : userIds) {
+        outcomes.put(userId, ex.getMessage());
+      }
+      return outcomes;
+    }
+    Timestamp ts = new Timestamp(new Date().getTime());
+    List<Map<String, Object>> updates = new ArrayList<>();
+    for (String userId : userIds) {
+      UserCourses userCourses = existing.get(userId);
+      if (userCourses == null || !userCourses.isActive()) {
+        outcomes.put(userId, ResponseCode.userNotEnrolledCourse.getErrorMessage());
+      } else if (userCourses.getStatus() == ProjectUtil.ProgressStatus.COMPLETED.getValue()) {
+        outcomes.put(userId, ResponseCode.userAlreadyCompletedCourse.getErrorMessage());
+      } else {
+        Map<String, Object> update = new HashMap<>();
+        update.put(JsonKey.BATCH_ID, batchId);
+        update.put(JsonKey.USER_ID, userId);
+        update.put(JsonKey.ACTIVE, ProjectUtil.ActiveStatus.INACTIVE.getValue());
+        update.put(JsonKey.DATE_TIME, ts);
+        updates.add(update);
+      }
+    }
+    Map<String, String> failures = updateUserCourses(updates);
+    outcomes.putAll(failures);
+    for (Map<String, Object> update : withoutFailures(updates, failures)) {
+      String userId = (String) update.get(JsonKey.USER_ID);
+      outcomes.put(userId, JsonKey.SUCCESS);
+      UserCourses userCourses = existing.get(userId);
+      userCourses.setActive(false);
+      Map<String, Object> userCoursesMap =
+          mapper.convertValue(userCourses, new TypeReference<Map<String, Object>>() {});
+      if (userCoursesMap.containsKey(JsonKey.COMPLETED_ON)) {
+        userCoursesMap.put(
+            JsonKey.COMPLETED_ON,
+            ProjectUtil.formatDate((Date) userCoursesMap.get(JsonKey.COMPLETED_ON)));
+      }
+      userCoursesMap.put(JsonKey.DATE_TIME, ProjectUtil.formatDate(ts));
+      String id = UserCoursesService.generateUserCourseESId(batchId, userId);
+      userCoursesMap.put(JsonKey.ID, id);
+      userCoursesMap.put(JsonKey.IDENTIFIER, id);
+      esService.update(EsType.usercourses.getTypeName(), id, userCoursesMap);
+    }
+    return outcomes;
+  }
+
+  private Map<String, UserCourses> readUserCourses(String batchId, List<String> userIds) {
+    Map<String, UserCourses> userCourses = new HashMap<>();
+    for (UserCourses existing : userCourseDao.read(batchId, userIds)) {
+      userCourses.put(existing.getUserId(), existing);
+    }
+    return userCourses;
+  }
+
+  /**
+   * Splits given user IDs into chunks of {@code CASSANDRA_WRITE_BATCH_SIZE} and applies given
+   * writer to the chunks in parallel.
+   */
+  private Map<String, String> writeInChunks(
+      List<String> userIds, Function<List<String>, Map<String, String>> writer) {
+    Map<String, String> results = new HashMap<>();
+    int chunkSize = Math.max(1, getWriteBatchSize());
+    List<CompletableFuture<Map<String, String>>> chunks = new ArrayList<>();
+    for (int from = 0; from < userIds.size(); from += chunkSize) {
+      List<String> chunk = userIds.subList(from, Math.min(from + chunkSize, userIds.size()));
+      chunks.add(CompletableFuture.supplyAsync(() -> writer.apply(chunk), enrollmentExecutor));
+    }
+    for (CompletableFuture<Map<String, String>> chunk : chunks) {
+      try {
+        results.putAll(chunk.join());
+      } catch (CompletionException e) {
+        throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+      }
+    }
+    return results;
+  }
+
+  private int getWriteBatchSize() {
+    try {
+      return Integer.parseInt(ProjectUtil.getConfigValue(JsonKey.CASSANDRA_WRITE_BATCH_SIZE));
+    } catch (Exception ex) {
+      return ProjectUtil.DEFAULT_BATCH_SIZE;
+    }
+  }
+
+  /**
+   * Writes given user courses with one batch insert, falling back to one insert per record.
+   *
+   * @return Map of user ID and error message of the records which could not be written
+   */
+  private Map<String, String> insertUserCourses(List<Map<String, Object>> records) {
+    Map<String, String> failures = new HashMap<>();
+    if (records.isEmpty()) {
+      return failures;
+    }
+    try {
+      userCourseDao.batchInsert(records);
+    } catch (Exception ex) {
+      ProjectLogger.log(
+          "BulkUploadBackgroundJobActor:insertUserCourses: Performing retry due to exception = "
+              + ex.getMessage(),
+          LoggerEnum.ERROR);
+      for (Map<String, Object> record : records) {
+        try {
+          userCourseDao.insert(record);
+        } catch (Exception exception) {
+          ProjectLogger.log("INSERT RECORD TO USER COURSES EXCEPTION ", exception);
+          failures.put((String) record.get(JsonKey.USER_ID), exception.getMessage());
+        }
+      }
+    }
+    return failures;
+  }
+
+  /**
+   * Updates given user courses with one batch update, falling back to one update per record.
+   *
+   * @return Map of user ID and error message of the records which could not be updated
+   */
+  private Map<String, String> updateUserCourses(List<Map<String, Object>> records) {
+    Map<String, String> failures = new HashMap<>();
+    if (records.isEmpty()) {
+      return failures;
+    }
+    try {
+      userCourseDao.batchUpdate(records);
+    } catch (Exception ex) {
+      ProjectLogger.log(
+          "BulkUploadBackgroundJobActor:updateUserCourses: Performing retry due to exception = "
+              + ex.getMessage(),
+          LoggerEnum.ERROR);
+      for (Map<String, Object> record : records) {
+        String userId = (String) record.get(JsonKey.USER_ID);
+        try {
+          userCourseDao.update((String) record.get(JsonKey.BATCH_ID), userId, record);
+        } catch (Exception exception) {
+          ProjectLogger.log(
+              "BulkUploadBackgroundJobActor:updateUserCourses: Exception occurred for user : "
+                  + userId,
+              exception);
+          failures.put(userId, exception.getMessage());
+        }
+      }
+    }
+    return failures;
+  }
+
+  private List<Map<String, Object>> withoutFailures(
+      List<Map<String, Object>> records, Map<String, String> failures) {
+    return records
+        .stream()
+        .filter(record -> !failures.containsKey(record.get(JsonKey.USER_ID)))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Upserts given user courses to ES in parallel, so that fields only present in the indexed
+   * documents are kept. Documents whose upsert fails are handed to the background indexer.
+   */
+  private void upsertUserCoursesToES(List<Map<String, Object>> docs) {
+    List<Future<Boolean>> results = new ArrayList<>();
+    for (Map<String, Object> doc : docs) {
+      try {
+        results.add(
+            esService.upsert(
+                EsType.usercourses.getTypeName(), (String) doc.get(JsonKey.ID), doc));
+      } catch (Exception ex) {
+        ProjectLogger.log("Exception Occurred during saving user courses to Es : ", ex);
+        results.add(null);
+      }
+    }
+    for (int i = 0; i < docs.size(); i++) {
+      Future<Boolean> result = results.get(i);
+      if (result == null
+          || !Boolean.TRUE.equals(ElasticSearchHelper.getResponseFromFuture(result))) {
+        ProjectLogger.log(
+            "BulkUploadBackgroundJobActor:upsertUserCoursesToES: Upsert failed for "
+                + docs.get(i).get(JsonKey.ID),
+            LoggerEnum.ERROR.name());
+        insertUserCoursesToES(docs.get(i));
+      }
+    }
+  }
+
   @SuppressWarnings("unchecked")
   private String getRootOrgFromUserMap(Map<String, Object> userInfo) {
     String rootOrg = (String) userInfo.get(JsonKey.ROOT_ORG_ID);
@@ -305,14 +982,6 @@ public class BulkUploadBackGroundJobActor extends BaseActor {
     for (String userId : userIds) {
       try {
         UserCourses userCourses = userCourseDao.read(batchId, userId);
-        ProjectLogger.log(
-            "userId="
-                + userId
-                + ", batchId="
-                + batchId
-                + ", unenrolling with "
-                + userCourses.isActive(),
-            LoggerEnum.INFO.name());
         if (userCourses == null || !userCourses.isActive()) {
           Map<String, Object> map = new HashMap<>();
           map.put(userId, ResponseCode.userNotEnrolledCourse.getErrorMessage());
@@ -396,11 +1065,23 @@ public class BulkUploadBackGroundJobActor extends BaseActor {
 
   @SuppressWarnings("unchecked")
   private Map<String, Object> getBulkData(String processId) {
+    Response res =
+        cassandraOperation.getRecordById(bulkDb.getKeySpace(), bulkDb.getTableName(), processId);
+    Map<String, Object> dataMap = ((List<Map<String, Object>>) res.get(JsonKey.RESPONSE)).get(0);
+    int status = (int) dataMap.get(JsonKey.STATUS);
+    // a completed process is left as it is, a resumed one keeps its start time
+    if (status == ProjectUtil.BulkProcessStatus.COMPLETED.getValue()
+        || status == ProjectUtil.BulkProcessStatus.INTERRUPT.getValue()) {
+      return dataMap;
+    }
     try {
       Map<String, Object> map = new HashMap<>();
       map.put(JsonKey.ID, processId);
-      map.put(JsonKey.PROCESS_START_TIME, ProjectUtil.getFormattedDate());
+      if (status == ProjectUtil.BulkProcessStatus.NEW.getValue()) {
+        map.put(JsonKey.PROCESS_START_TIME, ProjectUtil.getFormattedDate());
+      }
       map.put(JsonKey.STATUS, ProjectUtil.BulkProcessStatus.IN_PROGRESS.getValue());
+      map.put(JsonKey.LAST_UPDATED_ON, new Timestamp(System.currentTimeMillis()));
       cassandraOperation.updateRecord(bulkDb.getKeySpace(), bulkDb.getTableName(), map);
     } catch (Exception ex) {
       ProjectLogger.log(
@@ -408,8 +1089,6 @@ public class BulkUploadBackGroundJobActor extends BaseActor {
               + "table in BulkUploadBackGroundJobActor.",
           ex);
     }
-    Response res =
-        cassandraOperation.getRecordById(bulkDb.getKeySpace(), bulkDb.getTableName(), processId);
-    return (((List<Map<String, Object>>) res.get(JsonKey.RESPONSE)).get(0));
+    return dataMap;
   }
 }
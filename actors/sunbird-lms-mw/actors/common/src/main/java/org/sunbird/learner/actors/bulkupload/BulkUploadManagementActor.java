@@ -1,12 +1,15 @@
 package org.sunbird.learner.actors.bulkupload;
 
 import java.io.IOException;
+import java.sql.Timestamp;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import org.sunbird.actor.router.ActorConfig;
 import org.sunbird.cassandra.CassandraOperation;
@@ -26,9 +29,18 @@ import org.sunbird.common.responsecode.ResponseCode;
 import org.sunbird.common.util.CloudStorageUtil;
 import org.sunbird.common.util.CloudStorageUtil.CloudStorageType;
 import org.sunbird.helper.ServiceFactory;
+import org.sunbird.learner.actors.bulkupload.dao.BulkUploadProcessResultDao;
+import org.sunbird.learner.actors.bulkupload.dao.BulkUploadProcessTaskDao;
 import org.sunbird.learner.actors.bulkupload.dao.impl.BulkUploadProcessDaoImpl;
+import org.sunbird.learner.actors.bulkupload.dao.impl.BulkUploadProcessResultDaoImpl;
+import org.sunbird.learner.actors.bulkupload.dao.impl.BulkUploadProcessTaskDaoImpl;
 import org.sunbird.learner.actors.bulkupload.model.BulkUploadProcess;
+import org.sunbird.learner.actors.bulkupload.model.BulkUploadProcessResult;
+import org.sunbird.learner.actors.bulkupload.model.BulkUploadProcessResultPage;
+import org.sunbird.learner.actors.bulkupload.model.BulkUploadProcessTask;
 import org.sunbird.learner.actors.bulkupload.model.StorageDetails;
+import org.sunbird.learner.constants.CourseJsonKey;
+import org.sunbird.learner.util.ConfigValueUtil;
 import org.sunbird.learner.util.Util;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -46,8 +58,12 @@ public class BulkUploadManagementActor extends BaseBulkUploadActor {
 
   private CassandraOperation cassandraOperation = ServiceFactory.getInstance();
   private Util.DbInfo bulkDb = Util.dbInfoMap.get(JsonKey.BULK_OP_DB);
+  private BulkUploadProcessTaskDao bulkUploadTaskDao = new BulkUploadProcessTaskDaoImpl();
   private int batchDataSize = 0;
   private ObjectMapper mapper = new ObjectMapper();
+  private static final int DEFAULT_CHUNK_SIZE = 100;
+  private static final int DEFAULT_RESULT_PAGE_SIZE = 10;
+  private BulkUploadProcessResultDao bulkUploadResultDao = new BulkUploadProcessResultDaoImpl();
 
   private String[] bulkBatchAllowedFields = {JsonKey.BATCH_ID, JsonKey.USER_IDs};
 
@@ -109,14 +125,22 @@ public class BulkUploadManagementActor extends BaseBulkUploadActor {
 
   private void getUploadStatus(Request actorMessage) {
     String processId = (String) actorMessage.getRequest().get(JsonKey.PROCESS_ID);
+    boolean summary = Boolean.TRUE.equals(actorMessage.getContext().get(CourseJsonKey.SUMMARY));
     Response response = null;
     List<String> fields =
-        Arrays.asList(
-            JsonKey.ID,
-            JsonKey.STATUS,
-            JsonKey.OBJECT_TYPE,
-            JsonKey.SUCCESS_RESULT,
-            JsonKey.FAILURE_RESULT);
+        new ArrayList<>(
+            Arrays.asList(
+                JsonKey.ID,
+                JsonKey.STATUS,
+                JsonKey.OBJECT_TYPE,
+                CourseJsonKey.TASK_COUNT,
+                CourseJsonKey.COMPLETED_TASK_COUNT,
+                CourseJsonKey.SUCCESS_COUNT,
+                CourseJsonKey.FAILURE_COUNT));
+    if (!summary) {
+      fields.add(JsonKey.SUCCESS_RESULT);
+      fields.add(JsonKey.FAILURE_RESULT);
+    }
     response =
         cassandraOperation.getRecordById(
             bulkDb.getKeySpace(), bulkDb.getTableName(), processId, fields);
@@ -125,10 +149,18 @@ public class BulkUploadManagementActor extends BaseBulkUploadActor {
         ((List<Map<String, Object>>) response.get(JsonKey.RESPONSE));
     if (!resList.isEmpty()) {
       Map<String, Object> resMap = resList.get(0);
+      normalizeProgressCounts(resMap);
       if ((int) resMap.get(JsonKey.STATUS) == ProjectUtil.BulkProcessStatus.COMPLETED.getValue()) {
         resMap.put(JsonKey.PROCESS_ID, resMap.get(JsonKey.ID));
         updateResponseStatus(resMap);
         ProjectUtil.removeUnwantedFields(resMap, JsonKey.ID);
+        if (!summary && resMap.containsKey(CourseJsonKey.TASK_COUNT)) {
+          addResults(
+              resMap,
+              processId,
+              (String) actorMessage.getContext().get(CourseJsonKey.CURSOR),
+              actorMessage.getContext().get(JsonKey.LIMIT));
+        }
         sender().tell(response, self());
       } else {
         resMap.put(JsonKey.PROCESS_ID, resMap.get(JsonKey.ID));
@@ -146,6 +178,82 @@ public class BulkUploadManagementActor extends BaseBulkUploadActor {
     }
   }
 
+  /**
+   * Adds the results of a chunked upload. All results are returned unless a cursor or limit is
+   * given. Then one page of {@code limit} chunks, or {@code sunbird_bulk_upload_result_page_size}
+   * chunks without limit, is returned with the cursor of the next page if there is one. All
+   * results are read one page at a time.
+   */
+  private void addResults(
+      Map<String, Object> resMap, String processId, String cursor, Object limit) {
+    int limitValue = limit instanceof Number ? ((Number) limit).intValue() : 0;
+    boolean paged = cursor != null || limitValue > 0;
+    int pageSize =
+        limitValue > 0
+            ? limitValue
+            : Math.max(
+                1,
+                ConfigValueUtil.getInt(
+                    CourseJsonKey.BULK_UPLOAD_RESULT_PAGE_SIZE, DEFAULT_RESULT_PAGE_SIZE));
+    List<String> successResults = new ArrayList<>();
+    List<String> failureResults = new ArrayList<>();
+    String nextCursor = cursor;
+    do {
+      BulkUploadProcessResultPage page =
+          bulkUploadResultDao.readPage(processId, pageSize, nextCursor);
+      for (BulkUploadProcessResult result : page.getResults()) {
+        successResults.add(result.getSuccessResult());
+        failureResults.add(result.getFailureResult());
+      }
+      nextCursor = page.getNextCursor();
+    } while (!paged && nextCursor != null);
+    resMap.put(JsonKey.SUCCESS_RESULT, joinJsonArrays(successResults));
+    resMap.put(JsonKey.FAILURE_RESULT, joinJsonArrays(failureResults));
+    if (nextCursor != null) {
+      resMap.put(CourseJsonKey.CURSOR, nextCursor);
+    }
+  }
+
+  /** Joins json arrays into one json array without parsing their elements. */
+  private String joinJsonArrays(List<String> arrays) {
+    StringBuilder builder = new StringBuilder("[");
+    for (String array : arrays) {
+      String items = array == null ? "" : array.trim();
+      if (items.length() < 2) {
+        continue;
+      }
+      items = items.substring(1, items.length() - 1).trim();
+      if (!items.isEmpty()) {
+        if (builder.length() > 1) {
+          builder.append(",");
+        }
+        builder.append(items);
+      }
+    }
+    return builder.append("]").toString();
+  }
+
+  /**
+   * Keeps the progress counts of a chunked upload under their request key names, as the columns
+   * may be returned with lower case names. Uploads saved before chunking have no counts.
+   */
+  private void normalizeProgressCounts(Map<String, Object> resMap) {
+    for (String key :
+        Arrays.asList(
+            CourseJsonKey.TASK_COUNT,
+            CourseJsonKey.COMPLETED_TASK_COUNT,
+            CourseJsonKey.SUCCESS_COUNT,
+            CourseJsonKey.FAILURE_COUNT)) {
+      Object value = resMap.remove(key.toLowerCase());
+      if (value != null && resMap.get(key) == null) {
+        resMap.put(key, value);
+      }
+      if (resMap.get(key) == null) {
+        resMap.remove(key);
+      }
+    }
+  }
+
   private void updateResponseStatus(Map<String, Object> response) {
     String status = "";
     int progressStatus = (int) response.get(JsonKey.STATUS);
@@ -183,95 +291,65 @@ public class BulkUploadManagementActor extends BaseBulkUploadActor {
 
   private void processBulkBatchEnrollment(
       Map<String, Object> req, String processId, String objectType) throws IOException {
-    List<String[]> batchList = parseCsvFile((byte[]) req.get(JsonKey.FILE), processId);
-    if (null != batchList) {
-
-      if (null != PropertiesCache.getInstance().getProperty(JsonKey.BULK_UPLOAD_BATCH_DATA_SIZE)) {
-        batchDataSize =
-            (Integer.parseInt(
-                PropertiesCache.getInstance().getProperty(JsonKey.BULK_UPLOAD_BATCH_DATA_SIZE)));
-        ProjectLogger.log("bulk upload batch data size read from config file " + batchDataSize);
-      }
-      validateFileSizeAgainstLineNumbers(batchDataSize, batchList.size());
-      if (!batchList.isEmpty()) {
-        String[] columns = batchList.get(0);
-        validateBulkUploadFields(columns, bulkBatchAllowedFields, false);
-      } else {
-        throw new ProjectCommonException(
-            ResponseCode.csvError.getErrorCode(),
-            ResponseCode.csvError.getErrorMessage(),
-            ResponseCode.CLIENT_ERROR.getResponseCode());
-      }
-    } else {
+    byte[] file = (byte[]) req.get(JsonKey.FILE);
+    if (null != PropertiesCache.getInstance().getProperty(JsonKey.BULK_UPLOAD_BATCH_DATA_SIZE)) {
+      batchDataSize =
+          (Integer.parseInt(
+              PropertiesCache.getInstance().getProperty(JsonKey.BULK_UPLOAD_BATCH_DATA_SIZE)));
+      ProjectLogger.log("bulk upload batch data size read from config file " + batchDataSize);
+    }
+    // first pass validates header and line count without holding the lines
+    AtomicInteger lineCount = new AtomicInteger();
+    readCsvFile(
+        file,
+        processId,
+        line -> {
+          if (lineCount.getAndIncrement() == 0) {
+            validateBulkUploadFields(line, bulkBatchAllowedFields, false);
+          }
+        });
+    if (lineCount.get() == 0) {
       throw new ProjectCommonException(
           ResponseCode.csvError.getErrorCode(),
           ResponseCode.csvError.getErrorMessage(),
           ResponseCode.CLIENT_ERROR.getResponseCode());
     }
+    validateFileSizeAgainstLineNumbers(batchDataSize, lineCount.get());
     // save csv file to db
-    uploadCsvToDB(
-        batchList, processId, null, objectType, (String) req.get(JsonKey.CREATED_BY), null);
+    uploadCsvToDB(file, processId, objectType, (String) req.get(JsonKey.CREATED_BY));
   }
 
   private void uploadCsvToDB(
-      List<String[]> dataList,
-      String processId,
-      String orgId,
-      String objectType,
-      String requestedBy,
-      String rootOrgId) {
+      byte[] file, String processId, String objectType, String requestedBy) throws IOException {
     ProjectLogger.log("BulkUploadManagementActor: uploadCsvToDB called.", LoggerEnum.INFO);
-    List<Map<String, Object>> dataMapList = new ArrayList<>();
-    if (dataList.size() > 1) {
-      try {
-        String[] columnArr = dataList.get(0);
-        columnArr = trimColumnAttributes(columnArr);
-        Map<String, Object> dataMap = null;
-        for (int i = 1; i < dataList.size(); i++) {
-          dataMap = new HashMap<>();
-          String[] valueArr = dataList.get(i);
-          for (int j = 0; j < valueArr.length; j++) {
-            String value = (valueArr[j].trim().length() == 0 ? null : valueArr[j].trim());
-            dataMap.put(columnArr[j], value);
-          }
-          dataMapList.add(dataMap);
-        }
-      } catch (Exception e) {
-        ProjectLogger.log(e.getMessage(), e);
-        throw new ProjectCommonException(
-            ResponseCode.csvError.getErrorCode(),
-            ResponseCode.csvError.getErrorMessage(),
-            ResponseCode.CLIENT_ERROR.getResponseCode());
-      }
-    } else {
+    TaskWriter taskWriter = new TaskWriter(processId);
+    try {
+      readCsvFile(file, processId, taskWriter);
+      taskWriter.flush();
+    } catch (IOException | RuntimeException e) {
+      deleteTasks(processId, taskWriter.taskCount);
+      throw e;
+    }
+    if (taskWriter.taskCount == 0) {
       // tell sender that csv file is empty
       throw new ProjectCommonException(
           ResponseCode.csvError.getErrorCode(),
           ResponseCode.csvError.getErrorMessage(),
           ResponseCode.CLIENT_ERROR.getResponseCode());
     }
-    // convert userMapList to json string
-    Map<String, Object> map = new HashMap<>();
-
-    try {
-      map.put(JsonKey.DATA, mapper.writeValueAsString(dataMapList));
-    } catch (IOException e) {
-      ProjectLogger.log(
-          "BulkUploadManagementActor:uploadCsvToDB: Exception while converting map to string: "
-              + e.getMessage(),
-          e);
-      throw new ProjectCommonException(
-          ResponseCode.internalError.getErrorCode(),
-          ResponseCode.internalError.getErrorMessage(),
-          ResponseCode.SERVER_ERROR.getResponseCode());
-    }
 
+    Map<String, Object> map = new HashMap<>();
     map.put(JsonKey.ID, processId);
     map.put(JsonKey.OBJECT_TYPE, objectType);
     map.put(JsonKey.UPLOADED_BY, requestedBy);
     map.put(JsonKey.UPLOADED_DATE, ProjectUtil.getFormattedDate());
     map.put(JsonKey.PROCESS_START_TIME, ProjectUtil.getFormattedDate());
     map.put(JsonKey.STATUS, ProjectUtil.BulkProcessStatus.NEW.getValue());
+    map.put(CourseJsonKey.TASK_COUNT, taskWriter.taskCount);
+    map.put(CourseJsonKey.COMPLETED_TASK_COUNT, 0);
+    map.put(CourseJsonKey.SUCCESS_COUNT, 0);
+    map.put(CourseJsonKey.FAILURE_COUNT, 0);
+    map.put(JsonKey.LAST_UPDATED_ON, new Timestamp(System.currentTimeMillis()));
     Response res =
         cassandraOperation.insertRecord(bulkDb.getKeySpace(), bulkDb.getTableName(), map);
     res.put(JsonKey.PROCESS_ID, processId);
@@ -290,4 +368,95 @@ public class BulkUploadManagementActor extends BaseBulkUploadActor {
         "BulkUploadManagementActor: uploadCsvToDB completed processing for processId: " + processId,
         LoggerEnum.INFO);
   }
+
+  /** Deletes the chunks saved before reading the csv file failed, as no process refers to them. */
+  private void deleteTasks(String processId, int taskCount) {
+    if (taskCount == 0) {
+      return;
+    }
+    try {
+      bulkUploadTaskDao.delete(processId);
+    } catch (Exception e) {
+      ProjectLogger.log(
+          "BulkUploadManagementActor:deleteTasks: Failed to delete "
+              + taskCount
+              + " chunks of process "
+              + processId,
+          e);
+    }
+  }
+
+  /**
+   * Converts csv lines to row maps and saves them as chunks of {@code
+   * sunbird_bulk_upload_chunk_size} rows, so that only one chunk is held in memory. The first line
+   * is the header line.
+   */
+  private class TaskWriter implements Consumer<String[]> {
+
+    private final String processId;
+    private final int chunkSize =
+        Math.max(
+            1, ConfigValueUtil.getInt(CourseJsonKey.BULK_UPLOAD_CHUNK_SIZE, DEFAULT_CHUNK_SIZE));
+    private String[] columns = null;
+    private List<Map<String, Object>> rows = new ArrayList<>();
+    private int taskCount = 0;
+
+    TaskWriter(String processId) {
+      this.processId = processId;
+    }
+
+    @Override
+    public void accept(String[] line) {
+      if (columns == null) {
+        columns = trimColumnAttributes(line);
+        return;
+      }
+      rows.add(toRow(line));
+      if (rows.size() >= chunkSize) {
+        flush();
+      }
+    }
+
+    private Map<String, Object> toRow(String[] valueArr) {
+      try {
+        Map<String, Object> dataMap = new HashMap<>();
+        for (int j = 0; j < valueArr.length; j++) {
+          String value = (valueArr[j].trim().length() == 0 ? null : valueArr[j].trim());
+          dataMap.put(columns[j], value);
+        }
+        return dataMap;
+      } catch (Exception e) {
+        ProjectLogger.log(e.getMessage(), e);
+        throw new ProjectCommonException(
+            ResponseCode.csvError.getErrorCode(),
+            ResponseCode.csvError.getErrorMessage(),
+            ResponseCode.CLIENT_ERROR.getResponseCode());
+      }
+    }
+
+    void flush() {
+      if (rows.isEmpty()) {
+        return;
+      }
+      BulkUploadProcessTask task = new BulkUploadProcessTask();
+      task.setProcessId(processId);
+      task.setSequenceId(taskCount);
+      task.setStatus(ProjectUtil.BulkProcessStatus.NEW.getValue());
+      try {
+        task.setData(mapper.writeValueAsString(rows));
+      } catch (IOException e) {
+        ProjectLogger.log(
+            "BulkUploadManagementActor:TaskWriter: Exception while converting map to string: "
+                + e.getMessage(),
+            e);
+        throw new ProjectCommonException(
+            ResponseCode.internalError.getErrorCode(),
+            ResponseCode.internalError.getErrorMessage(),
+            ResponseCode.SERVER_ERROR.getResponseCode());
+      }
+      bulkUploadTaskDao.create(task);
+      taskCount++;
+      rows = new ArrayList<>();
+    }
+  }
 }
@@ -0,0 +1,25 @@
+package org.sunbird.learner.actors.bulkupload.dao;
+
+import org.sunbird.common.models.response.Response;
+import org.sunbird.learner.actors.bulkupload.model.BulkUploadProcessResult;
+import org.sunbird.learner.actors.bulkupload.model.BulkUploadProcessResultPage;
+
+public interface BulkUploadProcessResultDao {
+
+  /**
+   * Save the results of a chunk of a bulk upload process, replacing any saved earlier.
+   *
+   * @param result Chunk results including process ID and sequence ID
+   */
+  Response create(BulkUploadProcessResult result);
+
+  /**
+   * Get one page of the chunk results of a bulk upload process.
+   *
+   * @param processId Bulk upload process ID
+   * @param pageSize Maximum number of chunk results in the page
+   * @param cursor Cursor returned with the previous page, or null for the first page
+   * @return Chunk results with the cursor of the next page
+   */
+  BulkUploadProcessResultPage readPage(String processId, int pageSize, String cursor);
+}
@@ -0,0 +1,46 @@
+package org.sunbird.learner.actors.bulkupload.dao;
+
+import java.util.List;
+import org.sunbird.common.models.response.Response;
+import org.sunbird.learner.actors.bulkupload.model.BulkUploadProcessTask;
+
+public interface BulkUploadProcessTaskDao {
+
+  /**
+   * Create a chunk of a bulk upload process.
+   *
+   * @param task Chunk details including process ID and sequence ID
+   */
+  Response create(BulkUploadProcessTask task);
+
+  /**
+   * Update a chunk of a bulk upload process.
+   *
+   * @param task Chunk attributes to update, including process ID and sequence ID
+   */
+  Response update(BulkUploadProcessTask task);
+
+  /**
+   * Get a chunk of a bulk upload process including its data and results.
+   *
+   * @param processId Bulk upload process ID
+   * @param sequenceId Sequence ID of the chunk
+   * @return Chunk, or null if not found
+   */
+  BulkUploadProcessTask read(String processId, int sequenceId);
+
+  /**
+   * Get the status and result counts of all chunks of a bulk upload process, without their data
+   * and results.
+   *
+   * @param processId Bulk upload process ID
+   */
+  List<BulkUploadProcessTask> readProgress(String processId);
+
+  /**
+   * Delete all chunks of a bulk upload process.
+   *
+   * @param processId Bulk upload process ID
+   */
+  void delete(String processId);
+}
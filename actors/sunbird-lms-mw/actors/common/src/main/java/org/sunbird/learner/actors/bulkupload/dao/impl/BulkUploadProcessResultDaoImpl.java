@@ -0,0 +1,133 @@
+package org.sunbird.learner.actors.bulkupload.dao.impl;
+
+import com.datastax.driver.core.PagingState;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.exceptions.PagingStateException;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.sunbird.cassandra.CassandraOperation;
+import org.sunbird.common.exception.ProjectCommonException;
+import org.sunbird.common.models.response.Response;
+import org.sunbird.common.models.util.JsonKey;
+import org.sunbird.common.models.util.ProjectLogger;
+import org.sunbird.common.models.util.ProjectUtil;
+import org.sunbird.common.models.util.PropertiesCache;
+import org.sunbird.common.responsecode.ResponseCode;
+import org.sunbird.helper.CassandraConnectionMngrFactory;
+import org.sunbird.helper.ServiceFactory;
+import org.sunbird.learner.actors.bulkupload.dao.BulkUploadProcessResultDao;
+import org.sunbird.learner.actors.bulkupload.model.BulkUploadProcessResult;
+import org.sunbird.learner.actors.bulkupload.model.BulkUploadProcessResultPage;
+import org.sunbird.learner.constants.CourseJsonKey;
+import org.sunbird.learner.util.Util;
+
+public class BulkUploadProcessResultDaoImpl implements BulkUploadProcessResultDao {
+
+  private CassandraOperation cassandraOperation = ServiceFactory.getInstance();
+  private static final String KEYSPACE_NAME =
+      Util.dbInfoMap.get(CourseJsonKey.BULK_UPLOAD_RESULT_DB).getKeySpace();
+  private static final String TABLE_NAME =
+      Util.dbInfoMap.get(CourseJsonKey.BULK_UPLOAD_RESULT_DB).getTableName();
+
+  @Override
+  public Response create(BulkUploadProcessResult result) {
+    Map<String, Object> map = new HashMap<>();
+    map.put(JsonKey.PROCESS_ID, result.getProcessId());
+    map.put(CourseJsonKey.SEQUENCE_ID, result.getSequenceId());
+    map.put(JsonKey.SUCCESS_RESULT, compress(result.getSuccessResult()));
+    map.put(JsonKey.FAILURE_RESULT, compress(result.getFailureResult()));
+    return cassandraOperation.insertRecord(KEYSPACE_NAME, TABLE_NAME, map);
+  }
+
+  @Override
+  public BulkUploadProcessResultPage readPage(String processId, int pageSize, String cursor) {
+    Statement statement =
+        QueryBuilder.select(
+                CourseJsonKey.SEQUENCE_ID, JsonKey.SUCCESS_RESULT, JsonKey.FAILURE_RESULT)
+            .from(KEYSPACE_NAME, TABLE_NAME)
+            .where(QueryBuilder.eq(JsonKey.PROCESS_ID, processId))
+            .setFetchSize(pageSize);
+    ResultSet resultSet;
+    try {
+      if (StringUtils.isNotBlank(cursor)) {
+        statement.setPagingState(PagingState.fromString(cursor));
+      }
+      resultSet = getSession().execute(statement);
+    } catch (PagingStateException e) {
+      ProjectLogger.log(
+          "BulkUploadProcessResultDaoImpl:readPage: Invalid cursor for process " + processId, e);
+      throw new ProjectCommonException(
+          ResponseCode.invalidParameterValue.getErrorCode(),
+          ProjectUtil.formatMessage(
+              ResponseCode.invalidParameterValue.getErrorMessage(), cursor, CourseJsonKey.CURSOR),
+          ResponseCode.CLIENT_ERROR.getResponseCode());
+    }
+    List<BulkUploadProcessResult> results = new ArrayList<>();
+    for (int remaining = resultSet.getAvailableWithoutFetching(); remaining > 0; remaining--) {
+      Row row = resultSet.one();
+      BulkUploadProcessResult result = new BulkUploadProcessResult();
+      result.setProcessId(processId);
+      result.setSequenceId(row.getInt(CourseJsonKey.SEQUENCE_ID));
+      result.setSuccessResult(decompress(row.getBytes(JsonKey.SUCCESS_RESULT)));
+      result.setFailureResult(decompress(row.getBytes(JsonKey.FAILURE_RESULT)));
+      results.add(result);
+    }
+    PagingState nextPage = resultSet.getExecutionInfo().getPagingState();
+    return new BulkUploadProcessResultPage(results, nextPage != null ? nextPage.toString() : null);
+  }
+
+  private static ByteBuffer compress(String json) {
+    if (json == null) {
+      return null;
+    }
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (OutputStream out = new GZIPOutputStream(bytes)) {
+      out.write(json.getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      // writes to memory only
+      throw new IllegalStateException(e);
+    }
+    return ByteBuffer.wrap(bytes.toByteArray());
+  }
+
+  private static String decompress(ByteBuffer compressed) {
+    if (compressed == null) {
+      return null;
+    }
+    byte[] bytes = new byte[compressed.remaining()];
+    compressed.duplicate().get(bytes);
+    try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+      return IOUtils.toString(in, StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      ProjectLogger.log(
+          "BulkUploadProcessResultDaoImpl:decompress: Exception occurred while reading result", e);
+      throw new ProjectCommonException(
+          ResponseCode.internalError.getErrorCode(),
+          ResponseCode.internalError.getErrorMessage(),
+          ResponseCode.SERVER_ERROR.getResponseCode());
+    }
+  }
+
+  private Session getSession() {
+    String cassandraMode =
+        PropertiesCache.getInstance().getProperty(JsonKey.SUNBIRD_CASSANDRA_MODE);
+    return CassandraConnectionMngrFactory.getObject(cassandraMode).getSession(KEYSPACE_NAME);
+  }
+}
@@ -0,0 +1,96 @@
+package org.sunbird.learner.actors.bulkupload.dao.impl;
+
+import com.datastax.driver.core.SimpleStatement;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.collections.CollectionUtils;
+import org.sunbird.cassandra.CassandraOperation;
+import org.sunbird.common.models.response.Response;
+import org.sunbird.common.models.util.JsonKey;
+import org.sunbird.helper.ServiceFactory;
+import org.sunbird.learner.actors.bulkupload.dao.BulkUploadProcessTaskDao;
+import org.sunbird.learner.actors.bulkupload.model.BulkUploadProcessTask;
+import org.sunbird.learner.constants.CourseJsonKey;
+import org.sunbird.learner.util.Util;
+
+public class BulkUploadProcessTaskDaoImpl implements BulkUploadProcessTaskDao {
+
+  private CassandraOperation cassandraOperation = ServiceFactory.getInstance();
+  private ObjectMapper mapper = new ObjectMapper();
+  private static final String KEYSPACE_NAME =
+      Util.dbInfoMap.get(CourseJsonKey.BULK_UPLOAD_TASK_DB).getKeySpace();
+  private static final String TABLE_NAME =
+      Util.dbInfoMap.get(CourseJsonKey.BULK_UPLOAD_TASK_DB).getTableName();
+
+  @Override
+  public Response create(BulkUploadProcessTask task) {
+    Map<String, Object> map = mapper.convertValue(task, Map.class);
+    Timestamp now = new Timestamp(Calendar.getInstance().getTimeInMillis());
+    map.put(JsonKey.CREATED_ON, now);
+    map.put(JsonKey.LAST_UPDATED_ON, now);
+    return cassandraOperation.insertRecord(KEYSPACE_NAME, TABLE_NAME, map);
+  }
+
+  @Override
+  public Response update(BulkUploadProcessTask task) {
+    Map<String, Object> map = mapper.convertValue(task, Map.class);
+    Map<String, Object> primaryKey = new HashMap<>();
+    primaryKey.put(JsonKey.PROCESS_ID, map.remove(JsonKey.PROCESS_ID));
+    primaryKey.put(CourseJsonKey.SEQUENCE_ID, map.remove(CourseJsonKey.SEQUENCE_ID));
+    map.put(JsonKey.LAST_UPDATED_ON, new Timestamp(Calendar.getInstance().getTimeInMillis()));
+    return cassandraOperation.updateRecord(KEYSPACE_NAME, TABLE_NAME, map, primaryKey);
+  }
+
+  @Override
+  public BulkUploadProcessTask read(String processId, int sequenceId) {
+    Map<String, Object> primaryKey = new HashMap<>();
+    primaryKey.put(JsonKey.PROCESS_ID, processId);
+    primaryKey.put(CourseJsonKey.SEQUENCE_ID, sequenceId);
+    Response response = cassandraOperation.getRecordById(KEYSPACE_NAME, TABLE_NAME, primaryKey);
+    List<Map<String, Object>> list = (List<Map<String, Object>>) response.get(JsonKey.RESPONSE);
+    if (CollectionUtils.isEmpty(list)) {
+      return null;
+    }
+    return mapper.convertValue(list.get(0), BulkUploadProcessTask.class);
+  }
+
+  @Override
+  public List<BulkUploadProcessTask> readProgress(String processId) {
+    Map<String, Object> filters = new HashMap<>();
+    filters.put(JsonKey.PROCESS_ID, processId);
+    Response response =
+        cassandraOperation.getRecords(
+            KEYSPACE_NAME,
+            TABLE_NAME,
+            filters,
+            Arrays.asList(
+                JsonKey.PROCESS_ID,
+                CourseJsonKey.SEQUENCE_ID,
+                JsonKey.STATUS,
+                CourseJsonKey.SUCCESS_COUNT,
+                CourseJsonKey.FAILURE_COUNT));
+    List<Map<String, Object>> list = (List<Map<String, Object>>) response.get(JsonKey.RESPONSE);
+    List<BulkUploadProcessTask> tasks = new ArrayList<>();
+    if (CollectionUtils.isNotEmpty(list)) {
+      for (Map<String, Object> task : list) {
+        tasks.add(mapper.convertValue(task, BulkUploadProcessTask.class));
+      }
+    }
+    return tasks;
+  }
+
+  @Override
+  public void delete(String processId) {
+    Util.getSession(KEYSPACE_NAME)
+        .execute(
+            new SimpleStatement(
+                "DELETE FROM " + KEYSPACE_NAME + "." + TABLE_NAME + " WHERE processid = ?",
+                processId));
+  }
+}
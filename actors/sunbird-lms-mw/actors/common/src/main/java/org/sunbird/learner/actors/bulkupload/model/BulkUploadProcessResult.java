@@ -0,0 +1,48 @@
+package org.sunbird.learner.actors.bulkupload.model;
+
+import java.io.Serializable;
+
+/**
+ * Success and failure results of one chunk of a bulk upload process, each as a json array. The
+ * results are stored gzip compressed, one row per chunk.
+ */
+public class BulkUploadProcessResult implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+  private String processId;
+  private Integer sequenceId;
+  private String successResult;
+  private String failureResult;
+
+  public String getProcessId() {
+    return processId;
+  }
+
+  public void setProcessId(String processId) {
+    this.processId = processId;
+  }
+
+  public Integer getSequenceId() {
+    return sequenceId;
+  }
+
+  public void setSequenceId(Integer sequenceId) {
+    this.sequenceId = sequenceId;
+  }
+
+  public String getSuccessResult() {
+    return successResult;
+  }
+
+  public void setSuccessResult(String successResult) {
+    this.successResult = successResult;
+  }
+
+  public String getFailureResult() {
+    return failureResult;
+  }
+
+  public void setFailureResult(String failureResult) {
+    this.failureResult = failureResult;
+  }
+}
@@ -0,0 +1,27 @@
+package org.sunbird.learner.actors.bulkupload.model;
+
+import java.io.Serializable;
+import java.util.List;
+
+/** One page of the chunk results of a bulk upload process, with the cursor of the next page. */
+public class BulkUploadProcessResultPage implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+  private final List<BulkUploadProcessResult> results;
+  private final String nextCursor;
+
+  public BulkUploadProcessResultPage(List<BulkUploadProcessResult> results, String nextCursor) {
+    this.results = results;
+    this.nextCursor = nextCursor;
+  }
+
+  /** @return Chunk results in sequence ID order */
+  public List<BulkUploadProcessResult> getResults() {
+    return results;
+  }
+
+  /** @return Cursor of the following page, or null if this is the last page */
+  public String getNextCursor() {
+    return nextCursor;
+  }
+}
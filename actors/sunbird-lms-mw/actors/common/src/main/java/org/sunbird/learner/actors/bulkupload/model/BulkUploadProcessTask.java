@@ -0,0 +1,77 @@
+package org.sunbird.learner.actors.bulkupload.model;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import java.io.Serializable;
+
+/**
+ * One chunk of the rows of a bulk upload process. Chunks are processed in sequence ID order and
+ * a completed chunk is never processed again, so a resumed process continues after the last
+ * completed chunk. Aliases accept the column names as returned for the task table.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(Include.NON_NULL)
+public class BulkUploadProcessTask implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+  @JsonAlias("processid")
+  private String processId;
+  @JsonAlias("sequenceid")
+  private Integer sequenceId;
+  private String data;
+  private Integer status;
+  @JsonAlias("successcount")
+  private Integer successCount;
+  @JsonAlias("failurecount")
+  private Integer failureCount;
+
+  public String getProcessId() {
+    return processId;
+  }
+
+  public void setProcessId(String processId) {
+    this.processId = processId;
+  }
+
+  public Integer getSequenceId() {
+    return sequenceId;
+  }
+
+  public void setSequenceId(Integer sequenceId) {
+    this.sequenceId = sequenceId;
+  }
+
+  public String getData() {
+    return data;
+  }
+
+  public void setData(String data) {
+    this.data = data;
+  }
+
+  public Integer getStatus() {
+    return status;
+  }
+
+  public void setStatus(Integer status) {
+    this.status = status;
+  }
+
+  public Integer getSuccessCount() {
+    return successCount;
+  }
+
+  public void setSuccessCount(Integer successCount) {
+    this.successCount = successCount;
+  }
+
+  public Integer getFailureCount() {
+    return failureCount;
+  }
+
+  public void setFailureCount(Integer failureCount) {
+    this.failureCount = failureCount;
+  }
+}
@@ -11,6 +11,7 @@ import org.sunbird.common.models.util.LoggerEnum;
 import org.sunbird.common.models.util.ProjectLogger;
 import org.sunbird.common.request.Request;
 import org.sunbird.common.responsecode.ResponseCode;
+import org.sunbird.learner.util.CacheInvalidationBus;
 
 @ActorConfig(
   tasks = {"clearCache"},
@@ -38,6 +39,8 @@ public class CacheManagementActor extends BaseActor {
       } else {
         cache.clearAll();
       }
+      // clear the map on the other nodes as well
+      CacheInvalidationBus.getInstance().publishToOtherNodes(CacheInvalidationBus.CACHE, mapName);
 
       Response response = new Response();
       response.setResponseCode(ResponseCode.success);
@@ -29,6 +29,7 @@ import org.sunbird.kafka.client.InstructionEventGenerator;
 import org.sunbird.learner.actor.operations.CourseActorOperations;
 import org.sunbird.learner.constants.CourseJsonKey;
 import org.sunbird.learner.constants.InstructionEvent;
+import org.sunbird.learner.util.CourseBatchCache;
 import org.sunbird.learner.util.Util;
 import scala.concurrent.Future;
 
@@ -130,10 +131,7 @@ public class CertificateActor extends BaseActor {
   }
 
   private void validateCourseBatch(String courseId, String batchId) {
-    Future<Map<String, Object>> resultF =
-        esService.getDataByIdentifier(EsType.courseBatch.getTypeName(), batchId);
-    Map<String, Object> result =
-        (Map<String, Object>) ElasticSearchHelper.getResponseFromFuture(resultF);
+    Map<String, Object> result = CourseBatchCache.getInstance().get(batchId);
     if (MapUtils.isEmpty(result)) {
       ProjectCommonException.throwClientErrorException(
           ResponseCode.CLIENT_ERROR, "No such batchId exists");
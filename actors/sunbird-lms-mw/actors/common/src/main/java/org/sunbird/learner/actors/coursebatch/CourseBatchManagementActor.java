@@ -14,6 +14,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TimeZone;
 import java.util.stream.Collectors;
 import org.apache.commons.collections.CollectionUtils;
@@ -40,10 +41,14 @@ import org.sunbird.common.responsecode.ResponseCode;
 import org.sunbird.learner.actors.coursebatch.dao.CourseBatchDao;
 import org.sunbird.learner.actors.coursebatch.dao.impl.CourseBatchDaoImpl;
 import org.sunbird.learner.actors.coursebatch.service.UserCoursesService;
+import org.sunbird.learner.constants.CourseJsonKey;
+import org.sunbird.learner.util.ConfigValueUtil;
+import org.sunbird.learner.util.CourseBatchCache;
 import org.sunbird.learner.util.CourseBatchSchedulerUtil;
 import org.sunbird.learner.util.CourseBatchUtil;
 import org.sunbird.learner.util.Util;
 import org.sunbird.models.course.batch.CourseBatch;
+import org.sunbird.models.user.courses.BatchParticipantsPage;
 import org.sunbird.telemetry.util.TelemetryUtil;
 import org.sunbird.userorg.UserOrgService;
 import org.sunbird.userorg.UserOrgServiceImpl;
@@ -67,6 +72,7 @@ public class CourseBatchManagementActor extends BaseActor {
   private UserCoursesService userCoursesService = new UserCoursesService();
   private ElasticSearchService esService = EsClientFactory.getInstance(JsonKey.REST);
   private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd");
+  private static final int DEFAULT_PARTICIPANTS_MAX_PAGE_SIZE = 1000;
 
   static {
     DATE_FORMAT.setTimeZone(
@@ -132,7 +138,9 @@ public class CourseBatchManagementActor extends BaseActor {
     result.put(JsonKey.BATCH_ID, courseBatchId);
 
     CourseBatchUtil.syncCourseBatchForeground(
-        courseBatchId, new ObjectMapper().convertValue(courseBatch, Map.class));
+        courseBatchId,
+        new ObjectMapper().convertValue(courseBatch, Map.class),
+        actorMessage.getOperation());
     sender().tell(result, self());
 
     targetObject =
@@ -224,7 +232,8 @@ public class CourseBatchManagementActor extends BaseActor {
         courseBatchDao.update((String) request.get(JsonKey.COURSE_ID), batchId, courseBatchMap);
     sender().tell(result, self());
 
-    CourseBatchUtil.syncCourseBatchForeground(batchId, courseBatchMap);
+    CourseBatchUtil.syncCourseBatchForeground(
+        batchId, courseBatchMap, actorMessage.getOperation());
 
     targetObject =
         TelemetryUtil.generateTargetObject(batchId, TelemetryEnvKey.BATCH, JsonKey.UPDATE, null);
@@ -320,14 +329,11 @@ public class CourseBatchManagementActor extends BaseActor {
     Map<String, Object> courseBatchObject = getValidatedCourseBatch(batchId);
     String batchCreator = (String) courseBatchObject.get(JsonKey.CREATED_BY);
     String batchCreatorRootOrgId = getRootOrg(batchCreator);
-    List<String> participants =
-        userCoursesService.getEnrolledUserFromBatch(
-            (String) courseBatchObject.get(JsonKey.BATCH_ID));
     CourseBatch courseBatch = new ObjectMapper().convertValue(courseBatchObject, CourseBatch.class);
     List<String> userIds = (List<String>) req.get(JsonKey.USER_IDs);
-    if (participants == null) {
-      participants = new ArrayList<>();
-    }
+    Set<String> participants =
+        userCoursesService.getEnrolledUsers(
+            (String) courseBatchObject.get(JsonKey.BATCH_ID), userIds);
     Map<String, String> participantWithRootOrgIds = getRootOrgForMultipleUsers(userIds);
     List<String> addedParticipants = new ArrayList<>();
     for (String userId : userIds) {
@@ -347,10 +353,12 @@ public class CourseBatchManagementActor extends BaseActor {
       }
     }
 
-    userCoursesService.enroll(
-        batchId, (String) courseBatchObject.get(JsonKey.COURSE_ID), addedParticipants);
+    Map<String, String> enrollFailures =
+        userCoursesService.enroll(
+            batchId, (String) courseBatchObject.get(JsonKey.COURSE_ID), addedParticipants);
+    enrollFailures.forEach((userId, message) -> response.getResult().put(userId, message));
+    addedParticipants.removeAll(enrollFailures.keySet());
     for (String userId : addedParticipants) {
-      participants.add(userId);
       response.getResult().put(userId, JsonKey.SUCCESS);
 
       targetObject =
@@ -379,31 +387,25 @@ public class CourseBatchManagementActor extends BaseActor {
     String batchId = (String) req.get(JsonKey.BATCH_ID);
     TelemetryUtil.generateCorrelatedObject(batchId, TelemetryEnvKey.BATCH, null, correlatedObject);
     Map<String, Object> courseBatchObject = getValidatedCourseBatch(batchId);
-    List<String> participants =
-        userCoursesService.getEnrolledUserFromBatch(
-            (String) courseBatchObject.get(JsonKey.BATCH_ID));
     CourseBatch courseBatch = new ObjectMapper().convertValue(courseBatchObject, CourseBatch.class);
     List<String> userIds = (List<String>) req.get(JsonKey.USER_IDs);
-    if (participants == null) {
-      participants = new ArrayList<>();
-    }
-    List<String> participantsList =
-        CollectionUtils.isEmpty(participants) ? new ArrayList<>() : participants;
+    Set<String> participantsList =
+        userCoursesService.getEnrolledUsers(
+            (String) courseBatchObject.get(JsonKey.BATCH_ID), userIds);
     List<String> removedParticipants = new ArrayList<>();
     userIds.forEach(
         id -> {
           if (!participantsList.contains(id)) {
             response.getResult().put(id, ResponseCode.userNotEnrolledCourse.getErrorMessage());
           } else {
-            try {
-              userCoursesService.unenroll(batchId, id);
-              removedParticipants.add(id);
-              response.getResult().put(id, JsonKey.SUCCESS);
-            } catch (ProjectCommonException ex) {
-              response.getResult().put(id, ex.getMessage());
-            }
+            removedParticipants.add(id);
           }
         });
+    Map<String, String> unenrollFailures =
+        userCoursesService.unenroll(batchId, removedParticipants);
+    removedParticipants.removeAll(unenrollFailures.keySet());
+    removedParticipants.forEach(id -> response.getResult().put(id, JsonKey.SUCCESS));
+    unenrollFailures.forEach((id, message) -> response.getResult().put(id, message));
 
     for (String userId : removedParticipants) {
       targetObject =
@@ -422,10 +424,7 @@ public class CourseBatchManagementActor extends BaseActor {
   }
 
   private Map<String, Object> getValidatedCourseBatch(String batchId) {
-    Future<Map<String, Object>> resultF =
-        esService.getDataByIdentifier(ProjectUtil.EsType.courseBatch.getTypeName(), batchId);
-    Map<String, Object> courseBatchObject =
-        (Map<String, Object>) ElasticSearchHelper.getResponseFromFuture(resultF);
+    Map<String, Object> courseBatchObject = CourseBatchCache.getInstance().get(batchId);
 
     if (ProjectUtil.isNull(courseBatchObject.get(JsonKey.ENROLLMENT_TYPE))
         || !((String) courseBatchObject.get(JsonKey.ENROLLMENT_TYPE))
@@ -829,17 +828,43 @@ public class CourseBatchManagementActor extends BaseActor {
       active = (boolean) request.get(JsonKey.ACTIVE);
     }
     String batchID = (String) request.get(JsonKey.BATCH_ID);
-    List<String> participants = userCoursesService.getParticipantsList(batchID, active);
+    Map<String, Object> result = new HashMap<String, Object>();
+    List<String> participants;
+    if (request.get(JsonKey.LIMIT) == null && null == request.get(CourseJsonKey.CURSOR)) {
+      participants = userCoursesService.getParticipantsList(batchID, active);
+    } else {
+      BatchParticipantsPage page =
+          userCoursesService.getParticipantsPage(
+              batchID,
+              active,
+              getParticipantsPageSize(request),
+              (String) request.get(CourseJsonKey.CURSOR));
+      participants = page.getUserIds();
+      if (page.getNextCursor() != null) {
+        result.put(CourseJsonKey.CURSOR, page.getNextCursor());
+      }
+    }
 
     if (CollectionUtils.isEmpty(participants)) {
       participants = new ArrayList<>();
     }
 
     Response response = new Response();
-    Map<String, Object> result = new HashMap<String, Object>();
     result.put(JsonKey.COUNT, participants.size());
     result.put(JsonKey.PARTICIPANTS, participants);
     response.put(JsonKey.BATCH, result);
     sender().tell(response, self());
   }
+
+  /** The requested page size is capped, a request without page size gets the largest page. */
+  private int getParticipantsPageSize(Map<String, Object> request) {
+    int maxPageSize =
+        ConfigValueUtil.getInt(
+            CourseJsonKey.PARTICIPANTS_MAX_PAGE_SIZE, DEFAULT_PARTICIPANTS_MAX_PAGE_SIZE);
+    Object limit = request.get(JsonKey.LIMIT);
+    if (limit instanceof Number && ((Number) limit).intValue() > 0) {
+      return Math.min(((Number) limit).intValue(), maxPageSize);
+    }
+    return maxPageSize;
+  }
 }
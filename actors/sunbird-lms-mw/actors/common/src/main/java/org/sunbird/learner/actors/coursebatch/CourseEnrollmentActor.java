@@ -34,7 +34,9 @@ import org.sunbird.learner.actors.coursebatch.dao.UserCoursesDao;
 import org.sunbird.learner.actors.coursebatch.dao.impl.CourseBatchDaoImpl;
 import org.sunbird.learner.actors.coursebatch.dao.impl.UserCoursesDaoImpl;
 import org.sunbird.learner.actors.coursebatch.service.UserCoursesService;
+import org.sunbird.learner.util.CourseBatchCache;
 import org.sunbird.learner.util.EkStepRequestUtil;
+import org.sunbird.learner.util.EsIndexOutbox;
 import org.sunbird.learner.util.Util;
 import org.sunbird.models.course.batch.CourseBatch;
 import org.sunbird.models.user.courses.UserCourses;
@@ -126,7 +128,8 @@ public class CourseEnrollmentActor extends BaseActor {
       UserCoursesService.sync(
           courseMap,
           (String) courseMap.get(JsonKey.BATCH_ID),
-          (String) courseMap.get(JsonKey.USER_ID));
+          (String) courseMap.get(JsonKey.USER_ID),
+          ActorOperations.ENROLL_COURSE.getValue());
     }
     if (courseNotificationActive()) {
       batchOperationNotifier(courseMap, courseBatch, JsonKey.ADD);
@@ -219,6 +222,18 @@ public class CourseEnrollmentActor extends BaseActor {
   }
 
   private void updateUserCoursesToES(Map<String, Object> courseMap) {
+    String id =
+        UserCoursesService.generateUserCourseESId(
+            (String) courseMap.get(JsonKey.BATCH_ID), (String) courseMap.get(JsonKey.USER_ID));
+    if (EsIndexOutbox.getInstance()
+        .offer(
+            ProjectUtil.EsType.usercourses.getTypeName(),
+            id,
+            courseMap,
+            false,
+            ActorOperations.ENROLL_COURSE.getValue())) {
+      return;
+    }
     Request request = new Request();
     request.setOperation(ActorOperations.INSERT_USR_COURSES_INFO_ELASTIC.getValue());
     request.getRequest().put(JsonKey.USER_COURSES, courseMap);
@@ -332,7 +347,10 @@ public class CourseEnrollmentActor extends BaseActor {
         userCourses.getBatchId(), userCourses.getUserId(), userCourseUpdateAttributes);
     result.put("response", "SUCCESS");
     UserCoursesService.sync(
-        userCourseUpdateAttributes, userCourses.getBatchId(), userCourses.getUserId());
+        userCourseUpdateAttributes,
+        userCourses.getBatchId(),
+        userCourses.getUserId(),
+        ActorOperations.UNENROLL_COURSE.getValue());
     return result;
   }
 
@@ -353,17 +371,19 @@ public class CourseEnrollmentActor extends BaseActor {
               .stream()
               .map(usercourse -> (String) usercourse.get(JsonKey.BATCH_ID))
               .collect(Collectors.toList());
-      Map<String, Object> courseBatchfilter = new HashMap<>();
-      courseBatchfilter.put(JsonKey.BATCH_ID, batchIds);
-      courseBatchfilter.put(
-          JsonKey.STATUS,
-          Arrays.asList(ProgressStatus.NOT_STARTED.getValue(), ProgressStatus.STARTED.getValue()));
-      courseBatchfilter.put(JsonKey.ENROLLMENT_TYPE, JsonKey.OPEN);
+      List<Integer> activeStatus =
+          Arrays.asList(ProgressStatus.NOT_STARTED.getValue(), ProgressStatus.STARTED.getValue());
       List<Map<String, Object>> batchList =
-          searchFromES(
-              ProjectUtil.EsType.courseBatch.getTypeName(),
-              courseBatchfilter,
-              Arrays.asList(JsonKey.BATCH_ID));
+          CourseBatchCache.getInstance()
+              .getAll(batchIds)
+              .values()
+              .stream()
+              .filter(
+                  batch ->
+                      batch.get(JsonKey.STATUS) instanceof Number
+                          && activeStatus.contains(((Number) batch.get(JsonKey.STATUS)).intValue())
+                          && JsonKey.OPEN.equals(batch.get(JsonKey.ENROLLMENT_TYPE)))
+              .collect(Collectors.toList());
       if (CollectionUtils.isNotEmpty(batchList)) {
         ProjectLogger.log(" User currently Enrolled for batches :" + batchList, LoggerEnum.INFO);
         ProjectCommonException.throwClientErrorException(
@@ -1,8 +1,10 @@
 package org.sunbird.learner.actors.coursebatch.dao;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import org.sunbird.common.models.response.Response;
+import org.sunbird.models.user.courses.BatchParticipantsPage;
 import org.sunbird.models.user.courses.UserCourses;
 
 public interface UserCoursesDao {
@@ -15,6 +17,15 @@ public interface UserCoursesDao {
    */
   UserCourses read(String batchId, String userId);
 
+  /**
+   * Get user courses information of given users in given batch with one query.
+   *
+   * @param batchId Batch ID
+   * @param userIds User IDs
+   * @return User courses information of the given users which are in the batch
+   */
+  List<UserCourses> read(String batchId, List<String> userIds);
+
   /**
    * Create an entry for user courses information
    *
@@ -43,6 +54,13 @@ public interface UserCoursesDao {
    */
   Response batchInsert(List<Map<String, Object>> userCoursesDetails);
 
+  /**
+   * Update specified list of participants in one batch statement.
+   *
+   * @param userCoursesDetails List of attributes to update, each including batch ID and user ID
+   */
+  Response batchUpdate(List<Map<String, Object>> userCoursesDetails);
+
   /**
    * Get all active participant IDs in given batch
    *
@@ -50,4 +68,34 @@ public interface UserCoursesDao {
    * @param active
    */
   List<String> getBatchParticipants(String batchId, boolean active);
+
+  /**
+   * Get one page of participant IDs in given batch.
+   *
+   * @param batchId Batch ID
+   * @param active Whether active or inactive participants are listed
+   * @param pageSize Maximum number of participant IDs in the page
+   * @param cursor Cursor returned with the previous page, or null for the first page
+   * @return Participant IDs with the cursor of the next page
+   */
+  BatchParticipantsPage getBatchParticipantsPage(
+      String batchId, boolean active, int pageSize, String cursor);
+
+  /**
+   * Stream participant IDs in given batch. Participants are read one page at a time while the
+   * returned iterator is consumed.
+   *
+   * @param batchId Batch ID
+   * @param active Whether active or inactive participants are streamed
+   * @param fetchSize Number of participants read per page
+   */
+  Iterator<String> streamBatchParticipants(String batchId, boolean active, int fetchSize);
+
+  /**
+   * Count participants in given batch.
+   *
+   * @param batchId Batch ID
+   * @param active Whether active or inactive participants are counted
+   */
+  long countBatchParticipants(String batchId, boolean active);
 }
@@ -1,16 +1,32 @@
 package org.sunbird.learner.actors.coursebatch.dao.impl;
 
+import com.datastax.driver.core.PagingState;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.exceptions.PagingStateException;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.datastax.driver.core.querybuilder.Select;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.*;
 import java.util.stream.Collectors;
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.sunbird.cassandra.CassandraOperation;
+import org.sunbird.common.exception.ProjectCommonException;
 import org.sunbird.common.models.response.Response;
 import org.sunbird.common.models.util.JsonKey;
 import org.sunbird.common.models.util.ProjectLogger;
+import org.sunbird.common.models.util.ProjectUtil;
+import org.sunbird.common.models.util.PropertiesCache;
+import org.sunbird.common.responsecode.ResponseCode;
+import org.sunbird.helper.CassandraConnectionMngrFactory;
 import org.sunbird.helper.ServiceFactory;
 import org.sunbird.learner.actors.coursebatch.dao.UserCoursesDao;
+import org.sunbird.learner.constants.CourseJsonKey;
 import org.sunbird.learner.util.Util;
+import org.sunbird.models.user.courses.BatchParticipantsPage;
 import org.sunbird.models.user.courses.UserCourses;
 
 public class UserCoursesDaoImpl implements UserCoursesDao {
@@ -49,6 +65,26 @@ public class UserCoursesDaoImpl implements UserCoursesDao {
     return null;
   }
 
+  @Override
+  public List<UserCourses> read(String batchId, List<String> userIds) {
+    List<UserCourses> userCourses = new ArrayList<>();
+    if (CollectionUtils.isEmpty(userIds)) {
+      return userCourses;
+    }
+    Map<String, Object> filters = new HashMap<>();
+    filters.put(JsonKey.BATCH_ID, batchId);
+    filters.put(JsonKey.USER_ID, userIds);
+    Response response = cassandraOperation.getRecords(KEYSPACE_NAME, TABLE_NAME, filters, null);
+    List<Map<String, Object>> userCoursesList =
+        (List<Map<String, Object>>) response.get(JsonKey.RESPONSE);
+    if (CollectionUtils.isNotEmpty(userCoursesList)) {
+      for (Map<String, Object> userCoursesMap : userCoursesList) {
+        userCourses.add(mapper.convertValue(userCoursesMap, UserCourses.class));
+      }
+    }
+    return userCourses;
+  }
+
   @Override
   public Response update(String batchId, String userId, Map<String, Object> updateAttributes) {
     Map<String, Object> primaryKey = new HashMap<>();
@@ -71,6 +107,24 @@ public class UserCoursesDaoImpl implements UserCoursesDao {
     return cassandraOperation.batchInsert(KEYSPACE_NAME, TABLE_NAME, userCoursesDetails);
   }
 
+  @Override
+  public Response batchUpdate(List<Map<String, Object>> userCoursesDetails) {
+    List<Map<String, Map<String, Object>>> records = new ArrayList<>();
+    for (Map<String, Object> userCourses : userCoursesDetails) {
+      Map<String, Object> primaryKey = new HashMap<>();
+      primaryKey.put(JsonKey.BATCH_ID, userCourses.get(JsonKey.BATCH_ID));
+      primaryKey.put(JsonKey.USER_ID, userCourses.get(JsonKey.USER_ID));
+      Map<String, Object> updateList = new HashMap<>(userCourses);
+      updateList.remove(JsonKey.BATCH_ID);
+      updateList.remove(JsonKey.USER_ID);
+      Map<String, Map<String, Object>> record = new HashMap<>();
+      record.put(JsonKey.PRIMARY_KEY, primaryKey);
+      record.put(JsonKey.NON_PRIMARY_KEY, updateList);
+      records.add(record);
+    }
+    return cassandraOperation.batchUpdate(KEYSPACE_NAME, TABLE_NAME, records);
+  }
+
   @Override
   public Response insert(Map<String, Object> userCoursesDetails) {
     return cassandraOperation.insertRecord(KEYSPACE_NAME, TABLE_NAME, userCoursesDetails);
@@ -93,4 +147,81 @@ public class UserCoursesDaoImpl implements UserCoursesDao {
             .map(userCourse -> (String) userCourse.get(JsonKey.USER_ID))
             .collect(Collectors.toList());
   }
+
+  @Override
+  public BatchParticipantsPage getBatchParticipantsPage(
+      String batchId, boolean active, int pageSize, String cursor) {
+    Statement statement = getParticipantsStatement(batchId, active).setFetchSize(pageSize);
+    ResultSet resultSet;
+    try {
+      if (StringUtils.isNotBlank(cursor)) {
+        statement.setPagingState(PagingState.fromString(cursor));
+      }
+      resultSet = getSession().execute(statement);
+    } catch (PagingStateException e) {
+      ProjectLogger.log(
+          "UserCoursesDaoImpl:getBatchParticipantsPage: Invalid cursor for batch " + batchId, e);
+      throw new ProjectCommonException(
+          ResponseCode.invalidParameterValue.getErrorCode(),
+          ProjectUtil.formatMessage(
+              ResponseCode.invalidParameterValue.getErrorMessage(), cursor, CourseJsonKey.CURSOR),
+          ResponseCode.CLIENT_ERROR.getResponseCode());
+    }
+    List<String> userIds = new ArrayList<>();
+    for (int remaining = resultSet.getAvailableWithoutFetching(); remaining > 0; remaining--) {
+      userIds.add(resultSet.one().getString(JsonKey.USER_ID));
+    }
+    PagingState nextPage = resultSet.getExecutionInfo().getPagingState();
+    return new BatchParticipantsPage(userIds, nextPage != null ? nextPage.toString() : null);
+  }
+
+  @Override
+  public Iterator<String> streamBatchParticipants(String batchId, boolean active, int fetchSize) {
+    Iterator<Row> rows =
+        getSession()
+            .execute(getParticipantsStatement(batchId, active).setFetchSize(fetchSize))
+            .iterator();
+    return new Iterator<String>() {
+      @Override
+      public boolean hasNext() {
+        return rows.hasNext();
+      }
+
+      @Override
+      public String next() {
+        return rows.next().getString(JsonKey.USER_ID);
+      }
+    };
+  }
+
+  @Override
+  public long countBatchParticipants(String batchId, boolean active) {
+    Statement statement =
+        filterParticipants(
+            QueryBuilder.select().countAll().from(KEYSPACE_NAME, TABLE_NAME), batchId, active);
+    return getSession().execute(statement).one().getLong(0);
+  }
+
+  private Statement getParticipantsStatement(String batchId, boolean active) {
+    return filterParticipants(
+        QueryBuilder.select(JsonKey.USER_ID).from(KEYSPACE_NAME, TABLE_NAME), batchId, active);
+  }
+
+  /**
+   * Participants of a batch share one partition, so the active filter is evaluated by Cassandra
+   * within that partition instead of returning every participant.
+   */
+  private Statement filterParticipants(Select select, String batchId, boolean active) {
+    select.allowFiltering();
+    select
+        .where(QueryBuilder.eq(JsonKey.BATCH_ID, batchId))
+        .and(QueryBuilder.eq(JsonKey.ACTIVE, active));
+    return select;
+  }
+
+  private Session getSession() {
+    String cassandraMode =
+        PropertiesCache.getInstance().getProperty(JsonKey.SUNBIRD_CASSANDRA_MODE);
+    return CassandraConnectionMngrFactory.getObject(cassandraMode).getSession(KEYSPACE_NAME);
+  }
 }
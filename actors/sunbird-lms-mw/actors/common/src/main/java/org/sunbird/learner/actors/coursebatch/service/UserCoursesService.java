@@ -1,6 +1,13 @@
 package org.sunbird.learner.actors.coursebatch.service;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.tuple.Pair;
 import org.sunbird.common.ElasticSearchHelper;
 import org.sunbird.common.exception.ProjectCommonException;
 import org.sunbird.common.factory.EsClientFactory;
@@ -14,6 +21,10 @@ import org.sunbird.common.responsecode.ResponseCode;
 import org.sunbird.dto.SearchDTO;
 import org.sunbird.learner.actors.coursebatch.dao.UserCoursesDao;
 import org.sunbird.learner.actors.coursebatch.dao.impl.UserCoursesDaoImpl;
+import org.sunbird.learner.constants.CourseJsonKey;
+import org.sunbird.learner.util.ConfigValueUtil;
+import org.sunbird.learner.util.EsIndexOutbox;
+import org.sunbird.models.user.courses.BatchParticipantsPage;
 import org.sunbird.models.user.courses.UserCourses;
 import scala.concurrent.Future;
 
@@ -21,6 +32,34 @@ public class UserCoursesService {
   private UserCoursesDao userCourseDao = UserCoursesDaoImpl.getInstance();
   private static ElasticSearchService esService = EsClientFactory.getInstance(JsonKey.REST);
   public static final String UNDERSCORE = "_";
+  private static final String BATCH_ENROLL_OPERATION = "addUserBatch";
+  private static final String BATCH_UNENROLL_OPERATION = "removeUserFromBatch";
+
+  private static final int DEFAULT_WRITE_PARALLELISM = 4;
+  private static final int DEFAULT_PARTICIPANTS_FETCH_SIZE = 1000;
+  private static final int DEFAULT_READ_PARALLELISM = 4;
+  private static final ExecutorService readExecutor =
+      Executors.newFixedThreadPool(
+          Math.max(
+              1,
+              ConfigValueUtil.getInt(
+                  CourseJsonKey.PARTICIPANTS_READ_PARALLELISM, DEFAULT_READ_PARALLELISM)),
+          runnable -> {
+            Thread thread = new Thread(runnable, "user-courses-reader");
+            thread.setDaemon(true);
+            return thread;
+          });
+  private static final ExecutorService writeExecutor =
+      Executors.newFixedThreadPool(
+          Math.max(
+              1,
+              ConfigValueUtil.getInt(
+                  CourseJsonKey.ENROLLMENT_WRITE_PARALLELISM, DEFAULT_WRITE_PARALLELISM)),
+          runnable -> {
+            Thread thread = new Thread(runnable, "user-courses-writer");
+            thread.setDaemon(true);
+            return thread;
+          });
 
   protected Integer CASSANDRA_BATCH_SIZE = getBatchSize(JsonKey.CASSANDRA_WRITE_BATCH_SIZE);
 
@@ -64,10 +103,15 @@ public class UserCoursesService {
             + batchId);
   }
 
-  public void enroll(String batchId, String courseId, List<String> userIds) {
-    Integer count = 0;
-
-    List<Map<String, Object>> records = new ArrayList<>();
+  /**
+   * Enrols given users into a batch. Users are written to Cassandra and synced to ES in chunks of
+   * {@code CASSANDRA_BATCH_SIZE}, of which {@code sunbird_enrollment_write_parallelism} are
+   * written at a time. A chunk which fails does not affect the other chunks; its users are
+   * reported as failed.
+   *
+   * @return Map of user ID and error message of the users which could not be enrolled
+   */
+  public Map<String, String> enroll(String batchId, String courseId, List<String> userIds) {
     Map<String, Object> userCoursesCommon = new HashMap<>();
     userCoursesCommon.put(JsonKey.BATCH_ID, batchId);
     userCoursesCommon.put(JsonKey.COURSE_ID, courseId);
@@ -76,39 +120,135 @@ public class UserCoursesService {
     userCoursesCommon.put(JsonKey.STATUS, ProjectUtil.ProgressStatus.NOT_STARTED.getValue());
     userCoursesCommon.put(JsonKey.COURSE_PROGRESS, 0);
 
+    List<Map<String, Object>> records = new ArrayList<>();
     for (String userId : userIds) {
       Map<String, Object> userCourses = new HashMap<>();
       userCourses.put(JsonKey.USER_ID, userId);
       userCourses.putAll(userCoursesCommon);
-
-      count++;
       records.add(userCourses);
-      if (count > CASSANDRA_BATCH_SIZE) {
-        performBatchInsert(records);
-        syncUsersToES(records);
-        records.clear();
-        count = 0;
-      }
-      if (count != 0) {
-        performBatchInsert(records);
-        syncUsersToES(records);
-        records.clear();
-        count = 0;
+    }
+    return writeInChunks(
+        records, userCourses -> (String) userCourses.get(JsonKey.USER_ID), this::insertAndSync);
+  }
+
+  /**
+   * Unenrols given users from a batch, in chunks like {@link #enroll(String, String, List)}.
+   *
+   * @return Map of user ID and error message of the users which could not be unenrolled
+   */
+  public Map<String, String> unenroll(String batchId, List<String> userIds) {
+    return writeInChunks(userIds, Function.identity(), chunk -> deactivateAndSync(batchId, chunk));
+  }
+
+  /**
+   * Writes given items in chunks, in parallel if there is more than one chunk, and waits for all
+   * chunks. If writing a chunk throws, all users of that chunk are reported as failed.
+   *
+   * @return Map of user ID and error message of the users which could not be written
+   */
+  private <T> Map<String, String> writeInChunks(
+      List<T> items,
+      Function<T, String> userIdOf,
+      Function<List<T>, Map<String, String>> writer) {
+    Map<String, String> failures = new HashMap<>();
+    if (CollectionUtils.isEmpty(items)) {
+      return failures;
+    }
+    int chunkSize = Math.max(1, CASSANDRA_BATCH_SIZE);
+    // a list, not a map, as chunks of duplicate user IDs are equal
+    List<Pair<List<T>, CompletableFuture<Map<String, String>>>> chunks = new ArrayList<>();
+    for (int from = 0; from < items.size(); from += chunkSize) {
+      List<T> chunk = items.subList(from, Math.min(from + chunkSize, items.size()));
+      // a single chunk is written on the calling thread
+      chunks.add(
+          Pair.of(
+              chunk,
+              items.size() <= chunkSize
+                  ? CompletableFuture.completedFuture(null).thenApply(none -> writer.apply(chunk))
+                  : CompletableFuture.supplyAsync(() -> writer.apply(chunk), writeExecutor)));
+    }
+    for (Pair<List<T>, CompletableFuture<Map<String, String>>> chunk : chunks) {
+      try {
+        failures.putAll(chunk.getValue().join());
+      } catch (CompletionException e) {
+        ProjectLogger.log(
+            "UserCoursesService:writeInChunks: Chunk of "
+                + chunk.getKey().size()
+                + " users failed with error message = "
+                + e.getCause().getMessage(),
+            e.getCause());
+        for (T item : chunk.getKey()) {
+          failures.put(userIdOf.apply(item), e.getCause().getMessage());
+        }
       }
     }
+    return failures;
+  }
+
+  private Map<String, String> insertAndSync(List<Map<String, Object>> records) {
+    Map<String, String> failures = performBatchInsert(records);
+    List<Map<String, Object>> inserted = withoutFailures(records, failures);
+    if (!offerToOutbox(inserted, BATCH_ENROLL_OPERATION)) {
+      failures.putAll(syncEachToES(inserted));
+    }
+    return failures;
+  }
+
+  /**
+   * Records given user courses in the ES index outbox, as upserts so that fields only present in
+   * the indexed document are kept.
+   */
+  private static boolean offerToOutbox(List<Map<String, Object>> records, String operation) {
+    Map<String, Map<String, Object>> docs = new LinkedHashMap<>();
+    for (Map<String, Object> userCourses : records) {
+      docs.put(setESId(userCourses), userCourses);
+    }
+    return EsIndexOutbox.getInstance()
+        .offerAll(ProjectUtil.EsType.usercourses.getTypeName(), docs, true, operation);
   }
 
-  private void syncUsersToES(List<Map<String, Object>> records) {
+  private Map<String, String> deactivateAndSync(String batchId, List<String> userIds) {
+    Map<String, String> failures = new HashMap<>();
+    List<Map<String, Object>> records = new ArrayList<>();
+    for (String userId : userIds) {
+      try {
+        validateUserUnenroll(userCourseDao.read(batchId, userId));
+        Map<String, Object> updateAttributes = new HashMap<>();
+        updateAttributes.put(JsonKey.BATCH_ID, batchId);
+        updateAttributes.put(JsonKey.USER_ID, userId);
+        updateAttributes.put(JsonKey.ACTIVE, ProjectUtil.ActiveStatus.INACTIVE.getValue());
+        records.add(updateAttributes);
+      } catch (ProjectCommonException e) {
+        failures.put(userId, e.getMessage());
+      }
+    }
+    Map<String, String> updateFailures = performBatchUpdate(records);
+    failures.putAll(updateFailures);
+    List<Map<String, Object>> updated = withoutFailures(records, updateFailures);
+    if (!offerToOutbox(updated, BATCH_UNENROLL_OPERATION)) {
+      failures.putAll(syncEachToES(updated));
+    }
+    return failures;
+  }
 
+  private static List<Map<String, Object>> withoutFailures(
+      List<Map<String, Object>> records, Map<String, String> failures) {
+    List<Map<String, Object>> succeeded = new ArrayList<>();
     for (Map<String, Object> userCourses : records) {
-      sync(
-          userCourses,
-          (String) userCourses.get(JsonKey.BATCH_ID),
-          (String) userCourses.get(JsonKey.USER_ID));
+      if (!failures.containsKey(userCourses.get(JsonKey.USER_ID))) {
+        succeeded.add(userCourses);
+      }
     }
+    return succeeded;
   }
 
-  protected void performBatchInsert(List<Map<String, Object>> records) {
+  /**
+   * Writes given records with one batch insert, falling back to one insert per record.
+   *
+   * @return Map of user ID and error message of the records which could not be written
+   */
+  protected Map<String, String> performBatchInsert(List<Map<String, Object>> records) {
+    Map<String, String> failures = new HashMap<>();
     try {
       userCourseDao.batchInsert(records);
     } catch (Exception ex) {
@@ -126,9 +266,83 @@ public class UserCoursesService {
                   + " for ID = "
                   + task.get(JsonKey.ID),
               exception);
+          failures.put((String) task.get(JsonKey.USER_ID), exception.getMessage());
         }
       }
     }
+    return failures;
+  }
+
+  private Map<String, String> performBatchUpdate(List<Map<String, Object>> records) {
+    Map<String, String> failures = new HashMap<>();
+    if (records.isEmpty()) {
+      return failures;
+    }
+    try {
+      userCourseDao.batchUpdate(records);
+    } catch (Exception ex) {
+      ProjectLogger.log(
+          "UserCoursesService:performBatchUpdate: Performing retry due to exception = "
+              + ex.getMessage(),
+          LoggerEnum.ERROR);
+      for (Map<String, Object> task : records) {
+        String batchId = (String) task.get(JsonKey.BATCH_ID);
+        String userId = (String) task.get(JsonKey.USER_ID);
+        try {
+          userCourseDao.update(batchId, userId, task);
+        } catch (Exception exception) {
+          ProjectLogger.log(
+              "UserCoursesService:performBatchUpdate: Exception occurred with error message = "
+                  + exception.getMessage()
+                  + " for user ID = "
+                  + userId,
+              exception);
+          failures.put(userId, exception.getMessage());
+        }
+      }
+    }
+    return failures;
+  }
+
+  /**
+   * Sends one ES upsert per record without waiting in between, then waits for all of them. An
+   * upsert only replaces the given fields of an indexed document.
+   *
+   * @return Map of user ID and error message of the records which could not be synced
+   */
+  private Map<String, String> syncEachToES(List<Map<String, Object>> records) {
+    Map<String, String> failures = new HashMap<>();
+    Map<String, Future<Boolean>> responses = new HashMap<>();
+    for (Map<String, Object> userCourses : records) {
+      String userId = (String) userCourses.get(JsonKey.USER_ID);
+      try {
+        responses.put(
+            userId,
+            esService.upsert(
+                ProjectUtil.EsType.usercourses.getTypeName(), setESId(userCourses), userCourses));
+      } catch (Exception e) {
+        failures.put(userId, e.getMessage());
+      }
+    }
+    for (Map.Entry<String, Future<Boolean>> response : responses.entrySet()) {
+      Object synced = ElasticSearchHelper.getResponseFromFuture(response.getValue());
+      if (!Boolean.TRUE.equals(synced)) {
+        ProjectLogger.log(
+            "UserCoursesService:syncEachToES: Sync failed for user ID = " + response.getKey(),
+            LoggerEnum.ERROR.name());
+        failures.put(response.getKey(), ResponseCode.internalError.getErrorMessage());
+      }
+    }
+    return failures;
+  }
+
+  private static String setESId(Map<String, Object> userCourses) {
+    String id =
+        generateUserCourseESId(
+            (String) userCourses.get(JsonKey.BATCH_ID), (String) userCourses.get(JsonKey.USER_ID));
+    userCourses.put(JsonKey.ID, id);
+    userCourses.put(JsonKey.IDENTIFIER, id);
+    return id;
   }
 
   public void unenroll(String batchId, String userId) {
@@ -141,22 +355,38 @@ public class UserCoursesService {
   }
 
   public Map<String, Object> getActiveUserCourses(String userId) {
+    Future<Map<String, Object>> resultF = getActiveUserCoursesAsync(userId);
+    Map<String, Object> result =
+        (Map<String, Object>) ElasticSearchHelper.getResponseFromFuture(resultF);
+    return result;
+  }
+
+  public Future<Map<String, Object>> getActiveUserCoursesAsync(String userId) {
     Map<String, Object> filter = new HashMap<>();
     filter.put(JsonKey.USER_ID, userId);
     filter.put(JsonKey.ACTIVE, ProjectUtil.ActiveStatus.ACTIVE.getValue());
     SearchDTO searchDto = new SearchDTO();
     searchDto.getAdditionalProperties().put(JsonKey.FILTERS, filter);
-    Future<Map<String, Object>> resultF =
-        esService.search(searchDto, ProjectUtil.EsType.usercourses.getTypeName());
-    Map<String, Object> result =
-        (Map<String, Object>) ElasticSearchHelper.getResponseFromFuture(resultF);
-    return result;
+    return esService.search(searchDto, ProjectUtil.EsType.usercourses.getTypeName());
   }
 
   public static void sync(Map<String, Object> courseMap, String batchId, String userId) {
+    sync(courseMap, batchId, userId, null);
+  }
+
+  /**
+   * Upserts given user courses attributes to ES, or records them in the ES index outbox if it is
+   * enabled for given operation.
+   */
+  public static void sync(
+      Map<String, Object> courseMap, String batchId, String userId, String operation) {
     String id = generateUserCourseESId(batchId, userId);
     courseMap.put(JsonKey.ID, id);
     courseMap.put(JsonKey.IDENTIFIER, id);
+    if (EsIndexOutbox.getInstance()
+        .offer(ProjectUtil.EsType.usercourses.getTypeName(), id, courseMap, true, operation)) {
+      return;
+    }
     Future<Boolean> responseF =
         esService.upsert(ProjectUtil.EsType.usercourses.getTypeName(), id, courseMap);
     boolean response = (boolean) ElasticSearchHelper.getResponseFromFuture(responseF);
@@ -184,4 +414,93 @@ public class UserCoursesService {
   public List<String> getParticipantsList(String batchId, boolean active) {
     return userCourseDao.getBatchParticipants(batchId, active);
   }
+
+  public BatchParticipantsPage getParticipantsPage(
+      String batchId, boolean active, int pageSize, String cursor) {
+    return userCourseDao.getBatchParticipantsPage(batchId, active, pageSize, cursor);
+  }
+
+  /**
+   * Streams the IDs of the active or inactive participants of given batch, reading them one page
+   * at a time.
+   */
+  public Iterator<String> streamParticipants(String batchId, boolean active) {
+    return userCourseDao.streamBatchParticipants(
+        batchId,
+        active,
+        ConfigValueUtil.getInt(
+            CourseJsonKey.PARTICIPANTS_FETCH_SIZE, DEFAULT_PARTICIPANTS_FETCH_SIZE));
+  }
+
+  /**
+   * Reads the active participant IDs of given batches. Batches are read in parallel, bounded by
+   * {@code sunbird_participants_read_parallelism}.
+   *
+   * @return Map of batch ID and participant IDs
+   */
+  public Map<String, List<String>> getParticipantsOfBatches(Collection<String> batchIds) {
+    return readForBatches(
+        batchIds,
+        batchId -> {
+          List<String> participants = new ArrayList<>();
+          streamParticipants(batchId, true).forEachRemaining(participants::add);
+          return participants;
+        });
+  }
+
+  /**
+   * Counts the active participants of given batches, reading the batches in parallel like {@link
+   * #getParticipantsOfBatches(Collection)}.
+   *
+   * @return Map of batch ID and participant count
+   */
+  public Map<String, Long> countParticipantsOfBatches(Collection<String> batchIds) {
+    return readForBatches(batchIds, batchId -> userCourseDao.countBatchParticipants(batchId, true));
+  }
+
+  private <T> Map<String, T> readForBatches(
+      Collection<String> batchIds, Function<String, T> reader) {
+    Map<String, CompletableFuture<T>> reads = new LinkedHashMap<>();
+    for (String batchId : batchIds) {
+      if (batchId != null && !reads.containsKey(batchId)) {
+        reads.put(
+            batchId, CompletableFuture.supplyAsync(() -> reader.apply(batchId), readExecutor));
+      }
+    }
+    Map<String, T> results = new HashMap<>();
+    for (Map.Entry<String, CompletableFuture<T>> read : reads.entrySet()) {
+      try {
+        results.put(read.getKey(), read.getValue().join());
+      } catch (CompletionException e) {
+        ProjectLogger.log(
+            "UserCoursesService:readForBatches: Exception occurred for batch "
+                + read.getKey()
+                + " with error message = "
+                + e.getCause().getMessage(),
+            e.getCause());
+        throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Returns which of given users are active participants of given batch. Only the rows of given
+   * users are read, in chunks of {@code CASSANDRA_WRITE_BATCH_SIZE} users per query.
+   */
+  public Set<String> getEnrolledUsers(String batchId, Collection<String> userIds) {
+    List<String> requestedIds = new ArrayList<>(new LinkedHashSet<>(userIds));
+    Set<String> enrolledIds = new HashSet<>();
+    int chunkSize = Math.max(1, CASSANDRA_BATCH_SIZE);
+    for (int from = 0; from < requestedIds.size(); from += chunkSize) {
+      List<String> chunk =
+          requestedIds.subList(from, Math.min(from + chunkSize, requestedIds.size()));
+      for (UserCourses userCourses : userCourseDao.read(batchId, chunk)) {
+        if (userCourses.isActive()) {
+          enrolledIds.add(userCourses.getUserId());
+        }
+      }
+    }
+    return enrolledIds;
+  }
 }
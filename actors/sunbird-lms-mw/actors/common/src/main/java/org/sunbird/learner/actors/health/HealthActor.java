@@ -3,6 +3,7 @@ package org.sunbird.learner.actors.health;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import org.apache.commons.lang3.StringUtils;
@@ -12,6 +13,7 @@ import org.sunbird.cassandra.CassandraOperation;
 import org.sunbird.common.ElasticSearchHelper;
 import org.sunbird.common.ElasticSearchTcpImpl;
 import org.sunbird.common.exception.ProjectCommonException;
+import org.sunbird.common.http.OutboundHttpClients;
 import org.sunbird.common.inf.ElasticSearchService;
 import org.sunbird.common.models.response.Response;
 import org.sunbird.common.models.util.*;
@@ -19,6 +21,9 @@ import org.sunbird.common.request.ExecutionContext;
 import org.sunbird.common.request.Request;
 import org.sunbird.common.responsecode.ResponseCode;
 import org.sunbird.helper.ServiceFactory;
+import org.sunbird.learner.util.CacheInvalidationBus;
+import org.sunbird.learner.util.DataCacheHandler;
+import org.sunbird.learner.util.EsIndexOutbox;
 import org.sunbird.learner.util.Util;
 import scala.concurrent.Future;
 
@@ -200,6 +205,11 @@ public class HealthActor extends BaseActor {
       isallHealthy = false;
     }
 
+    Map<String, Object> caches = new LinkedHashMap<>(DataCacheHandler.getCacheMetrics());
+    caches.put("invalidationBus", CacheInvalidationBus.getInstance().getMetrics());
+    finalResponseMap.put("caches", caches);
+    finalResponseMap.put("httpClients", OutboundHttpClients.getMetrics());
+    finalResponseMap.put("esIndexOutbox", EsIndexOutbox.getInstance().getMetrics());
     finalResponseMap.put(JsonKey.CHECKS, responseList);
     finalResponseMap.put(JsonKey.NAME, "Complete health check api");
     if (isallHealthy) {
@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import org.sunbird.actor.core.BaseActor;
 import org.sunbird.actor.router.ActorConfig;
 import org.sunbird.common.ElasticSearchHelper;
@@ -22,6 +23,7 @@ import org.sunbird.common.request.ExecutionContext;
 import org.sunbird.common.request.Request;
 import org.sunbird.dto.SearchDTO;
 import org.sunbird.learner.actors.coursebatch.service.UserCoursesService;
+import org.sunbird.learner.constants.CourseJsonKey;
 import org.sunbird.learner.util.Util;
 import org.sunbird.telemetry.util.TelemetryLmaxWriter;
 import org.sunbird.telemetry.util.TelemetryUtil;
@@ -40,6 +42,7 @@ public class SearchHandlerActor extends BaseActor {
 
   private String topn = PropertiesCache.getInstance().getProperty(JsonKey.SEARCH_TOP_N);
   private ElasticSearchService esService = EsClientFactory.getInstance(JsonKey.REST);
+  private UserCoursesService userCoursesService = new UserCoursesService();
 
   @SuppressWarnings({"unchecked", "rawtypes"})
   @Override
@@ -84,15 +87,17 @@ public class SearchHandlerActor extends BaseActor {
               + (Instant.now().toEpochMilli() - instant.toEpochMilli()),
           LoggerEnum.INFO.name());
       if (EsType.courseBatch.getTypeName().equalsIgnoreCase(filterObjectType)) {
-        if (JsonKey.PARTICIPANTS.equalsIgnoreCase(
-            (String) request.getContext().get(JsonKey.PARTICIPANTS))) {
-          List<Map<String, Object>> courseBatchList =
-              (List<Map<String, Object>>) result.get(JsonKey.CONTENT);
-          for (Map<String, Object> courseBatch : courseBatchList) {
-            courseBatch.put(
-                JsonKey.PARTICIPANTS,
-                getParticipantList((String) courseBatch.get(JsonKey.BATCH_ID)));
-          }
+        String requestedField = (String) request.getContext().get(JsonKey.PARTICIPANTS);
+        if (JsonKey.PARTICIPANTS.equalsIgnoreCase(requestedField)) {
+          addParticipants(
+              (List<Map<String, Object>>) result.get(JsonKey.CONTENT),
+              JsonKey.PARTICIPANTS,
+              userCoursesService::getParticipantsOfBatches);
+        } else if (CourseJsonKey.PARTICIPANT_COUNT.equalsIgnoreCase(requestedField)) {
+          addParticipants(
+              (List<Map<String, Object>>) result.get(JsonKey.CONTENT),
+              CourseJsonKey.PARTICIPANT_COUNT,
+              userCoursesService::countParticipantsOfBatches);
         }
         Response response = new Response();
         if (result != null) {
@@ -110,9 +115,22 @@ public class SearchHandlerActor extends BaseActor {
     }
   }
 
-  private List<String> getParticipantList(String id) {
-    UserCoursesService userCourseService = new UserCoursesService();
-    return userCourseService.getEnrolledUserFromBatch(id);
+  /** Reads the participants of all batches in the page at once and adds them under given key. */
+  private <T> void addParticipants(
+      List<Map<String, Object>> courseBatchList,
+      String key,
+      Function<List<String>, Map<String, T>> reader) {
+    if (courseBatchList == null) {
+      return;
+    }
+    List<String> batchIds = new ArrayList<>();
+    for (Map<String, Object> courseBatch : courseBatchList) {
+      batchIds.add((String) courseBatch.get(JsonKey.BATCH_ID));
+    }
+    Map<String, T> participants = reader.apply(batchIds);
+    for (Map<String, Object> courseBatch : courseBatchList) {
+      courseBatch.put(key, participants.get((String) courseBatch.get(JsonKey.BATCH_ID)));
+    }
   }
 
   private void generateSearchTelemetryEvent(
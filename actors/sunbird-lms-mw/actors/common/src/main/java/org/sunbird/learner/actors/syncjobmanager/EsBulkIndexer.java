@@ -0,0 +1,156 @@
+package org.sunbird.learner.actors.syncjobmanager;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.RateLimiter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.sunbird.common.ElasticSearchHelper;
+import org.sunbird.common.inf.ElasticSearchService;
+import org.sunbird.common.models.util.JsonKey;
+import org.sunbird.common.models.util.LoggerEnum;
+import org.sunbird.common.models.util.ProjectLogger;
+import scala.concurrent.Future;
+
+/**
+ * Indexes documents of one ES type with bulk requests sized by payload bytes. A failed bulk request
+ * is retried in halves and shrinks the byte target for following requests, which grows back while
+ * requests succeed. The optional docs per second limit is shared by all threads using the indexer.
+ */
+class EsBulkIndexer {
+
+  private static final ObjectMapper mapper = new ObjectMapper();
+  private static final long MIN_BULK_BYTES = 64 * 1024L;
+  private static final int DEFAULT_DOC_BYTES = 1024;
+
+  private final ElasticSearchService esService;
+  private final String esType;
+  private final long maxBulkBytes;
+  private final int maxBulkDocs;
+  private final RateLimiter rateLimiter;
+  private final AtomicLong bulkBytes;
+  private final AtomicLong indexedCount = new AtomicLong();
+  private final AtomicLong failedCount = new AtomicLong();
+
+  /**
+   * @param maxBulkBytes Payload size up to which documents are sent in one bulk request
+   * @param maxBulkDocs Number of documents up to which documents are sent in one bulk request
+   * @param docsPerSecond Maximum number of documents indexed per second, or 0 for no limit
+   */
+  EsBulkIndexer(
+      ElasticSearchService esService,
+      String esType,
+      long maxBulkBytes,
+      int maxBulkDocs,
+      double docsPerSecond) {
+    this.esService = esService;
+    this.esType = esType;
+    this.maxBulkBytes = Math.max(MIN_BULK_BYTES, maxBulkBytes);
+    this.maxBulkDocs = Math.max(1, maxBulkDocs);
+    this.rateLimiter = docsPerSecond > 0 ? RateLimiter.create(docsPerSecond) : null;
+    this.bulkBytes = new AtomicLong(this.maxBulkBytes);
+  }
+
+  /** Returns a new buffer of documents. A buffer must only be used by one thread. */
+  Buffer newBuffer() {
+    return new Buffer();
+  }
+
+  long getIndexedCount() {
+    return indexedCount.get();
+  }
+
+  long getFailedCount() {
+    return failedCount.get();
+  }
+
+  /** @return Number of given documents which were indexed */
+  int index(List<Map<String, Object>> docs) {
+    return index(docs, null);
+  }
+
+  /**
+   * @param failedIds Collects the IDs of documents which could not be indexed, if not null
+   * @return Number of given documents which were indexed
+   */
+  int index(List<Map<String, Object>> docs, List<String> failedIds) {
+    if (docs.isEmpty()) {
+      return 0;
+    }
+    if (rateLimiter != null) {
+      rateLimiter.acquire(docs.size());
+    }
+    if (bulkInsert(docs)) {
+      bulkBytes.updateAndGet(bytes -> Math.min(maxBulkBytes, bytes + bytes / 4));
+      indexedCount.addAndGet(docs.size());
+      return docs.size();
+    }
+    bulkBytes.updateAndGet(bytes -> Math.max(MIN_BULK_BYTES, bytes / 2));
+    if (docs.size() == 1) {
+      ProjectLogger.log(
+          "EsBulkIndexer:index: Failed to index document of type " + esType,
+          LoggerEnum.ERROR.name());
+      failedCount.incrementAndGet();
+      if (failedIds != null) {
+        failedIds.add((String) docs.get(0).get(JsonKey.ID));
+      }
+      return 0;
+    }
+    int half = docs.size() / 2;
+    return index(docs.subList(0, half), failedIds)
+        + index(docs.subList(half, docs.size()), failedIds);
+  }
+
+  private boolean bulkInsert(List<Map<String, Object>> docs) {
+    try {
+      Future<Boolean> responseF = esService.bulkInsert(esType, new ArrayList<>(docs));
+      return Boolean.TRUE.equals(ElasticSearchHelper.getResponseFromFuture(responseF));
+    } catch (Exception e) {
+      ProjectLogger.log(
+          "EsBulkIndexer:bulkInsert: Bulk request of "
+              + docs.size()
+              + " documents failed with error message = "
+              + e.getMessage(),
+          e);
+      return false;
+    }
+  }
+
+  /** Collects documents until they fill a bulk request of the current byte target. */
+  class Buffer {
+
+    private final List<Map<String, Object>> docs = new ArrayList<>();
+    private final List<String> failedIds = new ArrayList<>();
+    private long bytes = 0;
+
+    /** @return Whether the buffer is full and should be flushed */
+    boolean add(Map<String, Object> doc) {
+      docs.add(doc);
+      bytes += estimateBytes(doc);
+      return bytes >= bulkBytes.get() || docs.size() >= maxBulkDocs;
+    }
+
+    /** @return Number of buffered documents which were indexed */
+    int flush() {
+      int indexed = index(docs, failedIds);
+      docs.clear();
+      bytes = 0;
+      return indexed;
+    }
+
+    /** @return IDs of the documents of all flushes of this buffer which could not be indexed */
+    List<String> getFailedIds() {
+      return failedIds;
+    }
+
+    private int estimateBytes(Map<String, Object> doc) {
+      try {
+        return mapper.writeValueAsBytes(doc).length;
+      } catch (JsonProcessingException e) {
+        return DEFAULT_DOC_BYTES;
+      }
+    }
+  }
+}
@@ -0,0 +1,398 @@
+package org.sunbird.learner.actors.syncjobmanager;
+
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.SimpleStatement;
+import com.datastax.driver.core.Statement;
+import java.sql.Timestamp;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import org.apache.commons.lang3.StringUtils;
+import org.sunbird.cassandra.CassandraOperation;
+import org.sunbird.common.CassandraUtil;
+import org.sunbird.common.models.util.JsonKey;
+import org.sunbird.common.models.util.LoggerEnum;
+import org.sunbird.common.models.util.ProjectLogger;
+import org.sunbird.common.models.util.ProjectUtil;
+import org.sunbird.learner.actors.coursebatch.service.UserCoursesService;
+import org.sunbird.learner.constants.CourseJsonKey;
+import org.sunbird.learner.util.Util;
+
+/**
+ * Re-indexes the rows of a type which changed in a time window, from inclusive to exclusive. The
+ * status of the sync is saved under its sync ID, so that the caller can query it.
+ *
+ * <p>User courses are read through the index on their dateTime column. Progress updates only
+ * change content consumption, so changed content consumption re-indexes the user course it
+ * belongs to. It is read through the index on its lastUpdatedOn column, which is written since
+ * {@code sunbird_content_consumption_change_time_since}. Windows starting before that time, or
+ * without it configured, scan the key and lastUpdatedTime columns of all content consumption
+ * instead, in token ranges which are read in parallel. Course batches are few and are scanned whole
+ * and filtered by updatedDate.
+ */
+class EsIncrementalSync {
+
+  private static final String RUNNING = "running";
+  private static final String COMPLETED = "completed";
+  private static final String INTERRUPTED = "interrupted";
+
+  private static final int USER_READ_BATCH_SIZE = 100;
+  private static final String DATE_TIME = "datetime";
+  private static final String UPDATED_DATE = "updateddate";
+  private static final String CREATED_DATE = "createddate";
+  private static final String LAST_UPDATED_TIME = "lastupdatedtime";
+  private static final String LAST_UPDATED_ON = "lastupdatedon";
+  private static final String BATCH_ID = "batchid";
+  private static final String USER_ID = "userid";
+  private static final String SCANNED_COUNT = "scannedCount";
+  private static final String CHANGED_COUNT = "changedCount";
+  private static final String INDEXED_COUNT = "indexedCount";
+  private static final String FAILED_COUNT = "failedCount";
+  private static final String FAILED_IDS = "failedIds";
+
+  private final Util.DbInfo consumptionDb = Util.dbInfoMap.get(JsonKey.LEARNER_CONTENT_DB);
+  private final Util.DbInfo syncDb = Util.dbInfoMap.get(CourseJsonKey.ES_INCREMENTAL_SYNC_DB);
+  private final CassandraOperation cassandraOperation;
+  private final String syncId;
+  private final String objectType;
+  private final Util.DbInfo dbInfo;
+  private final EsBulkIndexer indexer;
+  private final BiFunction<Row, Map<String, String>, Map<String, Object>> docMapper;
+  private final Executor executor;
+  private final int rangeCount;
+  private final int fetchSize;
+  private final Date fromDate;
+  private final Date toDate;
+  private final Date changeTimeSince;
+  private final AtomicLong scannedCount = new AtomicLong();
+  private final AtomicLong changedCount = new AtomicLong();
+  private final Set<String> failedIds = ConcurrentHashMap.newKeySet();
+
+  EsIncrementalSync(
+      CassandraOperation cassandraOperation,
+      String syncId,
+      String objectType,
+      Util.DbInfo dbInfo,
+      EsBulkIndexer indexer,
+      BiFunction<Row, Map<String, String>, Map<String, Object>> docMapper,
+      Executor executor,
+      int rangeCount,
+      int fetchSize,
+      Date fromDate,
+      Date toDate,
+      Date changeTimeSince) {
+    this.cassandraOperation = cassandraOperation;
+    this.syncId = syncId;
+    this.objectType = objectType;
+    this.dbInfo = dbInfo;
+    this.indexer = indexer;
+    this.docMapper = docMapper;
+    this.executor = executor;
+    this.rangeCount = Math.max(1, rangeCount);
+    this.fetchSize = Math.max(1, fetchSize);
+    this.fromDate = fromDate;
+    this.toDate = toDate;
+    this.changeTimeSince = changeTimeSince;
+  }
+
+  /**
+   * Saves the sync as running and starts it on given executor, which is shared with resyncs.
+   * Returns without waiting for the sync. The status and counts are saved and logged at the end.
+   */
+  void start() {
+    Map<String, Object> record = new HashMap<>();
+    record.put(CourseJsonKey.SYNC_ID, syncId);
+    record.put(JsonKey.OBJECT_TYPE, objectType);
+    record.put(CourseJsonKey.FROM_DATE, new Timestamp(fromDate.getTime()));
+    record.put(CourseJsonKey.TO_DATE, new Timestamp(toDate.getTime()));
+    record.put(JsonKey.STATUS, RUNNING);
+    record.put(JsonKey.CREATED_ON, new Timestamp(System.currentTimeMillis()));
+    cassandraOperation.insertRecord(syncDb.getKeySpace(), syncDb.getTableName(), record);
+
+    CompletableFuture<Void> sync;
+    if (JsonKey.BATCH.equals(objectType)) {
+      sync = CompletableFuture.runAsync(this::syncBatches, executor);
+    } else if (JsonKey.USER_COURSE.equals(objectType)) {
+      sync = syncUserCourses();
+    } else {
+      sync = CompletableFuture.completedFuture(null);
+    }
+    sync.whenComplete((result, error) -> finish(error));
+  }
+
+  private void finish(Throwable error) {
+    String status = null == error ? COMPLETED : INTERRUPTED;
+    SimpleDateFormat dateFormat = ProjectUtil.getDateFormatter();
+    String summary =
+        "EsIncrementalSync:finish: Sync "
+            + syncId
+            + " of type "
+            + objectType
+            + " changed from "
+            + dateFormat.format(fromDate)
+            + " to "
+            + dateFormat.format(toDate)
+            + " "
+            + status
+            + " with "
+            + scannedCount.get()
+            + " rows scanned, "
+            + changedCount.get()
+            + " rows changed, "
+            + indexer.getIndexedCount()
+            + " documents indexed and "
+            + indexer.getFailedCount()
+            + " documents failed";
+    if (null == error) {
+      ProjectLogger.log(summary, LoggerEnum.INFO.name());
+    } else {
+      ProjectLogger.log(summary, error);
+    }
+    Map<String, Object> primaryKey = new HashMap<>();
+    primaryKey.put(CourseJsonKey.SYNC_ID, syncId);
+    Map<String, Object> attributes = new HashMap<>();
+    attributes.put(JsonKey.STATUS, status);
+    attributes.put(SCANNED_COUNT, scannedCount.get());
+    attributes.put(CHANGED_COUNT, changedCount.get());
+    attributes.put(INDEXED_COUNT, indexer.getIndexedCount());
+    attributes.put(FAILED_COUNT, indexer.getFailedCount());
+    attributes.put(FAILED_IDS, new HashSet<>(failedIds));
+    attributes.put(JsonKey.LAST_UPDATED_ON, new Timestamp(System.currentTimeMillis()));
+    try {
+      cassandraOperation.updateRecord(
+          syncDb.getKeySpace(), syncDb.getTableName(), attributes, primaryKey);
+    } catch (Exception e) {
+      ProjectLogger.log("EsIncrementalSync:finish: Failed to save status of sync " + syncId, e);
+    }
+  }
+
+  private void syncBatches() {
+    SimpleDateFormat dateFormat = ProjectUtil.getDateFormatter();
+    Session session = Util.getSession(dbInfo.getKeySpace());
+    Statement statement =
+        new SimpleStatement("SELECT * FROM " + table(dbInfo)).setFetchSize(fetchSize);
+    ResultSet resultSet = session.execute(statement);
+    Map<String, String> columnMap = CassandraUtil.fetchColumnsMapping(resultSet);
+    EsBulkIndexer.Buffer buffer = indexer.newBuffer();
+    for (Row row : resultSet) {
+      scannedCount.incrementAndGet();
+      String changedOn = row.getString(UPDATED_DATE);
+      if (StringUtils.isBlank(changedOn)) {
+        changedOn = row.getString(CREATED_DATE);
+      }
+      if (isInWindow(changedOn, dateFormat)) {
+        add(buffer, docMapper.apply(row, columnMap));
+      }
+    }
+    flush(buffer);
+  }
+
+  /**
+   * Indexes the user courses whose dateTime changed while the changed content consumption is read,
+   * then indexes the user courses of the changed content consumption which were not indexed yet.
+   */
+  private CompletableFuture<Void> syncUserCourses() {
+    Set<String> indexedIds = ConcurrentHashMap.newKeySet();
+    List<CompletableFuture<?>> reads = new ArrayList<>();
+    reads.add(CompletableFuture.runAsync(() -> syncChangedUserCourses(indexedIds), executor));
+    List<CompletableFuture<Map<String, Set<String>>>> scans = new ArrayList<>();
+    if (null != changeTimeSince && !fromDate.before(changeTimeSince)) {
+      scans.add(CompletableFuture.supplyAsync(this::readChangedConsumption, executor));
+    } else {
+      long[] bounds = EsResync.splitTokenRing(rangeCount);
+      for (int i = 0; i < rangeCount; i++) {
+        long startToken = bounds[i];
+        long endToken = bounds[i + 1];
+        scans.add(
+            CompletableFuture.supplyAsync(
+                () -> scanConsumption(startToken, endToken), executor));
+      }
+    }
+    reads.addAll(scans);
+    return CompletableFuture.allOf(reads.toArray(new CompletableFuture[0]))
+        .thenRunAsync(
+            () -> {
+              Map<String, Set<String>> userIdsByBatch = new HashMap<>();
+              for (CompletableFuture<Map<String, Set<String>>> scan : scans) {
+                scan.join()
+                    .forEach(
+                        (batchId, userIds) ->
+                            userIdsByBatch
+                                .computeIfAbsent(batchId, key -> new HashSet<>())
+                                .addAll(userIds));
+              }
+              syncConsumedUserCourses(userIdsByBatch, indexedIds);
+            },
+            executor);
+  }
+
+  private void syncChangedUserCourses(Set<String> indexedIds) {
+    Session session = Util.getSession(dbInfo.getKeySpace());
+    EsBulkIndexer.Buffer buffer = indexer.newBuffer();
+    Statement statement =
+        new SimpleStatement(
+                "SELECT * FROM "
+                    + table(dbInfo)
+                    + " WHERE "
+                    + DATE_TIME
+                    + " >= ? AND "
+                    + DATE_TIME
+                    + " < ? ALLOW FILTERING",
+                fromDate,
+                toDate)
+            .setFetchSize(fetchSize);
+    ResultSet resultSet = session.execute(statement);
+    Map<String, String> columnMap = CassandraUtil.fetchColumnsMapping(resultSet);
+    for (Row row : resultSet) {
+      scannedCount.incrementAndGet();
+      Map<String, Object> doc = docMapper.apply(row, columnMap);
+      indexedIds.add((String) doc.get(JsonKey.ID));
+      add(buffer, doc);
+    }
+    flush(buffer);
+  }
+
+  /** @return User IDs by batch ID of the content consumption whose lastUpdatedOn is in window */
+  private Map<String, Set<String>> readChangedConsumption() {
+    Session session = Util.getSession(consumptionDb.getKeySpace());
+    Statement statement =
+        new SimpleStatement(
+                "SELECT "
+                    + BATCH_ID
+                    + ", "
+                    + USER_ID
+                    + " FROM "
+                    + table(consumptionDb)
+                    + " WHERE "
+                    + LAST_UPDATED_ON
+                    + " >= ? AND "
+                    + LAST_UPDATED_ON
+                    + " < ? ALLOW FILTERING",
+                fromDate,
+                toDate)
+            .setFetchSize(fetchSize);
+    Map<String, Set<String>> userIdsByBatch = new HashMap<>();
+    for (Row row : session.execute(statement)) {
+      scannedCount.incrementAndGet();
+      String batchId = row.getString(BATCH_ID);
+      String userId = row.getString(USER_ID);
+      if (StringUtils.isNoneBlank(batchId, userId)) {
+        userIdsByBatch.computeIfAbsent(batchId, key -> new HashSet<>()).add(userId);
+      }
+    }
+    return userIdsByBatch;
+  }
+
+  /** @return User IDs by batch ID of the content consumption in given token range which changed */
+  private Map<String, Set<String>> scanConsumption(long startToken, long endToken) {
+    SimpleDateFormat dateFormat = ProjectUtil.getDateFormatter();
+    Session session = Util.getSession(consumptionDb.getKeySpace());
+    String token = EsResync.getTokenFunction(session, consumptionDb);
+    Statement statement =
+        new SimpleStatement(
+                "SELECT "
+                    + BATCH_ID
+                    + ", "
+                    + USER_ID
+                    + ", "
+                    + LAST_UPDATED_TIME
+                    + " FROM "
+                    + table(consumptionDb)
+                    + " WHERE "
+                    + token
+                    + " > ? AND "
+                    + token
+                    + " <= ?",
+                startToken,
+                endToken)
+            .setFetchSize(fetchSize);
+    Map<String, Set<String>> userIdsByBatch = new HashMap<>();
+    for (Row row : session.execute(statement)) {
+      scannedCount.incrementAndGet();
+      String batchId = row.getString(BATCH_ID);
+      String userId = row.getString(USER_ID);
+      if (StringUtils.isNoneBlank(batchId, userId)
+          && isInWindow(row.getString(LAST_UPDATED_TIME), dateFormat)) {
+        userIdsByBatch.computeIfAbsent(batchId, key -> new HashSet<>()).add(userId);
+      }
+    }
+    return userIdsByBatch;
+  }
+
+  private void syncConsumedUserCourses(
+      Map<String, Set<String>> userIdsByBatch, Set<String> indexedIds) {
+    Session session = Util.getSession(dbInfo.getKeySpace());
+    EsBulkIndexer.Buffer buffer = indexer.newBuffer();
+    for (Map.Entry<String, Set<String>> entry : userIdsByBatch.entrySet()) {
+      List<String> userIds = new ArrayList<>();
+      for (String userId : entry.getValue()) {
+        String id = UserCoursesService.generateUserCourseESId(entry.getKey(), userId);
+        if (!indexedIds.contains(id)) {
+          userIds.add(userId);
+        }
+      }
+      for (int from = 0; from < userIds.size(); from += USER_READ_BATCH_SIZE) {
+        ResultSet userCourses =
+            session.execute(
+                new SimpleStatement(
+                    "SELECT * FROM "
+                        + table(dbInfo)
+                        + " WHERE "
+                        + BATCH_ID
+                        + " = ? AND "
+                        + USER_ID
+                        + " IN ?",
+                    entry.getKey(),
+                    userIds.subList(from, Math.min(userIds.size(), from + USER_READ_BATCH_SIZE))));
+        Map<String, String> userCourseColumnMap = CassandraUtil.fetchColumnsMapping(userCourses);
+        for (Row row : userCourses) {
+          scannedCount.incrementAndGet();
+          add(buffer, docMapper.apply(row, userCourseColumnMap));
+        }
+      }
+    }
+    flush(buffer);
+  }
+
+  private void add(EsBulkIndexer.Buffer buffer, Map<String, Object> doc) {
+    changedCount.incrementAndGet();
+    if (buffer.add(doc)) {
+      buffer.flush();
+    }
+  }
+
+  private void flush(EsBulkIndexer.Buffer buffer) {
+    buffer.flush();
+    failedIds.addAll(buffer.getFailedIds());
+  }
+
+  /** Dates which are missing or cannot be parsed are treated as not changed. */
+  private boolean isInWindow(String date, SimpleDateFormat dateFormat) {
+    if (StringUtils.isBlank(date)) {
+      return false;
+    }
+    try {
+      Date changedOn = dateFormat.parse(date);
+      return !changedOn.before(fromDate) && changedOn.before(toDate);
+    } catch (ParseException e) {
+      return false;
+    }
+  }
+
+  private static String table(Util.DbInfo dbInfo) {
+    return dbInfo.getKeySpace() + "." + dbInfo.getTableName();
+  }
+}
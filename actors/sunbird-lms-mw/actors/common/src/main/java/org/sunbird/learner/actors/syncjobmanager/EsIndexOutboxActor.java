@@ -0,0 +1,76 @@
+package org.sunbird.learner.actors.syncjobmanager;
+
+import akka.actor.ActorRef;
+import akka.actor.Cancellable;
+import java.util.concurrent.TimeUnit;
+import org.sunbird.actor.core.BaseActor;
+import org.sunbird.actor.router.ActorConfig;
+import org.sunbird.common.models.response.Response;
+import org.sunbird.common.models.util.JsonKey;
+import org.sunbird.common.models.util.LoggerEnum;
+import org.sunbird.common.models.util.ProjectLogger;
+import org.sunbird.common.request.Request;
+import org.sunbird.learner.util.EsIndexOutbox;
+import scala.concurrent.duration.FiniteDuration;
+
+/**
+ * Indexes the documents recorded in the ES index outbox. Each actor instance triggers a drain on
+ * the configured interval; drains do not overlap, so extra instances only add triggers.
+ */
+@ActorConfig(
+  tasks = {"drainEsIndexOutbox"},
+  asyncTasks = {}
+)
+public class EsIndexOutboxActor extends BaseActor {
+
+  public static final String DRAIN_ES_INDEX_OUTBOX = "drainEsIndexOutbox";
+
+  private Cancellable drainSchedule = null;
+
+  @Override
+  public void preStart() throws Exception {
+    super.preStart();
+    if (EsIndexOutbox.getInstance().isEnabled()) {
+      FiniteDuration interval =
+          FiniteDuration.create(EsIndexOutbox.getDrainIntervalMillis(), TimeUnit.MILLISECONDS);
+      Request request = new Request();
+      request.setOperation(DRAIN_ES_INDEX_OUTBOX);
+      drainSchedule =
+          getContext()
+              .system()
+              .scheduler()
+              .schedule(
+                  interval,
+                  interval,
+                  self(),
+                  request,
+                  getContext().dispatcher(),
+                  ActorRef.noSender());
+      ProjectLogger.log(
+          "EsIndexOutboxActor:preStart: Draining ES index outbox every " + interval,
+          LoggerEnum.INFO.name());
+    }
+  }
+
+  @Override
+  public void postStop() throws Exception {
+    if (drainSchedule != null) {
+      drainSchedule.cancel();
+    }
+    super.postStop();
+  }
+
+  @Override
+  public void onReceive(Request request) throws Throwable {
+    if (DRAIN_ES_INDEX_OUTBOX.equals(request.getOperation())) {
+      int indexed = EsIndexOutbox.getInstance().drain();
+      if (!sender().equals(getContext().system().deadLetters())) {
+        Response response = new Response();
+        response.put(JsonKey.RESPONSE, indexed);
+        sender().tell(response, self());
+      }
+    } else {
+      onReceiveUnsupportedOperation(request.getOperation());
+    }
+  }
+}
@@ -0,0 +1,395 @@
+package org.sunbird.learner.actors.syncjobmanager;
+
+import com.datastax.driver.core.ColumnMetadata;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.SimpleStatement;
+import com.datastax.driver.core.Statement;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+import org.sunbird.cassandra.CassandraOperation;
+import org.sunbird.common.CassandraUtil;
+import org.sunbird.common.exception.ProjectCommonException;
+import org.sunbird.common.models.util.JsonKey;
+import org.sunbird.common.models.util.LoggerEnum;
+import org.sunbird.common.models.util.ProjectLogger;
+import org.sunbird.common.models.util.ProjectUtil;
+import org.sunbird.common.responsecode.ResponseCode;
+import org.sunbird.learner.constants.CourseJsonKey;
+import org.sunbird.learner.util.DistributedLease;
+import org.sunbird.learner.util.Util;
+
+/**
+ * Re-indexes a whole table to ES. The token ring is split into fixed ranges which are scanned in
+ * parallel. The progress of a range is saved after each bulk request, so starting a resync again
+ * with the same ID continues each range after its last saved partition.
+ *
+ * <p>A range is scanned only by the node holding its lease, so a resync started twice does not
+ * scan a range twice. Documents which fail are saved with their range, and the range is left
+ * incomplete from the first failed bulk request on, so resuming the resync indexes them again.
+ */
+class EsResync {
+
+  private static final String TOKEN = "resync_token";
+  private static final String RANGE_ID = "rangeId";
+  private static final String START_TOKEN = "startToken";
+  private static final String END_TOKEN = "endToken";
+  private static final String LAST_TOKEN = "lastToken";
+  private static final String COMPLETED = "completed";
+  private static final String INDEXED_COUNT = "indexedCount";
+  private static final String FAILED_IDS = "failedIds";
+  private static final String LEASE_PREFIX = "esResync/";
+  private static final BigInteger MIN_TOKEN = BigInteger.valueOf(Long.MIN_VALUE);
+  private static final BigInteger MAX_TOKEN = BigInteger.valueOf(Long.MAX_VALUE);
+
+  private final CassandraOperation cassandraOperation;
+  private final Util.DbInfo checkpointDb =
+      Util.dbInfoMap.get(CourseJsonKey.ES_RESYNC_CHECKPOINT_DB);
+  private final String resyncId;
+  private final String objectType;
+  private final Util.DbInfo dbInfo;
+  private final EsBulkIndexer indexer;
+  private final BiFunction<Row, Map<String, String>, Map<String, Object>> docMapper;
+  private final Executor executor;
+  private final DistributedLease lease;
+  private final long leaseMillis;
+  private final int rangeCount;
+  private final int fetchSize;
+
+  EsResync(
+      CassandraOperation cassandraOperation,
+      String resyncId,
+      String objectType,
+      Util.DbInfo dbInfo,
+      EsBulkIndexer indexer,
+      BiFunction<Row, Map<String, String>, Map<String, Object>> docMapper,
+      Executor executor,
+      DistributedLease lease,
+      long leaseMillis,
+      int rangeCount,
+      int fetchSize) {
+    this.cassandraOperation = cassandraOperation;
+    this.resyncId = resyncId;
+    this.objectType = objectType;
+    this.dbInfo = dbInfo;
+    this.indexer = indexer;
+    this.docMapper = docMapper;
+    this.executor = executor;
+    this.lease = lease;
+    this.leaseMillis = leaseMillis;
+    this.rangeCount = Math.max(1, rangeCount);
+    this.fetchSize = Math.max(1, fetchSize);
+  }
+
+  /**
+   * Reads or creates the ranges of this resync and starts scanning the ranges which are not
+   * completed on given executor, which is shared by all syncs. Returns without waiting for the
+   * scans.
+   */
+  void start() {
+    List<Range> ranges = readRanges();
+    if (ranges.isEmpty()) {
+      ranges = createRanges();
+    } else if (!objectType.equals(ranges.get(0).objectType)) {
+      throw new ProjectCommonException(
+          ResponseCode.invalidParameterValue.getErrorCode(),
+          ProjectUtil.formatMessage(
+              ResponseCode.invalidParameterValue.getErrorMessage(),
+              resyncId,
+              CourseJsonKey.RESYNC_ID),
+          ResponseCode.CLIENT_ERROR.getResponseCode());
+    }
+    List<Range> pending = ranges.stream().filter(r -> !r.completed).collect(Collectors.toList());
+    long resumedCount = ranges.stream().mapToLong(r -> r.indexedCount).sum();
+    ProjectLogger.log(
+        "EsResync:start: Resync "
+            + resyncId
+            + " of type "
+            + objectType
+            + " scanning "
+            + pending.size()
+            + " of "
+            + ranges.size()
+            + " ranges, "
+            + resumedCount
+            + " documents indexed before",
+        LoggerEnum.INFO.name());
+    List<CompletableFuture<Void>> scans = new ArrayList<>();
+    for (Range range : pending) {
+      scans.add(CompletableFuture.runAsync(() -> scan(range), executor));
+    }
+    CompletableFuture.allOf(scans.toArray(new CompletableFuture[0]))
+        .whenComplete(
+            (result, error) -> {
+              long failedRanges =
+                  scans.stream().filter(CompletableFuture::isCompletedExceptionally).count();
+              long incompleteRanges = pending.stream().filter(r -> null != r.failedToken).count();
+              ProjectLogger.log(
+                  "EsResync:start: Resync "
+                      + resyncId
+                      + " of type "
+                      + objectType
+                      + " finished with "
+                      + indexer.getIndexedCount()
+                      + " documents indexed, "
+                      + indexer.getFailedCount()
+                      + " documents failed, "
+                      + failedRanges
+                      + " ranges interrupted and "
+                      + incompleteRanges
+                      + " ranges left incomplete with failed documents",
+                  failedRanges + incompleteRanges > 0
+                      ? LoggerEnum.ERROR.name()
+                      : LoggerEnum.INFO.name());
+            });
+  }
+
+  /**
+   * Indexes the rows of a range after its last saved token, if no other node holds the lease of
+   * the range. Rows of a partition share one token, so only tokens of partitions whose rows were
+   * all indexed are saved.
+   */
+  private void scan(Range range) {
+    String leaseName = LEASE_PREFIX + resyncId + "/" + range.rangeId;
+    if (!lease.acquire(leaseName, leaseMillis)) {
+      ProjectLogger.log(
+          "EsResync:scan: Range "
+              + range.rangeId
+              + " of resync "
+              + resyncId
+              + " is scanned by another node",
+          LoggerEnum.INFO.name());
+      return;
+    }
+    try {
+      Session session = Util.getSession(dbInfo.getKeySpace());
+      String token = getTokenFunction(session, dbInfo);
+      Statement statement =
+          new SimpleStatement(
+                  "SELECT "
+                      + token
+                      + " AS "
+                      + TOKEN
+                      + ", * FROM "
+                      + dbInfo.getKeySpace()
+                      + "."
+                      + dbInfo.getTableName()
+                      + " WHERE "
+                      + token
+                      + " > ? AND "
+                      + token
+                      + " <= ?",
+                  range.lastToken,
+                  range.endToken)
+              .setFetchSize(fetchSize);
+      ResultSet resultSet = session.execute(statement);
+      Map<String, String> columnMap = CassandraUtil.fetchColumnsMapping(resultSet);
+      columnMap.values().removeIf(TOKEN::equals);
+      EsBulkIndexer.Buffer buffer = indexer.newBuffer();
+      range.failedIds = buffer.getFailedIds();
+      long currentToken = range.lastToken;
+      long completedToken = range.lastToken;
+      long bufferToken = range.lastToken;
+      boolean buffered = false;
+      for (Row row : resultSet) {
+        long rowToken = row.getLong(TOKEN);
+        if (rowToken != currentToken) {
+          completedToken = currentToken;
+          currentToken = rowToken;
+        }
+        if (!buffered) {
+          bufferToken = rowToken;
+          buffered = true;
+        }
+        if (buffer.add(docMapper.apply(row, columnMap))) {
+          buffered = false;
+          flush(range, buffer, bufferToken);
+          if (!renewLease(range, leaseName)) {
+            return;
+          }
+          saveProgress(range, completedToken, false);
+        }
+      }
+      flush(range, buffer, bufferToken);
+      if (renewLease(range, leaseName)) {
+        saveProgress(range, range.endToken, true);
+      }
+    } catch (Exception e) {
+      ProjectLogger.log(
+          "EsResync:scan: Resync "
+              + resyncId
+              + " interrupted in range "
+              + range.rangeId
+              + " after token "
+              + range.lastToken,
+          e);
+      throw e;
+    } finally {
+      lease.release(leaseName);
+    }
+  }
+
+  /**
+   * Renews the lease of a range before its progress is saved, so that a node whose lease expired
+   * does not overwrite the progress of the node which took the range over.
+   */
+  private boolean renewLease(Range range, String leaseName) {
+    if (lease.renew(leaseName, leaseMillis)) {
+      return true;
+    }
+    ProjectLogger.log(
+        "EsResync:renewLease: Resync "
+            + resyncId
+            + " lost the lease of range "
+            + range.rangeId
+            + " after token "
+            + range.lastToken,
+        LoggerEnum.INFO.name());
+    return false;
+  }
+
+  /** Flushes the buffer and keeps the token of its first row if one of its documents failed. */
+  private void flush(Range range, EsBulkIndexer.Buffer buffer, long bufferToken) {
+    int failedCount = buffer.getFailedIds().size();
+    range.indexedCount += buffer.flush();
+    if (null == range.failedToken && buffer.getFailedIds().size() > failedCount) {
+      range.failedToken = bufferToken;
+    }
+  }
+
+  /**
+   * Saves the progress of a range. Once a document of the range failed, the range stays incomplete
+   * at the partition before the failed bulk request, which is scanned again on resume.
+   */
+  private void saveProgress(Range range, long lastToken, boolean completed) {
+    if (null != range.failedToken) {
+      lastToken = range.failedToken - 1;
+      completed = false;
+    }
+    range.lastToken = lastToken;
+    range.completed = completed;
+    Map<String, Object> primaryKey = new HashMap<>();
+    primaryKey.put(CourseJsonKey.RESYNC_ID, resyncId);
+    primaryKey.put(RANGE_ID, range.rangeId);
+    Map<String, Object> attributes = new HashMap<>();
+    attributes.put(LAST_TOKEN, lastToken);
+    attributes.put(COMPLETED, completed);
+    attributes.put(INDEXED_COUNT, range.indexedCount);
+    attributes.put(FAILED_IDS, new HashSet<>(range.failedIds));
+    attributes.put(JsonKey.LAST_UPDATED_ON, new Timestamp(System.currentTimeMillis()));
+    cassandraOperation.updateRecord(
+        checkpointDb.getKeySpace(), checkpointDb.getTableName(), attributes, primaryKey);
+  }
+
+  /** Splits the Murmur3 token ring into {@code rangeCount} ranges and saves them. */
+  private List<Range> createRanges() {
+    long[] bounds = splitTokenRing(rangeCount);
+    List<Range> ranges = new ArrayList<>();
+    List<Map<String, Object>> records = new ArrayList<>();
+    for (int rangeId = 0; rangeId < rangeCount; rangeId++) {
+      Range range = new Range();
+      range.rangeId = rangeId;
+      range.objectType = objectType;
+      range.startToken = bounds[rangeId];
+      range.endToken = bounds[rangeId + 1];
+      range.lastToken = range.startToken;
+      ranges.add(range);
+
+      Map<String, Object> record = new HashMap<>();
+      record.put(CourseJsonKey.RESYNC_ID, resyncId);
+      record.put(RANGE_ID, rangeId);
+      record.put(JsonKey.OBJECT_TYPE, objectType);
+      record.put(START_TOKEN, range.startToken);
+      record.put(END_TOKEN, range.endToken);
+      record.put(LAST_TOKEN, range.lastToken);
+      record.put(COMPLETED, false);
+      record.put(INDEXED_COUNT, 0L);
+      record.put(JsonKey.LAST_UPDATED_ON, new Timestamp(System.currentTimeMillis()));
+      records.add(record);
+    }
+    cassandraOperation.batchInsert(
+        checkpointDb.getKeySpace(), checkpointDb.getTableName(), records);
+    return ranges;
+  }
+
+  /**
+   * Splits the Murmur3 token ring into ranges of equal width. Range i holds the tokens after bound
+   * i up to and including bound i + 1.
+   *
+   * @return The {@code rangeCount + 1} bounds of the ranges
+   */
+  static long[] splitTokenRing(int rangeCount) {
+    BigInteger width = MAX_TOKEN.subtract(MIN_TOKEN).divide(BigInteger.valueOf(rangeCount));
+    long[] bounds = new long[rangeCount + 1];
+    for (int i = 0; i < rangeCount; i++) {
+      bounds[i] = MIN_TOKEN.add(width.multiply(BigInteger.valueOf(i))).longValue();
+    }
+    bounds[rangeCount] = Long.MAX_VALUE;
+    return bounds;
+  }
+
+  /** Returns the CQL token function of the partition key of given table. */
+  static String getTokenFunction(Session session, Util.DbInfo dbInfo) {
+    String partitionKey =
+        session
+            .getCluster()
+            .getMetadata()
+            .getKeyspace(dbInfo.getKeySpace())
+            .getTable(dbInfo.getTableName())
+            .getPartitionKey()
+            .stream()
+            .map(ColumnMetadata::getName)
+            .collect(Collectors.joining(","));
+    return "token(" + partitionKey + ")";
+  }
+
+  private List<Range> readRanges() {
+    Statement statement =
+        new SimpleStatement(
+            "SELECT rangeid, objecttype, starttoken, endtoken, lasttoken, completed, indexedcount"
+                + " FROM "
+                + checkpointDb.getKeySpace()
+                + "."
+                + checkpointDb.getTableName()
+                + " WHERE resyncid = ?",
+            resyncId);
+    List<Range> ranges = new ArrayList<>();
+    for (Row row : Util.getSession(checkpointDb.getKeySpace()).execute(statement)) {
+      Range range = new Range();
+      range.rangeId = row.getInt(RANGE_ID);
+      range.objectType = row.getString(JsonKey.OBJECT_TYPE);
+      range.startToken = row.getLong(START_TOKEN);
+      range.endToken = row.getLong(END_TOKEN);
+      range.lastToken = row.getLong(LAST_TOKEN);
+      range.completed = row.getBool(COMPLETED);
+      range.indexedCount = row.getLong(INDEXED_COUNT);
+      ranges.add(range);
+    }
+    return ranges;
+  }
+
+  /** Token range of the resync with its saved progress. */
+  private static class Range {
+    int rangeId;
+    String objectType;
+    long startToken;
+    long endToken;
+    long lastToken;
+    boolean completed;
+    long indexedCount;
+    List<String> failedIds = Collections.emptyList();
+    // token of the first row of the first bulk request of this scan which had a failed document
+    Long failedToken;
+  }
+}
@@ -6,13 +6,18 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.util.concurrent.FutureCallback;
 import java.text.MessageFormat;
+import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.sunbird.actor.core.BaseActor;
 import org.sunbird.actor.router.ActorConfig;
 import org.sunbird.cassandra.CassandraOperation;
@@ -30,6 +35,9 @@ import org.sunbird.common.request.Request;
 import org.sunbird.common.responsecode.ResponseCode;
 import org.sunbird.helper.ServiceFactory;
 import org.sunbird.learner.actors.coursebatch.service.UserCoursesService;
+import org.sunbird.learner.constants.CourseJsonKey;
+import org.sunbird.learner.util.ConfigValueUtil;
+import org.sunbird.learner.util.DistributedLease;
 import org.sunbird.learner.util.Util;
 import org.sunbird.learner.util.Util.DbInfo;
 
@@ -43,6 +51,25 @@ public class EsSyncActor extends BaseActor {
   private CassandraOperation cassandraOperation = ServiceFactory.getInstance();
   private ElasticSearchService esService = EsClientFactory.getInstance(JsonKey.REST);
   private static final int BATCH_SIZE = 100;
+  private static final ObjectMapper mapper = new ObjectMapper();
+  private static final int DEFAULT_RESYNC_PARALLELISM = 4;
+  private static final int DEFAULT_RESYNC_RANGES = 256;
+  private static final int DEFAULT_RESYNC_FETCH_SIZE = 1000;
+  private static final long DEFAULT_BULK_MAX_BYTES = 5 * 1024 * 1024L;
+  private static final int DEFAULT_BULK_MAX_DOCS = 1000;
+  private static final long DEFAULT_RESYNC_LEASE_MS = 300000L;
+  // shared by all resyncs and incremental syncs, so that concurrent requests do not add threads
+  private static final ExecutorService syncExecutor =
+      Executors.newFixedThreadPool(
+          Math.max(
+              1,
+              ConfigValueUtil.getInt(
+                  CourseJsonKey.ES_RESYNC_PARALLELISM, DEFAULT_RESYNC_PARALLELISM)),
+          runnable -> {
+            Thread thread = new Thread(runnable, "es-sync");
+            thread.setDaemon(true);
+            return thread;
+          });
 
   @Override
   public void onReceive(Request request) throws Throwable {
@@ -57,6 +84,10 @@ public class EsSyncActor extends BaseActor {
 
   private void triggerSync(Request req) {
     Map<String, Object> dataMap = (Map<String, Object>) req.get(JsonKey.DATA);
+    if (JsonKey.STATUS.equals(dataMap.get(CourseJsonKey.MODE))) {
+      getSyncStatus((String) dataMap.get(CourseJsonKey.SYNC_ID));
+      return;
+    }
     String objectType = (String) dataMap.get(JsonKey.OBJECT_TYPE);
     ProjectLogger.log(
         "EsSyncBackgroundActor: sync called for objectType=" + objectType, LoggerEnum.INFO);
@@ -67,6 +98,14 @@ public class EsSyncActor extends BaseActor {
           ResponseCode.invalidObjectType.getErrorMessage(),
           ResponseCode.CLIENT_ERROR.getResponseCode());
     }
+    if (CourseJsonKey.RESYNC.equals(dataMap.get(CourseJsonKey.MODE))) {
+      resync(objectType, dbInfo, (String) dataMap.get(CourseJsonKey.RESYNC_ID));
+      return;
+    }
+    if (CourseJsonKey.INCREMENTAL.equals(dataMap.get(CourseJsonKey.MODE))) {
+      syncChanges(objectType, dbInfo, dataMap);
+      return;
+    }
     Response response = new Response();
     response.put(JsonKey.RESPONSE, JsonKey.SUCCESS);
     sender().tell(response, self());
@@ -129,6 +168,141 @@ public class EsSyncActor extends BaseActor {
         LoggerEnum.INFO);
   }
 
+  /**
+   * Starts a parallel re-index of the whole table of given type, or resumes the resync with given
+   * ID. The resync ID is returned so that an interrupted resync can be resumed.
+   */
+  private void resync(String objectType, Util.DbInfo dbInfo, String resyncId) {
+    if (StringUtils.isBlank(resyncId)) {
+      resyncId = ProjectUtil.getUniqueIdFromTimestamp(1);
+    }
+    new EsResync(
+            cassandraOperation,
+            resyncId,
+            objectType,
+            dbInfo,
+            newBulkIndexer(objectType),
+            (row, columnMap) -> syncDataForEachRow(row, columnMap, objectType),
+            syncExecutor,
+            DistributedLease.getInstance(),
+            ConfigValueUtil.getLong(CourseJsonKey.ES_RESYNC_LEASE_MS, DEFAULT_RESYNC_LEASE_MS),
+            ConfigValueUtil.getInt(CourseJsonKey.ES_RESYNC_RANGES, DEFAULT_RESYNC_RANGES),
+            ConfigValueUtil.getInt(CourseJsonKey.ES_RESYNC_FETCH_SIZE, DEFAULT_RESYNC_FETCH_SIZE))
+        .start();
+    Response response = new Response();
+    response.put(JsonKey.RESPONSE, JsonKey.SUCCESS);
+    response.put(CourseJsonKey.RESYNC_ID, resyncId);
+    sender().tell(response, self());
+  }
+
+  /**
+   * Starts re-indexing the rows of given type which changed from fromDate until toDate, or until
+   * now if toDate is not given. The sync ID is returned so that the status of the sync can be read.
+   */
+  private void syncChanges(String objectType, Util.DbInfo dbInfo, Map<String, Object> dataMap) {
+    Date fromDate = getDate(dataMap, CourseJsonKey.FROM_DATE);
+    if (null == fromDate) {
+      throw new ProjectCommonException(
+          ResponseCode.mandatoryParamsMissing.getErrorCode(),
+          ResponseCode.mandatoryParamsMissing.getErrorMessage(),
+          ResponseCode.CLIENT_ERROR.getResponseCode(),
+          CourseJsonKey.FROM_DATE);
+    }
+    Date toDate = getDate(dataMap, CourseJsonKey.TO_DATE);
+    if (null == toDate) {
+      toDate = new Date();
+    }
+    if (!fromDate.before(toDate)) {
+      String key =
+          dataMap.containsKey(CourseJsonKey.TO_DATE)
+              ? CourseJsonKey.TO_DATE
+              : CourseJsonKey.FROM_DATE;
+      throw invalidParameterValue(dataMap.get(key), key);
+    }
+    String syncId = ProjectUtil.getUniqueIdFromTimestamp(1);
+    new EsIncrementalSync(
+            cassandraOperation,
+            syncId,
+            objectType,
+            dbInfo,
+            newBulkIndexer(objectType),
+            (row, columnMap) -> syncDataForEachRow(row, columnMap, objectType),
+            syncExecutor,
+            ConfigValueUtil.getInt(CourseJsonKey.ES_RESYNC_RANGES, DEFAULT_RESYNC_RANGES),
+            ConfigValueUtil.getInt(CourseJsonKey.ES_RESYNC_FETCH_SIZE, DEFAULT_RESYNC_FETCH_SIZE),
+            fromDate,
+            toDate,
+            getChangeTimeSince())
+        .start();
+    Response response = new Response();
+    response.put(JsonKey.RESPONSE, JsonKey.SUCCESS);
+    response.put(CourseJsonKey.SYNC_ID, syncId);
+    sender().tell(response, self());
+  }
+
+  /** Responds with the saved status and counts of the incremental sync with given ID. */
+  private void getSyncStatus(String syncId) {
+    if (StringUtils.isBlank(syncId)) {
+      throw new ProjectCommonException(
+          ResponseCode.mandatoryParamsMissing.getErrorCode(),
+          ResponseCode.mandatoryParamsMissing.getErrorMessage(),
+          ResponseCode.CLIENT_ERROR.getResponseCode(),
+          CourseJsonKey.SYNC_ID);
+    }
+    Util.DbInfo syncDb = Util.dbInfoMap.get(CourseJsonKey.ES_INCREMENTAL_SYNC_DB);
+    Response result =
+        cassandraOperation.getRecordById(syncDb.getKeySpace(), syncDb.getTableName(), syncId);
+    List<Map<String, Object>> records = (List<Map<String, Object>>) result.get(JsonKey.RESPONSE);
+    if (CollectionUtils.isEmpty(records)) {
+      throw invalidParameterValue(syncId, CourseJsonKey.SYNC_ID);
+    }
+    Response response = new Response();
+    response.put(JsonKey.RESPONSE, records.get(0));
+    sender().tell(response, self());
+  }
+
+  /** Reads a date given in epoch milliseconds or in the format of {@link ProjectUtil}. */
+  private Date getDate(Map<String, Object> dataMap, String key) {
+    Object value = dataMap.get(key);
+    if (null == value) {
+      return null;
+    }
+    if (value instanceof Number) {
+      return new Date(((Number) value).longValue());
+    }
+    try {
+      return ProjectUtil.getDateFormatter().parse(String.valueOf(value));
+    } catch (ParseException e) {
+      throw invalidParameterValue(value, key);
+    }
+  }
+
+  /**
+   * Returns the time since which content consumption writes carry lastUpdatedOn, configured in
+   * epoch milliseconds, or null if it is not configured.
+   */
+  private Date getChangeTimeSince() {
+    long since = ConfigValueUtil.getLong(CourseJsonKey.CONTENT_CONSUMPTION_CHANGE_TIME_SINCE, 0);
+    return since > 0 ? new Date(since) : null;
+  }
+
+  private ProjectCommonException invalidParameterValue(Object value, String key) {
+    return new ProjectCommonException(
+        ResponseCode.invalidParameterValue.getErrorCode(),
+        ProjectUtil.formatMessage(
+            ResponseCode.invalidParameterValue.getErrorMessage(), value, key),
+        ResponseCode.CLIENT_ERROR.getResponseCode());
+  }
+
+  private EsBulkIndexer newBulkIndexer(String objectType) {
+    return new EsBulkIndexer(
+        esService,
+        getType(objectType),
+        ConfigValueUtil.getLong(CourseJsonKey.ES_SYNC_BULK_MAX_BYTES, DEFAULT_BULK_MAX_BYTES),
+        ConfigValueUtil.getInt(CourseJsonKey.ES_SYNC_BULK_MAX_DOCS, DEFAULT_BULK_MAX_DOCS),
+        ConfigValueUtil.getLong(CourseJsonKey.ES_SYNC_DOCS_PER_SECOND, 0));
+  }
+
   private String getType(String objectType) {
     String type = "";
     if (objectType.equals(JsonKey.BATCH)) {
@@ -198,7 +372,7 @@ public class EsSyncActor extends BaseActor {
               Object value = row.getObject(entry.getValue());
               if (entry.getKey().equals("contentStatus") && value != null) {
                 try {
-                  rowMap.put(entry.getKey(), new ObjectMapper().writeValueAsString(value));
+                  rowMap.put(entry.getKey(), mapper.writeValueAsString(value));
                 } catch (JsonProcessingException e) {
                   ProjectLogger.log("JsonProcessingException occurred while getSyncCallback ", e);
                 }
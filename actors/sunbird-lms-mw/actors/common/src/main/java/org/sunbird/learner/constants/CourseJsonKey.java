@@ -15,4 +15,105 @@ public abstract class CourseJsonKey {
   public static final String CERTIFICATES_DOT_NAME = "certificates.name";
   public static final String COURSE_COMPLETION_CERTIFICATE =
       "sunbird_course_completion_certificate_name";
+  public static final String CONTENT_STATE_WRITE_BEHIND_ENABLED =
+      "sunbird_content_state_write_behind_enabled";
+  public static final String CONTENT_STATE_FLUSH_INTERVAL_MS =
+      "sunbird_content_state_flush_interval_ms";
+  public static final String CONTENT_STATE_FLUSH_THRESHOLD =
+      "sunbird_content_state_flush_threshold";
+  public static final String CONTENT_STATE_IDLE_EVICTION_MS =
+      "sunbird_content_state_idle_eviction_ms";
+  public static final String COURSE_BATCH_CACHE_TTL_MS = "sunbird_course_batch_cache_ttl_ms";
+  public static final String COURSE_BATCH_CACHE_MAX_SIZE = "sunbird_course_batch_cache_max_size";
+  public static final String LEAF_NODES = "leafNodes";
+  public static final String COURSE_METADATA_CACHE_TTL_MS = "sunbird_course_metadata_cache_ttl_ms";
+  public static final String COURSE_METADATA_CACHE_MAX_SIZE =
+      "sunbird_course_metadata_cache_max_size";
+  public static final String PAGE_ASSEMBLE_CACHE_ENABLED = "sunbird_page_assemble_cache_enabled";
+  public static final String PAGE_ASSEMBLE_CACHE_TTL_MS = "sunbird_page_assemble_cache_ttl_ms";
+  public static final String PAGE_ASSEMBLE_CACHE_MAX_STALE_MS =
+      "sunbird_page_assemble_cache_max_stale_ms";
+  public static final String PAGE_ASSEMBLE_CACHE_MAX_SIZE = "sunbird_page_assemble_cache_max_size";
+  public static final String PAGE_SECTION_TIMEOUT_MS = "sunbird_page_section_timeout_ms";
+  public static final String PAGE_ASSEMBLE_TIMEOUT_MS = "sunbird_page_assemble_timeout_ms";
+  public static final String SECTION_STATUS = "sectionStatus";
+  public static final String CACHE_REFRESH_INTERVAL_MINUTES =
+      "sunbird_cache_refresh_interval_minutes";
+  public static final String CACHE_DELTA_REFRESH_ENABLED = "sunbird_cache_delta_refresh_enabled";
+  public static final String CACHE_INVALIDATION_TOPIC = "sunbird_cache_invalidation_topic";
+  public static final String HTTP_MAX_CONNECTIONS = "sunbird_http_max_connections";
+  public static final String HTTP_MAX_CONNECTIONS_PER_HOST = "sunbird_http_max_connections_per_host";
+  public static final String HTTP_CONNECT_TIMEOUT_MS = "sunbird_http_connect_timeout_ms";
+  public static final String HTTP_SOCKET_TIMEOUT_MS = "sunbird_http_socket_timeout_ms";
+  public static final String HTTP_POOL_TIMEOUT_MS = "sunbird_http_pool_timeout_ms";
+  public static final String HTTP_KEEP_ALIVE_MS = "sunbird_http_keep_alive_ms";
+  public static final String HTTP_REQUEST_TIMEOUT_MS = "sunbird_http_request_timeout_ms";
+  public static final String SSO_TOKEN_TTL_MS = "sunbird_sso_token_ttl_ms";
+  public static final String SSO_TOKEN_REFRESH_MARGIN_MS = "sunbird_sso_token_refresh_margin_ms";
+  public static final String USER_ROOT_ORG_CACHE_TTL_MS = "sunbird_user_root_org_cache_ttl_ms";
+  public static final String USER_ROOT_ORG_CACHE_MAX_SIZE = "sunbird_user_root_org_cache_max_size";
+  public static final String TELEMETRY_ROLLUP_ASYNC = "sunbird_telemetry_rollup_async";
+  public static final String USER_ORG_USER_CACHE_TTL_MS = "sunbird_user_org_user_cache_ttl_ms";
+  public static final String USER_ORG_ORG_CACHE_TTL_MS = "sunbird_user_org_org_cache_ttl_ms";
+  public static final String USER_ORG_CACHE_MAX_SIZE = "sunbird_user_org_cache_max_size";
+  public static final String USER_ORG_BATCH_SIZE = "sunbird_user_org_batch_size";
+  public static final String USER_ORG_PARALLELISM = "sunbird_user_org_parallelism";
+  public static final String USER_ORG_BATCH_WINDOW_MS = "sunbird_user_org_batch_window_ms";
+  public static final String ENROLLMENT_WRITE_PARALLELISM = "sunbird_enrollment_write_parallelism";
+  public static final String ES_INDEX_OUTBOX_DB = "esIndexOutboxDb";
+  public static final String ES_INDEX_OUTBOX_ENABLED = "sunbird_es_index_outbox_enabled";
+  public static final String ES_INDEX_OUTBOX_DRAIN_INTERVAL_MS =
+      "sunbird_es_index_outbox_drain_interval_ms";
+  public static final String ES_INDEX_OUTBOX_DRAIN_BATCH_SIZE =
+      "sunbird_es_index_outbox_drain_batch_size";
+  public static final String ES_INDEX_OUTBOX_RETRY_BACKOFF_MS =
+      "sunbird_es_index_outbox_retry_backoff_ms";
+  public static final String ES_INDEX_OUTBOX_MAX_RETRY_BACKOFF_MS =
+      "sunbird_es_index_outbox_max_retry_backoff_ms";
+  public static final String ES_INDEX_READ_YOUR_WRITES_OPERATIONS =
+      "sunbird_es_index_read_your_writes_operations";
+  public static final String CURSOR = "cursor";
+  public static final String PARTICIPANTS_MAX_PAGE_SIZE = "sunbird_participants_max_page_size";
+  public static final String PARTICIPANTS_FETCH_SIZE = "sunbird_participants_fetch_size";
+  public static final String PARTICIPANTS_READ_PARALLELISM =
+      "sunbird_participants_read_parallelism";
+  public static final String PARTICIPANT_COUNT = "participantCount";
+  public static final String BULK_UPLOAD_TASK_DB = "bulkUploadTaskDb";
+  public static final String SEQUENCE_ID = "sequenceId";
+  public static final String TASK_COUNT = "taskCount";
+  public static final String COMPLETED_TASK_COUNT = "completedTaskCount";
+  public static final String SUCCESS_COUNT = "successCount";
+  public static final String FAILURE_COUNT = "failureCount";
+  public static final String BULK_UPLOAD_CHUNK_SIZE = "sunbird_bulk_upload_chunk_size";
+  public static final String BULK_UPLOAD_RESUME_INTERVAL_MS =
+      "sunbird_bulk_upload_resume_interval_ms";
+  public static final String BULK_UPLOAD_RESUME_AFTER_MS = "sunbird_bulk_upload_resume_after_ms";
+  public static final String BULK_ENROLLMENT_BATCHED_MODE =
+      "sunbird_bulk_enrollment_batched_mode";
+  public static final String BULK_UPLOAD_RESULT_DB = "bulkUploadResultDb";
+  public static final String SUMMARY = "summary";
+  public static final String BULK_UPLOAD_RESULT_PAGE_SIZE = "sunbird_bulk_upload_result_page_size";
+  public static final String MODE = "mode";
+  public static final String RESYNC = "resync";
+  public static final String RESYNC_ID = "resyncId";
+  public static final String ES_RESYNC_CHECKPOINT_DB = "esResyncCheckpointDb";
+  public static final String ES_RESYNC_PARALLELISM = "sunbird_es_resync_parallelism";
+  public static final String ES_RESYNC_RANGES = "sunbird_es_resync_ranges";
+  public static final String ES_RESYNC_FETCH_SIZE = "sunbird_es_resync_fetch_size";
+  public static final String ES_SYNC_BULK_MAX_BYTES = "sunbird_es_sync_bulk_max_bytes";
+  public static final String ES_SYNC_BULK_MAX_DOCS = "sunbird_es_sync_bulk_max_docs";
+  public static final String ES_SYNC_DOCS_PER_SECOND = "sunbird_es_sync_docs_per_second";
+  public static final String INCREMENTAL = "incremental";
+  public static final String FROM_DATE = "fromDate";
+  public static final String TO_DATE = "toDate";
+  public static final String DISTRIBUTED_LEASE_DB = "distributedLeaseDb";
+  public static final String ES_INDEX_OUTBOX_SHARD_COUNT = "sunbird_es_index_outbox_shard_count";
+  public static final String ES_INDEX_OUTBOX_LEASE_MS = "sunbird_es_index_outbox_lease_ms";
+  public static final String ES_RESYNC_LEASE_MS = "sunbird_es_resync_lease_ms";
+  public static final String SYNC_ID = "syncId";
+  public static final String ES_INCREMENTAL_SYNC_DB = "esIncrementalSyncDb";
+  public static final String ES_INDEX_OUTBOX_MAX_ATTEMPTS = "sunbird_es_index_outbox_max_attempts";
+  public static final String ES_INDEX_OUTBOX_DEAD_LETTER_DB = "esIndexOutboxDeadLetterDb";
+  public static final String CONTENT_CONSUMPTION_CHANGE_TIME_SINCE =
+      "sunbird_content_consumption_change_time_since";
 }
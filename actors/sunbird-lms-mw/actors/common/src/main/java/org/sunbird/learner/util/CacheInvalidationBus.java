@@ -0,0 +1,339 @@
+package org.sunbird.learner.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.sunbird.cache.CacheFactory;
+import org.sunbird.common.models.response.Response;
+import org.sunbird.common.models.util.ActorOperations;
+import org.sunbird.common.models.util.JsonKey;
+import org.sunbird.common.models.util.LoggerEnum;
+import org.sunbird.common.models.util.ProjectLogger;
+import org.sunbird.common.models.util.ProjectUtil;
+import org.sunbird.helper.ServiceFactory;
+import org.sunbird.kafka.client.KafkaClient;
+import org.sunbird.learner.constants.CourseJsonKey;
+import org.sunbird.models.systemsetting.SystemSetting;
+
+/**
+ * Propagates cache invalidations to all middleware nodes over Kafka.
+ *
+ * <p>A published event is applied on this node at once, on a single background thread, and sent
+ * to the {@code sunbird_cache_invalidation_topic} topic. Every node reads all partitions of the
+ * topic from their end when it starts, without a consumer group, so each node sees every event
+ * and no consumer groups are left on the broker. Events published by this node are skipped.
+ * Without a topic configured, events are applied on this node only.
+ *
+ * <p>If the consumer fails, it is closed and a new one is created after a backoff, which doubles
+ * with each failure up to a minute, and reads the topic from its end again. Events sent while the
+ * node was not consuming are not applied on it.
+ */
+public final class CacheInvalidationBus {
+
+  public static final String PAGE = "page";
+  public static final String SECTION = "section";
+  public static final String SYSTEM_SETTING = "systemSetting";
+  public static final String CACHE = "cache";
+  public static final String COURSE_BATCH = "courseBatch";
+
+  private static final String TYPE = "type";
+  private static final String KEY = "key";
+  private static final String ORIGIN = "origin";
+  private static final String KAFKA_URLS = "kafka_urls";
+  private static final long POLL_TIMEOUT_MS = 1000;
+  private static final long RECONNECT_BACKOFF_MS = 1000;
+  private static final long MAX_RECONNECT_BACKOFF_MS = 60000;
+
+  static final String DISABLED = "disabled";
+  static final String CONNECTING = "connecting";
+  static final String RUNNING = "running";
+  static final String RECONNECTING = "reconnecting";
+  static final String STOPPED = "stopped";
+
+  private static volatile CacheInvalidationBus instance = null;
+
+  private final ObjectMapper mapper = new ObjectMapper();
+  private final String nodeId = UUID.randomUUID().toString();
+  private final String topic;
+  private final Executor executor;
+  private final AtomicLong reconnectCount = new AtomicLong();
+  private volatile String consumerState = DISABLED;
+  private volatile String lastConsumerError;
+  private volatile long lastConsumerErrorOn;
+
+  CacheInvalidationBus(String topic, Executor executor) {
+    this.topic = topic;
+    this.executor = executor;
+  }
+
+  public static CacheInvalidationBus getInstance() {
+    if (instance == null) {
+      synchronized (CacheInvalidationBus.class) {
+        if (instance == null) {
+          instance =
+              new CacheInvalidationBus(
+                  ProjectUtil.getConfigValue(CourseJsonKey.CACHE_INVALIDATION_TOPIC),
+                  Executors.newSingleThreadExecutor(
+                      runnable -> {
+                        Thread thread = new Thread(runnable, "cache-invalidation");
+                        thread.setDaemon(true);
+                        return thread;
+                      }));
+          instance.startConsumer();
+        }
+      }
+    }
+    return instance;
+  }
+
+  /**
+   * Invalidates a cache entry on all nodes.
+   *
+   * @param type One of {@link #PAGE}, {@link #SECTION}, {@link #SYSTEM_SETTING}, {@link #CACHE} or
+   *     {@link #COURSE_BATCH}
+   * @param key Page ID, section ID, system setting field, cache map name or course batch ID
+   */
+  public void publish(String type, String key) {
+    Map<String, Object> event = newEvent(type, key);
+    executor.execute(() -> apply(event));
+    send(event);
+  }
+
+  /**
+   * Invalidates a cache entry on the other nodes only, for callers which already updated the
+   * cache of this node.
+   *
+   * @param type One of {@link #PAGE}, {@link #SECTION}, {@link #SYSTEM_SETTING}, {@link #CACHE} or
+   *     {@link #COURSE_BATCH}
+   * @param key Page ID, section ID, system setting field, cache map name or course batch ID
+   */
+  public void publishToOtherNodes(String type, String key) {
+    send(newEvent(type, key));
+  }
+
+  /** Applies an event read from the topic, unless it was published by this node. */
+  @SuppressWarnings("unchecked")
+  void receive(String message) {
+    try {
+      Map<String, Object> event = mapper.readValue(message, HashMap.class);
+      if (!nodeId.equals(event.get(ORIGIN))) {
+        executor.execute(() -> apply(event));
+      }
+    } catch (Exception e) {
+      ProjectLogger.log("CacheInvalidationBus:receive: Invalid event " + message, e);
+    }
+  }
+
+  String getNodeId() {
+    return nodeId;
+  }
+
+  /**
+   * Returns the state of the consumer, which is one of disabled, connecting, running, reconnecting
+   * or stopped, the number of times it was recreated after a failure and its last error.
+   *
+   * @return Map of metric name and value
+   */
+  public Map<String, Object> getMetrics() {
+    Map<String, Object> metrics = new LinkedHashMap<>();
+    metrics.put("consumerState", consumerState);
+    metrics.put("reconnects", reconnectCount.get());
+    metrics.put("lastError", lastConsumerError);
+    metrics.put("lastErrorOn", lastConsumerErrorOn);
+    return metrics;
+  }
+
+  private Map<String, Object> newEvent(String type, String key) {
+    Map<String, Object> event = new HashMap<>();
+    event.put(TYPE, type);
+    event.put(KEY, key);
+    event.put(ORIGIN, nodeId);
+    return event;
+  }
+
+  private void send(Map<String, Object> event) {
+    String type = (String) event.get(TYPE);
+    String key = (String) event.get(KEY);
+    if (StringUtils.isNotBlank(topic)) {
+      try {
+        KafkaClient.send(mapper.writeValueAsString(event), topic);
+      } catch (Exception e) {
+        ProjectLogger.log(
+            "CacheInvalidationBus:send: Failed to send invalidation of " + type + " " + key, e);
+      }
+    }
+  }
+
+  private void apply(Map<String, Object> event) {
+    String type = (String) event.get(TYPE);
+    String key = (String) event.get(KEY);
+    ProjectLogger.log(
+        "CacheInvalidationBus:apply: type = "
+            + type
+            + ", key = "
+            + key
+            + ", origin = "
+            + event.get(ORIGIN),
+        LoggerEnum.INFO.name());
+    try {
+      switch (type) {
+        case PAGE:
+          Map<String, Object> page = DataCacheHandler.reloadPage(key);
+          PageAssembleCache.getInstance().invalidate(key);
+          if (page != null && page.get(JsonKey.PAGE_NAME) != null) {
+            // a new organisation page replaces the default page of the same name
+            PageAssembleCache.getInstance().invalidate((String) page.get(JsonKey.PAGE_NAME));
+          }
+          break;
+        case SECTION:
+          DataCacheHandler.reloadSection(key);
+          PageAssembleCache.getInstance().invalidate(key);
+          break;
+        case SYSTEM_SETTING:
+          reloadSystemSetting(key);
+          new DataCacheHandler(DataCacheHandler.CONFIG_SETTINGS).run();
+          break;
+        case CACHE:
+          if (JsonKey.ALL.equals(key)) {
+            CacheFactory.getInstance().clearAll();
+          } else {
+            CacheFactory.getInstance().clear(key);
+          }
+          break;
+        case COURSE_BATCH:
+          CourseBatchCache.getInstance().invalidate(key);
+          break;
+        default:
+          ProjectLogger.log(
+              "CacheInvalidationBus:apply: Unknown invalidation type " + type,
+              LoggerEnum.ERROR.name());
+      }
+    } catch (Exception e) {
+      ProjectLogger.log(
+          "CacheInvalidationBus:apply: Failed to apply invalidation of " + type + " " + key, e);
+    }
+  }
+
+  /**
+   * Replaces the cached system setting of given field with the stored one. The cache cannot remove
+   * a single entry, so the map is cleared if the setting no longer exists.
+   */
+  @SuppressWarnings("unchecked")
+  private void reloadSystemSetting(String field) {
+    String mapName = ActorOperations.GET_SYSTEM_SETTING.getValue();
+    Response response =
+        ServiceFactory.getInstance()
+            .getRecordsByIndexedProperty(
+                JsonKey.SUNBIRD, JsonKey.SYSTEM_SETTINGS_DB, JsonKey.FIELD, field);
+    List<Map<String, Object>> settings = (List<Map<String, Object>>) response.get(JsonKey.RESPONSE);
+    if (CollectionUtils.isEmpty(settings)) {
+      CacheFactory.getInstance().clear(mapName);
+    } else {
+      CacheFactory.getInstance()
+          .put(mapName, field, mapper.convertValue(settings.get(0), SystemSetting.class));
+    }
+  }
+
+  private void startConsumer() {
+    String kafkaUrls = ProjectUtil.getConfigValue(KAFKA_URLS);
+    if (StringUtils.isBlank(topic) || StringUtils.isBlank(kafkaUrls)) {
+      ProjectLogger.log(
+          "CacheInvalidationBus:startConsumer: Topic or Kafka URLs not configured, invalidations"
+              + " are applied on this node only.",
+          LoggerEnum.INFO.name());
+      return;
+    }
+    Properties properties = new Properties();
+    properties.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaUrls);
+    properties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+    properties.put(
+        ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+    properties.put(
+        ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+    consumerState = CONNECTING;
+    Thread thread =
+        new Thread(
+            () ->
+                consume(
+                    () -> new KafkaConsumer<>(properties),
+                    RECONNECT_BACKOFF_MS,
+                    MAX_RECONNECT_BACKOFF_MS),
+            "cache-invalidation-consumer");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Reads the topic from its end until the thread is interrupted, recreating the consumer after a
+   * failure.
+   *
+   * @param consumerFactory Creates a new consumer
+   * @param backoffMs Delay before the first reconnect, doubled after each failed attempt
+   * @param maxBackoffMs Maximum delay between reconnects
+   */
+  void consume(
+      Supplier<Consumer<String, String>> consumerFactory, long backoffMs, long maxBackoffMs) {
+    long backoff = backoffMs;
+    while (!Thread.currentThread().isInterrupted()) {
+      try (Consumer<String, String> consumer = consumerFactory.get()) {
+        List<TopicPartition> partitions =
+            consumer
+                .partitionsFor(topic)
+                .stream()
+                .map(partition -> new TopicPartition(partition.topic(), partition.partition()))
+                .collect(Collectors.toList());
+        consumer.assign(partitions);
+        consumer.seekToEnd(partitions);
+        consumerState = RUNNING;
+        backoff = backoffMs;
+        while (!Thread.currentThread().isInterrupted()) {
+          ConsumerRecords<String, String> records =
+              consumer.poll(Duration.ofMillis(POLL_TIMEOUT_MS));
+          for (ConsumerRecord<String, String> record : records) {
+            receive(record.value());
+          }
+        }
+      } catch (Exception e) {
+        consumerState = RECONNECTING;
+        lastConsumerError = e.getMessage();
+        lastConsumerErrorOn = System.currentTimeMillis();
+        ProjectLogger.log(
+            "CacheInvalidationBus:consume: Consumer failed, reconnecting in "
+                + backoff
+                + " ms, error message = "
+                + e.getMessage(),
+            e);
+        try {
+          Thread.sleep(backoff);
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+        reconnectCount.incrementAndGet();
+        backoff = Math.min(backoff * 2, maxBackoffMs);
+        consumerState = CONNECTING;
+      }
+    }
+    consumerState = STOPPED;
+    ProjectLogger.log("CacheInvalidationBus:consume: Consumer stopped", LoggerEnum.INFO.name());
+  }
+}
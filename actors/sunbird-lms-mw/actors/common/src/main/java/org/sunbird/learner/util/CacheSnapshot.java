@@ -0,0 +1,114 @@
+package org.sunbird.learner.util;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds an unmodifiable snapshot of a cached table. A refresh builds a complete new map and
+ * publishes it with a single reference swap, so readers see either the old or the new snapshot and
+ * never a partially refreshed one. Single entries are written copy-on-write.
+ *
+ * <p>Entries written while a refresh is loading are applied again on top of the refreshed
+ * snapshot, so that a refresh cannot undo a write it did not see.
+ *
+ * @param <V> Value type
+ */
+public class CacheSnapshot<V> {
+
+  private final AtomicReference<Map<String, V>> snapshot =
+      new AtomicReference<>(Collections.emptyMap());
+  private Map<String, V> writesDuringRefresh = null;
+  private volatile long refreshedAt = 0;
+  private volatile long lastRefreshDuration = 0;
+  private volatile String lastRefreshMode = null;
+
+  /** @return Current snapshot, which must not be modified */
+  public Map<String, V> get() {
+    return snapshot.get();
+  }
+
+  public V get(String key) {
+    return snapshot.get().get(key);
+  }
+
+  public boolean isLoaded() {
+    return refreshedAt > 0;
+  }
+
+  /** Starts recording single entry writes until the refresh is published or aborted. */
+  public synchronized void beginRefresh() {
+    writesDuringRefresh = new HashMap<>();
+  }
+
+  public synchronized void abortRefresh() {
+    writesDuringRefresh = null;
+  }
+
+  /**
+   * Publishes a refreshed snapshot.
+   *
+   * @param map Complete new content of the cache
+   * @param mode Refresh mode, e.g. full or delta
+   * @param startedAt Time at which the refresh started loading
+   */
+  public synchronized void publish(Map<String, V> map, String mode, long startedAt) {
+    Map<String, V> next = new HashMap<>(map);
+    if (writesDuringRefresh != null) {
+      for (Map.Entry<String, V> write : writesDuringRefresh.entrySet()) {
+        if (write.getValue() == null) {
+          next.remove(write.getKey());
+        } else {
+          next.put(write.getKey(), write.getValue());
+        }
+      }
+      writesDuringRefresh = null;
+    }
+    snapshot.set(Collections.unmodifiableMap(next));
+    long now = System.currentTimeMillis();
+    refreshedAt = now;
+    lastRefreshDuration = now - startedAt;
+    lastRefreshMode = mode;
+  }
+
+  /** Replaces the whole snapshot, without recording it as a refresh. */
+  public synchronized void replace(Map<String, V> map) {
+    snapshot.set(Collections.unmodifiableMap(new HashMap<>(map)));
+  }
+
+  public synchronized void put(String key, V value) {
+    Map<String, V> next = new HashMap<>(snapshot.get());
+    next.put(key, value);
+    snapshot.set(Collections.unmodifiableMap(next));
+    if (writesDuringRefresh != null) {
+      writesDuringRefresh.put(key, value);
+    }
+  }
+
+  public synchronized void remove(String key) {
+    if (snapshot.get().containsKey(key)) {
+      Map<String, V> next = new HashMap<>(snapshot.get());
+      next.remove(key);
+      snapshot.set(Collections.unmodifiableMap(next));
+    }
+    if (writesDuringRefresh != null) {
+      writesDuringRefresh.put(key, null);
+    }
+  }
+
+  /**
+   * Returns the size, the age of the snapshot since its last refresh, and the duration and mode of
+   * the last refresh.
+   *
+   * @return Map of metric name and value
+   */
+  public Map<String, Object> getMetrics() {
+    Map<String, Object> metrics = new HashMap<>();
+    metrics.put("size", snapshot.get().size());
+    metrics.put("ageMs", refreshedAt > 0 ? System.currentTimeMillis() - refreshedAt : -1);
+    metrics.put("lastRefreshDurationMs", lastRefreshDuration);
+    metrics.put("lastRefreshMode", lastRefreshMode);
+    return metrics;
+  }
+}
@@ -0,0 +1,90 @@
+package org.sunbird.learner.util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.sunbird.common.models.util.JsonKey;
+import org.sunbird.common.models.util.LoggerEnum;
+import org.sunbird.common.models.util.ProjectLogger;
+
+/**
+ * Page definition of the page cache with its portal and app section lists parsed once when the
+ * page is loaded, so that page assembly does not parse them on every request.
+ */
+public final class CompiledPage {
+
+  private static final ObjectMapper mapper = new ObjectMapper();
+
+  private final Map<String, Object> page;
+  private final List<Map<String, Object>> portalSections;
+  private final List<Map<String, Object>> appSections;
+
+  private CompiledPage(
+      Map<String, Object> page,
+      List<Map<String, Object>> portalSections,
+      List<Map<String, Object>> appSections) {
+    this.page = page;
+    this.portalSections = portalSections;
+    this.appSections = appSections;
+  }
+
+  /**
+   * Parses the section lists of given page.
+   *
+   * @param page Page as stored in the page cache
+   * @return Compiled page
+   */
+  public static CompiledPage compile(Map<String, Object> page) {
+    return new CompiledPage(
+        page,
+        parseSections(page, (String) page.get(JsonKey.PORTAL_MAP)),
+        parseSections(page, (String) page.get(JsonKey.APP_MAP)));
+  }
+
+  /** @return true if this page was compiled from given page cache entry */
+  public boolean isCompiledFrom(Map<String, Object> page) {
+    return this.page == page;
+  }
+
+  /** @return Page as stored in the page cache, which must not be modified */
+  public Map<String, Object> getPage() {
+    return page;
+  }
+
+  /** @return Unmodifiable portal section list, or null if it is missing or invalid */
+  public List<Map<String, Object>> getPortalSections() {
+    return portalSections;
+  }
+
+  /** @return Unmodifiable app section list, or null if it is missing or invalid */
+  public List<Map<String, Object>> getAppSections() {
+    return appSections;
+  }
+
+  private static List<Map<String, Object>> parseSections(
+      Map<String, Object> page, String sectionQuery) {
+    if (sectionQuery == null) {
+      return null;
+    }
+    try {
+      List<Map<String, Object>> sections =
+          mapper.readValue(sectionQuery, new TypeReference<List<Map<String, Object>>>() {});
+      List<Map<String, Object>> result = new ArrayList<>(sections.size());
+      for (Map<String, Object> section : sections) {
+        result.add(section == null ? null : Collections.unmodifiableMap(section));
+      }
+      return Collections.unmodifiableList(result);
+    } catch (Exception e) {
+      ProjectLogger.log(
+          "CompiledPage:parseSections: Invalid sections of page "
+              + page.get(JsonKey.ID)
+              + " with error message = "
+              + e.getMessage(),
+          LoggerEnum.INFO.name());
+      return null;
+    }
+  }
+}
@@ -0,0 +1,124 @@
+package org.sunbird.learner.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.collections.MapUtils;
+import org.sunbird.common.models.util.JsonKey;
+import org.sunbird.common.models.util.LoggerEnum;
+import org.sunbird.common.models.util.ProjectLogger;
+
+/**
+ * Page section of the page cache with its search query parsed once when the section is loaded. The
+ * parsed query is kept as an immutable template, and each page assembly request gets its own copy
+ * of it to merge the request filters into.
+ */
+public final class CompiledSection {
+
+  private static final ObjectMapper mapper = new ObjectMapper();
+
+  private final Map<String, Object> section;
+  private final Map<String, Object> searchQuery;
+
+  private CompiledSection(Map<String, Object> section, Map<String, Object> searchQuery) {
+    this.section = section;
+    this.searchQuery = searchQuery;
+  }
+
+  /**
+   * Parses the search query of given section.
+   *
+   * @param section Section as stored in the page cache
+   * @return Compiled section
+   */
+  @SuppressWarnings("unchecked")
+  public static CompiledSection compile(Map<String, Object> section) {
+    Map<String, Object> searchQuery = null;
+    try {
+      searchQuery = mapper.readValue((String) section.get(JsonKey.SEARCH_QUERY), HashMap.class);
+      if (MapUtils.isEmpty(searchQuery)) {
+        searchQuery = new HashMap<>();
+      }
+      if (!(searchQuery.get(JsonKey.REQUEST) instanceof Map)) {
+        searchQuery.put(JsonKey.REQUEST, new HashMap<String, Object>());
+      }
+      searchQuery = (Map<String, Object>) immutableCopy(searchQuery);
+    } catch (Exception e) {
+      ProjectLogger.log(
+          "CompiledSection:compile: Invalid search query of section "
+              + section.get(JsonKey.ID)
+              + " with error message = "
+              + e.getMessage(),
+          LoggerEnum.INFO.name());
+      searchQuery = null;
+    }
+    return new CompiledSection(section, searchQuery);
+  }
+
+  /** @return true if this section was compiled from given page cache entry */
+  public boolean isCompiledFrom(Map<String, Object> section) {
+    return this.section == section;
+  }
+
+  /** @return Copy of the section, which can be filled with the search result */
+  public Map<String, Object> newSectionData() {
+    return new HashMap<>(section);
+  }
+
+  /**
+   * Returns a modifiable copy of the search query template. The copy always has a request map.
+   *
+   * @return Search query of the section
+   * @throws IOException if the search query of the section could not be parsed
+   */
+  @SuppressWarnings("unchecked")
+  public Map<String, Object> newSearchQuery() throws IOException {
+    if (searchQuery == null) {
+      throw new IOException("Invalid search query of section " + section.get(JsonKey.ID));
+    }
+    return (Map<String, Object>) mutableCopy(searchQuery);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Object immutableCopy(Object value) {
+    if (value instanceof Map) {
+      Map<String, Object> copy = new LinkedHashMap<>();
+      for (Map.Entry<String, Object> entry : ((Map<String, Object>) value).entrySet()) {
+        copy.put(entry.getKey(), immutableCopy(entry.getValue()));
+      }
+      return Collections.unmodifiableMap(copy);
+    }
+    if (value instanceof List) {
+      List<Object> copy = new ArrayList<>();
+      for (Object item : (List<Object>) value) {
+        copy.add(immutableCopy(item));
+      }
+      return Collections.unmodifiableList(copy);
+    }
+    return value;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Object mutableCopy(Object value) {
+    if (value instanceof Map) {
+      Map<String, Object> copy = new HashMap<>();
+      for (Map.Entry<String, Object> entry : ((Map<String, Object>) value).entrySet()) {
+        copy.put(entry.getKey(), mutableCopy(entry.getValue()));
+      }
+      return copy;
+    }
+    if (value instanceof List) {
+      List<Object> copy = new ArrayList<>();
+      for (Object item : (List<Object>) value) {
+        copy.add(mutableCopy(item));
+      }
+      return copy;
+    }
+    return value;
+  }
+}
@@ -0,0 +1,42 @@
+package org.sunbird.learner.util;
+
+import org.apache.commons.lang3.StringUtils;
+import org.sunbird.common.models.util.ProjectLogger;
+import org.sunbird.common.models.util.ProjectUtil;
+
+/** Reads numeric configuration values with a default for missing or invalid values. */
+public final class ConfigValueUtil {
+
+  private ConfigValueUtil() {}
+
+  /**
+   * Returns the configured value of given key as long.
+   *
+   * @param key Configuration key
+   * @param defaultValue Value returned when the key is not configured or is not a number
+   * @return long
+   */
+  public static long getLong(String key, long defaultValue) {
+    String value = ProjectUtil.getConfigValue(key);
+    if (StringUtils.isBlank(value)) {
+      return defaultValue;
+    }
+    try {
+      return Long.parseLong(value.trim());
+    } catch (NumberFormatException e) {
+      ProjectLogger.log("ConfigValueUtil:getLong: Invalid value for " + key + " = " + value, e);
+      return defaultValue;
+    }
+  }
+
+  /**
+   * Returns the configured value of given key as int.
+   *
+   * @param key Configuration key
+   * @param defaultValue Value returned when the key is not configured or is not a number
+   * @return int
+   */
+  public static int getInt(String key, int defaultValue) {
+    return (int) getLong(key, defaultValue);
+  }
+}
@@ -1,31 +1,33 @@
 package org.sunbird.learner.util;
 
 import akka.dispatch.Mapper;
-import com.mashape.unirest.http.HttpResponse;
-import com.mashape.unirest.http.JsonNode;
-import com.mashape.unirest.http.Unirest;
-import com.mashape.unirest.request.BaseRequest;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import javax.ws.rs.core.MediaType;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpHeaders;
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
+import org.apache.http.HttpStatus;
+import org.sunbird.common.http.OutboundHttpClients;
+import org.sunbird.common.http.OutboundHttpResponse;
 import org.sunbird.common.models.util.JsonKey;
 import org.sunbird.common.models.util.ProjectLogger;
 import org.sunbird.common.models.util.PropertiesCache;
-import org.sunbird.common.models.util.RestUtil;
 import scala.concurrent.ExecutionContextExecutor;
 import scala.concurrent.Future;
 
 /** @author Mahesh Kumar Gangula */
 public class ContentSearchUtil {
 
+  private static final String RES_MSG_ID = "resmsgid";
+  private static final ObjectMapper mapper = new ObjectMapper();
   private static String contentSearchURL = null;
 
   static {
@@ -43,7 +45,6 @@ public class ContentSearchUtil {
     headers.put(
         HttpHeaders.AUTHORIZATION, JsonKey.BEARER + System.getenv(JsonKey.SUNBIRD_AUTHORIZATION));
     headers.put(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON);
-    headers.put("Connection", "Keep-Alive");
     return headers;
   }
 
@@ -57,115 +58,188 @@ public class ContentSearchUtil {
       String queryRequestBody,
       Map<String, String> headers,
       ExecutionContextExecutor ec) {
-    String logMsgPrefix = "ContentSearchUtil:searchContent: ";
+    return searchContent(urlQueryString, queryRequestBody, headers, null, ec);
+  }
 
-    Unirest.clearDefaultHeaders();
-    String urlString =
-        StringUtils.isNotBlank(urlQueryString)
-            ? contentSearchURL + urlQueryString
-            : contentSearchURL;
-    BaseRequest request =
-        Unirest.post(urlString).headers(getUpdatedHeaders(headers)).body(queryRequestBody);
-    Future<HttpResponse<JsonNode>> response = RestUtil.executeAsync(request);
-
-    return response.map(
-        new Mapper<HttpResponse<JsonNode>, Map<String, Object>>() {
-          @Override
-          public Map<String, Object> apply(HttpResponse<JsonNode> response) {
-            try {
-              if (RestUtil.isSuccessful(response)) {
-                JSONObject result = response.getBody().getObject().getJSONObject("result");
-                Map<String, Object> resultMap = jsonToMap(result);
-                Object contents = resultMap.get(JsonKey.CONTENT);
-                resultMap.remove(JsonKey.CONTENT);
-                resultMap.put(JsonKey.CONTENTS, contents);
-                String resmsgId = RestUtil.getFromResponse(response, "params.resmsgid");
-                String apiId = RestUtil.getFromResponse(response, "id");
-                Map<String, Object> param = new HashMap<>();
-                param.put(JsonKey.RES_MSG_ID, resmsgId);
-                param.put(JsonKey.API_ID, apiId);
-                resultMap.put(JsonKey.PARAMS, param);
-                return resultMap;
-              } else {
-                ProjectLogger.log(
-                    logMsgPrefix + "Search content failed. Error response = " + response.getBody());
-                return null;
+  /**
+   * Searches content and parses the response while it is read.
+   *
+   * @param urlQueryString Query string appended to the search URL, may be null
+   * @param queryRequestBody Search request body
+   * @param headers Request headers
+   * @param fields Fields to keep in each returned content, or null to keep all fields
+   * @param ec Execution context
+   * @return Future of the search result, which completes with null if the search failed
+   */
+  public static Future<Map<String, Object>> searchContent(
+      String urlQueryString,
+      String queryRequestBody,
+      Map<String, String> headers,
+      Set<String> fields,
+      ExecutionContextExecutor ec) {
+    String logMsgPrefix = "ContentSearchUtil:searchContent: ";
+    return OutboundHttpClients.get(OutboundHttpClients.CONTENT_SEARCH)
+        .post(getUrl(urlQueryString), getUpdatedHeaders(headers), queryRequestBody)
+        .map(
+            new Mapper<OutboundHttpResponse, Map<String, Object>>() {
+              @Override
+              public Map<String, Object> apply(OutboundHttpResponse response) {
+                return getSearchResult(logMsgPrefix, response, fields);
               }
-            } catch (Exception e) {
-              ProjectLogger.log(
-                  logMsgPrefix + "Exception occurred with error message = " + e.getMessage(), e);
-              return null;
-            }
-          }
-        },
-        ec);
+            },
+            ec);
   }
 
   public static Map<String, Object> searchContentSync(
       String urlQueryString, String queryRequestBody, Map<String, String> headers) {
-    Unirest.clearDefaultHeaders();
-    String urlString =
-        StringUtils.isNotBlank(urlQueryString)
-            ? contentSearchURL + urlQueryString
-            : contentSearchURL;
-
-    BaseRequest request =
-        Unirest.post(urlString).headers(getUpdatedHeaders(headers)).body(queryRequestBody);
+    return searchContentSync(urlQueryString, queryRequestBody, headers, null);
+  }
+
+  /**
+   * Searches content and parses the response while it is read.
+   *
+   * @param urlQueryString Query string appended to the search URL, may be null
+   * @param queryRequestBody Search request body
+   * @param headers Request headers
+   * @param fields Fields to keep in each returned content, or null to keep all fields
+   * @return Search result, or null if the search failed
+   */
+  public static Map<String, Object> searchContentSync(
+      String urlQueryString,
+      String queryRequestBody,
+      Map<String, String> headers,
+      Set<String> fields) {
     try {
-      HttpResponse<JsonNode> response = RestUtil.execute(request);
-      if (RestUtil.isSuccessful(response)) {
-        JSONObject result = response.getBody().getObject().getJSONObject("result");
-        Map<String, Object> resultMap = jsonToMap(result);
-        Object contents = resultMap.get(JsonKey.CONTENT);
-        resultMap.remove(JsonKey.CONTENT);
-        resultMap.put(JsonKey.CONTENTS, contents);
-        String resmsgId = RestUtil.getFromResponse(response, "params.resmsgid");
-        String apiId = RestUtil.getFromResponse(response, "id");
-        Map<String, Object> param = new HashMap<>();
-        param.put(JsonKey.RES_MSG_ID, resmsgId);
-        param.put(JsonKey.API_ID, apiId);
-        resultMap.put(JsonKey.PARAMS, param);
-        return resultMap;
-      } else {
+      return getSearchResult(
+          "ContentSearchUtil:searchContentSync: ",
+          OutboundHttpClients.get(OutboundHttpClients.CONTENT_SEARCH)
+              .postSync(getUrl(urlQueryString), getUpdatedHeaders(headers), queryRequestBody),
+          fields);
+    } catch (Exception e) {
+      ProjectLogger.log(
+          "ContentSearchUtil:searchContentSync: Exception occurred with error message = "
+              + e.getMessage(),
+          e);
+      return null;
+    }
+  }
+
+  private static String getUrl(String urlQueryString) {
+    return StringUtils.isNotBlank(urlQueryString)
+        ? contentSearchURL + urlQueryString
+        : contentSearchURL;
+  }
+
+  private static Map<String, Object> getSearchResult(
+      String logMsgPrefix, OutboundHttpResponse response, Set<String> fields) {
+    try (InputStream body = response.getBodyAsStream()) {
+      if (response.getStatus() != HttpStatus.SC_OK) {
+        ProjectLogger.log(
+            logMsgPrefix + "Search content failed with response status = " + response.getStatus());
         return null;
       }
+      return parseSearchResponse(body, fields);
     } catch (Exception e) {
+      ProjectLogger.log(
+          logMsgPrefix + "Exception occurred with error message = " + e.getMessage(), e);
       return null;
     }
   }
 
-  public static Map<String, Object> jsonToMap(JSONObject object) throws JSONException {
-    Map<String, Object> map = new HashMap<String, Object>();
-
-    Iterator<String> keysItr = object.keys();
-    while (keysItr.hasNext()) {
-      String key = keysItr.next();
-      Object value = object.get(key);
+  /**
+   * Parses a search response into the search result map. The result is read token by token, and
+   * fields of the contents which are not in given fields are skipped without being read into
+   * objects. Top level fields other than id, params and result are skipped as well.
+   *
+   * @param body Search response body
+   * @param fields Fields to keep in each content, or null to keep all fields
+   * @return Search result with contents and params, or null if the response has no result
+   * @throws IOException if the response is not valid JSON
+   */
+  static Map<String, Object> parseSearchResponse(InputStream body, Set<String> fields)
+      throws IOException {
+    Map<String, Object> resultMap = null;
+    String apiId = null;
+    String resmsgId = null;
+    try (JsonParser parser = mapper.getFactory().createParser(body)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new IOException("Search response is not a JSON object");
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String name = parser.getCurrentName();
+        JsonToken token = parser.nextToken();
+        if (JsonKey.ID.equals(name) && token.isScalarValue()) {
+          apiId = parser.getValueAsString();
+        } else if (JsonKey.PARAMS.equals(name) && token == JsonToken.START_OBJECT) {
+          resmsgId = readResMsgId(parser);
+        } else if (JsonKey.RESULT.equals(name) && token == JsonToken.START_OBJECT) {
+          resultMap = readResult(parser, fields);
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+    if (resultMap == null) {
+      return null;
+    }
+    resultMap.put(JsonKey.CONTENTS, resultMap.remove(JsonKey.CONTENT));
+    Map<String, Object> param = new HashMap<>();
+    param.put(JsonKey.RES_MSG_ID, resmsgId);
+    param.put(JsonKey.API_ID, apiId);
+    resultMap.put(JsonKey.PARAMS, param);
+    return resultMap;
+  }
 
-      if (value instanceof JSONArray) {
-        value = toList((JSONArray) value);
-      } else if (value instanceof JSONObject) {
-        value = jsonToMap((JSONObject) value);
+  private static String readResMsgId(JsonParser parser) throws IOException {
+    String resmsgId = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.getCurrentName();
+      JsonToken token = parser.nextToken();
+      if (RES_MSG_ID.equals(name) && token.isScalarValue()) {
+        resmsgId = parser.getValueAsString();
+      } else {
+        parser.skipChildren();
       }
-      if (value == JSONObject.NULL) {
-        value = null;
+    }
+    return resmsgId;
+  }
+
+  private static Map<String, Object> readResult(JsonParser parser, Set<String> fields)
+      throws IOException {
+    Map<String, Object> result = new HashMap<>();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.getCurrentName();
+      JsonToken token = parser.nextToken();
+      if (JsonKey.CONTENT.equals(name) && token == JsonToken.START_ARRAY && fields != null) {
+        result.put(name, readContents(parser, fields));
+      } else {
+        result.put(name, mapper.readValue(parser, Object.class));
       }
-      map.put(key, value);
     }
-    return map;
+    return result;
   }
 
-  public static List<Object> toList(JSONArray array) throws JSONException {
-    List<Object> list = new ArrayList<Object>();
-    for (int i = 0; i < array.length(); i++) {
-      Object value = array.get(i);
-      if (value instanceof JSONArray) {
-        value = toList((JSONArray) value);
-      } else if (value instanceof JSONObject) {
-        value = jsonToMap((JSONObject) value);
+  private static List<Object> readContents(JsonParser parser, Set<String> fields)
+      throws IOException {
+    List<Object> contents = new ArrayList<>();
+    JsonToken token;
+    while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+      if (token != JsonToken.START_OBJECT) {
+        contents.add(mapper.readValue(parser, Object.class));
+        continue;
+      }
+      Map<String, Object> content = new HashMap<>();
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String name = parser.getCurrentName();
+        parser.nextToken();
+        if (fields.contains(name)) {
+          content.put(name, mapper.readValue(parser, Object.class));
+        } else {
+          parser.skipChildren();
+        }
       }
-      list.add(value);
+      contents.add(content);
     }
-    return list;
+    return contents;
   }
 }
@@ -0,0 +1,374 @@
+package org.sunbird.learner.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.sunbird.common.models.util.JsonKey;
+import org.sunbird.common.models.util.LoggerEnum;
+import org.sunbird.common.models.util.ProjectLogger;
+import org.sunbird.common.models.util.ProjectUtil;
+import org.sunbird.learner.constants.CourseJsonKey;
+
+/**
+ * Write-behind buffer for learner content state updates. Updates for the same user, batch and
+ * content are merged in memory and persisted together, either on a fixed interval or once the
+ * number of pending contents crosses the configured threshold.
+ *
+ * <p>The first update of a content is merged with its stored consumption row, every later update
+ * is merged with the buffered state, so the stored row after a flush is the same as it would be
+ * with one synchronous write per request. Contents are dropped from memory once they are written,
+ * so the next update reads the stored row again and keeps changes written by other nodes.
+ */
+public final class ContentStateWriteBehindBuffer {
+
+  private static final long DEFAULT_FLUSH_INTERVAL_MS = 10000;
+  private static final int DEFAULT_FLUSH_THRESHOLD = 500;
+  private static final long DEFAULT_IDLE_EVICTION_MS = 300000;
+
+  private static volatile ContentStateWriteBehindBuffer instance = null;
+
+  private final Map<String, UserBatchState> states = new ConcurrentHashMap<>();
+  private final AtomicInteger pendingContents = new AtomicInteger();
+  private final AtomicBoolean flushRequested = new AtomicBoolean();
+  private final AtomicLong receivedUpdates = new AtomicLong();
+  private final AtomicLong writtenContents = new AtomicLong();
+  private final AtomicLong flushCount = new AtomicLong();
+  private final AtomicLong failedFlushCount = new AtomicLong();
+  private volatile long lastFlushLagMs;
+  private volatile long maxFlushLagMs;
+  private volatile boolean shutdown;
+
+  private final Sink sink;
+  private final long flushIntervalMs;
+  private final int flushThreshold;
+  private final long idleEvictionMs;
+  private final ScheduledExecutorService scheduler;
+
+  /** Persists the contents collected by a flush. */
+  public interface Sink {
+
+    /**
+     * Writes the merged consumption rows of all users and batches flushed together.
+     *
+     * @param contents Merged content consumption rows
+     */
+    void writeContents(List<Map<String, Object>> contents) throws Exception;
+
+    /**
+     * Updates the course state of one user in one batch, after its contents are written.
+     *
+     * @param userId User ID
+     * @param batchId Batch ID
+     * @param courseId Course ID
+     * @param contents Merged content consumption rows of this user and batch
+     */
+    void writeUserBatch(
+        String userId, String batchId, String courseId, List<Map<String, Object>> contents)
+        throws Exception;
+  }
+
+  ContentStateWriteBehindBuffer(
+      Sink sink, long flushIntervalMs, int flushThreshold, long idleEvictionMs) {
+    this.sink = sink;
+    this.flushIntervalMs = flushIntervalMs;
+    this.flushThreshold = flushThreshold;
+    this.idleEvictionMs = idleEvictionMs;
+    this.scheduler = Executors.newSingleThreadScheduledExecutor();
+    scheduler.scheduleWithFixedDelay(
+        this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Returns true if content state updates should be written behind, as configured by {@code
+   * sunbird_content_state_write_behind_enabled}.
+   */
+  public static boolean isEnabled() {
+    return Boolean.parseBoolean(
+        ProjectUtil.getConfigValue(CourseJsonKey.CONTENT_STATE_WRITE_BEHIND_ENABLED));
+  }
+
+  /**
+   * Returns the process wide buffer, creating it on first use.
+   *
+   * @param sinkSupplier Supplies the sink used to persist flushed contents. Only called when the
+   *     buffer is created.
+   * @return ContentStateWriteBehindBuffer
+   */
+  public static ContentStateWriteBehindBuffer getInstance(Supplier<Sink> sinkSupplier) {
+    if (instance == null) {
+      synchronized (ContentStateWriteBehindBuffer.class) {
+        if (instance == null) {
+          ContentStateWriteBehindBuffer buffer =
+              new ContentStateWriteBehindBuffer(
+                  sinkSupplier.get(),
+                  ConfigValueUtil.getLong(
+                      CourseJsonKey.CONTENT_STATE_FLUSH_INTERVAL_MS, DEFAULT_FLUSH_INTERVAL_MS),
+                  ConfigValueUtil.getInt(
+                      CourseJsonKey.CONTENT_STATE_FLUSH_THRESHOLD, DEFAULT_FLUSH_THRESHOLD),
+                  ConfigValueUtil.getLong(
+                      CourseJsonKey.CONTENT_STATE_IDLE_EVICTION_MS, DEFAULT_IDLE_EVICTION_MS));
+          Runtime.getRuntime().addShutdownHook(new Thread(buffer::shutdown));
+          instance = buffer;
+        }
+      }
+    }
+    return instance;
+  }
+
+  /**
+   * Merges the given contents of a user in a batch into the buffer.
+   *
+   * @param userId User ID
+   * @param batchId Batch ID
+   * @param courseId Course ID of the batch
+   * @param inputContents Content updates received in the request
+   * @param existingContentLoader Reads the stored consumption rows of content IDs which are not
+   *     buffered yet
+   * @param merger Merges an input content with its current state, which is null for a new content
+   * @return false if the buffer is shut down and the update has to be written directly
+   */
+  public boolean update(
+      String userId,
+      String batchId,
+      String courseId,
+      List<Map<String, Object>> inputContents,
+      Function<List<String>, List<Map<String, Object>>> existingContentLoader,
+      BiFunction<Map<String, Object>, Map<String, Object>, Map<String, Object>> merger) {
+    if (shutdown) {
+      return false;
+    }
+    String key = userId + JsonKey.PRIMARY_KEY_DELIMETER + batchId;
+    boolean merged = false;
+    while (!merged) {
+      UserBatchState state =
+          states.computeIfAbsent(key, k -> new UserBatchState(userId, batchId, courseId));
+      synchronized (state) {
+        if (state.evicted) {
+          continue;
+        }
+        Set<String> missingIds = new LinkedHashSet<>();
+        for (Map<String, Object> inputContent : inputContents) {
+          String contentId = (String) inputContent.get(JsonKey.CONTENT_ID);
+          if (!state.contents.containsKey(contentId)) {
+            missingIds.add(contentId);
+          }
+        }
+        if (!missingIds.isEmpty()) {
+          for (Map<String, Object> existingContent :
+              existingContentLoader.apply(new ArrayList<>(missingIds))) {
+            state.contents.put((String) existingContent.get(JsonKey.CONTENT_ID), existingContent);
+          }
+        }
+        for (Map<String, Object> inputContent : inputContents) {
+          String contentId = (String) inputContent.get(JsonKey.CONTENT_ID);
+          state.contents.put(contentId, merger.apply(inputContent, state.contents.get(contentId)));
+          if (state.dirty.add(contentId)) {
+            pendingContents.incrementAndGet();
+          }
+        }
+        long now = System.currentTimeMillis();
+        if (state.dirtySince == 0) {
+          state.dirtySince = now;
+        }
+        state.lastAccess = now;
+        state.courseId = courseId;
+        merged = true;
+      }
+    }
+    receivedUpdates.addAndGet(inputContents.size());
+    if (pendingContents.get() >= flushThreshold && flushRequested.compareAndSet(false, true)) {
+      scheduler.execute(this::flushQuietly);
+    }
+    return true;
+  }
+
+  /**
+   * Writes all pending contents through the sink. Contents of a failed write stay pending and are
+   * retried with the next flush.
+   */
+  synchronized void flush() {
+    flushRequested.set(false);
+    long now = System.currentTimeMillis();
+    long oldestDirty = Long.MAX_VALUE;
+    List<PendingWrite> writes = new ArrayList<>();
+    List<Map<String, Object>> contents = new ArrayList<>();
+    for (Map.Entry<String, UserBatchState> entry : states.entrySet()) {
+      UserBatchState state = entry.getValue();
+      synchronized (state) {
+        if (!state.dirty.isEmpty()) {
+          PendingWrite write = new PendingWrite(state, state.courseId, state.dirtySince);
+          for (String contentId : state.dirty) {
+            write.contents.add(new HashMap<>(state.contents.get(contentId)));
+          }
+          writes.add(write);
+          contents.addAll(write.contents);
+          oldestDirty = Math.min(oldestDirty, state.dirtySince);
+          pendingContents.addAndGet(-state.dirty.size());
+          state.dirty.clear();
+          state.dirtySince = 0;
+        } else if (now - state.lastAccess > idleEvictionMs) {
+          state.evicted = true;
+          states.remove(entry.getKey(), state);
+        }
+      }
+    }
+    if (writes.isEmpty()) {
+      return;
+    }
+    try {
+      sink.writeContents(contents);
+    } catch (Exception e) {
+      failedFlushCount.incrementAndGet();
+      ProjectLogger.log(
+          "ContentStateWriteBehindBuffer:flush: Failed to write "
+              + contents.size()
+              + " contents, retrying with next flush",
+          e);
+      writes.forEach(this::restorePending);
+      return;
+    }
+    writes.forEach(this::releaseWritten);
+    for (PendingWrite write : writes) {
+      try {
+        sink.writeUserBatch(
+            write.state.userId, write.state.batchId, write.courseId, write.contents);
+      } catch (Exception e) {
+        ProjectLogger.log(
+            "ContentStateWriteBehindBuffer:flush: Failed to update course state for userId = "
+                + write.state.userId
+                + " batchId = "
+                + write.state.batchId,
+            e);
+      }
+    }
+    writtenContents.addAndGet(contents.size());
+    flushCount.incrementAndGet();
+    lastFlushLagMs = System.currentTimeMillis() - oldestDirty;
+    maxFlushLagMs = Math.max(maxFlushLagMs, lastFlushLagMs);
+    ProjectLogger.log(
+        "ContentStateWriteBehindBuffer:flush: Flushed " + contents.size() + " contents, metrics = "
+            + getMetrics(),
+        LoggerEnum.INFO.name());
+  }
+
+  /** Stops the periodic flush and writes everything still pending. */
+  public void shutdown() {
+    shutdown = true;
+    scheduler.shutdown();
+    try {
+      scheduler.awaitTermination(flushIntervalMs, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    flush();
+    ProjectLogger.log(
+        "ContentStateWriteBehindBuffer:shutdown: Drained buffer, metrics = " + getMetrics(),
+        LoggerEnum.INFO.name());
+  }
+
+  /**
+   * Returns the buffer metrics. Coalescing ratio is the number of content updates received per
+   * content row written, flush lag is the age of the oldest pending update when it was written.
+   *
+   * @return Map of metric name and value
+   */
+  public Map<String, Object> getMetrics() {
+    Map<String, Object> metrics = new HashMap<>();
+    long written = writtenContents.get();
+    metrics.put("pendingContents", pendingContents.get());
+    metrics.put("receivedUpdates", receivedUpdates.get());
+    metrics.put("writtenContents", written);
+    metrics.put(
+        "coalescingRatio", written == 0 ? 0.0 : (double) receivedUpdates.get() / written);
+    metrics.put("flushCount", flushCount.get());
+    metrics.put("failedFlushCount", failedFlushCount.get());
+    metrics.put("lastFlushLagMs", lastFlushLagMs);
+    metrics.put("maxFlushLagMs", maxFlushLagMs);
+    return metrics;
+  }
+
+  private void flushQuietly() {
+    try {
+      flush();
+    } catch (Exception e) {
+      ProjectLogger.log("ContentStateWriteBehindBuffer:flushQuietly: Flush failed", e);
+    }
+  }
+
+  private void restorePending(PendingWrite write) {
+    UserBatchState state = write.state;
+    synchronized (state) {
+      for (Map<String, Object> content : write.contents) {
+        if (state.dirty.add((String) content.get(JsonKey.CONTENT_ID))) {
+          pendingContents.incrementAndGet();
+        }
+      }
+      state.dirtySince =
+          state.dirtySince == 0 ? write.dirtySince : Math.min(state.dirtySince, write.dirtySince);
+    }
+  }
+
+  /**
+   * Drops written contents which were not updated again while being written. A state without
+   * contents is evicted.
+   */
+  private void releaseWritten(PendingWrite write) {
+    UserBatchState state = write.state;
+    synchronized (state) {
+      for (Map<String, Object> content : write.contents) {
+        String contentId = (String) content.get(JsonKey.CONTENT_ID);
+        if (!state.dirty.contains(contentId)) {
+          state.contents.remove(contentId);
+        }
+      }
+      if (state.contents.isEmpty()) {
+        state.evicted = true;
+        states.remove(state.userId + JsonKey.PRIMARY_KEY_DELIMETER + state.batchId, state);
+      }
+    }
+  }
+
+  private static class UserBatchState {
+    private final String userId;
+    private final String batchId;
+    private String courseId;
+    private final Map<String, Map<String, Object>> contents = new HashMap<>();
+    private final Set<String> dirty = new HashSet<>();
+    private long dirtySince;
+    private long lastAccess;
+    private boolean evicted;
+
+    UserBatchState(String userId, String batchId, String courseId) {
+      this.userId = userId;
+      this.batchId = batchId;
+      this.courseId = courseId;
+    }
+  }
+
+  private static class PendingWrite {
+    private final UserBatchState state;
+    private final String courseId;
+    private final long dirtySince;
+    private final List<Map<String, Object>> contents = new ArrayList<>();
+
+    PendingWrite(UserBatchState state, String courseId, long dirtySince) {
+      this.state = state;
+      this.courseId = courseId;
+      this.dirtySince = dirtySince;
+    }
+  }
+}
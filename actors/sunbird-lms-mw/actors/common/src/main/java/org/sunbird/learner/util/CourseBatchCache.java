@@ -0,0 +1,169 @@
+package org.sunbird.learner.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.collections.MapUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.sunbird.common.ElasticSearchHelper;
+import org.sunbird.common.factory.EsClientFactory;
+import org.sunbird.common.inf.ElasticSearchService;
+import org.sunbird.common.models.util.JsonKey;
+import org.sunbird.common.models.util.LoggerEnum;
+import org.sunbird.common.models.util.ProjectLogger;
+import org.sunbird.common.models.util.ProjectUtil;
+import org.sunbird.dto.SearchDTO;
+import org.sunbird.learner.constants.CourseJsonKey;
+import scala.concurrent.Future;
+
+/**
+ * Process wide read-through cache of course batch documents from the courseBatch ES index.
+ *
+ * <p>Entries are invalidated when a batch is created or updated on this node, and expire after
+ * {@code sunbird_course_batch_cache_ttl_ms} so that changes made on other nodes are picked up. A
+ * TTL of zero disables caching. Returned maps are copies, but nested values are shared with the
+ * cache and must not be modified.
+ */
+public final class CourseBatchCache {
+
+  private static final long DEFAULT_TTL_MS = 60000;
+  private static final int DEFAULT_MAX_SIZE = 10000;
+
+  private static volatile CourseBatchCache instance = null;
+
+  private final LocalCache<String, Map<String, Object>> cache;
+  private final boolean enabled;
+  private final AtomicLong invalidationCount = new AtomicLong();
+
+  private CourseBatchCache(int maxSize, long ttlMillis) {
+    this.cache = new LocalCache<>(maxSize, ttlMillis);
+    this.enabled = ttlMillis > 0;
+  }
+
+  public static CourseBatchCache getInstance() {
+    if (instance == null) {
+      synchronized (CourseBatchCache.class) {
+        if (instance == null) {
+          instance =
+              new CourseBatchCache(
+                  ConfigValueUtil.getInt(
+                      CourseJsonKey.COURSE_BATCH_CACHE_MAX_SIZE, DEFAULT_MAX_SIZE),
+                  ConfigValueUtil.getLong(CourseJsonKey.COURSE_BATCH_CACHE_TTL_MS, DEFAULT_TTL_MS));
+        }
+      }
+    }
+    return instance;
+  }
+
+  /**
+   * Returns the course batch with given ID.
+   *
+   * @param batchId Batch ID
+   * @return Course batch details, or an empty map if the batch does not exist
+   */
+  public Map<String, Object> get(String batchId) {
+    if (StringUtils.isBlank(batchId)) {
+      return new HashMap<>();
+    }
+    Map<String, Object> courseBatch = enabled ? cache.get(batchId) : null;
+    if (courseBatch == null) {
+      long invalidations = invalidationCount.get();
+      Future<Map<String, Object>> resultF =
+          getEsService().getDataByIdentifier(ProjectUtil.EsType.courseBatch.getTypeName(), batchId);
+      courseBatch = (Map<String, Object>) ElasticSearchHelper.getResponseFromFuture(resultF);
+      if (MapUtils.isEmpty(courseBatch)) {
+        return new HashMap<>();
+      }
+      put(batchId, courseBatch, invalidations);
+    }
+    return new HashMap<>(courseBatch);
+  }
+
+  /**
+   * Returns the course batches with given IDs. Batches which are not cached are read with a single
+   * ES search.
+   *
+   * @param batchIds Batch IDs
+   * @return Map of batch ID and course batch details, without the IDs of batches that do not exist
+   */
+  public Map<String, Map<String, Object>> getAll(Collection<String> batchIds) {
+    Map<String, Map<String, Object>> courseBatches = new HashMap<>();
+    Set<String> missingIds = new LinkedHashSet<>();
+    for (String batchId : batchIds) {
+      Map<String, Object> courseBatch = enabled ? cache.get(batchId) : null;
+      if (courseBatch != null) {
+        courseBatches.put(batchId, new HashMap<>(courseBatch));
+      } else if (StringUtils.isNotBlank(batchId)) {
+        missingIds.add(batchId);
+      }
+    }
+    if (missingIds.isEmpty()) {
+      return courseBatches;
+    }
+    long invalidations = invalidationCount.get();
+    Map<String, Object> filters = new HashMap<>();
+    filters.put(JsonKey.BATCH_ID, new ArrayList<>(missingIds));
+    SearchDTO dto = new SearchDTO();
+    dto.getAdditionalProperties().put(JsonKey.FILTERS, filters);
+    dto.setLimit(missingIds.size());
+    Future<Map<String, Object>> resultF =
+        getEsService().search(dto, ProjectUtil.EsType.courseBatch.getTypeName());
+    Map<String, Object> result =
+        (Map<String, Object>) ElasticSearchHelper.getResponseFromFuture(resultF);
+    List<Map<String, Object>> contents =
+        MapUtils.isEmpty(result) ? null : (List<Map<String, Object>>) result.get(JsonKey.CONTENT);
+    if (CollectionUtils.isNotEmpty(contents)) {
+      for (Map<String, Object> courseBatch : contents) {
+        String batchId = (String) courseBatch.get(JsonKey.BATCH_ID);
+        if (missingIds.contains(batchId)) {
+          put(batchId, courseBatch, invalidations);
+          courseBatches.put(batchId, new HashMap<>(courseBatch));
+        }
+      }
+    }
+    return courseBatches;
+  }
+
+  /**
+   * Removes the given batch from the cache. To be called after the batch is changed in ES.
+   *
+   * @param batchId Batch ID
+   */
+  public void invalidate(String batchId) {
+    invalidationCount.incrementAndGet();
+    if (StringUtils.isNotBlank(batchId)) {
+      cache.invalidate(batchId);
+    }
+    ProjectLogger.log(
+        "CourseBatchCache:invalidate: Invalidated course batch " + batchId, LoggerEnum.INFO.name());
+  }
+
+  public void invalidateAll() {
+    invalidationCount.incrementAndGet();
+    cache.invalidateAll();
+  }
+
+  public Map<String, Object> getMetrics() {
+    return cache.getMetrics();
+  }
+
+  /**
+   * Caches a loaded batch, unless some batch was invalidated while it was loaded, as the loaded
+   * copy may be older than the change.
+   */
+  private void put(String batchId, Map<String, Object> courseBatch, long invalidations) {
+    if (enabled && invalidationCount.get() == invalidations) {
+      cache.put(batchId, courseBatch);
+    }
+  }
+
+  private ElasticSearchService getEsService() {
+    return EsClientFactory.getInstance(JsonKey.REST);
+  }
+}
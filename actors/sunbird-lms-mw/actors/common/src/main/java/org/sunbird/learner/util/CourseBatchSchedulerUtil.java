@@ -89,6 +89,7 @@ public final class CourseBatchSchedulerUtil {
           e);
       flag = false;
     }
+    CourseBatchCache.getInstance().invalidate((String) map.get(JsonKey.ID));
     return flag;
   }
 
@@ -16,15 +16,30 @@ public class CourseBatchUtil {
   private CourseBatchUtil() {}
 
   public static void syncCourseBatchForeground(String uniqueId, Map<String, Object> req) {
+    syncCourseBatchForeground(uniqueId, req, null);
+  }
+
+  /**
+   * Saves given course batch to ES and invalidates its cached copy, or records it in the ES index
+   * outbox if it is enabled for given operation. The outbox invalidates the cached copy once the
+   * batch is indexed.
+   */
+  public static void syncCourseBatchForeground(
+      String uniqueId, Map<String, Object> req, String operation) {
     ProjectLogger.log(
         "CourseBatchManagementActor: syncCourseBatchForeground called for course batch ID = "
             + uniqueId,
         LoggerEnum.INFO.name());
     req.put(JsonKey.ID, uniqueId);
     req.put(JsonKey.IDENTIFIER, uniqueId);
+    if (EsIndexOutbox.getInstance()
+        .offer(ProjectUtil.EsType.courseBatch.getTypeName(), uniqueId, req, false, operation)) {
+      return;
+    }
     Future<String> esResponseF =
         esUtil.save(ProjectUtil.EsType.courseBatch.getTypeName(), uniqueId, req);
     String esResponse = (String) ElasticSearchHelper.getResponseFromFuture(esResponseF);
+    CourseBatchCache.getInstance().invalidate(uniqueId);
 
     ProjectLogger.log(
         "CourseBatchManagementActor::syncCourseBatchForeground: Sync response for course batch ID = "
@@ -0,0 +1,239 @@
+package org.sunbird.learner.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.collections.MapUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.sunbird.common.models.util.JsonKey;
+import org.sunbird.common.models.util.LoggerEnum;
+import org.sunbird.common.models.util.ProjectLogger;
+import org.sunbird.common.models.util.ProjectUtil;
+import org.sunbird.learner.constants.CourseJsonKey;
+
+/**
+ * Process wide cache of course metadata (leaf nodes, leaf node count and display fields) read
+ * from content search, keyed by course ID.
+ *
+ * <p>Entries expire after {@code sunbird_course_metadata_cache_ttl_ms}, and are invalidated as soon
+ * as a content search returns the course with a different version key. A TTL of zero disables
+ * caching.
+ */
+public final class CourseMetadataCache {
+
+  private static final long DEFAULT_TTL_MS = 300000;
+  private static final int DEFAULT_MAX_SIZE = 5000;
+
+  private static volatile CourseMetadataCache instance = null;
+
+  private final LocalCache<String, CourseMetadata> cache;
+  private final boolean enabled;
+
+  private CourseMetadataCache(int maxSize, long ttlMillis) {
+    this.cache = new LocalCache<>(maxSize, ttlMillis);
+    this.enabled = ttlMillis > 0;
+  }
+
+  public static CourseMetadataCache getInstance() {
+    if (instance == null) {
+      synchronized (CourseMetadataCache.class) {
+        if (instance == null) {
+          instance =
+              new CourseMetadataCache(
+                  ConfigValueUtil.getInt(
+                      CourseJsonKey.COURSE_METADATA_CACHE_MAX_SIZE, DEFAULT_MAX_SIZE),
+                  ConfigValueUtil.getLong(
+                      CourseJsonKey.COURSE_METADATA_CACHE_TTL_MS, DEFAULT_TTL_MS));
+        }
+      }
+    }
+    return instance;
+  }
+
+  /**
+   * Returns the metadata of given course.
+   *
+   * @param courseId Course ID
+   * @param loader Reads the course content of given course ID, returns null if it does not exist
+   * @return Course metadata, or null if the course does not exist
+   */
+  public CourseMetadata get(String courseId, Function<String, Map<String, Object>> loader) {
+    if (StringUtils.isBlank(courseId)) {
+      return null;
+    }
+    CourseMetadata metadata = enabled ? cache.get(courseId) : null;
+    if (metadata == null) {
+      Map<String, Object> content = loader.apply(courseId);
+      if (MapUtils.isEmpty(content)) {
+        return null;
+      }
+      metadata = new CourseMetadata(content);
+      put(courseId, metadata);
+    }
+    return metadata;
+  }
+
+  /**
+   * Returns the metadata of given courses. Courses which are not cached are read with a single
+   * call of the loader.
+   *
+   * @param courseIds Course IDs
+   * @param loader Reads the course contents of given course IDs
+   * @return Map of course ID and metadata, without the IDs of courses that do not exist
+   */
+  public Map<String, CourseMetadata> getAll(
+      Collection<String> courseIds,
+      Function<Collection<String>, List<Map<String, Object>>> loader) {
+    Map<String, CourseMetadata> courses = new HashMap<>();
+    Set<String> missingIds = new LinkedHashSet<>();
+    for (String courseId : courseIds) {
+      CourseMetadata metadata = enabled ? cache.get(courseId) : null;
+      if (metadata != null) {
+        courses.put(courseId, metadata);
+      } else if (StringUtils.isNotBlank(courseId)) {
+        missingIds.add(courseId);
+      }
+    }
+    if (missingIds.isEmpty()) {
+      return courses;
+    }
+    List<Map<String, Object>> contents = loader.apply(missingIds);
+    if (CollectionUtils.isNotEmpty(contents)) {
+      for (Map<String, Object> content : contents) {
+        String courseId = (String) content.get(JsonKey.IDENTIFIER);
+        if (missingIds.contains(courseId)) {
+          CourseMetadata metadata = new CourseMetadata(content);
+          put(courseId, metadata);
+          courses.put(courseId, metadata);
+        }
+      }
+    }
+    return courses;
+  }
+
+  /**
+   * Invalidates the cached courses whose version key differs from the one in given course
+   * contents.
+   *
+   * @param contents Course contents as returned by content search
+   */
+  public void refresh(Collection<Map<String, Object>> contents) {
+    if (!enabled || CollectionUtils.isEmpty(contents)) {
+      return;
+    }
+    for (Map<String, Object> content : contents) {
+      String courseId = (String) content.get(JsonKey.IDENTIFIER);
+      Object versionKey = content.get(JsonKey.VERSION_KEY);
+      if (StringUtils.isBlank(courseId) || versionKey == null) {
+        continue;
+      }
+      CourseMetadata metadata = cache.get(courseId);
+      if (metadata != null && !String.valueOf(versionKey).equals(metadata.getVersionKey())) {
+        invalidate(courseId);
+      }
+    }
+  }
+
+  public void invalidate(String courseId) {
+    cache.invalidate(courseId);
+    ProjectLogger.log(
+        "CourseMetadataCache:invalidate: Invalidated course metadata " + courseId,
+        LoggerEnum.INFO.name());
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  public Map<String, Object> getMetrics() {
+    return cache.getMetrics();
+  }
+
+  private void put(String courseId, CourseMetadata metadata) {
+    if (enabled) {
+      cache.put(courseId, metadata);
+    }
+  }
+
+  /** Immutable view of the course fields used to compute progress and show enrolled courses. */
+  public static class CourseMetadata {
+
+    private final String versionKey;
+    private final String name;
+    private final String description;
+    private final String appIcon;
+    private final Object leafNodeCount;
+    private final List<String> leafNodes;
+    private final Set<String> leafNodeSet;
+
+    CourseMetadata(Map<String, Object> content) {
+      Object version = content.get(JsonKey.VERSION_KEY);
+      this.versionKey = version == null ? null : String.valueOf(version);
+      this.name = (String) content.get(JsonKey.NAME);
+      this.description = (String) content.get(JsonKey.DESCRIPTION);
+      this.appIcon = (String) content.get(JsonKey.APP_ICON);
+      this.leafNodeCount = content.get(JsonKey.LEAF_NODE_COUNT);
+      List<String> nodes = (List<String>) content.get(CourseJsonKey.LEAF_NODES);
+      this.leafNodes =
+          nodes == null
+              ? Collections.emptyList()
+              : Collections.unmodifiableList(new ArrayList<>(nodes));
+      this.leafNodeSet = Collections.unmodifiableSet(new HashSet<>(this.leafNodes));
+    }
+
+    public String getVersionKey() {
+      return versionKey;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public String getDescription() {
+      return description;
+    }
+
+    public String getAppIcon() {
+      return appIcon;
+    }
+
+    public Object getLeafNodeCount() {
+      return leafNodeCount;
+    }
+
+    public List<String> getLeafNodes() {
+      return leafNodes;
+    }
+
+    public Set<String> getLeafNodeSet() {
+      return leafNodeSet;
+    }
+
+    /**
+     * Counts the leaf nodes of this course which are completed as per given content status.
+     *
+     * @param contentStatus Map of content ID and progress status
+     * @return Number of completed leaf nodes
+     */
+    public int countCompletedLeafNodes(Map<String, Object> contentStatus) {
+      int completed = 0;
+      for (Map.Entry<String, Object> content : contentStatus.entrySet()) {
+        if (content.getValue() instanceof Number
+            && ProjectUtil.ProgressStatus.COMPLETED.getValue()
+                == ((Number) content.getValue()).intValue()
+            && leafNodeSet.contains(content.getKey())) {
+          completed++;
+        }
+      }
+      return completed;
+    }
+  }
+}
@@ -1,54 +1,156 @@
 /** */
 package org.sunbird.learner.util;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import org.apache.commons.lang3.StringUtils;
 import org.sunbird.cassandra.CassandraOperation;
 import org.sunbird.common.models.response.Response;
 import org.sunbird.common.models.util.JsonKey;
 import org.sunbird.common.models.util.LoggerEnum;
 import org.sunbird.common.models.util.ProjectLogger;
+import org.sunbird.common.models.util.ProjectUtil;
 import org.sunbird.helper.ServiceFactory;
+import org.sunbird.learner.constants.CourseJsonKey;
 
 /**
  * This class will handle the data cache.
  *
+ * <p>Each map is held as a {@link CacheSnapshot}: a refresh loads the complete table into a new
+ * map and publishes it with one reference swap, so readers never see a half refreshed map and
+ * deleted rows disappear. Pages and sections can be refreshed in delta mode, which scans only the
+ * ID and updatedDate columns and reads the full row of new and updated entries only.
+ *
  * @author Amit Kumar
  */
 public class DataCacheHandler implements Runnable {
+
+  public static final String PAGE_MAP = "pageMap";
+  public static final String SECTION_MAP = "sectionMap";
+  public static final String ROLE_MAP = "roleMap";
+  public static final String ORG_TYPE_MAP = "orgTypeMap";
+  public static final String CONFIG_SETTINGS = "configSettings";
+  private static final List<String> MAP_NAMES =
+      Collections.unmodifiableList(
+          Arrays.asList(PAGE_MAP, SECTION_MAP, ROLE_MAP, ORG_TYPE_MAP, CONFIG_SETTINGS));
+  private static final String FULL = "full";
+  private static final String DELTA = "delta";
+
   /**
    * pageMap is the map of (orgId:pageName) and page Object (i.e map of string , object) sectionMap
    * is the map of section Id and section Object (i.e map of string , object)
    */
-  private static Map<String, Map<String, Object>> pageMap = new ConcurrentHashMap<>();
+  private static final CacheSnapshot<Map<String, Object>> pageMap = new CacheSnapshot<>();
+
+  private static final CacheSnapshot<Map<String, Object>> sectionMap = new CacheSnapshot<>();
+  /** Pages and sections of pageMap and sectionMap with their section lists and queries parsed */
+  private static final CacheSnapshot<CompiledPage> compiledPageMap = new CacheSnapshot<>();
+
+  private static final CacheSnapshot<CompiledSection> compiledSectionMap = new CacheSnapshot<>();
+  /** Keys of pages and sections written by this node since they were last read from the table */
+  private static final Map<String, Long> pageWrites = new ConcurrentHashMap<>();
 
-  private static Map<String, Map<String, Object>> sectionMap = new ConcurrentHashMap<>();
-  private static Map<String, Object> roleMap = new ConcurrentHashMap<>();
-  private static Map<String, String> orgTypeMap = new ConcurrentHashMap<>();
-  private static Map<String, String> configSettings = new ConcurrentHashMap<>();
+  private static final Map<String, Long> sectionWrites = new ConcurrentHashMap<>();
+  private static final CacheSnapshot<Object> roleMap = new CacheSnapshot<>();
+  private static final CacheSnapshot<String> orgTypeMap = new CacheSnapshot<>();
+  private static final CacheSnapshot<String> configSettings = new CacheSnapshot<>();
   private static Map<String, Map<String, List<Map<String, String>>>> frameworkCategoriesMap =
       new ConcurrentHashMap<>();
   private static Map<String, List<String>> frameworkFieldsConfig = new ConcurrentHashMap<>();
   private static Map<String, List<String>> hashtagIdFrameworkIdMap = new HashMap<>();
   private CassandraOperation cassandraOperation = ServiceFactory.getInstance();
   private static final String KEY_SPACE_NAME = "sunbird";
+  private final List<String> mapNames;
+
+  /** Refreshes all maps. */
+  public DataCacheHandler() {
+    this.mapNames = MAP_NAMES;
+  }
+
+  /**
+   * Refreshes only given map.
+   *
+   * @param mapName One of {@link #getMapNames()}
+   */
+  public DataCacheHandler(String mapName) {
+    this.mapNames = Collections.singletonList(mapName);
+  }
 
   @Override
   public void run() {
-    ProjectLogger.log("DataCacheHandler:run: Cache refresh started.", LoggerEnum.INFO.name());
-    cache(pageMap, "page_management");
-    cache(sectionMap, "page_section");
-    roleCache(roleMap);
-    orgTypeCache(orgTypeMap);
-    cacheSystemConfig(configSettings);
-    ProjectLogger.log("DataCacheHandler:run: Cache refresh completed.", LoggerEnum.INFO.name());
+    ProjectLogger.log(
+        "DataCacheHandler:run: Cache refresh started for " + mapNames, LoggerEnum.INFO.name());
+    boolean delta =
+        Boolean.parseBoolean(ProjectUtil.getConfigValue(CourseJsonKey.CACHE_DELTA_REFRESH_ENABLED));
+    for (String mapName : mapNames) {
+      switch (mapName) {
+        case PAGE_MAP:
+          refreshTable(
+              JsonKey.PAGE_MANAGEMENT,
+              pageMap,
+              compiledPageMap,
+              pageWrites,
+              DataCacheHandler::getPageKey,
+              CompiledPage::compile,
+              delta,
+              Arrays.asList(
+                  JsonKey.ID, JsonKey.UPDATED_DATE, JsonKey.PAGE_NAME, JsonKey.ORGANISATION_ID));
+          break;
+        case SECTION_MAP:
+          refreshTable(
+              JsonKey.PAGE_SECTION,
+              sectionMap,
+              compiledSectionMap,
+              sectionWrites,
+              section -> (String) section.get(JsonKey.ID),
+              CompiledSection::compile,
+              delta,
+              Arrays.asList(JsonKey.ID, JsonKey.UPDATED_DATE));
+          break;
+        case ROLE_MAP:
+          refresh(ROLE_MAP, roleMap, this::loadRoles);
+          break;
+        case ORG_TYPE_MAP:
+          refresh(ORG_TYPE_MAP, orgTypeMap, this::loadOrgTypes);
+          break;
+        case CONFIG_SETTINGS:
+          refresh(CONFIG_SETTINGS, configSettings, this::loadSystemConfig);
+          break;
+        default:
+          ProjectLogger.log(
+              "DataCacheHandler:run: Unknown map " + mapName, LoggerEnum.ERROR.name());
+      }
+    }
+    ProjectLogger.log(
+        "DataCacheHandler:run: Cache refresh completed, metrics = " + getCacheMetrics(),
+        LoggerEnum.INFO.name());
+  }
+
+  /** Loads a map completely and publishes it. Failures keep the current snapshot. */
+  private <V> void refresh(
+      String mapName, CacheSnapshot<V> snapshot, Supplier<Map<String, V>> loader) {
+    long startTime = System.currentTimeMillis();
+    snapshot.beginRefresh();
+    try {
+      snapshot.publish(loader.get(), FULL, startTime);
+    } catch (Exception e) {
+      snapshot.abortRefresh();
+      ProjectLogger.log(
+          "DataCacheHandler:refresh: Exception in refreshing " + mapName + " " + e.getMessage(), e);
+    }
   }
 
   @SuppressWarnings("unchecked")
-  private void cacheSystemConfig(Map<String, String> configSettings) {
+  private Map<String, String> loadSystemConfig() {
+    Map<String, String> configSettings = new HashMap<>();
     Response response =
         cassandraOperation.getAllRecords(KEY_SPACE_NAME, JsonKey.SYSTEM_SETTINGS_DB);
     List<Map<String, Object>> responseList =
@@ -70,10 +172,12 @@ public class DataCacheHandler implements Runnable {
       configSettings.put(JsonKey.PHONE_UNIQUE, String.valueOf(false));
       configSettings.put(JsonKey.EMAIL_UNIQUE, String.valueOf(false));
     }
+    return configSettings;
   }
 
   @SuppressWarnings("unchecked")
-  private void orgTypeCache(Map<String, String> orgTypeMap) {
+  private Map<String, String> loadOrgTypes() {
+    Map<String, String> orgTypeMap = new HashMap<>();
     Response response = cassandraOperation.getAllRecords(KEY_SPACE_NAME, JsonKey.ORG_TYPE_DB);
     List<Map<String, Object>> responseList =
         (List<Map<String, Object>>) response.get(JsonKey.RESPONSE);
@@ -84,10 +188,12 @@ public class DataCacheHandler implements Runnable {
             (String) resultMap.get(JsonKey.ID));
       }
     }
+    return orgTypeMap;
   }
 
   @SuppressWarnings("unchecked")
-  private void roleCache(Map<String, Object> roleMap) {
+  private Map<String, Object> loadRoles() {
+    Map<String, Object> roleMap = new HashMap<>();
     Response response = cassandraOperation.getAllRecords(KEY_SPACE_NAME, JsonKey.ROLE_GROUP);
     List<Map<String, Object>> responseList =
         (List<Map<String, Object>>) response.get(JsonKey.RESPONSE);
@@ -104,83 +210,258 @@ public class DataCacheHandler implements Runnable {
         roleMap.put((String) resultMap2.get(JsonKey.ID), resultMap2.get(JsonKey.NAME));
       }
     }
+    return roleMap;
   }
 
-  @SuppressWarnings("unchecked")
-  private void cache(Map<String, Map<String, Object>> map, String tableName) {
+  /**
+   * Refreshes the page or section map and its compiled map. In delta mode, rows whose updatedDate
+   * is unchanged keep their cached entry, and entries written by this node since the last refresh
+   * are always read again, because they may hold only the updated columns.
+   */
+  private <C> void refreshTable(
+      String tableName,
+      CacheSnapshot<Map<String, Object>> snapshot,
+      CacheSnapshot<C> compiledSnapshot,
+      Map<String, Long> writes,
+      Function<Map<String, Object>, String> keyFunction,
+      Function<Map<String, Object>, C> compiler,
+      boolean delta,
+      List<String> deltaColumns) {
+    long startTime = System.currentTimeMillis();
+    String mode = delta && snapshot.isLoaded() ? DELTA : FULL;
+    snapshot.beginRefresh();
+    compiledSnapshot.beginRefresh();
     try {
-      Response response = cassandraOperation.getAllRecords(KEY_SPACE_NAME, tableName);
-      List<Map<String, Object>> responseList =
-          (List<Map<String, Object>>) response.get(JsonKey.RESPONSE);
-      if (null != responseList && !responseList.isEmpty()) {
-        for (Map<String, Object> resultMap : responseList) {
-          if (tableName.equalsIgnoreCase(JsonKey.PAGE_SECTION)) {
-            map.put((String) resultMap.get(JsonKey.ID), resultMap);
+      Map<String, Map<String, Object>> map = new HashMap<>();
+      Map<String, C> compiledMap = new HashMap<>();
+      int readCount = 0;
+      if (FULL.equals(mode)) {
+        Response response = cassandraOperation.getAllRecords(KEY_SPACE_NAME, tableName);
+        for (Map<String, Object> row : getRows(response)) {
+          map.put(keyFunction.apply(row), row);
+          readCount++;
+        }
+      } else {
+        Response response =
+            cassandraOperation.getRecords(
+                KEY_SPACE_NAME, tableName, new HashMap<>(), deltaColumns);
+        for (Map<String, Object> row : getRows(response)) {
+          String key = keyFunction.apply(row);
+          Map<String, Object> cached = snapshot.get(key);
+          if (cached != null
+              && !writes.containsKey(key)
+              && Objects.equals(cached.get(JsonKey.ID), row.get(JsonKey.ID))
+              && Objects.equals(cached.get(JsonKey.UPDATED_DATE), row.get(JsonKey.UPDATED_DATE))) {
+            map.put(key, cached);
+            C compiled = compiledSnapshot.get(key);
+            if (compiled != null) {
+              compiledMap.put(key, compiled);
+            }
           } else {
-            String orgId =
-                (((String) resultMap.get(JsonKey.ORGANISATION_ID)) == null
-                    ? "NA"
-                    : (String) resultMap.get(JsonKey.ORGANISATION_ID));
-            map.put(orgId + ":" + ((String) resultMap.get(JsonKey.PAGE_NAME)), resultMap);
+            Map<String, Object> fullRow = getRecordById(tableName, (String) row.get(JsonKey.ID));
+            if (fullRow != null) {
+              map.put(key, fullRow);
+              readCount++;
+            }
           }
         }
       }
-      ProjectLogger.log("pagemap keyset " + map.keySet());
-      ProjectLogger.log(tableName + " cache size: " + map.size(), LoggerEnum.INFO.name());
+      for (Map.Entry<String, Map<String, Object>> entry : map.entrySet()) {
+        if (!compiledMap.containsKey(entry.getKey())) {
+          compiledMap.put(entry.getKey(), compiler.apply(entry.getValue()));
+        }
+      }
+      snapshot.publish(map, mode, startTime);
+      compiledSnapshot.publish(compiledMap, mode, startTime);
+      writes.values().removeIf(writtenAt -> writtenAt < startTime);
+      ProjectLogger.log(
+          tableName + " cache " + mode + " refresh: size = " + map.size() + ", rows = " + readCount,
+          LoggerEnum.INFO.name());
     } catch (Exception e) {
+      snapshot.abortRefresh();
+      compiledSnapshot.abortRefresh();
       ProjectLogger.log(
-          "DataCacheHandler:cache: Exception in retrieving page section " + e.getMessage(), e);
+          "DataCacheHandler:refreshTable: Exception in refreshing "
+              + tableName
+              + " "
+              + e.getMessage(),
+          e);
+    }
+  }
+
+  private Map<String, Object> getRecordById(String tableName, String id) {
+    List<Map<String, Object>> rows =
+        getRows(cassandraOperation.getRecordById(KEY_SPACE_NAME, tableName, id));
+    return rows.isEmpty() ? null : rows.get(0);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<Map<String, Object>> getRows(Response response) {
+    List<Map<String, Object>> rows = (List<Map<String, Object>>) response.get(JsonKey.RESPONSE);
+    return rows == null ? Collections.emptyList() : rows;
+  }
+
+  /**
+   * Reads a page from the table again and replaces its cached entry, which is removed if the page
+   * no longer exists or was renamed.
+   *
+   * @param id Page ID
+   * @return Reloaded page, or null if it no longer exists
+   */
+  public static Map<String, Object> reloadPage(String id) {
+    Map<String, Object> page = new DataCacheHandler().getRecordById(JsonKey.PAGE_MANAGEMENT, id);
+    String key = page == null ? null : getPageKey(page);
+    for (Map.Entry<String, Map<String, Object>> entry : pageMap.get().entrySet()) {
+      if (id.equals(entry.getValue().get(JsonKey.ID)) && !entry.getKey().equals(key)) {
+        pageMap.remove(entry.getKey());
+        compiledPageMap.remove(entry.getKey());
+      }
+    }
+    if (page != null) {
+      pageMap.put(key, page);
+      compiledPageMap.put(key, CompiledPage.compile(page));
+      pageWrites.remove(key);
+    }
+    return page;
+  }
+
+  /**
+   * Reads a section from the table again and replaces its cached entry.
+   *
+   * @param id Section ID
+   */
+  public static void reloadSection(String id) {
+    Map<String, Object> section = new DataCacheHandler().getRecordById(JsonKey.PAGE_SECTION, id);
+    if (section == null) {
+      sectionMap.remove(id);
+      compiledSectionMap.remove(id);
+    } else {
+      sectionMap.put(id, section);
+      compiledSectionMap.put(id, CompiledSection.compile(section));
+      sectionWrites.remove(id);
     }
   }
 
+  private static String getPageKey(Map<String, Object> page) {
+    String orgId =
+        (((String) page.get(JsonKey.ORGANISATION_ID)) == null
+            ? "NA"
+            : (String) page.get(JsonKey.ORGANISATION_ID));
+    return orgId + ":" + ((String) page.get(JsonKey.PAGE_NAME));
+  }
+
+  /** @return Names of the maps which can be refreshed separately */
+  public static List<String> getMapNames() {
+    return MAP_NAMES;
+  }
+
+  /**
+   * Returns the size, age and last refresh duration of each map.
+   *
+   * @return Map of map name and its metrics
+   */
+  public static Map<String, Object> getCacheMetrics() {
+    Map<String, Object> metrics = new LinkedHashMap<>();
+    metrics.put(PAGE_MAP, pageMap.getMetrics());
+    metrics.put(SECTION_MAP, sectionMap.getMetrics());
+    metrics.put(ROLE_MAP, roleMap.getMetrics());
+    metrics.put(ORG_TYPE_MAP, orgTypeMap.getMetrics());
+    metrics.put(CONFIG_SETTINGS, configSettings.getMetrics());
+    return metrics;
+  }
+
   /** @return the pageMap */
   public static Map<String, Map<String, Object>> getPageMap() {
-    return pageMap;
+    return pageMap.get();
   }
 
   /** @param pageMap the pageMap to set */
   public static void setPageMap(Map<String, Map<String, Object>> pageMap) {
-    DataCacheHandler.pageMap = pageMap;
+    DataCacheHandler.pageMap.replace(pageMap);
+    DataCacheHandler.compiledPageMap.replace(Collections.emptyMap());
+  }
+
+  /**
+   * Writes a page into the page map and its compiled form into the compiled page map.
+   *
+   * @param key Page key (orgId:pageName)
+   * @param page Page
+   */
+  public static void putPage(String key, Map<String, Object> page) {
+    pageWrites.put(key, System.currentTimeMillis());
+    pageMap.put(key, page);
+    compiledPageMap.put(key, CompiledPage.compile(page));
   }
 
   /** @return the sectionMap */
   public static Map<String, Map<String, Object>> getSectionMap() {
-    return sectionMap;
+    return sectionMap.get();
   }
 
   /** @param sectionMap the sectionMap to set */
   public static void setSectionMap(Map<String, Map<String, Object>> sectionMap) {
-    DataCacheHandler.sectionMap = sectionMap;
+    DataCacheHandler.sectionMap.replace(sectionMap);
+    DataCacheHandler.compiledSectionMap.replace(Collections.emptyMap());
+  }
+
+  /**
+   * Writes a section into the section map and its compiled form into the compiled section map.
+   *
+   * @param id Section ID
+   * @param section Section
+   */
+  public static void putSection(String id, Map<String, Object> section) {
+    sectionWrites.put(id, System.currentTimeMillis());
+    sectionMap.put(id, section);
+    compiledSectionMap.put(id, CompiledSection.compile(section));
+  }
+
+  /** @return the compiledPageMap */
+  public static Map<String, CompiledPage> getCompiledPageMap() {
+    return compiledPageMap.get();
+  }
+
+  public static void putCompiledPage(String key, CompiledPage compiledPage) {
+    compiledPageMap.put(key, compiledPage);
+  }
+
+  /** @return the compiledSectionMap */
+  public static Map<String, CompiledSection> getCompiledSectionMap() {
+    return compiledSectionMap.get();
+  }
+
+  public static void putCompiledSection(String id, CompiledSection compiledSection) {
+    compiledSectionMap.put(id, compiledSection);
   }
 
   /** @return the roleMap */
   public static Map<String, Object> getRoleMap() {
-    return roleMap;
+    return roleMap.get();
   }
 
   /** @param roleMap the roleMap to set */
   public static void setRoleMap(Map<String, Object> roleMap) {
-    DataCacheHandler.roleMap = roleMap;
+    DataCacheHandler.roleMap.replace(roleMap);
   }
 
   /** @return the orgTypeMap */
   public static Map<String, String> getOrgTypeMap() {
-    return orgTypeMap;
+    return orgTypeMap.get();
   }
 
   /** @param orgTypeMap the orgTypeMap to set */
   public static void setOrgTypeMap(Map<String, String> orgTypeMap) {
-    DataCacheHandler.orgTypeMap = orgTypeMap;
+    DataCacheHandler.orgTypeMap.replace(orgTypeMap);
   }
 
   /** @return the configSettings */
   public static Map<String, String> getConfigSettings() {
-    return configSettings;
+    return configSettings.get();
   }
 
   /** @param configSettings the configSettings to set */
   public static void setConfigSettings(Map<String, String> configSettings) {
-    DataCacheHandler.configSettings = configSettings;
+    DataCacheHandler.configSettings.replace(configSettings);
   }
 
   public static Map<String, Map<String, List<Map<String, String>>>> getFrameworkCategoriesMap() {
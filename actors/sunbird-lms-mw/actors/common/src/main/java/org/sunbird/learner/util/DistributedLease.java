@@ -0,0 +1,115 @@
+package org.sunbird.learner.util;
+
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.SimpleStatement;
+import java.util.UUID;
+import org.sunbird.common.models.util.ProjectLogger;
+import org.sunbird.learner.constants.CourseJsonKey;
+
+/**
+ * Named leases held by at most one middleware node at a time, stored in the {@code
+ * distributed_lease} table. A lease is taken with a lightweight transaction and expires after its
+ * TTL unless it is released before, so the leases of a node which stops are freed on their own.
+ */
+public class DistributedLease {
+
+  private static volatile DistributedLease instance = null;
+
+  private final String keySpace;
+  private final String table;
+  private final String owner = UUID.randomUUID().toString();
+  private volatile Session session;
+
+  DistributedLease(String keySpace, String tableName) {
+    this.keySpace = keySpace;
+    this.table = keySpace + "." + tableName;
+  }
+
+  public static DistributedLease getInstance() {
+    if (instance == null) {
+      synchronized (DistributedLease.class) {
+        if (instance == null) {
+          Util.DbInfo dbInfo = Util.dbInfoMap.get(CourseJsonKey.DISTRIBUTED_LEASE_DB);
+          instance =
+              new DistributedLease(dbInfo.getKeySpace(), dbInfo.getTableName());
+        }
+      }
+    }
+    return instance;
+  }
+
+  /**
+   * Takes given lease if no node holds it.
+   *
+   * @param name Lease name
+   * @param ttlMillis Time after which the lease expires, rounded up to seconds
+   * @return True if this node holds the lease now
+   */
+  public boolean acquire(String name, long ttlMillis) {
+    try {
+      return getSession()
+          .execute(
+              new SimpleStatement(
+                  "INSERT INTO " + table + " (name, owner) VALUES (?, ?) IF NOT EXISTS USING TTL ?",
+                  name,
+                  owner,
+                  toTtlSeconds(ttlMillis)))
+          .wasApplied();
+    } catch (Exception e) {
+      ProjectLogger.log("DistributedLease:acquire: Failed to acquire lease " + name, e);
+      return false;
+    }
+  }
+
+  /**
+   * Extends given lease if this node holds it.
+   *
+   * @param name Lease name
+   * @param ttlMillis Time after which the lease expires, counted from now
+   * @return True if this node still holds the lease
+   */
+  public boolean renew(String name, long ttlMillis) {
+    try {
+      return getSession()
+          .execute(
+              new SimpleStatement(
+                  "UPDATE " + table + " USING TTL ? SET owner = ? WHERE name = ? IF owner = ?",
+                  toTtlSeconds(ttlMillis),
+                  owner,
+                  name,
+                  owner))
+          .wasApplied();
+    } catch (Exception e) {
+      ProjectLogger.log("DistributedLease:renew: Failed to renew lease " + name, e);
+      return false;
+    }
+  }
+
+  /** Releases given lease if this node holds it. A lease which cannot be released expires. */
+  public void release(String name) {
+    try {
+      getSession()
+          .execute(
+              new SimpleStatement(
+                  "DELETE FROM " + table + " WHERE name = ? IF owner = ?", name, owner));
+    } catch (Exception e) {
+      ProjectLogger.log("DistributedLease:release: Failed to release lease " + name, e);
+    }
+  }
+
+  /** Returns the ID with which this node holds leases. */
+  public String getOwner() {
+    return owner;
+  }
+
+  private Session getSession() {
+    if (session == null) {
+      session = Util.getSession(keySpace);
+    }
+    return session;
+  }
+
+  private static int toTtlSeconds(long ttlMillis) {
+    return (int) Math.max(1, (ttlMillis + 999) / 1000);
+  }
+}
@@ -2,9 +2,7 @@
 package org.sunbird.learner.util;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -12,13 +10,9 @@ import javax.ws.rs.core.MediaType;
 import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpHeaders;
-import org.apache.http.HttpResponse;
-import org.apache.http.client.HttpClient;
-import org.apache.http.client.methods.HttpPost;
-import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.HttpClientBuilder;
 import org.sunbird.common.exception.ProjectCommonException;
-import org.sunbird.common.models.util.HttpUtil;
+import org.sunbird.common.http.OutboundHttpClients;
+import org.sunbird.common.http.OutboundHttpResponse;
 import org.sunbird.common.models.util.JsonKey;
 import org.sunbird.common.models.util.LoggerEnum;
 import org.sunbird.common.models.util.ProjectLogger;
@@ -37,8 +31,6 @@ public final class EkStepRequestUtil {
 
   private EkStepRequestUtil() {}
 
-  private static final String CHARSETS_UTF_8 = "UTF-8";
-
   /**
    * @param params String
    * @param headers Map<String, String>
@@ -59,12 +51,17 @@ public final class EkStepRequestUtil {
             PropertiesCache.getInstance().getProperty(JsonKey.EKSTEP_AUTHORIZATION));
       }
       ProjectLogger.log("making call for content search ==" + params, LoggerEnum.INFO.name());
-      String response =
-          HttpUtil.sendPostRequest(
-              baseSearchUrl
-                  + PropertiesCache.getInstance().getProperty(JsonKey.EKSTEP_CONTENT_SEARCH_URL),
-              params,
-              headers);
+      String searchUrl =
+          baseSearchUrl
+              + PropertiesCache.getInstance().getProperty(JsonKey.EKSTEP_CONTENT_SEARCH_URL);
+      OutboundHttpResponse httpResponse =
+          OutboundHttpClients.get(OutboundHttpClients.CONTENT_SEARCH)
+              .postSync(searchUrl, headers, params);
+      if (!httpResponse.isSuccessful()) {
+        throw new IOException(
+            "Content search failed with response status = " + httpResponse.getStatus());
+      }
+      String response = httpResponse.getBody();
       ProjectLogger.log("Content serach response is ==" + response, LoggerEnum.INFO.name());
       Map<String, Object> data = mapper.readValue(response, Map.class);
       if (MapUtils.isNotEmpty(data)) {
@@ -101,11 +98,9 @@ public final class EkStepRequestUtil {
 
   public static String ekStepCall(String baseURL, String apiURL, String authKey, String body)
       throws IOException {
-    HttpClient client = HttpClientBuilder.create().build();
-    HttpPost post = new HttpPost(baseURL + PropertiesCache.getInstance().getProperty(apiURL));
-    post.addHeader("Content-Type", "application/json; charset=utf-8");
-    post.addHeader(JsonKey.AUTHORIZATION, authKey);
-    post.setEntity(new StringEntity(body, CHARSETS_UTF_8));
+    Map<String, String> headers = new HashMap<>();
+    headers.put(HttpHeaders.CONTENT_TYPE, "application/json; charset=utf-8");
+    headers.put(JsonKey.AUTHORIZATION, authKey);
     ProjectLogger.log(
         "BaseMetricsActor:makePostRequest completed requested data : " + body,
         LoggerEnum.INFO.name());
@@ -114,8 +109,10 @@ public final class EkStepRequestUtil {
             + baseURL
             + PropertiesCache.getInstance().getProperty(apiURL),
         LoggerEnum.INFO.name());
-    HttpResponse response = client.execute(post);
-    if (response.getStatusLine().getStatusCode() != 200) {
+    OutboundHttpResponse response =
+        OutboundHttpClients.get(OutboundHttpClients.ANALYTICS)
+            .postSync(baseURL + PropertiesCache.getInstance().getProperty(apiURL), headers, body);
+    if (response.getStatus() != 200) {
       ProjectLogger.log(
           "BaseMetricsActor:makePostRequest: Status code from analytics is not 200 ",
           LoggerEnum.INFO.name());
@@ -124,19 +121,10 @@ public final class EkStepRequestUtil {
           ResponseCode.unableToConnect.getErrorMessage(),
           ResponseCode.SERVER_ERROR.getResponseCode());
     }
-    BufferedReader rd =
-        new BufferedReader(
-            new InputStreamReader(response.getEntity().getContent(), CHARSETS_UTF_8));
-
-    StringBuilder result = new StringBuilder();
-    String line = "";
-    while ((line = rd.readLine()) != null) {
-      result.append(line);
-    }
     ProjectLogger.log(
         "BaseMetricsActor:makePostRequest: Response from analytics store for metrics = "
-            + response.toString(),
+            + response.getStatus(),
         LoggerEnum.INFO.name());
-    return result.toString();
+    return response.getBody();
   }
 }
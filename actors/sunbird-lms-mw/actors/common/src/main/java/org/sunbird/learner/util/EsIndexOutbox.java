@@ -0,0 +1,541 @@
+package org.sunbird.learner.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.sunbird.common.ElasticSearchHelper;
+import org.sunbird.common.factory.EsClientFactory;
+import org.sunbird.common.inf.ElasticSearchService;
+import org.sunbird.common.models.util.JsonKey;
+import org.sunbird.common.models.util.LoggerEnum;
+import org.sunbird.common.models.util.ProjectLogger;
+import org.sunbird.common.models.util.ProjectUtil;
+import org.sunbird.learner.constants.CourseJsonKey;
+import scala.concurrent.Future;
+
+/**
+ * Outbox for ES index writes of user courses and course batches.
+ *
+ * <p>When {@code sunbird_es_index_outbox_enabled} is set, writers record the document in the
+ * {@code es_index_outbox_by_shard} table instead of writing to ES, and the indexer actor drains the
+ * table in the background. Pending writes of one document are applied in the order they were
+ * recorded: a full document replaces what was recorded before it, a partial document is merged on
+ * top. Full documents are indexed with one ES bulk request per type, partial documents are
+ * upserted. Failed documents stay in the outbox and are retried with exponential backoff, capped
+ * by {@code sunbird_es_index_outbox_max_retry_backoff_ms}. After {@code
+ * sunbird_es_index_outbox_max_attempts} failed attempts the entries of a document are moved to
+ * the {@code es_index_outbox_dead_letter} table. The course batch cache is invalidated on all
+ * nodes once a course batch is indexed.
+ *
+ * <p>Entries are spread over {@code sunbird_es_index_outbox_shard_count} shards by document, which
+ * must be the same on all nodes. A drain reads at most a few batches of the oldest entries of each
+ * shard, and only drains a shard while it holds the lease of the shard, so each entry is indexed by
+ * one node at a time.
+ *
+ * <p>Operations listed in {@code sunbird_es_index_read_your_writes_operations} keep writing to ES
+ * directly, so their responses are visible to an immediately following search.
+ */
+public final class EsIndexOutbox {
+
+  static final String SHARD = "shard";
+  static final String ID = "id";
+  static final String ES_TYPE = "estype";
+  static final String DOC_ID = "docid";
+  static final String DOC = "doc";
+  static final String UPSERT = "upsert";
+  static final String CREATED_ON = "createdon";
+  static final String ATTEMPTS = "attempts";
+  static final String NEXT_ATTEMPT_ON = "nextattempton";
+
+  private static final long DEFAULT_DRAIN_INTERVAL_MS = 1000;
+  private static final int DEFAULT_DRAIN_BATCH_SIZE = 500;
+  private static final long DEFAULT_RETRY_BACKOFF_MS = 1000;
+  private static final long DEFAULT_MAX_RETRY_BACKOFF_MS = 300000;
+  private static final int DEFAULT_MAX_ATTEMPTS = 20;
+  private static final int DEFAULT_SHARD_COUNT = 16;
+  private static final long DEFAULT_LEASE_MS = 60000;
+  // entries waiting for a retry are skipped, up to this many batches per shard
+  private static final int READ_BATCHES = 4;
+  private static final String LEASE_PREFIX = "esIndexOutbox/";
+
+  private static volatile EsIndexOutbox instance = null;
+  private static final ObjectMapper mapper = new ObjectMapper();
+
+  private final EsIndexOutboxDao dao;
+  private final DistributedLease lease;
+  private final ElasticSearchService esService;
+  private final BiConsumer<String, String> onIndexed;
+  private final boolean enabled;
+  private final Set<String> readYourWritesOperations;
+  private final int shardCount;
+  private final int drainBatchSize;
+  private final long retryBackoffMs;
+  private final long maxRetryBackoffMs;
+  private final int maxAttempts;
+  private final long leaseMs;
+
+  private final AtomicBoolean draining = new AtomicBoolean();
+  private final AtomicInteger nextShard = new AtomicInteger();
+  private final AtomicLong lastCreatedOn = new AtomicLong();
+  private final AtomicLong queuedCount = new AtomicLong();
+  private final AtomicLong indexedCount = new AtomicLong();
+  private final AtomicLong failedCount = new AtomicLong();
+  private final AtomicLong deadLetteredCount = new AtomicLong();
+  private volatile int pendingCount;
+  private volatile long lagMs;
+  private volatile long lastDrainOn;
+
+  /** @param onIndexed Called with the ES type and ID of each document once it is indexed */
+  EsIndexOutbox(
+      EsIndexOutboxDao dao,
+      DistributedLease lease,
+      ElasticSearchService esService,
+      BiConsumer<String, String> onIndexed,
+      boolean enabled,
+      Set<String> readYourWritesOperations,
+      int shardCount,
+      int drainBatchSize,
+      long retryBackoffMs,
+      long maxRetryBackoffMs,
+      int maxAttempts,
+      long leaseMs) {
+    this.dao = dao;
+    this.lease = lease;
+    this.esService = esService;
+    this.onIndexed = onIndexed;
+    this.enabled = enabled;
+    this.readYourWritesOperations = readYourWritesOperations;
+    this.shardCount = Math.max(1, shardCount);
+    this.drainBatchSize = Math.max(1, drainBatchSize);
+    this.retryBackoffMs = Math.max(1, retryBackoffMs);
+    this.maxRetryBackoffMs = Math.max(this.retryBackoffMs, maxRetryBackoffMs);
+    this.maxAttempts = Math.max(1, maxAttempts);
+    this.leaseMs = Math.max(1000, leaseMs);
+  }
+
+  public static EsIndexOutbox getInstance() {
+    if (instance == null) {
+      synchronized (EsIndexOutbox.class) {
+        if (instance == null) {
+          Util.DbInfo dbInfo = Util.dbInfoMap.get(CourseJsonKey.ES_INDEX_OUTBOX_DB);
+          Util.DbInfo deadLetterDbInfo =
+              Util.dbInfoMap.get(CourseJsonKey.ES_INDEX_OUTBOX_DEAD_LETTER_DB);
+          instance =
+              new EsIndexOutbox(
+                  new EsIndexOutboxDaoImpl(
+                      dbInfo.getKeySpace(),
+                      dbInfo.getTableName(),
+                      deadLetterDbInfo.getTableName()),
+                  DistributedLease.getInstance(),
+                  EsClientFactory.getInstance(JsonKey.REST),
+                  EsIndexOutbox::invalidateCaches,
+                  Boolean.parseBoolean(
+                      ProjectUtil.getConfigValue(CourseJsonKey.ES_INDEX_OUTBOX_ENABLED)),
+                  getReadYourWritesOperations(),
+                  ConfigValueUtil.getInt(
+                      CourseJsonKey.ES_INDEX_OUTBOX_SHARD_COUNT, DEFAULT_SHARD_COUNT),
+                  ConfigValueUtil.getInt(
+                      CourseJsonKey.ES_INDEX_OUTBOX_DRAIN_BATCH_SIZE, DEFAULT_DRAIN_BATCH_SIZE),
+                  ConfigValueUtil.getLong(
+                      CourseJsonKey.ES_INDEX_OUTBOX_RETRY_BACKOFF_MS, DEFAULT_RETRY_BACKOFF_MS),
+                  ConfigValueUtil.getLong(
+                      CourseJsonKey.ES_INDEX_OUTBOX_MAX_RETRY_BACKOFF_MS,
+                      DEFAULT_MAX_RETRY_BACKOFF_MS),
+                  ConfigValueUtil.getInt(
+                      CourseJsonKey.ES_INDEX_OUTBOX_MAX_ATTEMPTS, DEFAULT_MAX_ATTEMPTS),
+                  ConfigValueUtil.getLong(
+                      CourseJsonKey.ES_INDEX_OUTBOX_LEASE_MS, DEFAULT_LEASE_MS));
+        }
+      }
+    }
+    return instance;
+  }
+
+  private static Set<String> getReadYourWritesOperations() {
+    String operations =
+        ProjectUtil.getConfigValue(CourseJsonKey.ES_INDEX_READ_YOUR_WRITES_OPERATIONS);
+    Set<String> result = new HashSet<>();
+    if (StringUtils.isNotBlank(operations)) {
+      for (String operation : operations.split(",")) {
+        if (StringUtils.isNotBlank(operation)) {
+          result.add(operation.trim());
+        }
+      }
+    }
+    return result;
+  }
+
+  private static void invalidateCaches(String esType, String docId) {
+    if (ProjectUtil.EsType.courseBatch.getTypeName().equals(esType)) {
+      CacheInvalidationBus.getInstance().publish(CacheInvalidationBus.COURSE_BATCH, docId);
+    }
+  }
+
+  /** Returns the interval at which the indexer drains the outbox. */
+  public static long getDrainIntervalMillis() {
+    return Math.max(
+        1,
+        ConfigValueUtil.getLong(
+            CourseJsonKey.ES_INDEX_OUTBOX_DRAIN_INTERVAL_MS, DEFAULT_DRAIN_INTERVAL_MS));
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Records an ES write of one document.
+   *
+   * @param esType ES type of the document
+   * @param docId Document ID
+   * @param doc Document, or the attributes to update if upsert is true
+   * @param upsert True to merge given attributes into the indexed document, false to replace it
+   * @param operation Operation doing the write, used to look up the read-your-writes setting
+   * @return False if the caller has to write to ES itself, because the outbox is disabled, the
+   *     operation needs read-your-writes or the write could not be recorded
+   */
+  public boolean offer(
+      String esType, String docId, Map<String, Object> doc, boolean upsert, String operation) {
+    return offerAll(esType, Collections.singletonMap(docId, doc), upsert, operation);
+  }
+
+  /**
+   * Records ES writes of several documents of one type with one Cassandra batch.
+   *
+   * @param esType ES type of the documents
+   * @param docs Map of document ID and document
+   * @param upsert True to merge given attributes into the indexed documents, false to replace them
+   * @param operation Operation doing the write, used to look up the read-your-writes setting
+   * @return False if the caller has to write to ES itself, see {@link #offer}
+   */
+  public boolean offerAll(
+      String esType, Map<String, Map<String, Object>> docs, boolean upsert, String operation) {
+    if (!enabled
+        || docs.isEmpty()
+        || (operation != null && readYourWritesOperations.contains(operation))) {
+      return false;
+    }
+    try {
+      List<Map<String, Object>> entries = new ArrayList<>();
+      for (Map.Entry<String, Map<String, Object>> doc : docs.entrySet()) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put(SHARD, getShard(esType, doc.getKey()));
+        entry.put(ID, UUID.randomUUID().toString());
+        entry.put(ES_TYPE, esType);
+        entry.put(DOC_ID, doc.getKey());
+        entry.put(DOC, mapper.writeValueAsString(doc.getValue()));
+        entry.put(UPSERT, upsert);
+        entry.put(CREATED_ON, nextCreatedOn());
+        entry.put(ATTEMPTS, 0);
+        entry.put(NEXT_ATTEMPT_ON, 0L);
+        entries.add(entry);
+      }
+      dao.insert(entries);
+      queuedCount.addAndGet(entries.size());
+      return true;
+    } catch (Exception e) {
+      ProjectLogger.log(
+          "EsIndexOutbox:offerAll: Failed to record ES write of type "
+              + esType
+              + " with error message = "
+              + e.getMessage(),
+          e);
+      return false;
+    }
+  }
+
+  /** All writes of one document go to the same shard, so that they are drained in order. */
+  private int getShard(String esType, String docId) {
+    return Math.floorMod((esType + "/" + docId).hashCode(), shardCount);
+  }
+
+  /** Timestamps are unique within this process, so writes of one document keep their order. */
+  private long nextCreatedOn() {
+    return lastCreatedOn.updateAndGet(last -> Math.max(last + 1, System.currentTimeMillis()));
+  }
+
+  /**
+   * Indexes the pending documents which are due, in each shard whose lease this node gets. Does
+   * nothing if a drain is already running on this node.
+   *
+   * @return Number of documents indexed
+   */
+  public int drain() {
+    if (!enabled || !draining.compareAndSet(false, true)) {
+      return 0;
+    }
+    int indexed = 0;
+    int pending = 0;
+    long lag = 0;
+    try {
+      int firstShard = Math.floorMod(nextShard.getAndIncrement(), shardCount);
+      for (int i = 0; i < shardCount; i++) {
+        int shard = (firstShard + i) % shardCount;
+        String leaseName = LEASE_PREFIX + shard;
+        if (!lease.acquire(leaseName, leaseMs)) {
+          continue;
+        }
+        try {
+          ShardDrain result = drainShard(shard);
+          indexed += result.indexed;
+          pending += result.pending;
+          lag = Math.max(lag, result.lagMs);
+        } catch (Exception e) {
+          ProjectLogger.log(
+              "EsIndexOutbox:drain: Drain of shard "
+                  + shard
+                  + " failed with error message = "
+                  + e.getMessage(),
+              e);
+        } finally {
+          lease.release(leaseName);
+        }
+      }
+      return indexed;
+    } finally {
+      pendingCount = pending;
+      lagMs = lag;
+      lastDrainOn = System.currentTimeMillis();
+      draining.set(false);
+    }
+  }
+
+  private ShardDrain drainShard(int shard) {
+    List<Map<String, Object>> entries = dao.read(shard, drainBatchSize * READ_BATCHES);
+    long now = System.currentTimeMillis();
+    ShardDrain result = new ShardDrain();
+    if (CollectionUtils.isEmpty(entries)) {
+      return result;
+    }
+    result.pending = entries.size();
+    result.lagMs = Math.max(0, now - getLong(entries.get(0), CREATED_ON));
+
+    Map<String, PendingDoc> docs = new LinkedHashMap<>();
+    for (Map<String, Object> entry : entries) {
+      String key = entry.get(ES_TYPE) + "/" + entry.get(DOC_ID);
+      docs.computeIfAbsent(key, k -> new PendingDoc(entry)).entries.add(entry);
+    }
+    List<PendingDoc> dueDocs = new ArrayList<>();
+    List<PendingDoc> indexed = new ArrayList<>();
+    List<PendingDoc> failed = new ArrayList<>();
+    int dueEntries = 0;
+    for (PendingDoc doc : docs.values()) {
+      // Writes recorded after a failed write of a document wait for its retry
+      if (getLong(doc.entries.get(0), NEXT_ATTEMPT_ON) > now) {
+        continue;
+      }
+      if (dueEntries >= drainBatchSize) {
+        break;
+      }
+      dueEntries += doc.entries.size();
+      try {
+        doc.merge();
+        dueDocs.add(doc);
+      } catch (IOException e) {
+        ProjectLogger.log("EsIndexOutbox:drain: Invalid document for ID = " + doc.docId, e);
+        failed.add(doc);
+      }
+    }
+    indexFullDocs(dueDocs, indexed, failed);
+    upsertPartialDocs(dueDocs, indexed, failed);
+    for (PendingDoc doc : indexed) {
+      for (Map<String, Object> entry : doc.entries) {
+        dao.delete(entry);
+      }
+      try {
+        onIndexed.accept(doc.esType, doc.docId);
+      } catch (Exception e) {
+        ProjectLogger.log(
+            "EsIndexOutbox:drain: Failed to invalidate caches for ID = " + doc.docId, e);
+      }
+    }
+    for (PendingDoc doc : failed) {
+      scheduleRetry(doc, now);
+    }
+    indexedCount.addAndGet(indexed.size());
+    failedCount.addAndGet(failed.size());
+    result.indexed = indexed.size();
+    return result;
+  }
+
+  private void indexFullDocs(
+      List<PendingDoc> docs, List<PendingDoc> indexed, List<PendingDoc> failed) {
+    Map<String, List<PendingDoc>> docsByType = new HashMap<>();
+    for (PendingDoc doc : docs) {
+      if (!doc.upsert) {
+        docsByType.computeIfAbsent(doc.esType, type -> new ArrayList<>()).add(doc);
+      }
+    }
+    for (Map.Entry<String, List<PendingDoc>> typeDocs : docsByType.entrySet()) {
+      List<Map<String, Object>> bulk = new ArrayList<>();
+      typeDocs.getValue().forEach(doc -> bulk.add(doc.doc));
+      Object result = null;
+      try {
+        Future<Boolean> resultF = esService.bulkInsert(typeDocs.getKey(), bulk);
+        result = ElasticSearchHelper.getResponseFromFuture(resultF);
+      } catch (Exception e) {
+        ProjectLogger.log(
+            "EsIndexOutbox:indexFullDocs: Bulk index failed with error message = "
+                + e.getMessage(),
+            e);
+      }
+      (Boolean.TRUE.equals(result) ? indexed : failed).addAll(typeDocs.getValue());
+    }
+  }
+
+  private void upsertPartialDocs(
+      List<PendingDoc> docs, List<PendingDoc> indexed, List<PendingDoc> failed) {
+    Map<PendingDoc, Future<Boolean>> results = new LinkedHashMap<>();
+    for (PendingDoc doc : docs) {
+      if (doc.upsert) {
+        try {
+          results.put(doc, esService.upsert(doc.esType, doc.docId, doc.doc));
+        } catch (Exception e) {
+          ProjectLogger.log(
+              "EsIndexOutbox:upsertPartialDocs: Upsert failed for ID = " + doc.docId, e);
+          failed.add(doc);
+        }
+      }
+    }
+    for (Map.Entry<PendingDoc, Future<Boolean>> result : results.entrySet()) {
+      Object upserted = ElasticSearchHelper.getResponseFromFuture(result.getValue());
+      (Boolean.TRUE.equals(upserted) ? indexed : failed).add(result.getKey());
+    }
+  }
+
+  private void scheduleRetry(PendingDoc doc, long now) {
+    int attempts = 0;
+    for (Map<String, Object> entry : doc.entries) {
+      attempts = Math.max(attempts, (int) getLong(entry, ATTEMPTS));
+    }
+    attempts++;
+    if (attempts >= maxAttempts) {
+      moveToDeadLetter(doc, attempts);
+      return;
+    }
+    long nextAttemptOn = now + getRetryBackoff(attempts);
+    ProjectLogger.log(
+        "EsIndexOutbox:scheduleRetry: Indexing failed for ID = "
+            + doc.docId
+            + " attempts = "
+            + attempts,
+        LoggerEnum.ERROR.name());
+    for (Map<String, Object> entry : doc.entries) {
+      try {
+        dao.updateAttempts(entry, attempts, nextAttemptOn);
+      } catch (Exception e) {
+        ProjectLogger.log(
+            "EsIndexOutbox:scheduleRetry: Failed to update entry " + entry.get(ID), e);
+      }
+    }
+  }
+
+  /** Doubles the backoff with each attempt, up to the maximum, without overflowing the shift. */
+  private long getRetryBackoff(int attempts) {
+    int shift = attempts - 1;
+    if (shift >= Long.numberOfLeadingZeros(retryBackoffMs) - 1) {
+      return maxRetryBackoffMs;
+    }
+    return Math.min(retryBackoffMs << shift, maxRetryBackoffMs);
+  }
+
+  private void moveToDeadLetter(PendingDoc doc, int attempts) {
+    ProjectLogger.log(
+        "EsIndexOutbox:moveToDeadLetter: Giving up indexing of type "
+            + doc.esType
+            + " for ID = "
+            + doc.docId
+            + " after attempts = "
+            + attempts
+            + ", moving "
+            + doc.entries.size()
+            + " entries to the dead letter table",
+        LoggerEnum.ERROR.name());
+    for (Map<String, Object> entry : doc.entries) {
+      try {
+        dao.moveToDeadLetter(entry, attempts);
+      } catch (Exception e) {
+        ProjectLogger.log(
+            "EsIndexOutbox:moveToDeadLetter: Failed to move entry " + entry.get(ID), e);
+      }
+    }
+    deadLetteredCount.incrementAndGet();
+  }
+
+  private static long getLong(Map<String, Object> entry, String key) {
+    Object value = entry.get(key);
+    return value instanceof Number ? ((Number) value).longValue() : 0;
+  }
+
+  /**
+   * Returns the counts of recorded, indexed, failed and dead lettered documents, the number of
+   * pending entries read by the last drain, which is capped by the read limit of each shard, and
+   * the indexer lag, which is the age of the oldest pending entry, as of the last drain.
+   *
+   * @return Map of metric name and value
+   */
+  public Map<String, Object> getMetrics() {
+    Map<String, Object> metrics = new LinkedHashMap<>();
+    metrics.put("enabled", enabled);
+    metrics.put("queued", queuedCount.get());
+    metrics.put("indexed", indexedCount.get());
+    metrics.put("failed", failedCount.get());
+    metrics.put("deadLettered", deadLetteredCount.get());
+    metrics.put("pending", pendingCount);
+    metrics.put("lagMs", lagMs);
+    metrics.put("lastDrainOn", lastDrainOn);
+    return metrics;
+  }
+
+  /** Outcome of draining one shard. */
+  private static class ShardDrain {
+    private int indexed;
+    private int pending;
+    private long lagMs;
+  }
+
+  /** Pending writes of one document, in the order they were recorded. */
+  private static class PendingDoc {
+
+    private final String esType;
+    private final String docId;
+    private final List<Map<String, Object>> entries = new ArrayList<>();
+    private Map<String, Object> doc;
+    private boolean upsert = true;
+
+    PendingDoc(Map<String, Object> firstEntry) {
+      this.esType = (String) firstEntry.get(ES_TYPE);
+      this.docId = (String) firstEntry.get(DOC_ID);
+    }
+
+    @SuppressWarnings("unchecked")
+    void merge() throws IOException {
+      doc = new HashMap<>();
+      for (Map<String, Object> entry : entries) {
+        Map<String, Object> entryDoc = mapper.readValue((String) entry.get(DOC), Map.class);
+        if (Boolean.FALSE.equals(entry.get(UPSERT))) {
+          doc = entryDoc;
+          upsert = false;
+        } else {
+          doc.putAll(entryDoc);
+        }
+      }
+      doc.put(JsonKey.ID, docId);
+      doc.put(JsonKey.IDENTIFIER, docId);
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package org.sunbird.learner.util;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Entries of the ES index outbox. Entries are partitioned by shard and ordered by creation time
+ * within a shard, so that the oldest entries of a shard can be read without reading the others.
+ */
+interface EsIndexOutboxDao {
+
+  /** Records given entries with one write. */
+  void insert(List<Map<String, Object>> entries);
+
+  /**
+   * Reads the oldest entries of given shard.
+   *
+   * @param shard Shard number
+   * @param limit Maximum number of entries to read
+   * @return Entries in the order they were created
+   */
+  List<Map<String, Object>> read(int shard, int limit);
+
+  void delete(Map<String, Object> entry);
+
+  /** Records a failed attempt to index given entry. */
+  void updateAttempts(Map<String, Object> entry, int attempts, long nextAttemptOn);
+
+  /** Moves given entry, which is not retried any more, to the dead letter table. */
+  void moveToDeadLetter(Map<String, Object> entry, int attempts);
+}
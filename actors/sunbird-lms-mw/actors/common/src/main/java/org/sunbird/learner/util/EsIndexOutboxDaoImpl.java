@@ -0,0 +1,139 @@
+package org.sunbird.learner.util;
+
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.SimpleStatement;
+import com.datastax.driver.core.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stores the ES index outbox in the {@code es_index_outbox_by_shard} table, and entries which are
+ * not retried any more in the {@code es_index_outbox_dead_letter} table.
+ */
+class EsIndexOutboxDaoImpl implements EsIndexOutboxDao {
+
+  private final String keySpace;
+  private final String table;
+  private final String deadLetterTable;
+  private volatile Session session;
+
+  EsIndexOutboxDaoImpl(String keySpace, String tableName, String deadLetterTableName) {
+    this.keySpace = keySpace;
+    this.table = keySpace + "." + tableName;
+    this.deadLetterTable = keySpace + "." + deadLetterTableName;
+  }
+
+  @Override
+  public void insert(List<Map<String, Object>> entries) {
+    if (entries.size() == 1) {
+      getSession().execute(newInsert(entries.get(0)));
+      return;
+    }
+    BatchStatement batch = new BatchStatement();
+    entries.forEach(entry -> batch.add(newInsert(entry)));
+    getSession().execute(batch);
+  }
+
+  @Override
+  public List<Map<String, Object>> read(int shard, int limit) {
+    List<Map<String, Object>> entries = new ArrayList<>();
+    Statement statement =
+        new SimpleStatement("SELECT * FROM " + table + " WHERE shard = ? LIMIT ?", shard, limit);
+    for (Row row : getSession().execute(statement)) {
+      Map<String, Object> entry = new HashMap<>();
+      entry.put(EsIndexOutbox.SHARD, row.getInt(EsIndexOutbox.SHARD));
+      entry.put(EsIndexOutbox.CREATED_ON, row.getLong(EsIndexOutbox.CREATED_ON));
+      entry.put(EsIndexOutbox.ID, row.getString(EsIndexOutbox.ID));
+      entry.put(EsIndexOutbox.ES_TYPE, row.getString(EsIndexOutbox.ES_TYPE));
+      entry.put(EsIndexOutbox.DOC_ID, row.getString(EsIndexOutbox.DOC_ID));
+      entry.put(EsIndexOutbox.DOC, row.getString(EsIndexOutbox.DOC));
+      entry.put(EsIndexOutbox.UPSERT, row.getBool(EsIndexOutbox.UPSERT));
+      entry.put(EsIndexOutbox.ATTEMPTS, row.getInt(EsIndexOutbox.ATTEMPTS));
+      entry.put(EsIndexOutbox.NEXT_ATTEMPT_ON, row.getLong(EsIndexOutbox.NEXT_ATTEMPT_ON));
+      entries.add(entry);
+    }
+    return entries;
+  }
+
+  @Override
+  public void delete(Map<String, Object> entry) {
+    getSession()
+        .execute(
+            new SimpleStatement(
+                "DELETE FROM " + table + " WHERE shard = ? AND createdon = ? AND id = ?",
+                entry.get(EsIndexOutbox.SHARD),
+                entry.get(EsIndexOutbox.CREATED_ON),
+                entry.get(EsIndexOutbox.ID)));
+  }
+
+  @Override
+  public void updateAttempts(Map<String, Object> entry, int attempts, long nextAttemptOn) {
+    getSession()
+        .execute(
+            new SimpleStatement(
+                "UPDATE "
+                    + table
+                    + " SET attempts = ?, nextattempton = ?"
+                    + " WHERE shard = ? AND createdon = ? AND id = ?",
+                attempts,
+                nextAttemptOn,
+                entry.get(EsIndexOutbox.SHARD),
+                entry.get(EsIndexOutbox.CREATED_ON),
+                entry.get(EsIndexOutbox.ID)));
+  }
+
+  @Override
+  public void moveToDeadLetter(Map<String, Object> entry, int attempts) {
+    BatchStatement batch = new BatchStatement();
+    batch.add(
+        new SimpleStatement(
+            "INSERT INTO "
+                + deadLetterTable
+                + " (estype, docid, createdon, id, doc, upsert, attempts, failedon)"
+                + " VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+            entry.get(EsIndexOutbox.ES_TYPE),
+            entry.get(EsIndexOutbox.DOC_ID),
+            entry.get(EsIndexOutbox.CREATED_ON),
+            entry.get(EsIndexOutbox.ID),
+            entry.get(EsIndexOutbox.DOC),
+            entry.get(EsIndexOutbox.UPSERT),
+            attempts,
+            System.currentTimeMillis()));
+    batch.add(
+        new SimpleStatement(
+            "DELETE FROM " + table + " WHERE shard = ? AND createdon = ? AND id = ?",
+            entry.get(EsIndexOutbox.SHARD),
+            entry.get(EsIndexOutbox.CREATED_ON),
+            entry.get(EsIndexOutbox.ID)));
+    getSession().execute(batch);
+  }
+
+  private Statement newInsert(Map<String, Object> entry) {
+    return new SimpleStatement(
+        "INSERT INTO "
+            + table
+            + " (shard, createdon, id, estype, docid, doc, upsert, attempts, nextattempton)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+        entry.get(EsIndexOutbox.SHARD),
+        entry.get(EsIndexOutbox.CREATED_ON),
+        entry.get(EsIndexOutbox.ID),
+        entry.get(EsIndexOutbox.ES_TYPE),
+        entry.get(EsIndexOutbox.DOC_ID),
+        entry.get(EsIndexOutbox.DOC),
+        entry.get(EsIndexOutbox.UPSERT),
+        entry.get(EsIndexOutbox.ATTEMPTS),
+        entry.get(EsIndexOutbox.NEXT_ATTEMPT_ON));
+  }
+
+  /** The session is only opened on first use, as the outbox is disabled by default. */
+  private Session getSession() {
+    if (session == null) {
+      session = Util.getSession(keySpace);
+    }
+    return session;
+  }
+}
@@ -0,0 +1,99 @@
+package org.sunbird.learner.util;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory cache with a bounded number of entries and a time to live. Least recently used
+ * entries are evicted once the cache is full.
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+public class LocalCache<K, V> {
+
+  private final long ttlMillis;
+  private final Map<K, CacheEntry<V>> entries;
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+
+  /**
+   * @param maxSize Maximum number of entries
+   * @param ttlMillis Time to live of an entry in milliseconds
+   */
+  public LocalCache(int maxSize, long ttlMillis) {
+    this.ttlMillis = ttlMillis;
+    this.entries =
+        new LinkedHashMap<K, CacheEntry<V>>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest) {
+            return size() > maxSize;
+          }
+        };
+  }
+
+  /**
+   * Returns the cached value of given key.
+   *
+   * @param key Key
+   * @return Cached value, or null if the key is not cached or its entry has expired
+   */
+  public synchronized V get(K key) {
+    CacheEntry<V> entry = entries.get(key);
+    if (entry != null && entry.isExpired(System.currentTimeMillis())) {
+      entries.remove(key);
+      entry = null;
+    }
+    if (entry == null) {
+      missCount.incrementAndGet();
+      return null;
+    }
+    hitCount.incrementAndGet();
+    return entry.value;
+  }
+
+  public synchronized void put(K key, V value) {
+    entries.put(key, new CacheEntry<>(value, System.currentTimeMillis() + ttlMillis));
+  }
+
+  public synchronized void invalidate(K key) {
+    entries.remove(key);
+  }
+
+  public synchronized void invalidateAll() {
+    entries.clear();
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * Returns the cache size and hit and miss counts.
+   *
+   * @return Map of metric name and value
+   */
+  public Map<String, Object> getMetrics() {
+    Map<String, Object> metrics = new HashMap<>();
+    metrics.put("size", size());
+    metrics.put("hitCount", hitCount.get());
+    metrics.put("missCount", missCount.get());
+    return metrics;
+  }
+
+  private static class CacheEntry<V> {
+    private final V value;
+    private final long expiresAt;
+
+    CacheEntry(V value, long expiresAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+
+    boolean isExpired(long now) {
+      return now >= expiresAt;
+    }
+  }
+}
@@ -0,0 +1,180 @@
+package org.sunbird.learner.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Collects key loads from concurrent callers and loads them with one batch call. Keys which arrive
+ * while no batch is being loaded are dispatched at once, so a caller without concurrent callers
+ * does not wait. All keys of one {@link #loadAll} call are queued together, so they go out in one
+ * batch unless the batch fills up. Keys arriving while a batch is being loaded are collected, and
+ * dispatched when the first of them has waited for the batch window, or as soon as the batch holds
+ * the maximum number of keys. Callers loading a key which is pending or being loaded share one
+ * future.
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+public class MicroBatchLoader<K, V> {
+
+  private static final ScheduledExecutorService scheduler =
+      Executors.newSingleThreadScheduledExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "micro-batch-scheduler");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  private final Function<List<K>, Map<K, V>> batchLoader;
+  private final long windowMillis;
+  private final int maxBatchSize;
+  private final Executor executor;
+  private final AtomicLong keyCount = new AtomicLong();
+  private final AtomicLong batchCount = new AtomicLong();
+
+  private Map<K, CompletableFuture<V>> pending = new LinkedHashMap<>();
+  private final Map<K, CompletableFuture<V>> loading = new HashMap<>();
+  private int loadingBatches = 0;
+  private ScheduledFuture<?> scheduledDispatch = null;
+
+  /**
+   * @param batchLoader Loads the values of given keys, keys without a value may be left out
+   * @param windowMillis Time the first key of a batch waits for more keys while another batch is
+   *     being loaded
+   * @param maxBatchSize Number of keys at which a batch is dispatched at once
+   * @param executor Executor running the batch loader
+   */
+  public MicroBatchLoader(
+      Function<List<K>, Map<K, V>> batchLoader,
+      long windowMillis,
+      int maxBatchSize,
+      Executor executor) {
+    this.batchLoader = batchLoader;
+    this.windowMillis = windowMillis;
+    this.maxBatchSize = Math.max(1, maxBatchSize);
+    this.executor = executor;
+  }
+
+  /**
+   * Adds given key to the current batch.
+   *
+   * @param key Key to load
+   * @return Future completed with the value, or with null if the batch loader returned no value
+   */
+  public CompletableFuture<V> load(K key) {
+    return loadAll(Collections.singletonList(key)).get(0);
+  }
+
+  /**
+   * Adds given keys to the current batch together.
+   *
+   * @param keys Keys to load
+   * @return Futures of the values in the order of given keys, see {@link #load}
+   */
+  public List<CompletableFuture<V>> loadAll(List<K> keys) {
+    List<CompletableFuture<V>> futures = new ArrayList<>(keys.size());
+    List<Map<K, CompletableFuture<V>>> batches = new ArrayList<>();
+    synchronized (this) {
+      boolean idle = loadingBatches == 0;
+      for (K key : keys) {
+        CompletableFuture<V> future = pending.get(key);
+        if (future == null) {
+          future = loading.get(key);
+        }
+        if (future == null) {
+          future = new CompletableFuture<>();
+          pending.put(key, future);
+          keyCount.incrementAndGet();
+          if (pending.size() >= maxBatchSize) {
+            batches.add(takePending());
+          }
+        }
+        futures.add(future);
+      }
+      if (!pending.isEmpty()) {
+        if (idle) {
+          batches.add(takePending());
+        } else if (scheduledDispatch == null) {
+          scheduledDispatch =
+              scheduler.schedule(this::dispatchPending, windowMillis, TimeUnit.MILLISECONDS);
+        }
+      }
+    }
+    batches.forEach(this::dispatch);
+    return futures;
+  }
+
+  private void dispatchPending() {
+    Map<K, CompletableFuture<V>> batch;
+    synchronized (this) {
+      batch = takePending();
+    }
+    if (!batch.isEmpty()) {
+      dispatch(batch);
+    }
+  }
+
+  private Map<K, CompletableFuture<V>> takePending() {
+    Map<K, CompletableFuture<V>> batch = pending;
+    pending = new LinkedHashMap<>();
+    if (scheduledDispatch != null) {
+      scheduledDispatch.cancel(false);
+      scheduledDispatch = null;
+    }
+    if (!batch.isEmpty()) {
+      loading.putAll(batch);
+      loadingBatches++;
+    }
+    return batch;
+  }
+
+  private void dispatch(Map<K, CompletableFuture<V>> batch) {
+    batchCount.incrementAndGet();
+    try {
+      executor.execute(
+          () -> {
+            try {
+              Map<K, V> values = batchLoader.apply(new ArrayList<>(batch.keySet()));
+              complete(batch);
+              batch.forEach(
+                  (key, future) -> future.complete(values != null ? values.get(key) : null));
+            } catch (Throwable e) {
+              complete(batch);
+              batch.values().forEach(future -> future.completeExceptionally(e));
+            }
+          });
+    } catch (RuntimeException e) {
+      complete(batch);
+      batch.values().forEach(future -> future.completeExceptionally(e));
+    }
+  }
+
+  private synchronized void complete(Map<K, CompletableFuture<V>> batch) {
+    batch.forEach(loading::remove);
+    loadingBatches--;
+  }
+
+  /**
+   * Returns the number of keys loaded and of batches dispatched.
+   *
+   * @return Map of metric name and value
+   */
+  public Map<String, Object> getMetrics() {
+    Map<String, Object> metrics = new LinkedHashMap<>();
+    metrics.put("keyCount", keyCount.get());
+    metrics.put("batchCount", batchCount.get());
+    return metrics;
+  }
+}
@@ -0,0 +1,243 @@
+package org.sunbird.learner.util;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.lang3.StringUtils;
+import org.sunbird.common.models.response.Response;
+import org.sunbird.common.models.util.LoggerEnum;
+import org.sunbird.common.models.util.ProjectLogger;
+import org.sunbird.common.models.util.ProjectUtil;
+import org.sunbird.learner.constants.CourseJsonKey;
+
+/**
+ * Bounded LRU cache of assembled page responses, keyed by the hash of the page assemble request.
+ *
+ * <p>An entry is fresh until the TTL of its page expires, and stale for a further {@code
+ * sunbird_page_assemble_cache_max_stale_ms}. A stale entry is still served, and the first caller
+ * to see it is asked to refresh it in the background. Entries are invalidated by page name, page ID
+ * or section ID when a page or section is created or updated.
+ */
+public final class PageAssembleCache {
+
+  private static final long DEFAULT_TTL_MS = 60000;
+  private static final long DEFAULT_MAX_STALE_MS = 300000;
+  private static final int DEFAULT_MAX_SIZE = 1000;
+
+  private static volatile PageAssembleCache instance = null;
+
+  private final boolean enabled;
+  private final long defaultTtlMillis;
+  private final long maxStaleMillis;
+  private final Map<String, CacheEntry> entries;
+  private final Map<String, Long> pageTtls = new ConcurrentHashMap<>();
+  private final AtomicLong invalidationCount = new AtomicLong();
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong staleHitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+
+  PageAssembleCache(boolean enabled, int maxSize, long defaultTtlMillis, long maxStaleMillis) {
+    this.enabled = enabled;
+    this.defaultTtlMillis = defaultTtlMillis;
+    this.maxStaleMillis = maxStaleMillis;
+    this.entries =
+        new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+            return size() > maxSize;
+          }
+        };
+  }
+
+  public static PageAssembleCache getInstance() {
+    if (instance == null) {
+      synchronized (PageAssembleCache.class) {
+        if (instance == null) {
+          instance =
+              new PageAssembleCache(
+                  Boolean.parseBoolean(
+                      ProjectUtil.getConfigValue(CourseJsonKey.PAGE_ASSEMBLE_CACHE_ENABLED)),
+                  ConfigValueUtil.getInt(
+                      CourseJsonKey.PAGE_ASSEMBLE_CACHE_MAX_SIZE, DEFAULT_MAX_SIZE),
+                  ConfigValueUtil.getLong(CourseJsonKey.PAGE_ASSEMBLE_CACHE_TTL_MS, DEFAULT_TTL_MS),
+                  ConfigValueUtil.getLong(
+                      CourseJsonKey.PAGE_ASSEMBLE_CACHE_MAX_STALE_MS, DEFAULT_MAX_STALE_MS));
+        }
+      }
+    }
+    return instance;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Returns the version to be passed to {@link #put} for a response assembled from now on.
+   *
+   * @return Current version of the cache
+   */
+  public long getVersion() {
+    return invalidationCount.get();
+  }
+
+  /**
+   * Returns the cached response of given request.
+   *
+   * @param key Hash of the page assemble request
+   * @return Cached response, or null if the request is not cached or its entry is too old
+   */
+  public synchronized CachedResponse get(String key) {
+    CacheEntry entry = entries.get(key);
+    long now = System.currentTimeMillis();
+    if (entry == null || now >= entry.expiresAt + maxStaleMillis) {
+      if (entry != null) {
+        entries.remove(key);
+      }
+      missCount.incrementAndGet();
+      return null;
+    }
+    if (now < entry.expiresAt) {
+      hitCount.incrementAndGet();
+      return new CachedResponse(copy(entry.response), false);
+    }
+    staleHitCount.incrementAndGet();
+    boolean refresh = !entry.refreshing;
+    entry.refreshing = true;
+    return new CachedResponse(copy(entry.response), refresh);
+  }
+
+  /**
+   * Caches an assembled page response, unless the page or its sections were invalidated since the
+   * response started to be assembled.
+   *
+   * @param key Hash of the page assemble request
+   * @param pageName Page name, used to look up the TTL of the page
+   * @param dependencies Page name, page ID and section IDs the response was assembled from
+   * @param response Assembled response
+   * @param version Value of {@link #getVersion()} before the response was assembled
+   */
+  public synchronized void put(
+      String key, String pageName, Set<String> dependencies, Response response, long version) {
+    if (!enabled || invalidationCount.get() != version) {
+      CacheEntry entry = entries.get(key);
+      if (entry != null) {
+        entry.refreshing = false;
+      }
+      return;
+    }
+    entries.put(
+        key,
+        new CacheEntry(
+            copy(response), dependencies, System.currentTimeMillis() + getTtl(pageName)));
+  }
+
+  /**
+   * Allows another caller to refresh given entry, after a background refresh has failed.
+   *
+   * @param key Hash of the page assemble request
+   */
+  public synchronized void refreshFailed(String key) {
+    CacheEntry entry = entries.get(key);
+    if (entry != null) {
+      entry.refreshing = false;
+    }
+  }
+
+  /**
+   * Removes the responses assembled from given page or section.
+   *
+   * @param dependency Page name, page ID or section ID
+   */
+  public synchronized void invalidate(String dependency) {
+    invalidationCount.incrementAndGet();
+    int count = 0;
+    Iterator<CacheEntry> itr = entries.values().iterator();
+    while (itr.hasNext()) {
+      if (itr.next().dependencies.contains(dependency)) {
+        itr.remove();
+        count++;
+      }
+    }
+    ProjectLogger.log(
+        "PageAssembleCache:invalidate: Invalidated " + count + " entries for " + dependency,
+        LoggerEnum.INFO.name());
+  }
+
+  public synchronized void invalidateAll() {
+    invalidationCount.incrementAndGet();
+    entries.clear();
+  }
+
+  public synchronized Map<String, Object> getMetrics() {
+    Map<String, Object> metrics = new HashMap<>();
+    metrics.put("size", entries.size());
+    metrics.put("hitCount", hitCount.get());
+    metrics.put("staleHitCount", staleHitCount.get());
+    metrics.put("missCount", missCount.get());
+    return metrics;
+  }
+
+  /**
+   * Returns the TTL of given page, which can be set per page with the {@code
+   * sunbird_page_assemble_cache_ttl_ms_<page name>} configuration.
+   */
+  private long getTtl(String pageName) {
+    if (StringUtils.isBlank(pageName)) {
+      return defaultTtlMillis;
+    }
+    return pageTtls.computeIfAbsent(
+        pageName,
+        name ->
+            ConfigValueUtil.getLong(
+                CourseJsonKey.PAGE_ASSEMBLE_CACHE_TTL_MS + "_" + name, defaultTtlMillis));
+  }
+
+  /** Responses are modified by the caller, so the cache hands out and keeps its own copies. */
+  private static Response copy(Response response) {
+    Response copy = new Response();
+    copy.setId(response.getId());
+    copy.setVer(response.getVer());
+    copy.setTs(response.getTs());
+    copy.setParams(response.getParams());
+    copy.setResponseCode(response.getResponseCode());
+    copy.getResult().putAll(response.getResult());
+    return copy;
+  }
+
+  /** Cached response, and whether the caller has to refresh it. */
+  public static class CachedResponse {
+    private final Response response;
+    private final boolean refreshRequired;
+
+    CachedResponse(Response response, boolean refreshRequired) {
+      this.response = response;
+      this.refreshRequired = refreshRequired;
+    }
+
+    public Response getResponse() {
+      return response;
+    }
+
+    public boolean isRefreshRequired() {
+      return refreshRequired;
+    }
+  }
+
+  private static class CacheEntry {
+    private final Response response;
+    private final Set<String> dependencies;
+    private final long expiresAt;
+    private boolean refreshing;
+
+    CacheEntry(Response response, Set<String> dependencies, long expiresAt) {
+      this.response = response;
+      this.dependencies = dependencies;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
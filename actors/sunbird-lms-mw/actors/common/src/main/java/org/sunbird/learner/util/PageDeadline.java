@@ -0,0 +1,115 @@
+package org.sunbird.learner.util;
+
+import akka.actor.Cancellable;
+import akka.actor.Scheduler;
+import akka.dispatch.Futures;
+import akka.dispatch.OnComplete;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import scala.concurrent.ExecutionContext;
+import scala.concurrent.Future;
+import scala.concurrent.Promise;
+import scala.concurrent.duration.Duration;
+
+/**
+ * Deadline of one page assemble request. The page deadline starts when the page is assembled and
+ * is shared by all its sections, so a section started late gets only what is left of it. Each
+ * section is also limited by the section timeout. A section which misses either completes with a
+ * fallback, which is only built when it is needed.
+ */
+public class PageDeadline {
+
+  private final Scheduler scheduler;
+  private final ExecutionContext ec;
+  private final long sectionTimeoutMillis;
+  private final Promise<Boolean> expired = Futures.promise();
+  private final Cancellable pageTimer;
+
+  /**
+   * Starts the page deadline.
+   *
+   * @param scheduler Scheduler used for the page and section timers
+   * @param ec Execution context used to complete sections
+   * @param pageTimeoutMillis Time the whole page may take
+   * @param sectionTimeoutMillis Time one section may take
+   */
+  public PageDeadline(
+      Scheduler scheduler, ExecutionContext ec, long pageTimeoutMillis, long sectionTimeoutMillis) {
+    this.scheduler = scheduler;
+    this.ec = ec;
+    this.sectionTimeoutMillis = sectionTimeoutMillis;
+    this.pageTimer =
+        scheduler.scheduleOnce(
+            Duration.create(Math.max(0, pageTimeoutMillis), TimeUnit.MILLISECONDS),
+            () -> expired.trySuccess(true),
+            ec);
+  }
+
+  /**
+   * Returns the result of a section search, or a fallback if the search fails, the section times
+   * out or the page deadline passes.
+   *
+   * @param search Section search
+   * @param onFailure Builds the section returned when the search fails
+   * @param onTimeout Builds the section returned when the section or page times out
+   * @return Future section, which never fails unless a fallback cannot be built
+   */
+  public <T> Future<T> limit(
+      Future<T> search, Function<Throwable, T> onFailure, Supplier<T> onTimeout) {
+    Promise<T> section = Futures.promise();
+    Runnable timeout =
+        () -> {
+          if (!section.isCompleted()) {
+            complete(section, onTimeout::get);
+          }
+        };
+    Cancellable sectionTimer =
+        scheduler.scheduleOnce(
+            Duration.create(Math.max(0, sectionTimeoutMillis), TimeUnit.MILLISECONDS),
+            timeout,
+            ec);
+    expired
+        .future()
+        .onComplete(
+            new OnComplete<Boolean>() {
+              @Override
+              public void onComplete(Throwable failure, Boolean result) {
+                timeout.run();
+              }
+            },
+            ec);
+    search.onComplete(
+        new OnComplete<T>() {
+          @Override
+          public void onComplete(Throwable failure, T result) {
+            sectionTimer.cancel();
+            if (failure == null) {
+              section.trySuccess(result);
+            } else {
+              complete(section, () -> onFailure.apply(failure));
+            }
+          }
+        },
+        ec);
+    return section.future();
+  }
+
+  /** Returns true once the page deadline has passed. */
+  public boolean isExpired() {
+    return expired.isCompleted();
+  }
+
+  /** Stops the page timer, once all sections are complete. */
+  public void cancel() {
+    pageTimer.cancel();
+  }
+
+  private static <T> void complete(Promise<T> section, Supplier<T> fallback) {
+    try {
+      section.trySuccess(fallback.get());
+    } catch (RuntimeException e) {
+      section.tryFailure(e);
+    }
+  }
+}
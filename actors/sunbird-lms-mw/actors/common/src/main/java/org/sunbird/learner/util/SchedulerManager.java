@@ -6,23 +6,44 @@ import java.util.concurrent.TimeUnit;
 import org.sunbird.common.cacheloader.PageCacheLoaderService;
 import org.sunbird.common.models.util.LoggerEnum;
 import org.sunbird.common.models.util.ProjectLogger;
+import org.sunbird.learner.constants.CourseJsonKey;
 
 /** @author Manzarul All the scheduler job will be handle by this class. */
 public class SchedulerManager {
 
-  private static final int PAGE_DATA_TTL = 4;
+  private static final long PAGE_DATA_TTL_MINUTES = 240;
 
   /*
    * service ScheduledExecutorService object
    */
   public static ScheduledExecutorService service = ExecutorManager.getExecutorService();
 
-  /** all scheduler job will be configure here. */
+  /**
+   * all scheduler job will be configure here. Each DataCacheHandler map is refreshed on its own
+   * schedule, configurable with sunbird_cache_refresh_interval_minutes_<map name>.
+   */
   public static void schedule() {
-    service.scheduleWithFixedDelay(new DataCacheHandler(), 0, PAGE_DATA_TTL, TimeUnit.HOURS);
-    service.scheduleWithFixedDelay(new PageCacheLoaderService(), 0, PAGE_DATA_TTL, TimeUnit.HOURS);
+    for (String mapName : DataCacheHandler.getMapNames()) {
+      service.scheduleWithFixedDelay(
+          new DataCacheHandler(mapName), 0, getRefreshInterval(mapName), TimeUnit.MINUTES);
+    }
+    service.scheduleWithFixedDelay(
+        new PageCacheLoaderService(),
+        0,
+        getRefreshInterval("pageCacheLoader"),
+        TimeUnit.MINUTES);
     ProjectLogger.log(
         "SchedulerManager:schedule: Started scheduler job for cache refresh.",
         LoggerEnum.INFO.name());
   }
+
+  private static long getRefreshInterval(String mapName) {
+    long defaultInterval =
+        ConfigValueUtil.getLong(
+            CourseJsonKey.CACHE_REFRESH_INTERVAL_MINUTES, PAGE_DATA_TTL_MINUTES);
+    return Math.max(
+        1,
+        ConfigValueUtil.getLong(
+            CourseJsonKey.CACHE_REFRESH_INTERVAL_MINUTES + "_" + mapName, defaultInterval));
+  }
 }
@@ -0,0 +1,80 @@
+package org.sunbird.learner.util;
+
+import akka.dispatch.Futures;
+import akka.dispatch.OnComplete;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import scala.concurrent.ExecutionContext;
+import scala.concurrent.Future;
+import scala.concurrent.Promise;
+
+/**
+ * Coalesces concurrent calls for the same key into one call. The first caller for a key starts the
+ * call, and callers arriving while it is in flight get the same future instead of starting another
+ * one. Results are not kept once the call completes.
+ *
+ * @param <K> Key type
+ * @param <V> Result type
+ */
+public class SingleFlight<K, V> {
+
+  private final ConcurrentMap<K, Future<V>> inFlight = new ConcurrentHashMap<>();
+  private final AtomicLong missCount = new AtomicLong();
+  private final AtomicLong coalescedCount = new AtomicLong();
+
+  /**
+   * Returns the result of the in-flight call for given key, or starts a new call.
+   *
+   * @param key Key identifying identical calls
+   * @param call Starts the call
+   * @param ec Execution context used to clean up completed calls
+   * @return Future result of the call
+   */
+  public Future<V> execute(K key, Supplier<Future<V>> call, ExecutionContext ec) {
+    Promise<V> promise = Futures.promise();
+    Future<V> existing = inFlight.putIfAbsent(key, promise.future());
+    if (existing != null) {
+      coalescedCount.incrementAndGet();
+      return existing;
+    }
+    missCount.incrementAndGet();
+    try {
+      call.get()
+          .onComplete(
+              new OnComplete<V>() {
+                @Override
+                public void onComplete(Throwable failure, V result) {
+                  inFlight.remove(key, promise.future());
+                  if (failure != null) {
+                    promise.failure(failure);
+                  } else {
+                    promise.success(result);
+                  }
+                }
+              },
+              ec);
+    } catch (RuntimeException e) {
+      inFlight.remove(key, promise.future());
+      promise.failure(e);
+    }
+    return promise.future();
+  }
+
+  /**
+   * Returns the number of calls started (misses), the number of callers which shared an in-flight
+   * call (coalesced) and the number of calls in flight.
+   *
+   * @return Map of metric name and value
+   */
+  public Map<String, Object> getMetrics() {
+    Map<String, Object> metrics = new HashMap<>();
+    metrics.put("missCount", missCount.get());
+    metrics.put("coalescedCount", coalescedCount.get());
+    metrics.put("inFlightCount", inFlight.size());
+    return metrics;
+  }
+}
@@ -0,0 +1,158 @@
+package org.sunbird.learner.util;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.collections.MapUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.sunbird.common.models.util.JsonKey;
+import org.sunbird.common.models.util.ProjectLogger;
+import org.sunbird.learner.constants.CourseJsonKey;
+
+/**
+ * Process wide cache of the root organisation ID of users, used for the telemetry rollup.
+ *
+ * <p>Entries expire after {@code sunbird_user_root_org_cache_ttl_ms}. Besides the lookups made
+ * through this cache, every user read from the user-org service is added to it. A TTL of zero
+ * disables caching.
+ */
+public final class UserRootOrgCache {
+
+  private static final long DEFAULT_TTL_MS = 600000;
+  private static final int DEFAULT_MAX_SIZE = 10000;
+  private static final int LOADER_THREADS = 2;
+
+  private static volatile UserRootOrgCache instance = null;
+
+  private final LocalCache<String, String> cache;
+  private final boolean enabled;
+  private final Set<String> loading = ConcurrentHashMap.newKeySet();
+  private final ExecutorService loader =
+      Executors.newFixedThreadPool(
+          LOADER_THREADS,
+          runnable -> {
+            Thread thread = new Thread(runnable, "user-root-org-loader");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  private UserRootOrgCache(int maxSize, long ttlMillis) {
+    this.cache = new LocalCache<>(maxSize, ttlMillis);
+    this.enabled = ttlMillis > 0;
+  }
+
+  public static UserRootOrgCache getInstance() {
+    if (instance == null) {
+      synchronized (UserRootOrgCache.class) {
+        if (instance == null) {
+          instance =
+              new UserRootOrgCache(
+                  ConfigValueUtil.getInt(
+                      CourseJsonKey.USER_ROOT_ORG_CACHE_MAX_SIZE, DEFAULT_MAX_SIZE),
+                  ConfigValueUtil.getLong(
+                      CourseJsonKey.USER_ROOT_ORG_CACHE_TTL_MS, DEFAULT_TTL_MS));
+        }
+      }
+    }
+    return instance;
+  }
+
+  /**
+   * Returns the cached root organisation ID of given user.
+   *
+   * @param userId User ID
+   * @return Root organisation ID, or null if it is not cached
+   */
+  public String get(String userId) {
+    return enabled && StringUtils.isNotBlank(userId) ? cache.get(userId) : null;
+  }
+
+  /**
+   * Returns the root organisation ID of given user, reading the user on a cache miss.
+   *
+   * @param userId User ID
+   * @param userLoader Reads the user of given ID
+   * @return Root organisation ID, or null if the user has none
+   */
+  public String get(String userId, Function<String, Map<String, Object>> userLoader) {
+    String rootOrgId = get(userId);
+    if (rootOrgId == null && StringUtils.isNotBlank(userId)) {
+      Map<String, Object> user = userLoader.apply(userId);
+      put(user);
+      rootOrgId = user != null ? (String) user.get(JsonKey.ROOT_ORG_ID) : null;
+    }
+    return rootOrgId;
+  }
+
+  /**
+   * Reads the root organisation ID of given user in the background. Only one read per user runs
+   * at a time; further calls for a user whose read is running are ignored.
+   *
+   * @param userId User ID
+   * @param userLoader Reads the user of given ID
+   * @param callback Receives the root organisation ID when it is found
+   */
+  public void load(
+      String userId, Function<String, Map<String, Object>> userLoader, Consumer<String> callback) {
+    if (StringUtils.isBlank(userId) || !loading.add(userId)) {
+      return;
+    }
+    loader.execute(
+        () -> {
+          try {
+            String rootOrgId = get(userId, userLoader);
+            if (StringUtils.isNotBlank(rootOrgId)) {
+              callback.accept(rootOrgId);
+            }
+          } catch (Exception e) {
+            ProjectLogger.log(
+                "UserRootOrgCache:load: Failed to read user "
+                    + userId
+                    + " with error message = "
+                    + e.getMessage(),
+                e);
+          } finally {
+            loading.remove(userId);
+          }
+        });
+  }
+
+  /**
+   * Caches the root organisation ID of given user.
+   *
+   * @param user User details as returned by the user-org service
+   */
+  public void put(Map<String, Object> user) {
+    if (!enabled || MapUtils.isEmpty(user)) {
+      return;
+    }
+    String userId = (String) user.get(JsonKey.ID);
+    if (StringUtils.isBlank(userId)) {
+      userId = (String) user.get(JsonKey.USER_ID);
+    }
+    String rootOrgId = (String) user.get(JsonKey.ROOT_ORG_ID);
+    if (StringUtils.isNotBlank(userId) && StringUtils.isNotBlank(rootOrgId)) {
+      cache.put(userId, rootOrgId);
+    }
+  }
+
+  public void putAll(Collection<Map<String, Object>> users) {
+    if (CollectionUtils.isNotEmpty(users)) {
+      users.forEach(this::put);
+    }
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  public Map<String, Object> getMetrics() {
+    return cache.getMetrics();
+  }
+}
@@ -2,6 +2,7 @@ package org.sunbird.learner.util;
 
 import static org.sunbird.common.models.util.ProjectLogger.log;
 
+import com.datastax.driver.core.Session;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.IOException;
 import java.io.InputStream;
@@ -14,6 +15,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.commons.lang3.StringUtils;
 import org.json.JSONArray;
 import org.json.JSONException;
@@ -33,6 +35,7 @@ import org.sunbird.common.responsecode.ResponseCode;
 import org.sunbird.dto.SearchDTO;
 import org.sunbird.helper.CassandraConnectionManager;
 import org.sunbird.helper.CassandraConnectionMngrFactory;
+import org.sunbird.learner.constants.CourseJsonKey;
 import org.sunbird.userorg.UserOrgService;
 import org.sunbird.userorg.UserOrgServiceImpl;
 
@@ -132,6 +135,37 @@ public final class Util {
     dbInfoMap.put(
         JsonKey.SUNBIRD_COURSE_DIALCODES_DB,
         getDbInfoObject(DIALCODE_KEY_SPACE_NAME, "dialcode_images"));
+    dbInfoMap.put(
+        CourseJsonKey.ES_INDEX_OUTBOX_DB,
+        getDbInfoObject(COURSE_KEY_SPACE_NAME, "es_index_outbox_by_shard"));
+    dbInfoMap.put(
+        CourseJsonKey.DISTRIBUTED_LEASE_DB,
+        getDbInfoObject(COURSE_KEY_SPACE_NAME, "distributed_lease"));
+    dbInfoMap.put(
+        CourseJsonKey.BULK_UPLOAD_TASK_DB,
+        getDbInfoObject(COURSE_KEY_SPACE_NAME, "bulk_upload_process_task"));
+    dbInfoMap.put(
+        CourseJsonKey.BULK_UPLOAD_RESULT_DB,
+        getDbInfoObject(COURSE_KEY_SPACE_NAME, "bulk_upload_process_result"));
+    dbInfoMap.put(
+        CourseJsonKey.ES_RESYNC_CHECKPOINT_DB,
+        getDbInfoObject(COURSE_KEY_SPACE_NAME, "es_resync_checkpoint"));
+    dbInfoMap.put(
+        CourseJsonKey.ES_INCREMENTAL_SYNC_DB,
+        getDbInfoObject(COURSE_KEY_SPACE_NAME, "es_incremental_sync"));
+    dbInfoMap.put(
+        CourseJsonKey.ES_INDEX_OUTBOX_DEAD_LETTER_DB,
+        getDbInfoObject(COURSE_KEY_SPACE_NAME, "es_index_outbox_dead_letter"));
+  }
+
+  /**
+   * Returns the Cassandra driver session of given keyspace, for queries which the Cassandra
+   * operations do not support, such as lightweight transactions or limits.
+   */
+  public static Session getSession(String keySpace) {
+    String cassandraMode =
+        PropertiesCache.getInstance().getProperty(JsonKey.SUNBIRD_CASSANDRA_MODE);
+    return CassandraConnectionMngrFactory.getObject(cassandraMode).getSession(keySpace);
   }
 
   /**
@@ -551,13 +585,19 @@ public final class Util {
       if (JsonKey.USER.equalsIgnoreCase(
           (String) actorMessage.getContext().get(JsonKey.ACTOR_TYPE))) {
         // assign rollup of user ...
+        String userId = (String) actorMessage.getContext().get(JsonKey.REQUESTED_BY);
         try {
-          Map<String, Object> result =
-              userOrgService.getUserById(
-                  (String) actorMessage.getContext().get(JsonKey.REQUESTED_BY));
-          if (result != null) {
-            String rootOrgId = (String) result.get(JsonKey.ROOT_ORG_ID);
-
+          String rootOrgId = UserRootOrgCache.getInstance().get(userId);
+          if (rootOrgId == null && isTelemetryRollupAsync()) {
+            // rollup is filled in once the user is read, request does not wait for it
+            Map<String, String> rollup = new ConcurrentHashMap<>();
+            requestContext.put(JsonKey.ROLLUP, rollup);
+            UserRootOrgCache.getInstance()
+                .load(userId, userOrgService::getUserById, orgId -> rollup.put("l1", orgId));
+          } else {
+            if (rootOrgId == null) {
+              rootOrgId = UserRootOrgCache.getInstance().get(userId, userOrgService::getUserById);
+            }
             if (StringUtils.isNotBlank(rootOrgId)) {
               Map<String, String> rollup = new HashMap<>();
 
@@ -575,6 +615,10 @@ public final class Util {
     }
   }
 
+  private static boolean isTelemetryRollupAsync() {
+    return Boolean.parseBoolean(ProjectUtil.getConfigValue(CourseJsonKey.TELEMETRY_ROLLUP_ASYNC));
+  }
+
   public static String getKeyFromContext(String key, Request actorMessage) {
     return actorMessage.getContext() != null && actorMessage.getContext().containsKey(key)
         ? (String) actorMessage.getContext().get(key)
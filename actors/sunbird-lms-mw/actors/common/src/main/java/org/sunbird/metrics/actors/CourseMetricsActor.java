@@ -40,6 +40,7 @@ import org.sunbird.common.util.CloudStorageUtil.CloudStorageType;
 import org.sunbird.dto.SearchDTO;
 import org.sunbird.learner.constants.CourseJsonKey;
 import org.sunbird.learner.util.ContentSearchUtil;
+import org.sunbird.learner.util.CourseBatchCache;
 import org.sunbird.learner.util.Util;
 import org.sunbird.userorg.UserOrgService;
 import org.sunbird.userorg.UserOrgServiceImpl;
@@ -219,10 +220,7 @@ public class CourseMetricsActor extends BaseMetricsActor {
       ProjectCommonException.throwClientErrorException(ResponseCode.invalidCourseBatchId);
     }
     // check batch exist in ES or not
-    Future<Map<String, Object>> courseBatchResultF =
-        esService.getDataByIdentifier(EsType.courseBatch.getTypeName(), batchId);
-    Map<String, Object> courseBatchResult =
-        (Map<String, Object>) ElasticSearchHelper.getResponseFromFuture(courseBatchResultF);
+    Map<String, Object> courseBatchResult = CourseBatchCache.getInstance().get(batchId);
     if (isNull(courseBatchResult) || courseBatchResult.size() == 0) {
       ProjectLogger.log(
           "CourseMetricsActor:validateAndGetCourseBatch: batchId not found.",
@@ -275,10 +273,7 @@ public class CourseMetricsActor extends BaseMetricsActor {
     }
 
     // check batch exist in ES or not
-    Future<Map<String, Object>> courseBatchResultF =
-        esService.getDataByIdentifier(EsType.courseBatch.getTypeName(), batchId);
-    Map<String, Object> courseBatchResult =
-        (Map<String, Object>) ElasticSearchHelper.getResponseFromFuture(courseBatchResultF);
+    Map<String, Object> courseBatchResult = CourseBatchCache.getInstance().get(batchId);
     if (isNull(courseBatchResult) || courseBatchResult.size() == 0) {
       ProjectLogger.log(
           "CourseMetricsActor:courseProgressMetricsReport: batchId not found.",
@@ -388,10 +383,7 @@ public class CourseMetricsActor extends BaseMetricsActor {
     }
 
     // check batch exist in ES or not
-    Future<Map<String, Object>> courseBatchResultF =
-        esService.getDataByIdentifier(EsType.courseBatch.getTypeName(), batchId);
-    Map<String, Object> courseBatchResult =
-        (Map<String, Object>) ElasticSearchHelper.getResponseFromFuture(courseBatchResultF);
+    Map<String, Object> courseBatchResult = CourseBatchCache.getInstance().get(batchId);
     if (isNull(courseBatchResult) || courseBatchResult.size() == 0) {
       ProjectLogger.log(
           "CourseMetricsActor:courseProgressMetrics: batchId not found.", LoggerEnum.INFO.name());
@@ -920,7 +912,10 @@ public class CourseMetricsActor extends BaseMetricsActor {
         LoggerEnum.INFO.name());
     Map<String, Object> contentsList =
         ContentSearchUtil.searchContentSync(
-            null, requestBody, (Map<String, String>) request.getRequest().get(JsonKey.HEADER));
+            null,
+            requestBody,
+            (Map<String, String>) request.getRequest().get(JsonKey.HEADER),
+            new HashSet<>(fields));
     if (contentsList == null) {
       new ProjectCommonException(
           ResponseCode.internalError.getErrorCode(),
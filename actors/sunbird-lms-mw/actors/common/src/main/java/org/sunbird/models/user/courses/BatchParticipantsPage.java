@@ -0,0 +1,26 @@
+package org.sunbird.models.user.courses;
+
+import java.io.Serializable;
+import java.util.List;
+
+/** One page of the participant IDs of a batch, with the cursor of the following page. */
+public class BatchParticipantsPage implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+  private final List<String> userIds;
+  private final String nextCursor;
+
+  public BatchParticipantsPage(List<String> userIds, String nextCursor) {
+    this.userIds = userIds;
+    this.nextCursor = nextCursor;
+  }
+
+  public List<String> getUserIds() {
+    return userIds;
+  }
+
+  /** @return Cursor of the following page, or null if this is the last page */
+  public String getNextCursor() {
+    return nextCursor;
+  }
+}
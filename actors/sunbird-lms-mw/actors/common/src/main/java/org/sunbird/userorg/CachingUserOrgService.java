@@ -0,0 +1,392 @@
+package org.sunbird.userorg;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.collections.MapUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.sunbird.common.models.util.JsonKey;
+import org.sunbird.common.models.util.ProjectLogger;
+import org.sunbird.learner.constants.CourseJsonKey;
+import org.sunbird.learner.util.ConfigValueUtil;
+import org.sunbird.learner.util.LocalCache;
+import org.sunbird.learner.util.MicroBatchLoader;
+
+/**
+ * Caches users and organisations read through another {@link UserOrgService}.
+ *
+ * <p>Users and organisations are cached per ID. A multi-get only requests the IDs which are not
+ * cached, split into chunks of {@code sunbird_user_org_batch_size} IDs which are requested in
+ * parallel, and returns one entry per found ID in the order of the given IDs. Searches by other
+ * filters are not cached.
+ *
+ * <p>Users read by ID and users read by search are cached separately, since the user read and the
+ * user search API return different details. A TTL of zero disables the respective cache.
+ *
+ * <p>Concurrent reads and concurrent searches of users by IDs which miss the cache are each
+ * combined into one search: while one search is running, the IDs of further requests are collected
+ * for at most {@code sunbird_user_org_batch_window_ms} and searched together. The IDs of one
+ * request are always searched together. Users read by ID get the registered and root organisation
+ * details which the user read API adds to the user, looked up with one organisation multi-get per
+ * search. Users which the search does not find are read through the user read API, and concurrent
+ * reads of the same user share one call. A window of zero reads and searches every request on its
+ * own.
+ */
+public class CachingUserOrgService implements UserOrgService {
+
+  private static final long DEFAULT_USER_TTL_MS = 60000;
+  private static final long DEFAULT_ORG_TTL_MS = 3600000;
+  private static final int DEFAULT_MAX_SIZE = 10000;
+  private static final int DEFAULT_BATCH_SIZE = 100;
+  private static final int DEFAULT_PARALLELISM = 4;
+  private static final long DEFAULT_BATCH_WINDOW_MS = 5;
+
+  private final UserOrgService delegate;
+  private final LocalCache<String, Map<String, Object>> userCache;
+  private final LocalCache<String, Map<String, Object>> userSearchCache;
+  private final LocalCache<String, Map<String, Object>> orgCache;
+  private final boolean userCacheEnabled;
+  private final boolean orgCacheEnabled;
+  private final int batchSize;
+  private final ExecutorService executor;
+  private final MicroBatchLoader<String, Map<String, Object>> userLoader;
+  private final MicroBatchLoader<String, Map<String, Object>> userReadLoader;
+  private final Map<String, CompletableFuture<Map<String, Object>>> userReads =
+      new ConcurrentHashMap<>();
+
+  public CachingUserOrgService(UserOrgService delegate) {
+    this(
+        delegate,
+        ConfigValueUtil.getLong(CourseJsonKey.USER_ORG_USER_CACHE_TTL_MS, DEFAULT_USER_TTL_MS),
+        ConfigValueUtil.getLong(CourseJsonKey.USER_ORG_ORG_CACHE_TTL_MS, DEFAULT_ORG_TTL_MS),
+        ConfigValueUtil.getInt(CourseJsonKey.USER_ORG_CACHE_MAX_SIZE, DEFAULT_MAX_SIZE),
+        ConfigValueUtil.getInt(CourseJsonKey.USER_ORG_BATCH_SIZE, DEFAULT_BATCH_SIZE),
+        ConfigValueUtil.getInt(CourseJsonKey.USER_ORG_PARALLELISM, DEFAULT_PARALLELISM),
+        ConfigValueUtil.getLong(CourseJsonKey.USER_ORG_BATCH_WINDOW_MS, DEFAULT_BATCH_WINDOW_MS));
+  }
+
+  CachingUserOrgService(
+      UserOrgService delegate,
+      long userTtlMillis,
+      long orgTtlMillis,
+      int maxSize,
+      int batchSize,
+      int parallelism,
+      long batchWindowMillis) {
+    this.delegate = delegate;
+    this.userCache = new LocalCache<>(maxSize, userTtlMillis);
+    this.userSearchCache = new LocalCache<>(maxSize, userTtlMillis);
+    this.orgCache = new LocalCache<>(maxSize, orgTtlMillis);
+    this.userCacheEnabled = userTtlMillis > 0;
+    this.orgCacheEnabled = orgTtlMillis > 0;
+    this.batchSize = Math.max(1, batchSize);
+    this.executor = createExecutor(parallelism, "user-org-lookup");
+    // searches run on their own threads, since lookup threads wait for them
+    ExecutorService batchExecutor =
+        batchWindowMillis > 0 ? createExecutor(parallelism, "user-search-batch") : null;
+    this.userLoader =
+        batchWindowMillis > 0
+            ? new MicroBatchLoader<>(
+                this::searchUsers, batchWindowMillis, this.batchSize, batchExecutor)
+            : null;
+    this.userReadLoader =
+        batchWindowMillis > 0
+            ? new MicroBatchLoader<>(
+                this::searchUsersToRead, batchWindowMillis, this.batchSize, batchExecutor)
+            : null;
+  }
+
+  @Override
+  public Map<String, Object> getOrganisationById(String id) {
+    Map<String, Object> org = orgCacheEnabled ? orgCache.get(id) : null;
+    if (org == null) {
+      org = delegate.getOrganisationById(id);
+      put(orgCache, orgCacheEnabled, id, org);
+    }
+    return copy(org);
+  }
+
+  @Override
+  public List<Map<String, Object>> getOrganisationsByIds(List<String> ids) {
+    return getAll(ids, orgCache, orgCacheEnabled, delegate::getOrganisationsByIds);
+  }
+
+  @Override
+  public Map<String, Object> getUserById(String id) {
+    Map<String, Object> user = userCacheEnabled ? userCache.get(id) : null;
+    if (user == null) {
+      user = userReadLoader != null && StringUtils.isNotBlank(id) ? searchUserToRead(id) : null;
+      if (user == null) {
+        user = readUser(id);
+      }
+      put(userCache, userCacheEnabled, id, user);
+    }
+    return copy(user);
+  }
+
+  @Override
+  public List<Map<String, Object>> getUsersByIds(List<String> ids) {
+    return getAll(
+        ids,
+        userSearchCache,
+        userCacheEnabled,
+        userLoader != null ? this::searchUsersTogether : delegate::getUsersByIds);
+  }
+
+  @Override
+  public List<Map<String, Object>> getUsers(Map<String, Object> request) {
+    return delegate.getUsers(request);
+  }
+
+  public void invalidateAll() {
+    userCache.invalidateAll();
+    userSearchCache.invalidateAll();
+    orgCache.invalidateAll();
+  }
+
+  /**
+   * Returns the size and hit and miss counts of the user and organisation caches.
+   *
+   * @return Map of cache name and metrics
+   */
+  public Map<String, Object> getMetrics() {
+    Map<String, Object> metrics = new HashMap<>();
+    metrics.put("users", userCache.getMetrics());
+    metrics.put("userSearch", userSearchCache.getMetrics());
+    metrics.put("organisations", orgCache.getMetrics());
+    if (userLoader != null) {
+      metrics.put("userBatches", userLoader.getMetrics());
+      metrics.put("userReadBatches", userReadLoader.getMetrics());
+    }
+    return metrics;
+  }
+
+  private Map<String, Object> readUser(String id) {
+    if (StringUtils.isBlank(id)) {
+      return delegate.getUserById(id);
+    }
+    CompletableFuture<Map<String, Object>> read = new CompletableFuture<>();
+    CompletableFuture<Map<String, Object>> running = userReads.putIfAbsent(id, read);
+    if (running != null) {
+      try {
+        return running.join();
+      } catch (CompletionException e) {
+        throw unwrap(e);
+      }
+    }
+    try {
+      Map<String, Object> user = delegate.getUserById(id);
+      read.complete(user);
+      return user;
+    } catch (RuntimeException e) {
+      read.completeExceptionally(e);
+      throw e;
+    } finally {
+      userReads.remove(id, read);
+    }
+  }
+
+  /** Returns null if the search fails or does not find the user, so the caller reads the user. */
+  private Map<String, Object> searchUserToRead(String id) {
+    try {
+      return userReadLoader.load(id).join();
+    } catch (CompletionException e) {
+      ProjectLogger.log(
+          "CachingUserOrgService:searchUserToRead: Search failed for user "
+              + id
+              + ", reading the user, error message = "
+              + e.getCause().getMessage(),
+          e.getCause());
+      return null;
+    }
+  }
+
+  private List<Map<String, Object>> searchUsersTogether(List<String> ids) {
+    List<CompletableFuture<Map<String, Object>>> reads = userLoader.loadAll(ids);
+    List<Map<String, Object>> users = new ArrayList<>();
+    try {
+      for (CompletableFuture<Map<String, Object>> read : reads) {
+        Map<String, Object> user = read.join();
+        if (user != null) {
+          users.add(user);
+        }
+      }
+    } catch (CompletionException e) {
+      throw unwrap(e);
+    }
+    return users;
+  }
+
+  private Map<String, Map<String, Object>> searchUsers(List<String> ids) {
+    Map<String, Map<String, Object>> users = new HashMap<>();
+    for (Map<String, Object> user : nullToEmpty(delegate.getUsersByIds(ids))) {
+      String id = (String) user.get(JsonKey.ID);
+      if (StringUtils.isNotBlank(id)) {
+        users.put(id, user);
+      }
+    }
+    return users;
+  }
+
+  private Map<String, Map<String, Object>> searchUsersToRead(List<String> ids) {
+    Map<String, Map<String, Object>> users = searchUsers(ids);
+    addOrganisations(users.values());
+    return users;
+  }
+
+  /**
+   * Adds the details of the registered and root organisation of given users, as the user read API
+   * does, unless a user has them already.
+   */
+  private void addOrganisations(Collection<Map<String, Object>> users) {
+    Set<String> orgIds = new LinkedHashSet<>();
+    for (Map<String, Object> user : users) {
+      for (String key : new String[] {JsonKey.REGISTERED_ORG_ID, JsonKey.ROOT_ORG_ID}) {
+        Object orgId = user.get(key);
+        if (orgId instanceof String && StringUtils.isNotBlank((String) orgId)) {
+          orgIds.add((String) orgId);
+        }
+      }
+    }
+    Map<String, Map<String, Object>> orgs = new HashMap<>();
+    List<String> missingIds = new ArrayList<>();
+    for (String orgId : orgIds) {
+      Map<String, Object> org = orgCacheEnabled ? orgCache.get(orgId) : null;
+      if (org != null) {
+        orgs.put(orgId, org);
+      } else {
+        missingIds.add(orgId);
+      }
+    }
+    // read on this thread, as lookup threads may be waiting for this search
+    for (int from = 0; from < missingIds.size(); from += batchSize) {
+      List<String> chunk = missingIds.subList(from, Math.min(from + batchSize, missingIds.size()));
+      for (Map<String, Object> org : nullToEmpty(delegate.getOrganisationsByIds(chunk))) {
+        String orgId = (String) org.get(JsonKey.ID);
+        if (StringUtils.isNotBlank(orgId)) {
+          orgs.put(orgId, org);
+          put(orgCache, orgCacheEnabled, orgId, org);
+        }
+      }
+    }
+    for (Map<String, Object> user : users) {
+      Map<String, Object> registeredOrg = orgs.get(user.get(JsonKey.REGISTERED_ORG_ID));
+      if (registeredOrg != null) {
+        user.putIfAbsent(JsonKey.REGISTERED_ORG, copy(registeredOrg));
+      }
+      Map<String, Object> rootOrg = orgs.get(user.get(JsonKey.ROOT_ORG_ID));
+      if (rootOrg != null) {
+        user.putIfAbsent(JsonKey.ROOT_ORG, copy(rootOrg));
+      }
+    }
+  }
+
+  private List<Map<String, Object>> getAll(
+      List<String> ids,
+      LocalCache<String, Map<String, Object>> cache,
+      boolean enabled,
+      Function<List<String>, List<Map<String, Object>>> loader) {
+    if (CollectionUtils.isEmpty(ids)) {
+      return loader.apply(ids);
+    }
+    Set<String> distinctIds = new LinkedHashSet<>();
+    for (String id : ids) {
+      if (StringUtils.isNotBlank(id)) {
+        distinctIds.add(id);
+      }
+    }
+    Map<String, Map<String, Object>> found = new HashMap<>();
+    List<String> missingIds = new ArrayList<>();
+    for (String id : distinctIds) {
+      Map<String, Object> entry = enabled ? cache.get(id) : null;
+      if (entry != null) {
+        found.put(id, entry);
+      } else {
+        missingIds.add(id);
+      }
+    }
+    for (Map<String, Object> entry : load(missingIds, loader)) {
+      String id = (String) entry.get(JsonKey.ID);
+      if (StringUtils.isNotBlank(id)) {
+        found.put(id, entry);
+        put(cache, enabled, id, entry);
+      }
+    }
+    List<Map<String, Object>> result = new ArrayList<>();
+    for (String id : distinctIds) {
+      if (found.containsKey(id)) {
+        result.add(copy(found.get(id)));
+      }
+    }
+    return result;
+  }
+
+  private List<Map<String, Object>> load(
+      List<String> ids, Function<List<String>, List<Map<String, Object>>> loader) {
+    if (ids.isEmpty()) {
+      return Collections.emptyList();
+    }
+    if (ids.size() <= batchSize) {
+      return nullToEmpty(loader.apply(ids));
+    }
+    List<CompletableFuture<List<Map<String, Object>>>> chunks = new ArrayList<>();
+    for (int from = 0; from < ids.size(); from += batchSize) {
+      List<String> chunk = ids.subList(from, Math.min(from + batchSize, ids.size()));
+      chunks.add(CompletableFuture.supplyAsync(() -> loader.apply(chunk), executor));
+    }
+    List<Map<String, Object>> entries = new ArrayList<>();
+    try {
+      for (CompletableFuture<List<Map<String, Object>>> chunk : chunks) {
+        entries.addAll(nullToEmpty(chunk.join()));
+      }
+    } catch (CompletionException e) {
+      throw unwrap(e);
+    }
+    return entries;
+  }
+
+  private static ExecutorService createExecutor(int parallelism, String threadName) {
+    return Executors.newFixedThreadPool(
+        Math.max(1, parallelism),
+        runnable -> {
+          Thread thread = new Thread(runnable, threadName);
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  private static RuntimeException unwrap(CompletionException e) {
+    return e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+  }
+
+  private static List<Map<String, Object>> nullToEmpty(List<Map<String, Object>> entries) {
+    return entries != null ? entries : Collections.emptyList();
+  }
+
+  private static void put(
+      LocalCache<String, Map<String, Object>> cache,
+      boolean enabled,
+      String id,
+      Map<String, Object> entry) {
+    if (enabled && StringUtils.isNotBlank(id) && MapUtils.isNotEmpty(entry)) {
+      cache.put(id, copy(entry));
+    }
+  }
+
+  /** Callers may modify returned maps, so cached maps are never handed out. */
+  private static Map<String, Object> copy(Map<String, Object> entry) {
+    return entry != null ? new HashMap<>(entry) : null;
+  }
+}
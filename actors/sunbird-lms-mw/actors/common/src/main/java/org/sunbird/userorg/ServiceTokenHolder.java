@@ -0,0 +1,150 @@
+package org.sunbird.userorg;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Base64;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import org.apache.commons.lang3.StringUtils;
+import org.sunbird.common.models.util.LoggerEnum;
+import org.sunbird.common.models.util.ProjectLogger;
+
+/**
+ * Caches the access token of the service account. The token is reused until shortly before it
+ * expires; from then on callers still get the cached token while a refresh runs in the background.
+ * An expired or invalidated token is refreshed by the first caller, and concurrent callers wait for
+ * that refresh instead of logging in again.
+ *
+ * <p>The expiry is read from the exp claim of the token. Tokens without a readable expiry are kept
+ * for the configured time to live.
+ */
+class ServiceTokenHolder {
+
+  private static final ObjectMapper mapper = new ObjectMapper();
+  private static final ExecutorService refresher =
+      Executors.newSingleThreadExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "service-token-refresh");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  private final Supplier<String> login;
+  private final long ttlMs;
+  private final long refreshMarginMs;
+  private final Object refreshLock = new Object();
+  private final AtomicBoolean backgroundRefresh = new AtomicBoolean(false);
+  private volatile Token current = null;
+
+  /**
+   * @param login Logs in and returns a new token
+   * @param ttlMs Time to live of tokens without a readable expiry
+   * @param refreshMarginMs Time before expiry from which the token is refreshed in the background
+   */
+  ServiceTokenHolder(Supplier<String> login, long ttlMs, long refreshMarginMs) {
+    this.login = login;
+    this.ttlMs = ttlMs;
+    this.refreshMarginMs = refreshMarginMs;
+  }
+
+  /** @return Valid token, or the result of a failed login */
+  String getToken() {
+    Token token = current;
+    long now = System.currentTimeMillis();
+    if (token != null && now < token.expiresAt) {
+      if (now >= token.refreshAt) {
+        refreshInBackground();
+      }
+      return token.value;
+    }
+    synchronized (refreshLock) {
+      token = current;
+      if (token != null && System.currentTimeMillis() < token.expiresAt) {
+        return token.value;
+      }
+      return refresh();
+    }
+  }
+
+  /**
+   * Drops given token if it is still the cached one, e.g. after it was rejected.
+   *
+   * @param token Rejected token
+   */
+  void invalidate(String token) {
+    synchronized (refreshLock) {
+      if (current != null && current.value.equals(token)) {
+        current = null;
+      }
+    }
+  }
+
+  private void refreshInBackground() {
+    if (!backgroundRefresh.compareAndSet(false, true)) {
+      return;
+    }
+    refresher.execute(
+        () -> {
+          try {
+            synchronized (refreshLock) {
+              Token token = current;
+              if (token == null || System.currentTimeMillis() >= token.refreshAt) {
+                refresh();
+              }
+            }
+          } catch (Exception e) {
+            ProjectLogger.log(
+                "ServiceTokenHolder:refreshInBackground: Token refresh failed with error message = "
+                    + e.getMessage(),
+                e);
+          } finally {
+            backgroundRefresh.set(false);
+          }
+        });
+  }
+
+  private String refresh() {
+    String value = login.get();
+    if (StringUtils.isBlank(value)) {
+      ProjectLogger.log(
+          "ServiceTokenHolder:refresh: Login did not return a token", LoggerEnum.ERROR.name());
+      return value;
+    }
+    long now = System.currentTimeMillis();
+    long expiresAt = getExpiry(value, now);
+    long margin = Math.max(0, Math.min(refreshMarginMs, (expiresAt - now) / 2));
+    current = new Token(value, expiresAt, expiresAt - margin);
+    return value;
+  }
+
+  private long getExpiry(String token, long now) {
+    String[] parts = token.split("\\.");
+    if (parts.length == 3) {
+      try {
+        JsonNode exp = mapper.readTree(Base64.getUrlDecoder().decode(parts[1])).get("exp");
+        if (exp != null && exp.canConvertToLong()) {
+          return exp.asLong() * 1000;
+        }
+      } catch (Exception e) {
+        ProjectLogger.log(
+            "ServiceTokenHolder:getExpiry: Unable to read token expiry " + e.getMessage(),
+            LoggerEnum.INFO.name());
+      }
+    }
+    return now + ttlMs;
+  }
+
+  private static class Token {
+    private final String value;
+    private final long expiresAt;
+    private final long refreshAt;
+
+    private Token(String value, long expiresAt, long refreshAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+      this.refreshAt = refreshAt;
+    }
+  }
+}
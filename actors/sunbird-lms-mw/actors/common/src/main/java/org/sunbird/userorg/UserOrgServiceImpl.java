@@ -11,16 +11,20 @@ import static org.sunbird.common.responsecode.ResponseCode.errorProcessingReques
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mashape.unirest.http.HttpMethod;
-import com.mashape.unirest.http.HttpResponse;
-import com.mashape.unirest.http.Unirest;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import org.apache.commons.lang3.StringUtils;
 import org.sunbird.common.exception.ProjectCommonException;
+import org.sunbird.common.http.OutboundHttpClient;
+import org.sunbird.common.http.OutboundHttpClients;
+import org.sunbird.common.http.OutboundHttpResponse;
 import org.sunbird.common.models.response.Response;
 import org.sunbird.common.models.util.JsonKey;
 import org.sunbird.common.responsecode.ResponseCode;
+import org.sunbird.learner.constants.CourseJsonKey;
+import org.sunbird.learner.util.ConfigValueUtil;
+import org.sunbird.learner.util.UserRootOrgCache;
 import org.sunbird.services.sso.SSOManager;
 import org.sunbird.services.sso.SSOServiceFactory;
 
@@ -29,14 +33,28 @@ public class UserOrgServiceImpl implements UserOrgService {
   private SSOManager ssoManager = SSOServiceFactory.getInstance();
   private ObjectMapper mapper = new ObjectMapper();
   private static final String FORWARD_SLASH = "/";
+  private static final String X_AUTHENTICATED_USER_TOKEN = "x-authenticated-user-token";
+  private static final long DEFAULT_TOKEN_TTL_MS = 300000;
+  private static final long DEFAULT_TOKEN_REFRESH_MARGIN_MS = 60000;
+
+  private final ServiceTokenHolder tokenHolder =
+      new ServiceTokenHolder(
+          () ->
+              ssoManager.login(
+                  getConfigValue(JsonKey.SUNBIRD_SSO_USERNAME),
+                  getConfigValue(JsonKey.SUNBIRD_SSO_PASSWORD)),
+          ConfigValueUtil.getLong(CourseJsonKey.SSO_TOKEN_TTL_MS, DEFAULT_TOKEN_TTL_MS),
+          ConfigValueUtil.getLong(
+              CourseJsonKey.SSO_TOKEN_REFRESH_MARGIN_MS, DEFAULT_TOKEN_REFRESH_MARGIN_MS));
 
   private static UserOrgService instance = null;
 
+  /** @return Shared instance, which caches users and organisations */
   public static UserOrgService getInstance() {
     if (instance == null) {
       synchronized (UserOrgServiceImpl.class) {
         if (instance == null) {
-          instance = new UserOrgServiceImpl();
+          instance = new CachingUserOrgService(new UserOrgServiceImpl());
         }
       }
     }
@@ -59,7 +77,7 @@ public class UserOrgServiceImpl implements UserOrgService {
       Map<String, String> headers) {
     Response response = null;
     String requestUrl = getConfigValue(SUNBIRD_USER_ORG_API_BASE_URL) + requestAPI;
-    HttpResponse<String> httpResponse = null;
+    OutboundHttpResponse httpResponse = null;
     String responseBody = null;
     log(
         "UserOrgServiceImpl:getResponse:Sending "
@@ -70,15 +88,22 @@ public class UserOrgServiceImpl implements UserOrgService {
     try {
       String reqBody = mapper.writeValueAsString(requestMap);
       log("UserOrgServiceImpl:getResponse:Sending Request Body=" + reqBody, INFO.name());
+      OutboundHttpClient client = OutboundHttpClients.get(OutboundHttpClients.USER_ORG);
       if (HttpMethod.POST.equals(requestType)) {
-        httpResponse = Unirest.post(requestUrl).headers(headers).body(reqBody).asString();
+        httpResponse = client.postSync(requestUrl, headers, reqBody);
       }
       if (HttpMethod.GET.equals(requestType)) {
-        httpResponse = Unirest.get(requestUrl).headers(headers).asString();
+        httpResponse = client.getSync(requestUrl, headers);
       }
       log(
           "UserOrgServiceImpl:getResponse Response Status : " + httpResponse.getStatus(),
           ERROR.name());
+      if (httpResponse.getStatus() == ResponseCode.UNAUTHORIZED.getResponseCode()) {
+        throw new ProjectCommonException(
+            ResponseCode.unAuthorized.getErrorCode(),
+            ResponseCode.unAuthorized.getErrorMessage(),
+            ResponseCode.UNAUTHORIZED.getResponseCode());
+      }
       if (StringUtils.isBlank(httpResponse.getBody())) {
         throwServerErrorException(
             ResponseCode.SERVER_ERROR, errorProcessingRequest.getErrorMessage());
@@ -116,6 +141,33 @@ public class UserOrgServiceImpl implements UserOrgService {
     return response;
   }
 
+  /**
+   * Sends a request with the access token of the service account. A request rejected as
+   * unauthorised is sent once more with a new token.
+   */
+  private Response getAuthenticatedUserOrgResponse(
+      String requestAPI,
+      HttpMethod requestType,
+      Map<String, Object> requestMap,
+      Map<String, String> headers) {
+    String token = tokenHolder.getToken();
+    headers.put(X_AUTHENTICATED_USER_TOKEN, token);
+    try {
+      return getUserOrgResponse(requestAPI, requestType, requestMap, headers);
+    } catch (ProjectCommonException e) {
+      if (e.getResponseCode() != ResponseCode.UNAUTHORIZED.getResponseCode()) {
+        throw e;
+      }
+      log(
+          "UserOrgServiceImpl:getAuthenticatedUserOrgResponse: Token rejected, retrying with a"
+              + " new token",
+          INFO.name());
+      tokenHolder.invalidate(token);
+      headers.put(X_AUTHENTICATED_USER_TOKEN, tokenHolder.getToken());
+      return getUserOrgResponse(requestAPI, requestType, requestMap, headers);
+    }
+  }
+
   private Map<String, Object> getRequestMap(Map<String, Object> filterlist) {
     Map<String, Object> requestMap = new HashMap<>();
     Map<String, Object> request = new HashMap<>();
@@ -158,14 +210,11 @@ public class UserOrgServiceImpl implements UserOrgService {
     filterlist.put(ID, id);
     Map<String, Object> requestMap = getRequestMap(filterlist);
     Map<String, String> headers = getdefaultHeaders();
-    headers.put(
-        "x-authenticated-user-token",
-        ssoManager.login(
-            getConfigValue(JsonKey.SUNBIRD_SSO_USERNAME),
-            getConfigValue(JsonKey.SUNBIRD_SSO_PASSWORD)));
     String relativeUrl = getConfigValue(SUNBIRD_GET_SINGLE_USER_API) + FORWARD_SLASH + id;
-    Response response = getUserOrgResponse(relativeUrl, HttpMethod.GET, requestMap, headers);
+    Response response =
+        getAuthenticatedUserOrgResponse(relativeUrl, HttpMethod.GET, requestMap, headers);
     Map<String, Object> userMap = (Map<String, Object>) response.get(RESPONSE);
+    UserRootOrgCache.getInstance().put(userMap);
     return userMap;
   }
 
@@ -175,16 +224,12 @@ public class UserOrgServiceImpl implements UserOrgService {
     filterlist.put(ID, ids);
     Map<String, Object> requestMap = getRequestMap(filterlist);
     Map<String, String> headers = getdefaultHeaders();
-    headers.put(
-        "x-authenticated-user-token",
-        ssoManager.login(
-            getConfigValue(JsonKey.SUNBIRD_SSO_USERNAME),
-            getConfigValue(JsonKey.SUNBIRD_SSO_PASSWORD)));
     Response response =
-        getUserOrgResponse(
+        getAuthenticatedUserOrgResponse(
             getConfigValue(SUNBIRD_GET_MULTIPLE_USER_API), HttpMethod.POST, requestMap, headers);
     Map<String, Object> userMap = (Map<String, Object>) response.get(RESPONSE);
     List<Map<String, Object>> userlist = (List<Map<String, Object>>) userMap.get(CONTENT);
+    UserRootOrgCache.getInstance().putAll(userlist);
     return userlist;
   }
 
@@ -192,16 +237,12 @@ public class UserOrgServiceImpl implements UserOrgService {
     Map<String, Object> requestMap = new HashMap<>();
     requestMap.put(JsonKey.REQUEST, request);
     Map<String, String> headers = getdefaultHeaders();
-    headers.put(
-        "x-authenticated-user-token",
-        ssoManager.login(
-            getConfigValue(JsonKey.SUNBIRD_SSO_USERNAME),
-            getConfigValue(JsonKey.SUNBIRD_SSO_PASSWORD)));
     Response response =
-        getUserOrgResponse(
+        getAuthenticatedUserOrgResponse(
             getConfigValue(SUNBIRD_GET_MULTIPLE_USER_API), HttpMethod.POST, requestMap, headers);
     Map<String, Object> userMap = (Map<String, Object>) response.get(RESPONSE);
     List<Map<String, Object>> userlist = (List<Map<String, Object>>) userMap.get(CONTENT);
+    UserRootOrgCache.getInstance().putAll(userlist);
     return userlist;
   }
 }
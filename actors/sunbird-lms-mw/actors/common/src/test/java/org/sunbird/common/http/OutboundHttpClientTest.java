@@ -0,0 +1,144 @@
+package org.sunbird.common.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.http.client.methods.HttpGet;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OutboundHttpClientTest {
+
+  private HttpServer server;
+  private ExecutorService serverExecutor;
+  private OutboundHttpClient client;
+  private String baseUrl;
+
+  @Before
+  public void setUp() throws IOException {
+    serverExecutor = Executors.newCachedThreadPool();
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/ok", exchange -> respond(exchange, 200, "{\"result\":{}}"));
+    server.createContext("/error", exchange -> respond(exchange, 500, "{\"error\":\"failed\"}"));
+    server.createContext(
+        "/slow",
+        exchange -> {
+          try {
+            Thread.sleep(2000);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          respond(exchange, 200, "{}");
+        });
+    server.setExecutor(serverExecutor);
+    server.start();
+    baseUrl = "http://localhost:" + server.getAddress().getPort();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    if (client != null) {
+      client.close();
+    }
+    server.stop(0);
+    serverExecutor.shutdownNow();
+  }
+
+  @Test
+  public void testPostSyncReturnsResponse() throws IOException {
+    client = createClient(5000, 5000, 5000, 0);
+    OutboundHttpResponse response = client.postSync(baseUrl + "/ok", null, "{}");
+
+    Assert.assertEquals(200, response.getStatus());
+    Assert.assertEquals("{\"result\":{}}", response.getBody());
+    Assert.assertEquals(1L, client.getMetrics().get("requests"));
+    Assert.assertEquals(0L, client.getMetrics().get("errorResponses"));
+  }
+
+  @Test
+  public void testErrorStatusIsReturnedAndCounted() throws IOException {
+    client = createClient(5000, 5000, 5000, 0);
+    OutboundHttpResponse response = client.getSync(baseUrl + "/error", null);
+
+    Assert.assertEquals(500, response.getStatus());
+    Assert.assertEquals(1L, client.getMetrics().get("errorResponses"));
+    Assert.assertEquals(0L, client.getMetrics().get("failures"));
+  }
+
+  @Test
+  public void testRefusedConnectionFails() throws IOException {
+    client = createClient(5000, 5000, 5000, 0);
+    int closedPort;
+    try (ServerSocket socket = new ServerSocket(0)) {
+      closedPort = socket.getLocalPort();
+    }
+    try {
+      client.getSync("http://localhost:" + closedPort + "/ok", null);
+      Assert.fail("Request to a closed port must fail");
+    } catch (IOException e) {
+      Assert.assertEquals(1L, client.getMetrics().get("failures"));
+    }
+  }
+
+  @Test
+  public void testSocketTimeoutFails() {
+    client = createClient(5000, 200, 5000, 0);
+    try {
+      client.getSync(baseUrl + "/slow", null);
+      Assert.fail("Request must time out");
+    } catch (IOException e) {
+      Assert.assertTrue(e instanceof InterruptedIOException);
+      Assert.assertEquals(1L, client.getMetrics().get("timeouts"));
+    }
+  }
+
+  @Test
+  public void testRequestTimeoutBoundsSyncCall() {
+    client = createClient(5000, 5000, 5000, 200);
+    long startTime = System.currentTimeMillis();
+    try {
+      client.getSync(baseUrl + "/slow", null);
+      Assert.fail("Request must time out");
+    } catch (IOException e) {
+      Assert.assertTrue(e instanceof InterruptedIOException);
+      Assert.assertTrue(System.currentTimeMillis() - startTime < 2000);
+      Assert.assertEquals(1L, client.getMetrics().get("timeouts"));
+    }
+  }
+
+  @Test
+  public void testRequestWaitsAtMostPoolTimeoutForConnection() {
+    client = createClient(5000, 5000, 200, 0);
+    client.execute(new HttpGet(baseUrl + "/slow"));
+    try {
+      client.getSync(baseUrl + "/ok", null);
+      Assert.fail("Request must not get a connection while the only one is leased");
+    } catch (IOException e) {
+      Assert.assertTrue(e instanceof InterruptedIOException);
+      Assert.assertEquals(1, client.getMetrics().get("leasedConnections"));
+    }
+  }
+
+  private OutboundHttpClient createClient(
+      int connectTimeout, int socketTimeout, int poolTimeout, long requestTimeout) {
+    return new OutboundHttpClient(
+        "test", connectTimeout, socketTimeout, poolTimeout, 1, 1, 60000, requestTimeout);
+  }
+
+  private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+}
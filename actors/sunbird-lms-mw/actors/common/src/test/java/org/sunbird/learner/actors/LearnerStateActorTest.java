@@ -42,6 +42,7 @@ import org.sunbird.common.responsecode.ResponseCode;
 import org.sunbird.dto.SearchDTO;
 import org.sunbird.helper.ServiceFactory;
 import org.sunbird.learner.util.ContentSearchUtil;
+import org.sunbird.learner.util.CourseMetadataCache;
 import org.sunbird.learner.util.EkStepRequestUtil;
 import scala.concurrent.Promise;
 
@@ -75,6 +76,7 @@ public class LearnerStateActorTest {
 
   @Before
   public void beforeTest() throws IOException {
+    CourseMetadataCache.getInstance().invalidateAll();
     cassandraOperation = mock(CassandraOperation.class);
     PowerMockito.mockStatic(ServiceFactory.class);
     PowerMockito.mockStatic(EsClientFactory.class);
@@ -282,8 +284,13 @@ public class LearnerStateActorTest {
     courses.put(JsonKey.CONTENTS, l1);
 
     when(ContentSearchUtil.searchContentSync(
-            Mockito.anyString(), Mockito.anyString(), Mockito.anyMap()))
+            Mockito.anyString(), Mockito.anyString(), Mockito.anyMap(), Mockito.anySet()))
         .thenReturn(courses);
+    Promise<Map<String, Object>> promiseCourses = Futures.promise();
+    promiseCourses.success(courses);
+    when(ContentSearchUtil.searchContent(
+            Mockito.anyString(), Mockito.anyString(), Mockito.anyMap(), Mockito.any()))
+        .thenReturn(promiseCourses.future());
   }
 
   private void mockEkstepContentUtil() {
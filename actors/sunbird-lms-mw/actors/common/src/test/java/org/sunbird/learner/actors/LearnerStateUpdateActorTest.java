@@ -39,6 +39,7 @@ import org.sunbird.helper.ServiceFactory;
 import org.sunbird.kafka.client.InstructionEventGenerator;
 import org.sunbird.kafka.client.KafkaClient;
 import org.sunbird.learner.util.ContentSearchUtil;
+import org.sunbird.learner.util.CourseBatchCache;
 import scala.concurrent.Promise;
 
 @RunWith(PowerMockRunner.class)
@@ -74,6 +75,7 @@ public class LearnerStateUpdateActorTest {
 
   @Before
   public void beforeTest() throws Exception {
+    CourseBatchCache.getInstance().invalidateAll();
 
     PowerMockito.mockStatic(ServiceFactory.class);
     PowerMockito.mockStatic(ElasticSearchHelper.class);
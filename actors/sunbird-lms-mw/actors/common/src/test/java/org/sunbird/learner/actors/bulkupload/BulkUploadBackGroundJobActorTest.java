@@ -0,0 +1,145 @@
+package org.sunbird.learner.actors.bulkupload;
+
+import static org.powermock.api.mockito.PowerMockito.mock;
+import static org.powermock.api.mockito.PowerMockito.when;
+
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import akka.dispatch.Futures;
+import akka.testkit.TestActorRef;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+import org.powermock.reflect.Whitebox;
+import org.sunbird.cassandraimpl.CassandraOperationImpl;
+import org.sunbird.common.factory.EsClientFactory;
+import org.sunbird.common.inf.ElasticSearchService;
+import org.sunbird.common.models.util.JsonKey;
+import org.sunbird.helper.ServiceFactory;
+import org.sunbird.learner.actors.coursebatch.dao.UserCoursesDao;
+import org.sunbird.userorg.UserOrgService;
+import org.sunbird.userorg.UserOrgServiceImpl;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({ServiceFactory.class, EsClientFactory.class, UserOrgServiceImpl.class})
+@PowerMockIgnore("javax.management.*")
+public class BulkUploadBackGroundJobActorTest {
+
+  private static final String BATCH_ID = "batch1";
+  private static final String ROOT_ORG_ID = "rootOrg1";
+
+  private static ActorSystem system;
+
+  private UserCoursesDao userCoursesDao;
+  private UserOrgService userOrgService;
+  private ElasticSearchService esService;
+  private BulkUploadBackGroundJobActor actor;
+
+  @BeforeClass
+  public static void setUp() {
+    system = ActorSystem.create("system");
+  }
+
+  @AfterClass
+  public static void tearDown() {
+    system.terminate();
+  }
+
+  @Before
+  public void beforeEachTest() {
+    PowerMockito.mockStatic(ServiceFactory.class);
+    when(ServiceFactory.getInstance()).thenReturn(mock(CassandraOperationImpl.class));
+    esService = mock(ElasticSearchService.class);
+    PowerMockito.mockStatic(EsClientFactory.class);
+    when(EsClientFactory.getInstance(Mockito.anyString())).thenReturn(esService);
+    userOrgService = mock(UserOrgService.class);
+    PowerMockito.mockStatic(UserOrgServiceImpl.class);
+    when(UserOrgServiceImpl.getInstance()).thenReturn(userOrgService);
+    userCoursesDao = mock(UserCoursesDao.class);
+
+    TestActorRef<BulkUploadBackGroundJobActor> ref =
+        TestActorRef.create(system, Props.create(BulkUploadBackGroundJobActor.class));
+    actor = ref.underlyingActor();
+    Whitebox.setInternalState(actor, "userCourseDao", userCoursesDao);
+    Whitebox.setInternalState(actor, "userOrgService", userOrgService);
+    Whitebox.setInternalState(BulkUploadBackGroundJobActor.class, "esService", esService);
+  }
+
+  @Test
+  public void testEnrolInChunksReportsUsersWhoseInsertFailed() throws Exception {
+    List<String> userIds = Arrays.asList("user0", "user1", "user2");
+    when(userOrgService.getUsersByIds(Mockito.anyList())).thenReturn(getUsers(userIds));
+    when(userCoursesDao.read(Mockito.eq(BATCH_ID), Mockito.anyList()))
+        .thenReturn(Collections.emptyList());
+    when(userCoursesDao.batchInsert(Mockito.anyList()))
+        .thenThrow(new RuntimeException("batch insert failed"));
+    when(userCoursesDao.insert(Mockito.anyMap()))
+        .then(
+            invocation -> {
+              Map<String, Object> record = (Map<String, Object>) invocation.getArguments()[0];
+              if ("user1".equals(record.get(JsonKey.USER_ID))) {
+                throw new RuntimeException("insert failed");
+              }
+              return null;
+            });
+    when(esService.upsert(Mockito.anyString(), Mockito.anyString(), Mockito.anyMap()))
+        .thenReturn(Futures.successful(true));
+
+    Map<String, Object> failList = new HashMap<>();
+    Map<String, Object> successList = new HashMap<>();
+    Whitebox.invokeMethod(
+        actor,
+        "validateBatchUserListAndAddInChunks",
+        getCourseBatch(),
+        BATCH_ID,
+        userIds,
+        failList,
+        successList);
+
+    List<Map<String, Object>> passed =
+        (List<Map<String, Object>>) successList.get(JsonKey.SUCCESS_RESULT);
+    List<Map<String, Object>> failed =
+        (List<Map<String, Object>>) failList.get(JsonKey.FAILURE_RESULT);
+    Assert.assertEquals(2, passed.size());
+    Assert.assertEquals(JsonKey.SUCCESS, passed.get(0).get("user0"));
+    Assert.assertEquals(JsonKey.SUCCESS, passed.get(1).get("user2"));
+    Assert.assertEquals(1, failed.size());
+    Assert.assertEquals("insert failed", failed.get(0).get("user1"));
+    Mockito.verify(esService, Mockito.times(2))
+        .upsert(Mockito.anyString(), Mockito.anyString(), Mockito.anyMap());
+    Mockito.verify(esService, Mockito.never())
+        .upsert(Mockito.anyString(), Mockito.eq(BATCH_ID + "_user1"), Mockito.anyMap());
+  }
+
+  private Map<String, Object> getCourseBatch() {
+    Map<String, Object> courseBatch = new HashMap<>();
+    courseBatch.put(JsonKey.COURSE_ID, "course1");
+    courseBatch.put(JsonKey.COURSE_CREATED_FOR, Collections.singletonList(ROOT_ORG_ID));
+    return courseBatch;
+  }
+
+  private List<Map<String, Object>> getUsers(List<String> userIds) {
+    List<Map<String, Object>> users = new ArrayList<>();
+    for (String userId : userIds) {
+      Map<String, Object> user = new HashMap<>();
+      user.put(JsonKey.ID, userId);
+      user.put(JsonKey.ROOT_ORG_ID, ROOT_ORG_ID);
+      users.add(user);
+    }
+    return users;
+  }
+}
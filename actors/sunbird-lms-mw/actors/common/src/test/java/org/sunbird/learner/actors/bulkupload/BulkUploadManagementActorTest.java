@@ -7,6 +7,7 @@ import static org.powermock.api.mockito.PowerMockito.when;
 import akka.actor.ActorRef;
 import akka.actor.ActorSystem;
 import akka.actor.Props;
+import akka.testkit.TestActorRef;
 import akka.testkit.javadsl.TestKit;
 import java.io.File;
 import java.io.FileNotFoundException;
@@ -15,6 +16,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -25,6 +28,7 @@ import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PowerMockIgnore;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
+import org.powermock.reflect.Whitebox;
 import org.sunbird.cassandraimpl.CassandraOperationImpl;
 import org.sunbird.common.exception.ProjectCommonException;
 import org.sunbird.common.models.response.Response;
@@ -34,6 +38,10 @@ import org.sunbird.common.models.util.ProjectLogger;
 import org.sunbird.common.models.util.ProjectUtil;
 import org.sunbird.common.request.Request;
 import org.sunbird.helper.ServiceFactory;
+import org.sunbird.learner.actors.bulkupload.dao.BulkUploadProcessResultDao;
+import org.sunbird.learner.actors.bulkupload.model.BulkUploadProcessResult;
+import org.sunbird.learner.actors.bulkupload.model.BulkUploadProcessResultPage;
+import org.sunbird.learner.constants.CourseJsonKey;
 import org.sunbird.learner.util.Util;
 
 /** @author arvind. Junit test cases for bulk upload - user, org, batch. */
@@ -118,6 +126,130 @@ public class BulkUploadManagementActorTest {
     Assert.assertTrue(null != processId);
   }
 
+  @Test
+  public void testBatchBulkUploadSavesRowsAsTask() {
+    TestKit probe = new TestKit(system);
+    ActorRef subject = system.actorOf(props);
+
+    String headerLine = "batchId,userIds";
+    String firstLine = "batch78575ir8478,\"bcic783gfu239,nhhuc37i5t8\"";
+    String secondLine = "batch78575ir8479,h7884f7t8";
+    StringBuilder builder = new StringBuilder();
+    builder.append(headerLine).append("\n").append(firstLine).append("\n").append(secondLine);
+
+    Response insertResponse = createCassandraInsertSuccessResponse();
+    when(cassandraOperation.insertRecord(
+            Mockito.anyString(), Mockito.anyString(), Mockito.anyMap()))
+        .thenReturn(insertResponse);
+
+    Request reqObj = new Request();
+    reqObj.setOperation(ActorOperations.BULK_UPLOAD.getValue());
+    HashMap<String, Object> innerMap = new HashMap<>();
+    innerMap.put(JsonKey.CREATED_BY, USER_ID);
+    innerMap.put(JsonKey.OBJECT_TYPE, JsonKey.BATCH_LEARNER_ENROL);
+    innerMap.put(JsonKey.FILE, builder.toString().getBytes());
+    reqObj.getRequest().put(JsonKey.DATA, innerMap);
+
+    subject.tell(reqObj, probe.getRef());
+    Response res = probe.expectMsgClass(duration("10 second"), Response.class);
+    Assert.assertNotNull(res.get(JsonKey.PROCESS_ID));
+    Mockito.verify(cassandraOperation, Mockito.times(1))
+        .insertRecord(
+            Mockito.anyString(), Mockito.eq("bulk_upload_process_task"), Mockito.anyMap());
+  }
+
+  @Test
+  public void testBulkUploadGetStatusWithProgressCounts() {
+    Response response = getCassandraRecordByIdForBulkUploadResponse();
+    Map<String, Object> bulkUploadProcessMap =
+        ((List<Map<String, Object>>) response.get(JsonKey.RESPONSE)).get(0);
+    bulkUploadProcessMap.put(JsonKey.STATUS, ProjectUtil.BulkProcessStatus.IN_PROGRESS.getValue());
+    bulkUploadProcessMap.put("taskcount", 4);
+    bulkUploadProcessMap.put("completedtaskcount", 1);
+    bulkUploadProcessMap.put("successcount", 90);
+    bulkUploadProcessMap.put("failurecount", 10);
+    when(cassandraOperation.getRecordById(
+            Mockito.anyString(), Mockito.anyString(), Mockito.anyString(), Mockito.anyList()))
+        .thenReturn(response);
+    TestKit probe = new TestKit(system);
+    ActorRef subject = system.actorOf(props);
+    Request reqObj = new Request();
+    reqObj.setOperation(ActorOperations.GET_BULK_OP_STATUS.getValue());
+    reqObj.getRequest().put(JsonKey.PROCESS_ID, PROCESS_ID);
+    subject.tell(reqObj, probe.getRef());
+    Response res = probe.expectMsgClass(duration("10 second"), Response.class);
+    Map<String, Object> map = ((List<Map<String, Object>>) res.get(JsonKey.RESPONSE)).get(0);
+    Assert.assertEquals(4, map.get(CourseJsonKey.TASK_COUNT));
+    Assert.assertEquals(1, map.get(CourseJsonKey.COMPLETED_TASK_COUNT));
+    Assert.assertEquals(90, map.get(CourseJsonKey.SUCCESS_COUNT));
+    Assert.assertEquals(10, map.get(CourseJsonKey.FAILURE_COUNT));
+  }
+
+  @Test
+  public void testBulkUploadGetStatusSummary() {
+    Response response = getCassandraRecordByIdForBulkUploadResponse();
+    Map<String, Object> bulkUploadProcessMap =
+        ((List<Map<String, Object>>) response.get(JsonKey.RESPONSE)).get(0);
+    bulkUploadProcessMap.put(CourseJsonKey.TASK_COUNT, 2);
+    bulkUploadProcessMap.put(CourseJsonKey.SUCCESS_COUNT, 150);
+    bulkUploadProcessMap.put(CourseJsonKey.FAILURE_COUNT, 0);
+    when(cassandraOperation.getRecordById(
+            Mockito.anyString(), Mockito.anyString(), Mockito.anyString(), Mockito.anyList()))
+        .thenReturn(response);
+    TestKit probe = new TestKit(system);
+    ActorRef subject = system.actorOf(props);
+    Request reqObj = new Request();
+    reqObj.setOperation(ActorOperations.GET_BULK_OP_STATUS.getValue());
+    reqObj.getRequest().put(JsonKey.PROCESS_ID, PROCESS_ID);
+    reqObj.getContext().put(CourseJsonKey.SUMMARY, true);
+    subject.tell(reqObj, probe.getRef());
+    Response res = probe.expectMsgClass(duration("10 second"), Response.class);
+    Map<String, Object> map = ((List<Map<String, Object>>) res.get(JsonKey.RESPONSE)).get(0);
+    Assert.assertEquals(150, map.get(CourseJsonKey.SUCCESS_COUNT));
+    Assert.assertFalse(map.containsKey(JsonKey.SUCCESS_RESULT));
+    Mockito.verify(cassandraOperation)
+        .getRecordById(
+            Mockito.anyString(),
+            Mockito.anyString(),
+            Mockito.anyString(),
+            Mockito.eq(
+                Arrays.asList(
+                    JsonKey.ID,
+                    JsonKey.STATUS,
+                    JsonKey.OBJECT_TYPE,
+                    CourseJsonKey.TASK_COUNT,
+                    CourseJsonKey.COMPLETED_TASK_COUNT,
+                    CourseJsonKey.SUCCESS_COUNT,
+                    CourseJsonKey.FAILURE_COUNT)));
+  }
+
+  @Test
+  public void testBulkUploadGetStatusReturnsAllResultPages() {
+    BulkUploadProcessResultDao resultDao = mockCompletedChunkedUpload();
+    when(resultDao.readPage(
+            Mockito.eq(PROCESS_ID), Mockito.anyInt(), (String) Mockito.isNull()))
+        .thenReturn(getResultPage(0, "cursor1"));
+    when(resultDao.readPage(Mockito.eq(PROCESS_ID), Mockito.anyInt(), Mockito.eq("cursor1")))
+        .thenReturn(getResultPage(1, null));
+
+    Map<String, Object> map = getStatus(resultDao, null, null);
+    Assert.assertEquals(
+        "[{\"user0\":\"SUCCESS\"},{\"user1\":\"SUCCESS\"}]", map.get(JsonKey.SUCCESS_RESULT));
+    Assert.assertFalse(map.containsKey(CourseJsonKey.CURSOR));
+  }
+
+  @Test
+  public void testBulkUploadGetStatusWithLimitReturnsOnePage() {
+    BulkUploadProcessResultDao resultDao = mockCompletedChunkedUpload();
+    when(resultDao.readPage(PROCESS_ID, 1, null)).thenReturn(getResultPage(0, "cursor1"));
+
+    Map<String, Object> map = getStatus(resultDao, null, 1);
+    Assert.assertEquals("[{\"user0\":\"SUCCESS\"}]", map.get(JsonKey.SUCCESS_RESULT));
+    Assert.assertEquals("cursor1", map.get(CourseJsonKey.CURSOR));
+    Mockito.verify(resultDao, Mockito.times(1))
+        .readPage(Mockito.anyString(), Mockito.anyInt(), Mockito.anyString());
+  }
+
   @Test
   public void testBatchBulkUploadWithInvalidFileHeaders() {
 
@@ -150,6 +282,41 @@ public class BulkUploadManagementActorTest {
     Assert.assertTrue(null != res);
   }
 
+  private BulkUploadProcessResultDao mockCompletedChunkedUpload() {
+    Response response = getCassandraRecordByIdForBulkUploadResponse();
+    ((List<Map<String, Object>>) response.get(JsonKey.RESPONSE))
+        .get(0)
+        .put(CourseJsonKey.TASK_COUNT, 2);
+    when(cassandraOperation.getRecordById(
+            Mockito.anyString(), Mockito.anyString(), Mockito.anyString(), Mockito.anyList()))
+        .thenReturn(response);
+    return mock(BulkUploadProcessResultDao.class);
+  }
+
+  private Map<String, Object> getStatus(
+      BulkUploadProcessResultDao resultDao, String cursor, Integer limit) {
+    TestKit probe = new TestKit(system);
+    TestActorRef<BulkUploadManagementActor> subject = TestActorRef.create(system, props);
+    Whitebox.setInternalState(subject.underlyingActor(), "bulkUploadResultDao", resultDao);
+    Request reqObj = new Request();
+    reqObj.setOperation(ActorOperations.GET_BULK_OP_STATUS.getValue());
+    reqObj.getRequest().put(JsonKey.PROCESS_ID, PROCESS_ID);
+    reqObj.getContext().put(CourseJsonKey.CURSOR, cursor);
+    reqObj.getContext().put(JsonKey.LIMIT, limit);
+    subject.tell(reqObj, probe.getRef());
+    Response res = probe.expectMsgClass(duration("10 second"), Response.class);
+    return ((List<Map<String, Object>>) res.get(JsonKey.RESPONSE)).get(0);
+  }
+
+  private BulkUploadProcessResultPage getResultPage(int sequenceId, String nextCursor) {
+    BulkUploadProcessResult result = new BulkUploadProcessResult();
+    result.setProcessId(PROCESS_ID);
+    result.setSequenceId(sequenceId);
+    result.setSuccessResult("[{\"user" + sequenceId + "\":\"SUCCESS\"}]");
+    result.setFailureResult("[]");
+    return new BulkUploadProcessResultPage(Collections.singletonList(result), nextCursor);
+  }
+
   private Response createCassandraInsertSuccessResponse() {
     Response response = new Response();
     response.put(JsonKey.RESPONSE, JsonKey.SUCCESS);
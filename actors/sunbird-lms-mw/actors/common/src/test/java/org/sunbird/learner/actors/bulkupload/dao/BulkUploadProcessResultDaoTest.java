@@ -0,0 +1,145 @@
+package org.sunbird.learner.actors.bulkupload.dao;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.datastax.driver.core.ExecutionInfo;
+import com.datastax.driver.core.PagingState;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+import org.sunbird.cassandra.CassandraOperation;
+import org.sunbird.cassandraimpl.CassandraOperationImpl;
+import org.sunbird.common.exception.ProjectCommonException;
+import org.sunbird.common.models.util.JsonKey;
+import org.sunbird.helper.CassandraConnectionManager;
+import org.sunbird.helper.CassandraConnectionMngrFactory;
+import org.sunbird.helper.ServiceFactory;
+import org.sunbird.learner.actors.bulkupload.dao.impl.BulkUploadProcessResultDaoImpl;
+import org.sunbird.learner.actors.bulkupload.model.BulkUploadProcessResult;
+import org.sunbird.learner.actors.bulkupload.model.BulkUploadProcessResultPage;
+import org.sunbird.learner.constants.CourseJsonKey;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({ServiceFactory.class, CassandraConnectionMngrFactory.class})
+@PowerMockIgnore("javax.management.*")
+public class BulkUploadProcessResultDaoTest {
+
+  private static final String PROCESS_ID = "process1";
+  private static final String SUCCESS_RESULT = "[{\"batch1\":[{\"user1\":\"SUCCESS\"}]}]";
+  private static final String FAILURE_RESULT = "[]";
+
+  private CassandraOperation cassandraOperation;
+  private Session session;
+  private BulkUploadProcessResultDao bulkUploadResultDao;
+
+  @Before
+  public void beforeEachTest() {
+    PowerMockito.mockStatic(ServiceFactory.class);
+    cassandraOperation = mock(CassandraOperationImpl.class);
+    when(ServiceFactory.getInstance()).thenReturn(cassandraOperation);
+    PowerMockito.mockStatic(CassandraConnectionMngrFactory.class);
+    CassandraConnectionManager connectionManager = mock(CassandraConnectionManager.class);
+    session = mock(Session.class);
+    when(CassandraConnectionMngrFactory.getObject(Mockito.anyString()))
+        .thenReturn(connectionManager);
+    when(connectionManager.getSession(Mockito.anyString())).thenReturn(session);
+    bulkUploadResultDao = new BulkUploadProcessResultDaoImpl();
+  }
+
+  @Test
+  public void readPageReturnsResultsSavedCompressed() {
+    Map<String, Object> saved = create(0);
+    ByteBuffer successBytes = (ByteBuffer) saved.get(JsonKey.SUCCESS_RESULT);
+    // gzip header
+    Assert.assertEquals((byte) 0x1f, successBytes.get(0));
+    Assert.assertEquals((byte) 0x8b, successBytes.get(1));
+
+    ResultSet resultSet = mockRows(Arrays.asList(saved));
+    when(resultSet.getExecutionInfo().getPagingState()).thenReturn(null);
+    BulkUploadProcessResultPage page = bulkUploadResultDao.readPage(PROCESS_ID, 10, null);
+
+    Assert.assertEquals(1, page.getResults().size());
+    BulkUploadProcessResult result = page.getResults().get(0);
+    Assert.assertEquals(0, result.getSequenceId());
+    Assert.assertEquals(SUCCESS_RESULT, result.getSuccessResult());
+    Assert.assertEquals(FAILURE_RESULT, result.getFailureResult());
+    Assert.assertNull(page.getNextCursor());
+  }
+
+  @Test
+  public void readPageReturnsCursorOfNextPage() {
+    ResultSet resultSet = mockRows(Arrays.asList(create(0), create(1)));
+    PagingState pagingState = mock(PagingState.class);
+    when(pagingState.toString()).thenReturn("nextCursor");
+    when(resultSet.getExecutionInfo().getPagingState()).thenReturn(pagingState);
+
+    BulkUploadProcessResultPage page = bulkUploadResultDao.readPage(PROCESS_ID, 2, null);
+
+    Assert.assertEquals(2, page.getResults().size());
+    Assert.assertEquals(1, page.getResults().get(1).getSequenceId());
+    Assert.assertEquals("nextCursor", page.getNextCursor());
+    ArgumentCaptor<Statement> statement = ArgumentCaptor.forClass(Statement.class);
+    Mockito.verify(session).execute(statement.capture());
+    Assert.assertEquals(2, statement.getValue().getFetchSize());
+    Assert.assertNull(statement.getValue().getPagingState());
+  }
+
+  @Test(expected = ProjectCommonException.class)
+  public void readPageWithInvalidCursorFailure() {
+    mockRows(new ArrayList<>());
+    bulkUploadResultDao.readPage(PROCESS_ID, 2, "invalidCursor");
+  }
+
+  private Map<String, Object> create(int sequenceId) {
+    BulkUploadProcessResult result = new BulkUploadProcessResult();
+    result.setProcessId(PROCESS_ID);
+    result.setSequenceId(sequenceId);
+    result.setSuccessResult(SUCCESS_RESULT);
+    result.setFailureResult(FAILURE_RESULT);
+    bulkUploadResultDao.create(result);
+    ArgumentCaptor<Map> saved = ArgumentCaptor.forClass(Map.class);
+    Mockito.verify(cassandraOperation, Mockito.atLeastOnce())
+        .insertRecord(Mockito.anyString(), Mockito.anyString(), saved.capture());
+    return saved.getValue();
+  }
+
+  private ResultSet mockRows(List<Map<String, Object>> savedResults) {
+    ResultSet resultSet = mock(ResultSet.class);
+    when(session.execute(Mockito.any(Statement.class))).thenReturn(resultSet);
+    when(resultSet.getAvailableWithoutFetching()).thenReturn(savedResults.size());
+    ExecutionInfo executionInfo = mock(ExecutionInfo.class);
+    when(resultSet.getExecutionInfo()).thenReturn(executionInfo);
+    List<Row> rows = new ArrayList<>();
+    for (Map<String, Object> saved : savedResults) {
+      Row row = mock(Row.class);
+      when(row.getInt(CourseJsonKey.SEQUENCE_ID))
+          .thenReturn((int) saved.get(CourseJsonKey.SEQUENCE_ID));
+      when(row.getBytes(JsonKey.SUCCESS_RESULT))
+          .thenReturn((ByteBuffer) saved.get(JsonKey.SUCCESS_RESULT));
+      when(row.getBytes(JsonKey.FAILURE_RESULT))
+          .thenReturn((ByteBuffer) saved.get(JsonKey.FAILURE_RESULT));
+      rows.add(row);
+    }
+    Iterator<Row> rowIterator = rows.iterator();
+    when(resultSet.one()).then(invocation -> rowIterator.hasNext() ? rowIterator.next() : null);
+    return resultSet;
+  }
+}
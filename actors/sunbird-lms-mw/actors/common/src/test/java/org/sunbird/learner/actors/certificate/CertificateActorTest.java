@@ -30,6 +30,7 @@ import org.sunbird.common.models.response.Response;
 import org.sunbird.common.models.util.JsonKey;
 import org.sunbird.common.request.Request;
 import org.sunbird.kafka.client.InstructionEventGenerator;
+import org.sunbird.learner.util.CourseBatchCache;
 import scala.concurrent.Future;
 import scala.concurrent.Promise;
 
@@ -53,6 +54,7 @@ public class CertificateActorTest {
 
   @Before
   public void beforeEach() throws Exception {
+    CourseBatchCache.getInstance().invalidateAll();
     PowerMockito.mockStatic(EsClientFactory.class);
     PowerMockito.mockStatic(ElasticSearchHelper.class);
     PowerMockito.mockStatic(InstructionEventGenerator.class);
@@ -1,10 +1,18 @@
 package org.sunbird.learner.actors.coursebatch;
 
+import static org.powermock.api.mockito.PowerMockito.mock;
 import static org.powermock.api.mockito.PowerMockito.when;
 
 import akka.dispatch.Futures;
+import com.datastax.driver.core.ExecutionInfo;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -14,6 +22,7 @@ import org.junit.runner.RunWith;
 import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
+import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PowerMockIgnore;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
@@ -29,7 +38,10 @@ import org.sunbird.common.models.response.Response;
 import org.sunbird.common.models.util.JsonKey;
 import org.sunbird.common.models.util.ProjectUtil.EsType;
 import org.sunbird.common.request.Request;
+import org.sunbird.helper.CassandraConnectionManager;
+import org.sunbird.helper.CassandraConnectionMngrFactory;
 import org.sunbird.helper.ServiceFactory;
+import org.sunbird.learner.constants.CourseJsonKey;
 import org.sunbird.userorg.UserOrgServiceImpl;
 import scala.concurrent.Future;
 
@@ -100,7 +112,12 @@ public class CourseBatchUserManagementActorTest extends SunbirdApplicationActorT
   }
 
   @Test
-  @PrepareForTest({ServiceFactory.class, EsClientFactory.class, UserOrgServiceImpl.class})
+  @PrepareForTest({
+    ServiceFactory.class,
+    EsClientFactory.class,
+    UserOrgServiceImpl.class,
+    CassandraConnectionMngrFactory.class
+  })
   public void addUserToBatchSuccess() {
     group =
         MockerBuilder.getFreshMockerGroup()
@@ -143,11 +160,7 @@ public class CourseBatchUserManagementActorTest extends SunbirdApplicationActorT
             .stream()
             .map(uc -> (String) uc.get(JsonKey.USER_ID))
             .collect(Collectors.toList());
-    when(group
-            .getCassandraMockerService()
-            .getRecords(
-                Mockito.anyString(), Mockito.anyString(), Mockito.anyMap(), Mockito.anyList()))
-        .thenReturn(userCoursesWrapper.asCassandraResponse());
+    mockParticipantRows(availableUsers);
     when(group
             .getESMockerService()
             .upsert(
@@ -166,7 +179,11 @@ public class CourseBatchUserManagementActorTest extends SunbirdApplicationActorT
   }
 
   @Test
-  @PrepareForTest({ServiceFactory.class, EsClientFactory.class})
+  @PrepareForTest({
+    ServiceFactory.class,
+    EsClientFactory.class,
+    CassandraConnectionMngrFactory.class
+  })
   public void removeUserToBatchSuccess() {
     group =
         MockerBuilder.getFreshMockerGroup()
@@ -192,11 +209,7 @@ public class CourseBatchUserManagementActorTest extends SunbirdApplicationActorT
             .stream()
             .map(uc -> (String) uc.get(JsonKey.USER_ID))
             .collect(Collectors.toList());
-    when(group
-            .getCassandraMockerService()
-            .getRecords(
-                Mockito.anyString(), Mockito.anyString(), Mockito.anyMap(), Mockito.anyList()))
-        .thenReturn(userCoursesWrapper.asCassandraResponse());
+    mockParticipantRows(availableUsers);
     when(group
             .getESMockerService()
             .upsert(
@@ -232,4 +245,48 @@ public class CourseBatchUserManagementActorTest extends SunbirdApplicationActorT
     Response response = executeInTenSeconds(req, Response.class);
     Assert.assertNotNull(response);
   }
+
+  @Test
+  @PrepareForTest({ServiceFactory.class, CassandraConnectionMngrFactory.class})
+  public void getBatchParticipantsPageSuccess() {
+    group = MockerBuilder.getFreshMockerGroup().withCassandraMock(new CassandraMocker());
+    ResultSet resultSet = mockParticipantRows(Arrays.asList("user1", "user2"));
+    when(resultSet.getAvailableWithoutFetching()).thenReturn(2);
+    when(resultSet.getExecutionInfo()).thenReturn(mock(ExecutionInfo.class));
+    Request req = new Request();
+    HashMap<String, Object> innerMap = new HashMap<>();
+    innerMap.put(JsonKey.BATCH_ID, "randomBatchId");
+    innerMap.put(JsonKey.LIMIT, 2);
+    HashMap<String, Object> batchMap = new HashMap<>();
+    batchMap.put(JsonKey.BATCH, innerMap);
+    req.setOperation("getParticipants");
+    req.setRequest(batchMap);
+    Response response = executeInTenSeconds(req, Response.class);
+    Assert.assertNotNull(response);
+    Map<String, Object> result = (Map<String, Object>) response.get(JsonKey.BATCH);
+    Assert.assertEquals(2, (int) result.get(JsonKey.COUNT));
+    Assert.assertEquals(Arrays.asList("user1", "user2"), result.get(JsonKey.PARTICIPANTS));
+    Assert.assertFalse(result.containsKey(CourseJsonKey.CURSOR));
+  }
+
+  private ResultSet mockParticipantRows(List<String> userIds) {
+    PowerMockito.mockStatic(CassandraConnectionMngrFactory.class);
+    CassandraConnectionManager connectionManager = mock(CassandraConnectionManager.class);
+    Session session = mock(Session.class);
+    ResultSet resultSet = mock(ResultSet.class);
+    when(CassandraConnectionMngrFactory.getObject(Mockito.anyString()))
+        .thenReturn(connectionManager);
+    when(connectionManager.getSession(Mockito.anyString())).thenReturn(session);
+    when(session.execute(Mockito.any(Statement.class))).thenReturn(resultSet);
+    List<Row> rows = new ArrayList<>();
+    for (String userId : userIds) {
+      Row row = mock(Row.class);
+      when(row.getString(JsonKey.USER_ID)).thenReturn(userId);
+      rows.add(row);
+    }
+    Iterator<Row> rowIterator = rows.iterator();
+    when(resultSet.iterator()).thenReturn(rows.iterator());
+    when(resultSet.one()).then(invocation -> rowIterator.hasNext() ? rowIterator.next() : null);
+    return resultSet;
+  }
 }
@@ -3,8 +3,15 @@ package org.sunbird.learner.actors.coursebatch.dao;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import com.datastax.driver.core.ExecutionInfo;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import org.junit.Assert;
@@ -19,15 +26,19 @@ import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 import org.sunbird.cassandra.CassandraOperation;
 import org.sunbird.cassandraimpl.CassandraOperationImpl;
+import org.sunbird.common.exception.ProjectCommonException;
 import org.sunbird.common.models.response.Response;
 import org.sunbird.common.models.util.JsonKey;
+import org.sunbird.helper.CassandraConnectionManager;
+import org.sunbird.helper.CassandraConnectionMngrFactory;
 import org.sunbird.helper.ServiceFactory;
 import org.sunbird.learner.actors.coursebatch.dao.impl.UserCoursesDaoImpl;
+import org.sunbird.models.user.courses.BatchParticipantsPage;
 import org.sunbird.models.user.courses.UserCourses;
 
 /** Created by rajatgupta on 08/04/19. */
 @RunWith(PowerMockRunner.class)
-@PrepareForTest({ServiceFactory.class})
+@PrepareForTest({ServiceFactory.class, CassandraConnectionMngrFactory.class})
 @PowerMockIgnore("javax.management.*")
 public class UserCoursesDaoTest {
   private CassandraOperation cassandraOperation;
@@ -77,6 +88,21 @@ public class UserCoursesDaoTest {
     Assert.assertEquals(null, response);
   }
 
+  @Test
+  public void readUserCoursesOfUsersSuccess() {
+    Map<String, Object> userCourses = new HashMap<>();
+    userCourses.put(JsonKey.USER_ID, "user1");
+    userCourses.put(JsonKey.BATCH_ID, "batch1");
+    Response readResponse = new Response();
+    readResponse.put(JsonKey.RESPONSE, Arrays.asList(userCourses));
+    when(cassandraOperation.getRecords(
+            Mockito.anyString(), Mockito.anyString(), Mockito.anyMap(), Mockito.any()))
+        .thenReturn(readResponse);
+    List<UserCourses> response = userCoursesDao.read("batch1", Arrays.asList("user1", "user2"));
+    Assert.assertEquals(1, response.size());
+    Assert.assertEquals("user1", response.get(0).getUserId());
+  }
+
   @Test
   public void createUserCoursesSuccess() {
     Map<String, Object> userCourseMap = new HashMap<>();
@@ -181,4 +207,62 @@ public class UserCoursesDaoTest {
     List<String> participants = userCoursesDao.getBatchParticipants(JsonKey.BATCH_ID, true);
     Assert.assertEquals(0, participants.size());
   }
+
+  @Test
+  public void getBatchParticipantsPageSuccess() {
+    ResultSet resultSet = mockParticipantRows(Arrays.asList("user1", "user2"));
+    when(resultSet.getAvailableWithoutFetching()).thenReturn(2);
+    ExecutionInfo executionInfo = mock(ExecutionInfo.class);
+    when(resultSet.getExecutionInfo()).thenReturn(executionInfo);
+    BatchParticipantsPage page =
+        userCoursesDao.getBatchParticipantsPage(JsonKey.BATCH_ID, true, 2, null);
+    Assert.assertEquals(Arrays.asList("user1", "user2"), page.getUserIds());
+    Assert.assertNull(page.getNextCursor());
+  }
+
+  @Test(expected = ProjectCommonException.class)
+  public void getBatchParticipantsPageWithInvalidCursorFailure() {
+    mockParticipantRows(Arrays.asList("user1"));
+    userCoursesDao.getBatchParticipantsPage(JsonKey.BATCH_ID, true, 2, "invalidCursor");
+  }
+
+  @Test
+  public void streamBatchParticipantsSuccess() {
+    mockParticipantRows(Arrays.asList("user1", "user2", "user3"));
+    Iterator<String> participants =
+        userCoursesDao.streamBatchParticipants(JsonKey.BATCH_ID, true, 2);
+    List<String> userIds = new ArrayList<>();
+    participants.forEachRemaining(userIds::add);
+    Assert.assertEquals(Arrays.asList("user1", "user2", "user3"), userIds);
+  }
+
+  @Test
+  public void countBatchParticipantsSuccess() {
+    ResultSet resultSet = mockParticipantRows(Arrays.asList());
+    Row row = mock(Row.class);
+    when(row.getLong(0)).thenReturn(3L);
+    when(resultSet.one()).thenReturn(row);
+    Assert.assertEquals(3L, userCoursesDao.countBatchParticipants(JsonKey.BATCH_ID, true));
+  }
+
+  private ResultSet mockParticipantRows(List<String> userIds) {
+    PowerMockito.mockStatic(CassandraConnectionMngrFactory.class);
+    CassandraConnectionManager connectionManager = mock(CassandraConnectionManager.class);
+    Session session = mock(Session.class);
+    ResultSet resultSet = mock(ResultSet.class);
+    when(CassandraConnectionMngrFactory.getObject(Mockito.anyString()))
+        .thenReturn(connectionManager);
+    when(connectionManager.getSession(Mockito.anyString())).thenReturn(session);
+    when(session.execute(Mockito.any(Statement.class))).thenReturn(resultSet);
+    List<Row> rows = new ArrayList<>();
+    for (String userId : userIds) {
+      Row row = mock(Row.class);
+      when(row.getString(JsonKey.USER_ID)).thenReturn(userId);
+      rows.add(row);
+    }
+    Iterator<Row> rowIterator = rows.iterator();
+    when(resultSet.iterator()).thenReturn(rows.iterator());
+    when(resultSet.one()).then(invocation -> rowIterator.hasNext() ? rowIterator.next() : null);
+    return resultSet;
+  }
 }
@@ -4,19 +4,26 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import akka.dispatch.Futures;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentMatcher;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PowerMockIgnore;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
+import org.powermock.reflect.Whitebox;
 import org.sunbird.cassandraimpl.CassandraOperationImpl;
 import org.sunbird.common.ElasticSearchRestHighImpl;
 import org.sunbird.common.exception.ProjectCommonException;
@@ -159,4 +166,131 @@ public class UserCourseServiceTest {
     when(esUtil.search(Mockito.anyObject(), Mockito.anyString())).thenReturn(promise.future());
     Assert.assertEquals(null, userCoursesService.getActiveUserCourses(JsonKey.USER_ID));
   }
+
+  @Test
+  public void enrollWritesUsersInChunksTest() {
+    Whitebox.setInternalState(userCoursesService, "userCourseDao", userCoursesDao);
+    mockEsUpsert();
+    Map<String, String> failures =
+        userCoursesService.enroll(JsonKey.BATCH_ID, JsonKey.COURSE_ID, getUserIds(25));
+    Assert.assertTrue(failures.isEmpty());
+    Mockito.verify(userCoursesDao, Mockito.times(3)).batchInsert(Mockito.anyList());
+  }
+
+  @Test
+  public void enrollReportsFailedUsersTest() {
+    Whitebox.setInternalState(userCoursesService, "userCourseDao", userCoursesDao);
+    mockEsUpsert();
+    when(userCoursesDao.batchInsert(Mockito.anyList())).thenThrow(new RuntimeException("failed"));
+    when(userCoursesDao.insert(Mockito.argThat(new UserIdMatcher("user1"))))
+        .thenThrow(new RuntimeException("failed"));
+    Map<String, String> failures =
+        userCoursesService.enroll(JsonKey.BATCH_ID, JsonKey.COURSE_ID, getUserIds(2));
+    Assert.assertEquals(1, failures.size());
+    Assert.assertTrue(failures.containsKey("user1"));
+  }
+
+  @Test
+  public void enrollReportsEsFailuresPerUserTest() {
+    Whitebox.setInternalState(userCoursesService, "userCourseDao", userCoursesDao);
+    mockEsUpsert();
+    when(esUtil.upsert(
+            Mockito.anyString(),
+            Mockito.eq(UserCoursesService.generateUserCourseESId(JsonKey.BATCH_ID, "user1")),
+            Mockito.anyMap()))
+        .thenReturn(Futures.successful(false));
+    Map<String, String> failures =
+        userCoursesService.enroll(JsonKey.BATCH_ID, JsonKey.COURSE_ID, getUserIds(3));
+    Assert.assertEquals(Collections.singleton("user1"), failures.keySet());
+    Mockito.verify(esUtil, Mockito.never()).bulkInsert(Mockito.anyString(), Mockito.anyList());
+  }
+
+  @Test
+  public void unenrollReportsUsersOfFailedChunkTest() {
+    Whitebox.setInternalState(userCoursesService, "userCourseDao", userCoursesDao);
+    mockEsUpsert();
+    UserCourses userCourses = new UserCourses();
+    userCourses.setActive(true);
+    when(userCoursesDao.read(Mockito.eq(JsonKey.BATCH_ID), Mockito.anyString()))
+        .thenReturn(userCourses);
+    when(userCoursesDao.read(JsonKey.BATCH_ID, "user15"))
+        .thenThrow(new RuntimeException("read failed"));
+    Map<String, String> failures = userCoursesService.unenroll(JsonKey.BATCH_ID, getUserIds(25));
+    Assert.assertEquals(10, failures.size());
+    Assert.assertEquals("read failed", failures.get("user10"));
+    Assert.assertEquals("read failed", failures.get("user19"));
+    Mockito.verify(userCoursesDao, Mockito.times(2)).batchUpdate(Mockito.anyList());
+  }
+
+  @Test
+  public void getParticipantsOfBatchesTest() {
+    Whitebox.setInternalState(userCoursesService, "userCourseDao", userCoursesDao);
+    when(userCoursesDao.streamBatchParticipants(
+            Mockito.eq("batch1"), Mockito.eq(true), Mockito.anyInt()))
+        .thenReturn(Arrays.asList("user1", "user2").iterator());
+    when(userCoursesDao.streamBatchParticipants(
+            Mockito.eq("batch2"), Mockito.eq(true), Mockito.anyInt()))
+        .thenReturn(Collections.<String>emptyIterator());
+    Map<String, List<String>> participants =
+        userCoursesService.getParticipantsOfBatches(Arrays.asList("batch1", "batch2", "batch1"));
+    Assert.assertEquals(2, participants.size());
+    Assert.assertEquals(Arrays.asList("user1", "user2"), participants.get("batch1"));
+    Assert.assertTrue(participants.get("batch2").isEmpty());
+  }
+
+  @Test
+  public void getEnrolledUsersReadsOnlyGivenUsersTest() {
+    Whitebox.setInternalState(userCoursesService, "userCourseDao", userCoursesDao);
+    UserCourses active = new UserCourses();
+    active.setUserId("user1");
+    active.setActive(true);
+    UserCourses inactive = new UserCourses();
+    inactive.setUserId("user2");
+    inactive.setActive(false);
+    when(userCoursesDao.read(Mockito.eq(JsonKey.BATCH_ID), Mockito.anyList()))
+        .thenReturn(Arrays.asList(active, inactive));
+    Set<String> enrolled = userCoursesService.getEnrolledUsers(JsonKey.BATCH_ID, getUserIds(3));
+    Assert.assertEquals(Collections.singleton("user1"), enrolled);
+    Mockito.verify(userCoursesDao).read(JsonKey.BATCH_ID, getUserIds(3));
+    Mockito.verify(userCoursesDao, Mockito.never())
+        .streamBatchParticipants(Mockito.anyString(), Mockito.anyBoolean(), Mockito.anyInt());
+  }
+
+  @Test
+  public void countParticipantsOfBatchesTest() {
+    Whitebox.setInternalState(userCoursesService, "userCourseDao", userCoursesDao);
+    when(userCoursesDao.countBatchParticipants("batch1", true)).thenReturn(5L);
+    when(userCoursesDao.countBatchParticipants("batch2", true)).thenReturn(0L);
+    Map<String, Long> counts =
+        userCoursesService.countParticipantsOfBatches(Arrays.asList("batch1", "batch2"));
+    Assert.assertEquals(Long.valueOf(5), counts.get("batch1"));
+    Assert.assertEquals(Long.valueOf(0), counts.get("batch2"));
+  }
+
+  private void mockEsUpsert() {
+    when(esUtil.upsert(Mockito.anyString(), Mockito.anyString(), Mockito.anyMap()))
+        .thenReturn(Futures.successful(true));
+  }
+
+  private List<String> getUserIds(int count) {
+    List<String> userIds = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      userIds.add("user" + i);
+    }
+    return userIds;
+  }
+
+  private static class UserIdMatcher extends ArgumentMatcher<Map<String, Object>> {
+
+    private final String userId;
+
+    UserIdMatcher(String userId) {
+      this.userId = userId;
+    }
+
+    @Override
+    public boolean matches(Object argument) {
+      return argument != null && userId.equals(((Map) argument).get(JsonKey.USER_ID));
+    }
+  }
 }
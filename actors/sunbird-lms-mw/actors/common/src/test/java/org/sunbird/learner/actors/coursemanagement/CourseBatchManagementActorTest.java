@@ -32,6 +32,7 @@ import org.sunbird.common.request.Request;
 import org.sunbird.common.responsecode.ResponseCode;
 import org.sunbird.helper.ServiceFactory;
 import org.sunbird.learner.actors.coursebatch.CourseBatchManagementActor;
+import org.sunbird.learner.util.CourseBatchCache;
 import org.sunbird.learner.util.CourseBatchUtil;
 import org.sunbird.learner.util.Util;
 
@@ -60,6 +61,7 @@ public class CourseBatchManagementActorTest {
 
   @Before
   public void setUp() {
+    CourseBatchCache.getInstance().invalidateAll();
     mockCassandraOperation = mock(CassandraOperationImpl.class);
     ActorRef actorRef = mock(ActorRef.class);
     PowerMockito.mockStatic(RequestRouter.class);
@@ -118,7 +120,8 @@ public class CourseBatchManagementActorTest {
         .thenReturn(mockUpdateRecordResponse);
 
     PowerMockito.doNothing().when(CourseBatchUtil.class);
-    CourseBatchUtil.syncCourseBatchForeground(BATCH_ID, new HashMap<>());
+    CourseBatchUtil.syncCourseBatchForeground(
+        BATCH_ID, new HashMap<>(), ActorOperations.UPDATE_BATCH.getValue());
 
     TestKit probe = new TestKit(system);
     ActorRef subject = system.actorOf(props);
@@ -0,0 +1,67 @@
+package org.sunbird.learner.actors.syncjobmanager;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import akka.dispatch.Futures;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.sunbird.common.inf.ElasticSearchService;
+import org.sunbird.common.models.util.JsonKey;
+
+public class EsBulkIndexerTest {
+
+  private static final String TYPE = "usercourses";
+
+  private ElasticSearchService esService;
+
+  @Before
+  public void setUp() {
+    esService = mock(ElasticSearchService.class);
+  }
+
+  @Test
+  public void flushIndexesBufferedDocs() {
+    when(esService.bulkInsert(Mockito.anyString(), Mockito.anyList()))
+        .thenReturn(Futures.successful(true));
+    EsBulkIndexer indexer = new EsBulkIndexer(esService, TYPE, 1024 * 1024, 2, 0);
+    EsBulkIndexer.Buffer buffer = indexer.newBuffer();
+    Assert.assertFalse(buffer.add(getDoc("1")));
+    Assert.assertTrue(buffer.add(getDoc("2")));
+    Assert.assertEquals(2, buffer.flush());
+    Assert.assertEquals(2, indexer.getIndexedCount());
+  }
+
+  @Test
+  public void failedBulkIsRetriedInHalves() {
+    when(esService.bulkInsert(Mockito.anyString(), Mockito.anyList()))
+        .then(
+            invocation -> {
+              List<Map<String, Object>> docs =
+                  (List<Map<String, Object>>) invocation.getArguments()[1];
+              boolean valid = docs.stream().noneMatch(doc -> "bad".equals(doc.get(JsonKey.ID)));
+              return Futures.successful(valid);
+            });
+    EsBulkIndexer indexer = new EsBulkIndexer(esService, TYPE, 1024 * 1024, 100, 0);
+    List<Map<String, Object>> docs = new ArrayList<>();
+    docs.add(getDoc("1"));
+    docs.add(getDoc("bad"));
+    docs.add(getDoc("3"));
+    docs.add(getDoc("4"));
+    Assert.assertEquals(3, indexer.index(docs));
+    Assert.assertEquals(3, indexer.getIndexedCount());
+    Assert.assertEquals(1, indexer.getFailedCount());
+  }
+
+  private Map<String, Object> getDoc(String id) {
+    Map<String, Object> doc = new HashMap<>();
+    doc.put(JsonKey.ID, id);
+    return doc;
+  }
+}
@@ -0,0 +1,277 @@
+package org.sunbird.learner.actors.syncjobmanager;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import akka.dispatch.Futures;
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.ColumnMetadata;
+import com.datastax.driver.core.KeyspaceMetadata;
+import com.datastax.driver.core.Metadata;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.SimpleStatement;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.TableMetadata;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+import org.sunbird.cassandra.CassandraOperation;
+import org.sunbird.common.CassandraUtil;
+import org.sunbird.common.inf.ElasticSearchService;
+import org.sunbird.common.models.util.JsonKey;
+import org.sunbird.common.models.util.ProjectUtil;
+import org.sunbird.helper.CassandraConnectionManager;
+import org.sunbird.helper.CassandraConnectionMngrFactory;
+import org.sunbird.learner.actors.coursebatch.service.UserCoursesService;
+import org.sunbird.learner.util.Util;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({CassandraConnectionMngrFactory.class, CassandraUtil.class})
+@PowerMockIgnore("javax.management.*")
+public class EsIncrementalSyncTest {
+
+  private static final String SYNC_ID = "sync1";
+  private static final String BATCH_ID = "batch1";
+  private static final long HOUR = 3600000L;
+
+  private final SimpleDateFormat dateFormat = ProjectUtil.getDateFormatter();
+  private final Date toDate = new Date();
+  private final Date fromDate = new Date(toDate.getTime() - HOUR);
+  private CassandraOperation cassandraOperation;
+  private ElasticSearchService esService;
+  private Session session;
+  private Map<String, List<Row>> rowsByColumn;
+  private Set<String> indexedIds;
+
+  @Before
+  public void setUp() {
+    cassandraOperation = mock(CassandraOperation.class);
+    indexedIds = new HashSet<>();
+    esService = mock(ElasticSearchService.class);
+    when(esService.bulkInsert(Mockito.anyString(), Mockito.anyList()))
+        .then(
+            invocation -> {
+              List<Map<String, Object>> docs =
+                  (List<Map<String, Object>>) invocation.getArguments()[1];
+              docs.forEach(doc -> indexedIds.add((String) doc.get(JsonKey.ID)));
+              return Futures.successful(true);
+            });
+
+    rowsByColumn = new HashMap<>();
+    session = mock(Session.class);
+    Cluster cluster = mock(Cluster.class);
+    Metadata metadata = mock(Metadata.class);
+    KeyspaceMetadata keyspace = mock(KeyspaceMetadata.class);
+    TableMetadata table = mock(TableMetadata.class);
+    ColumnMetadata partitionKey = mock(ColumnMetadata.class);
+    when(session.getCluster()).thenReturn(cluster);
+    when(cluster.getMetadata()).thenReturn(metadata);
+    when(metadata.getKeyspace(Mockito.anyString())).thenReturn(keyspace);
+    when(keyspace.getTable(Mockito.anyString())).thenReturn(table);
+    when(table.getPartitionKey()).thenReturn(Collections.singletonList(partitionKey));
+    when(partitionKey.getName()).thenReturn("id");
+    when(session.execute(Mockito.any(Statement.class)))
+        .then(
+            invocation -> {
+              SimpleStatement statement = (SimpleStatement) invocation.getArguments()[0];
+              String query = statement.getQueryString();
+              List<Row> rows = Collections.emptyList();
+              if (query.contains("lastupdatedon >= ?")) {
+                rows = getRows("lastupdatedon");
+              } else if (query.contains("token(id)")) {
+                // content consumption is only found in the first token range
+                if (Long.valueOf(Long.MIN_VALUE).equals(statement.getObject(0))) {
+                  rows = getRows("lastupdatedtime");
+                }
+              } else if (query.contains("IN ?")) {
+                rows = getRows("userid");
+              } else if (query.contains("datetime")) {
+                rows = getRows("datetime");
+              } else {
+                rows = getRows("updateddate");
+              }
+              ResultSet resultSet = mock(ResultSet.class);
+              when(resultSet.iterator()).thenReturn(rows.iterator());
+              return resultSet;
+            });
+    PowerMockito.mockStatic(CassandraConnectionMngrFactory.class);
+    CassandraConnectionManager connectionManager = mock(CassandraConnectionManager.class);
+    when(CassandraConnectionMngrFactory.getObject(Mockito.anyString()))
+        .thenReturn(connectionManager);
+    when(connectionManager.getSession(Mockito.anyString())).thenReturn(session);
+    PowerMockito.mockStatic(CassandraUtil.class);
+    when(CassandraUtil.fetchColumnsMapping(Mockito.any(ResultSet.class)))
+        .then(invocation -> new HashMap<>());
+  }
+
+  @Test
+  public void userCourseSyncReadsContentConsumptionByChangeTime() {
+    rowsByColumn.put("datetime", Arrays.asList(mockUserCourse("user1")));
+    rowsByColumn.put(
+        "lastupdatedon", Arrays.asList(mockUserCourse("user1"), mockUserCourse("user2")));
+    rowsByColumn.put("userid", Arrays.asList(mockUserCourse("user2")));
+
+    newSync(JsonKey.USER_COURSE, Util.dbInfoMap.get(JsonKey.LEARNER_COURSE_DB), fromDate).start();
+
+    Assert.assertEquals(
+        new HashSet<>(Arrays.asList(BATCH_ID + "_user1", BATCH_ID + "_user2")), indexedIds);
+    ArgumentCaptor<Statement> statements = ArgumentCaptor.forClass(Statement.class);
+    Mockito.verify(session, Mockito.times(3)).execute(statements.capture());
+    for (Statement statement : statements.getAllValues()) {
+      Assert.assertFalse(((SimpleStatement) statement).getQueryString().contains("token("));
+    }
+    SimpleStatement userRead = (SimpleStatement) statements.getAllValues().get(2);
+    Assert.assertEquals(Collections.singletonList("user2"), userRead.getObject(1));
+  }
+
+  @Test
+  public void userCourseSyncIndexesUserCoursesOfChangedContentConsumption() {
+    rowsByColumn.put("datetime", Arrays.asList(mockUserCourse("user1")));
+    rowsByColumn.put(
+        "lastupdatedtime",
+        Arrays.asList(
+            mockConsumption("user1", inWindow()),
+            mockConsumption("user2", inWindow()),
+            mockConsumption("user3", beforeWindow())));
+    rowsByColumn.put("userid", Arrays.asList(mockUserCourse("user2")));
+
+    // the window starts before content consumption had a change time, so it is scanned
+    newSync(JsonKey.USER_COURSE, Util.dbInfoMap.get(JsonKey.LEARNER_COURSE_DB), toDate).start();
+
+    Assert.assertEquals(
+        new HashSet<>(Arrays.asList(BATCH_ID + "_user1", BATCH_ID + "_user2")), indexedIds);
+    ArgumentCaptor<Statement> statements = ArgumentCaptor.forClass(Statement.class);
+    Mockito.verify(session, Mockito.times(4)).execute(statements.capture());
+    SimpleStatement userRead = (SimpleStatement) statements.getAllValues().get(3);
+    Assert.assertEquals(BATCH_ID, userRead.getObject(0));
+    Assert.assertEquals(Collections.singletonList("user2"), userRead.getObject(1));
+    Map<String, Object> status = getSavedStatus();
+    Assert.assertEquals("completed", status.get(JsonKey.STATUS));
+    Assert.assertEquals(5L, status.get("scannedCount"));
+    Assert.assertEquals(2L, status.get("changedCount"));
+    Assert.assertEquals(2L, status.get("indexedCount"));
+  }
+
+  @Test
+  public void batchSyncIndexesBatchesChangedInWindow() {
+    rowsByColumn.put(
+        "updateddate",
+        Arrays.asList(
+            mockBatch("batch1", inWindow(), beforeWindow()),
+            mockBatch("batch2", null, inWindow()),
+            mockBatch("batch3", beforeWindow(), beforeWindow())));
+
+    newSync(JsonKey.BATCH, Util.dbInfoMap.get(JsonKey.COURSE_BATCH_DB)).start();
+
+    Assert.assertEquals(new HashSet<>(Arrays.asList("batch1", "batch2")), indexedIds);
+    Map<String, Object> status = getSavedStatus();
+    Assert.assertEquals("completed", status.get(JsonKey.STATUS));
+    Assert.assertEquals(3L, status.get("scannedCount"));
+  }
+
+  @Test
+  public void failedSyncIsSavedAsInterrupted() {
+    Mockito.doThrow(new RuntimeException("read failed"))
+        .when(session)
+        .execute(Mockito.any(Statement.class));
+
+    newSync(JsonKey.BATCH, Util.dbInfoMap.get(JsonKey.COURSE_BATCH_DB)).start();
+
+    ArgumentCaptor<Map> record = ArgumentCaptor.forClass(Map.class);
+    Mockito.verify(cassandraOperation)
+        .insertRecord(Mockito.anyString(), Mockito.anyString(), record.capture());
+    Assert.assertEquals(SYNC_ID, record.getValue().get("syncId"));
+    Assert.assertEquals("running", record.getValue().get(JsonKey.STATUS));
+    Assert.assertEquals("interrupted", getSavedStatus().get(JsonKey.STATUS));
+  }
+
+  private EsIncrementalSync newSync(String objectType, Util.DbInfo dbInfo) {
+    return newSync(objectType, dbInfo, null);
+  }
+
+  private EsIncrementalSync newSync(
+      String objectType, Util.DbInfo dbInfo, Date changeTimeSince) {
+    return new EsIncrementalSync(
+        cassandraOperation,
+        SYNC_ID,
+        objectType,
+        dbInfo,
+        new EsBulkIndexer(esService, "type", 1024 * 1024, 100, 0),
+        (row, columnMap) -> {
+          Map<String, Object> doc = new HashMap<>();
+          String userId = row.getString("userid");
+          String batchId = row.getString("batchid");
+          doc.put(
+              JsonKey.ID,
+              null == userId
+                  ? batchId
+                  : UserCoursesService.generateUserCourseESId(batchId, userId));
+          return doc;
+        },
+        Runnable::run,
+        2,
+        100,
+        fromDate,
+        toDate,
+        changeTimeSince);
+  }
+
+  private Map<String, Object> getSavedStatus() {
+    ArgumentCaptor<Map> attributes = ArgumentCaptor.forClass(Map.class);
+    Mockito.verify(cassandraOperation)
+        .updateRecord(
+            Mockito.anyString(), Mockito.anyString(), attributes.capture(), Mockito.anyMap());
+    return attributes.getValue();
+  }
+
+  private List<Row> getRows(String column) {
+    return rowsByColumn.getOrDefault(column, Collections.emptyList());
+  }
+
+  private String inWindow() {
+    return dateFormat.format(new Date(toDate.getTime() - HOUR / 2));
+  }
+
+  private String beforeWindow() {
+    return dateFormat.format(new Date(fromDate.getTime() - HOUR));
+  }
+
+  private Row mockUserCourse(String userId) {
+    Row row = mock(Row.class);
+    when(row.getString("batchid")).thenReturn(BATCH_ID);
+    when(row.getString("userid")).thenReturn(userId);
+    return row;
+  }
+
+  private Row mockConsumption(String userId, String lastUpdatedTime) {
+    Row row = mockUserCourse(userId);
+    when(row.getString("lastupdatedtime")).thenReturn(lastUpdatedTime);
+    return row;
+  }
+
+  private Row mockBatch(String batchId, String updatedDate, String createdDate) {
+    Row row = mock(Row.class);
+    when(row.getString("batchid")).thenReturn(batchId);
+    when(row.getString("updateddate")).thenReturn(updatedDate);
+    when(row.getString("createddate")).thenReturn(createdDate);
+    return row;
+  }
+}
@@ -0,0 +1,247 @@
+package org.sunbird.learner.actors.syncjobmanager;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import akka.dispatch.Futures;
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.ColumnMetadata;
+import com.datastax.driver.core.KeyspaceMetadata;
+import com.datastax.driver.core.Metadata;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.SimpleStatement;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.TableMetadata;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+import org.sunbird.cassandra.CassandraOperation;
+import org.sunbird.common.CassandraUtil;
+import org.sunbird.common.inf.ElasticSearchService;
+import org.sunbird.common.models.util.JsonKey;
+import org.sunbird.helper.CassandraConnectionManager;
+import org.sunbird.helper.CassandraConnectionMngrFactory;
+import org.sunbird.learner.util.DistributedLease;
+import org.sunbird.learner.util.Util;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({CassandraConnectionMngrFactory.class, CassandraUtil.class})
+@PowerMockIgnore("javax.management.*")
+public class EsResyncTest {
+
+  private static final String RESYNC_ID = "resync1";
+  private static final String TYPE = "usercourses";
+
+  private CassandraOperation cassandraOperation;
+  private ElasticSearchService esService;
+  private DistributedLease lease;
+  private Session session;
+  private List<Row> checkpointRows;
+  private List<Row> tableRows;
+
+  @Before
+  public void setUp() {
+    cassandraOperation = mock(CassandraOperation.class);
+    esService = mock(ElasticSearchService.class);
+    when(esService.bulkInsert(Mockito.anyString(), Mockito.anyList()))
+        .then(
+            invocation -> {
+              List<Map<String, Object>> docs =
+                  (List<Map<String, Object>>) invocation.getArguments()[1];
+              boolean valid = docs.stream().noneMatch(doc -> "bad".equals(doc.get(JsonKey.ID)));
+              return Futures.successful(valid);
+            });
+    lease = mock(DistributedLease.class);
+    when(lease.acquire(Mockito.anyString(), Mockito.anyLong())).thenReturn(true);
+    when(lease.renew(Mockito.anyString(), Mockito.anyLong())).thenReturn(true);
+
+    checkpointRows = new ArrayList<>();
+    tableRows = new ArrayList<>();
+    session = mock(Session.class);
+    Cluster cluster = mock(Cluster.class);
+    Metadata metadata = mock(Metadata.class);
+    KeyspaceMetadata keyspace = mock(KeyspaceMetadata.class);
+    TableMetadata table = mock(TableMetadata.class);
+    ColumnMetadata partitionKey = mock(ColumnMetadata.class);
+    when(session.getCluster()).thenReturn(cluster);
+    when(cluster.getMetadata()).thenReturn(metadata);
+    when(metadata.getKeyspace(Mockito.anyString())).thenReturn(keyspace);
+    when(keyspace.getTable(Mockito.anyString())).thenReturn(table);
+    when(table.getPartitionKey()).thenReturn(Collections.singletonList(partitionKey));
+    when(partitionKey.getName()).thenReturn("batchid");
+    when(session.execute(Mockito.any(Statement.class)))
+        .then(
+            invocation -> {
+              SimpleStatement statement = (SimpleStatement) invocation.getArguments()[0];
+              boolean scan = statement.getQueryString().contains("resync_token");
+              return mockResultSet(scan ? tableRows : checkpointRows);
+            });
+    PowerMockito.mockStatic(CassandraConnectionMngrFactory.class);
+    CassandraConnectionManager connectionManager = mock(CassandraConnectionManager.class);
+    when(CassandraConnectionMngrFactory.getObject(Mockito.anyString()))
+        .thenReturn(connectionManager);
+    when(connectionManager.getSession(Mockito.anyString())).thenReturn(session);
+    PowerMockito.mockStatic(CassandraUtil.class);
+    when(CassandraUtil.fetchColumnsMapping(Mockito.any(ResultSet.class)))
+        .then(invocation -> new HashMap<>());
+  }
+
+  @Test
+  public void newResyncSplitsTokenRingIntoContiguousRanges() {
+    newResync(100).start();
+
+    ArgumentCaptor<List> records = ArgumentCaptor.forClass(List.class);
+    Mockito.verify(cassandraOperation)
+        .batchInsert(Mockito.anyString(), Mockito.anyString(), records.capture());
+    List<Map<String, Object>> ranges = records.getValue();
+    Assert.assertEquals(4, ranges.size());
+    Assert.assertEquals(Long.MIN_VALUE, ranges.get(0).get("startToken"));
+    Assert.assertEquals(Long.MAX_VALUE, ranges.get(3).get("endToken"));
+    for (int i = 0; i < ranges.size(); i++) {
+      Map<String, Object> range = ranges.get(i);
+      Assert.assertEquals(i, range.get("rangeId"));
+      Assert.assertEquals(range.get("startToken"), range.get("lastToken"));
+      Assert.assertTrue((long) range.get("startToken") < (long) range.get("endToken"));
+      if (i > 0) {
+        Assert.assertEquals(ranges.get(i - 1).get("endToken"), range.get("startToken"));
+      }
+    }
+  }
+
+  @Test
+  public void resumedRangeIsScannedFromLastToken() {
+    checkpointRows.add(mockRange(0, -100L, 100L, 5L, false));
+    checkpointRows.add(mockRange(1, 100L, 200L, 200L, true));
+    tableRows.add(mockRow(10L, "1"));
+    tableRows.add(mockRow(20L, "2"));
+
+    newResync(100).start();
+
+    ArgumentCaptor<Statement> statements = ArgumentCaptor.forClass(Statement.class);
+    Mockito.verify(session, Mockito.times(2)).execute(statements.capture());
+    SimpleStatement scan = (SimpleStatement) statements.getAllValues().get(1);
+    Assert.assertEquals(5L, scan.getObject(0));
+    Assert.assertEquals(100L, scan.getObject(1));
+    Map<String, Object> progress = getLastProgress();
+    Assert.assertEquals(100L, progress.get("lastToken"));
+    Assert.assertEquals(true, progress.get("completed"));
+    Assert.assertEquals(2L, progress.get("indexedCount"));
+    Mockito.verify(cassandraOperation, Mockito.never())
+        .batchInsert(Mockito.anyString(), Mockito.anyString(), Mockito.anyList());
+    Mockito.verify(lease).release("esResync/" + RESYNC_ID + "/0");
+  }
+
+  @Test
+  public void rangeWithFailedDocumentIsLeftIncomplete() {
+    checkpointRows.add(mockRange(0, -100L, 100L, -100L, false));
+    tableRows.add(mockRow(10L, "1"));
+    tableRows.add(mockRow(20L, "bad"));
+    tableRows.add(mockRow(30L, "3"));
+
+    newResync(1).start();
+
+    Map<String, Object> progress = getLastProgress();
+    Assert.assertEquals(19L, progress.get("lastToken"));
+    Assert.assertEquals(false, progress.get("completed"));
+    Assert.assertEquals(2L, progress.get("indexedCount"));
+    Assert.assertEquals(Collections.singleton("bad"), (Set<String>) progress.get("failedIds"));
+  }
+
+  @Test
+  public void rangeLeasedByOtherNodeIsSkipped() {
+    checkpointRows.add(mockRange(0, -100L, 100L, -100L, false));
+    tableRows.add(mockRow(10L, "1"));
+    when(lease.acquire(Mockito.anyString(), Mockito.anyLong())).thenReturn(false);
+
+    newResync(100).start();
+
+    Mockito.verify(session, Mockito.times(1)).execute(Mockito.any(Statement.class));
+    Mockito.verify(cassandraOperation, Mockito.never())
+        .updateRecord(Mockito.anyString(), Mockito.anyString(), Mockito.anyMap(), Mockito.anyMap());
+    Mockito.verify(lease, Mockito.never()).release(Mockito.anyString());
+  }
+
+  @Test
+  public void rangeWhoseLeaseExpiredDoesNotSaveProgress() {
+    checkpointRows.add(mockRange(0, -100L, 100L, -100L, false));
+    tableRows.add(mockRow(10L, "1"));
+    tableRows.add(mockRow(20L, "2"));
+    when(lease.renew(Mockito.anyString(), Mockito.anyLong())).thenReturn(false);
+
+    newResync(1).start();
+
+    Mockito.verify(lease).renew(Mockito.anyString(), Mockito.anyLong());
+    Mockito.verify(cassandraOperation, Mockito.never())
+        .updateRecord(Mockito.anyString(), Mockito.anyString(), Mockito.anyMap(), Mockito.anyMap());
+  }
+
+  private EsResync newResync(int maxBulkDocs) {
+    return new EsResync(
+        cassandraOperation,
+        RESYNC_ID,
+        JsonKey.USER_COURSE,
+        Util.dbInfoMap.get(JsonKey.LEARNER_COURSE_DB),
+        new EsBulkIndexer(esService, TYPE, 1024 * 1024, maxBulkDocs, 0),
+        (row, columnMap) -> getDoc(row.getString(JsonKey.ID)),
+        Runnable::run,
+        lease,
+        60000,
+        4,
+        100);
+  }
+
+  private Map<String, Object> getLastProgress() {
+    ArgumentCaptor<Map> attributes = ArgumentCaptor.forClass(Map.class);
+    Mockito.verify(cassandraOperation, Mockito.atLeastOnce())
+        .updateRecord(
+            Mockito.anyString(), Mockito.anyString(), attributes.capture(), Mockito.anyMap());
+    List<Map> values = attributes.getAllValues();
+    return values.get(values.size() - 1);
+  }
+
+  private ResultSet mockResultSet(List<Row> rows) {
+    ResultSet resultSet = mock(ResultSet.class);
+    when(resultSet.iterator()).thenReturn(rows.iterator());
+    return resultSet;
+  }
+
+  private Row mockRange(
+      int rangeId, long startToken, long endToken, long lastToken, boolean completed) {
+    Row row = mock(Row.class);
+    when(row.getInt("rangeId")).thenReturn(rangeId);
+    when(row.getString(JsonKey.OBJECT_TYPE)).thenReturn(JsonKey.USER_COURSE);
+    when(row.getLong("startToken")).thenReturn(startToken);
+    when(row.getLong("endToken")).thenReturn(endToken);
+    when(row.getLong("lastToken")).thenReturn(lastToken);
+    when(row.getBool("completed")).thenReturn(completed);
+    return row;
+  }
+
+  private Row mockRow(long token, String id) {
+    Row row = mock(Row.class);
+    when(row.getLong("resync_token")).thenReturn(token);
+    when(row.getString(JsonKey.ID)).thenReturn(id);
+    return row;
+  }
+
+  private Map<String, Object> getDoc(String id) {
+    Map<String, Object> doc = new HashMap<>();
+    doc.put(JsonKey.ID, id);
+    return doc;
+  }
+}
@@ -0,0 +1,156 @@
+package org.sunbird.learner.actors.syncjobmanager;
+
+import static org.powermock.api.mockito.PowerMockito.mock;
+import static org.powermock.api.mockito.PowerMockito.when;
+
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import akka.testkit.TestActorRef;
+import akka.testkit.javadsl.TestKit;
+import java.text.SimpleDateFormat;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+import org.powermock.reflect.Whitebox;
+import org.sunbird.cassandraimpl.CassandraOperationImpl;
+import org.sunbird.common.exception.ProjectCommonException;
+import org.sunbird.common.factory.EsClientFactory;
+import org.sunbird.common.inf.ElasticSearchService;
+import org.sunbird.common.models.response.Response;
+import org.sunbird.common.models.util.ActorOperations;
+import org.sunbird.common.models.util.JsonKey;
+import org.sunbird.common.models.util.ProjectUtil;
+import org.sunbird.common.request.Request;
+import org.sunbird.common.responsecode.ResponseCode;
+import org.sunbird.helper.ServiceFactory;
+import org.sunbird.learner.constants.CourseJsonKey;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({ServiceFactory.class, EsClientFactory.class})
+@PowerMockIgnore("javax.management.*")
+public class EsSyncActorTest {
+
+  private static final String SYNC_ID = "sync1";
+
+  private static ActorSystem system;
+
+  private CassandraOperationImpl cassandraOperation;
+  private TestActorRef<EsSyncActor> subject;
+
+  @BeforeClass
+  public static void setUp() {
+    system = ActorSystem.create("system");
+  }
+
+  @AfterClass
+  public static void tearDown() {
+    system.terminate();
+  }
+
+  @Before
+  public void beforeEachTest() {
+    PowerMockito.mockStatic(ServiceFactory.class);
+    cassandraOperation = mock(CassandraOperationImpl.class);
+    when(ServiceFactory.getInstance()).thenReturn(cassandraOperation);
+    PowerMockito.mockStatic(EsClientFactory.class);
+    when(EsClientFactory.getInstance(Mockito.anyString()))
+        .thenReturn(mock(ElasticSearchService.class));
+    subject = TestActorRef.create(system, Props.create(EsSyncActor.class));
+  }
+
+  @Test
+  public void getDateReadsEpochMillis() throws Exception {
+    Assert.assertEquals(new Date(1500000000000L), getDate(1500000000000L));
+  }
+
+  @Test
+  public void getDateReadsServiceDateFormat() throws Exception {
+    SimpleDateFormat dateFormat = ProjectUtil.getDateFormatter();
+    String date = dateFormat.format(new Date(1500000000000L));
+    Assert.assertEquals(date, dateFormat.format(getDate(date)));
+  }
+
+  @Test
+  public void getDateReturnsNullIfNotGiven() throws Exception {
+    Assert.assertNull(getDate(null));
+  }
+
+  @Test
+  public void getDateRejectsUnknownFormat() throws Exception {
+    try {
+      getDate("yesterday");
+      Assert.fail();
+    } catch (ProjectCommonException e) {
+      Assert.assertEquals(ResponseCode.invalidParameterValue.getErrorCode(), e.getCode());
+    }
+  }
+
+  @Test
+  public void syncStatusReturnsSavedStatus() {
+    Map<String, Object> record = new HashMap<>();
+    record.put(CourseJsonKey.SYNC_ID, SYNC_ID);
+    record.put(JsonKey.STATUS, "completed");
+    List<Map<String, Object>> records = new ArrayList<>();
+    records.add(record);
+    Response result = new Response();
+    result.put(JsonKey.RESPONSE, records);
+    when(cassandraOperation.getRecordById(
+            Mockito.anyString(), Mockito.anyString(), Mockito.eq(SYNC_ID)))
+        .thenReturn(result);
+
+    Response response =
+        requestStatus(SYNC_ID).expectMsgClass(Duration.ofSeconds(10), Response.class);
+
+    Assert.assertEquals(record, response.get(JsonKey.RESPONSE));
+  }
+
+  @Test
+  public void syncStatusOfUnknownSyncFails() {
+    Response result = new Response();
+    result.put(JsonKey.RESPONSE, new ArrayList<>());
+    when(cassandraOperation.getRecordById(
+            Mockito.anyString(), Mockito.anyString(), Mockito.anyString()))
+        .thenReturn(result);
+
+    ProjectCommonException e =
+        requestStatus("unknown")
+            .expectMsgClass(Duration.ofSeconds(10), ProjectCommonException.class);
+
+    Assert.assertEquals(ResponseCode.invalidParameterValue.getErrorCode(), e.getCode());
+  }
+
+  private Date getDate(Object value) throws Exception {
+    Map<String, Object> dataMap = new HashMap<>();
+    if (null != value) {
+      dataMap.put(CourseJsonKey.FROM_DATE, value);
+    }
+    return Whitebox.invokeMethod(
+        subject.underlyingActor(), "getDate", dataMap, CourseJsonKey.FROM_DATE);
+  }
+
+  private TestKit requestStatus(String syncId) {
+    Map<String, Object> dataMap = new HashMap<>();
+    dataMap.put(CourseJsonKey.MODE, JsonKey.STATUS);
+    dataMap.put(CourseJsonKey.SYNC_ID, syncId);
+    Request request = new Request();
+    request.setOperation(ActorOperations.SYNC.getValue());
+    request.getRequest().put(JsonKey.DATA, dataMap);
+    TestKit probe = new TestKit(system);
+    subject.tell(request, probe.getRef());
+    return probe;
+  }
+}
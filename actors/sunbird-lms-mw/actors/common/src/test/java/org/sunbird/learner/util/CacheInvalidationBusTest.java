@@ -0,0 +1,167 @@
+package org.sunbird.learner.util;
+
+import static org.powermock.api.mockito.PowerMockito.mock;
+import static org.powermock.api.mockito.PowerMockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+import org.sunbird.cache.CacheFactory;
+import org.sunbird.cache.interfaces.Cache;
+import org.sunbird.cassandraimpl.CassandraOperationImpl;
+import org.sunbird.common.models.response.Response;
+import org.sunbird.common.models.util.ActorOperations;
+import org.sunbird.common.models.util.JsonKey;
+import org.sunbird.helper.ServiceFactory;
+import org.sunbird.models.systemsetting.SystemSetting;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({CacheFactory.class, ServiceFactory.class})
+@PowerMockIgnore({"javax.management.*"})
+public class CacheInvalidationBusTest {
+
+  private static final String TOPIC = "invalidations";
+  private static final String SYSTEM_SETTING_MAP = ActorOperations.GET_SYSTEM_SETTING.getValue();
+
+  private Cache cache;
+  private CassandraOperationImpl cassandraOperation;
+  private CacheInvalidationBus bus;
+
+  @Before
+  public void setUp() {
+    cache = mock(Cache.class);
+    cassandraOperation = mock(CassandraOperationImpl.class);
+    PowerMockito.mockStatic(CacheFactory.class);
+    when(CacheFactory.getInstance()).thenReturn(cache);
+    PowerMockito.mockStatic(ServiceFactory.class);
+    when(ServiceFactory.getInstance()).thenReturn(cassandraOperation);
+    bus = new CacheInvalidationBus(null, Runnable::run);
+  }
+
+  @Test
+  public void testReceiveClearsCacheMapForEventOfOtherNode() {
+    bus.receive(getEvent(CacheInvalidationBus.CACHE, "roleMap", "otherNode"));
+    Mockito.verify(cache).clear("roleMap");
+  }
+
+  @Test
+  public void testReceiveSkipsEventOfThisNode() {
+    bus.receive(getEvent(CacheInvalidationBus.CACHE, "roleMap", bus.getNodeId()));
+    Mockito.verify(cache, Mockito.never()).clear(Mockito.anyString());
+  }
+
+  @Test
+  public void testPublishToOtherNodesDoesNotApplyOnThisNode() {
+    bus.publishToOtherNodes(CacheInvalidationBus.CACHE, "roleMap");
+    Mockito.verify(cache, Mockito.never()).clear(Mockito.anyString());
+  }
+
+  @Test
+  public void testSystemSettingEventReplacesOnlyItsEntry() {
+    when(cassandraOperation.getRecordsByIndexedProperty(
+            JsonKey.SUNBIRD, JsonKey.SYSTEM_SETTINGS_DB, JsonKey.FIELD, "someField"))
+        .thenReturn(getSystemSettingResponse());
+
+    bus.receive(getEvent(CacheInvalidationBus.SYSTEM_SETTING, "someField", "otherNode"));
+
+    Mockito.verify(cache)
+        .put(
+            Mockito.eq(SYSTEM_SETTING_MAP),
+            Mockito.eq("someField"),
+            Mockito.any(SystemSetting.class));
+    Mockito.verify(cache, Mockito.never()).clear(SYSTEM_SETTING_MAP);
+  }
+
+  @Test
+  public void testConsumerIsRecreatedAfterFailure() {
+    bus = new CacheInvalidationBus(TOPIC, Runnable::run);
+    MockConsumer<String, String> failingConsumer = newConsumer();
+    failingConsumer.schedulePollTask(
+        () -> {
+          throw new KafkaException("connection lost");
+        });
+    MockConsumer<String, String> consumer = newConsumer();
+    consumer.schedulePollTask(
+        () ->
+            consumer.addRecord(
+                new ConsumerRecord<>(
+                    TOPIC, 0, 0L, null, getEvent(CacheInvalidationBus.CACHE, "roleMap", "other"))));
+    consumer.schedulePollTask(() -> Thread.currentThread().interrupt());
+    AtomicInteger created = new AtomicInteger();
+
+    try {
+      bus.consume(
+          () -> {
+            switch (created.incrementAndGet()) {
+              case 1:
+                throw new KafkaException("broker not available");
+              case 2:
+                return failingConsumer;
+              default:
+                return consumer;
+            }
+          },
+          1,
+          2);
+    } finally {
+      Thread.interrupted();
+    }
+
+    Assert.assertEquals(3, created.get());
+    Assert.assertTrue(failingConsumer.closed());
+    Assert.assertTrue(consumer.closed());
+    Mockito.verify(cache).clear("roleMap");
+    Map<String, Object> metrics = bus.getMetrics();
+    Assert.assertEquals(CacheInvalidationBus.STOPPED, metrics.get("consumerState"));
+    Assert.assertEquals(2L, metrics.get("reconnects"));
+    Assert.assertEquals("connection lost", metrics.get("lastError"));
+  }
+
+  private MockConsumer<String, String> newConsumer() {
+    MockConsumer<String, String> consumer = new MockConsumer<>(OffsetResetStrategy.LATEST);
+    consumer.updatePartitions(
+        TOPIC, Collections.singletonList(new PartitionInfo(TOPIC, 0, null, null, null)));
+    consumer.updateEndOffsets(Collections.singletonMap(new TopicPartition(TOPIC, 0), 0L));
+    return consumer;
+  }
+
+  private String getEvent(String type, String key, String origin) {
+    return "{\"type\":\""
+        + type
+        + "\",\"key\":\""
+        + key
+        + "\",\"origin\":\""
+        + origin
+        + "\"}";
+  }
+
+  private Response getSystemSettingResponse() {
+    Map<String, Object> setting = new HashMap<>();
+    setting.put(JsonKey.ID, "someField");
+    setting.put(JsonKey.FIELD, "someField");
+    setting.put(JsonKey.VALUE, "someValue");
+    List<Map<String, Object>> settings = new ArrayList<>();
+    settings.add(setting);
+    Response response = new Response();
+    response.put(JsonKey.RESPONSE, settings);
+    return response;
+  }
+}
@@ -0,0 +1,46 @@
+package org.sunbird.learner.util;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CacheSnapshotTest {
+
+  @Test
+  public void testPublishReplacesSnapshot() {
+    CacheSnapshot<String> snapshot = new CacheSnapshot<>();
+    snapshot.put("deleted", "value");
+    Map<String, String> before = snapshot.get();
+
+    snapshot.beginRefresh();
+    snapshot.publish(Collections.singletonMap("key", "value"), "full", 0);
+
+    Assert.assertNull(snapshot.get("deleted"));
+    Assert.assertEquals("value", snapshot.get("key"));
+    Assert.assertEquals("value", before.get("deleted"));
+    Assert.assertTrue(snapshot.isLoaded());
+  }
+
+  @Test
+  public void testPublishKeepsWritesMadeDuringRefresh() {
+    CacheSnapshot<String> snapshot = new CacheSnapshot<>();
+    snapshot.beginRefresh();
+    Map<String, String> loaded = new HashMap<>();
+    loaded.put("updated", "old");
+    loaded.put("removed", "old");
+    snapshot.put("updated", "new");
+    snapshot.remove("removed");
+    snapshot.publish(loaded, "full", 0);
+
+    Assert.assertEquals("new", snapshot.get("updated"));
+    Assert.assertFalse(snapshot.get().containsKey("removed"));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testSnapshotIsUnmodifiable() {
+    CacheSnapshot<String> snapshot = new CacheSnapshot<>();
+    snapshot.get().put("key", "value");
+  }
+}
@@ -0,0 +1,50 @@
+package org.sunbird.learner.util;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+import org.sunbird.common.models.util.JsonKey;
+
+public class CompiledSectionTest {
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testNewSearchQueryReturnsIndependentCopies() throws Exception {
+    CompiledSection section =
+        CompiledSection.compile(
+            createSection("{\"request\":{\"filters\":{\"contentType\":[\"Course\"]}}}"));
+
+    Map<String, Object> first = section.newSearchQuery();
+    Map<String, Object> filters =
+        (Map<String, Object>) ((Map<String, Object>) first.get(JsonKey.REQUEST)).get("filters");
+    ((List<Object>) filters.get("contentType")).add("Resource");
+    filters.put("board", "CBSE");
+
+    Map<String, Object> second = section.newSearchQuery();
+    Map<String, Object> secondFilters =
+        (Map<String, Object>) ((Map<String, Object>) second.get(JsonKey.REQUEST)).get("filters");
+    Assert.assertEquals(1, ((List<Object>) secondFilters.get("contentType")).size());
+    Assert.assertFalse(secondFilters.containsKey("board"));
+  }
+
+  @Test
+  public void testNewSearchQueryAddsMissingRequest() throws Exception {
+    CompiledSection section = CompiledSection.compile(createSection("{}"));
+    Assert.assertTrue(section.newSearchQuery().get(JsonKey.REQUEST) instanceof Map);
+  }
+
+  @Test(expected = IOException.class)
+  public void testNewSearchQueryFailsForInvalidQuery() throws Exception {
+    CompiledSection.compile(createSection("invalid")).newSearchQuery();
+  }
+
+  private Map<String, Object> createSection(String searchQuery) {
+    Map<String, Object> section = new HashMap<>();
+    section.put(JsonKey.ID, "section1");
+    section.put(JsonKey.SEARCH_QUERY, searchQuery);
+    return section;
+  }
+}
@@ -0,0 +1,75 @@
+package org.sunbird.learner.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+import org.sunbird.common.models.util.JsonKey;
+
+public class ContentSearchUtilTest {
+
+  private static final String SEARCH_RESPONSE =
+      "{\"id\":\"api.content.search\",\"ver\":\"1.0\","
+          + "\"params\":{\"resmsgid\":\"msg1\",\"status\":\"successful\",\"err\":null},"
+          + "\"responseCode\":\"OK\","
+          + "\"result\":{\"count\":2,\"content\":["
+          + "{\"identifier\":\"do_1\",\"name\":\"Course 1\",\"leafNodes\":[\"do_11\",\"do_12\"],"
+          + "\"children\":[{\"identifier\":\"do_11\",\"children\":[]}]},"
+          + "{\"identifier\":\"do_2\",\"name\":null,\"appIcon\":{\"url\":\"icon.png\"}}],"
+          + "\"facets\":[{\"name\":\"board\",\"values\":[]}]}}";
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testParseSearchResponseWithoutFields() throws Exception {
+    Map<String, Object> result =
+        ContentSearchUtil.parseSearchResponse(toStream(SEARCH_RESPONSE), null);
+
+    Assert.assertEquals(2, result.get("count"));
+    Assert.assertFalse(result.containsKey(JsonKey.CONTENT));
+    Assert.assertTrue(result.get("facets") instanceof List);
+    List<Map<String, Object>> contents = (List<Map<String, Object>>) result.get(JsonKey.CONTENTS);
+    Assert.assertEquals(2, contents.size());
+    Assert.assertTrue(contents.get(0).containsKey("children"));
+    Assert.assertTrue(contents.get(1).containsKey(JsonKey.NAME));
+    Assert.assertNull(contents.get(1).get(JsonKey.NAME));
+
+    Map<String, Object> params = (Map<String, Object>) result.get(JsonKey.PARAMS);
+    Assert.assertEquals("msg1", params.get(JsonKey.RES_MSG_ID));
+    Assert.assertEquals("api.content.search", params.get(JsonKey.API_ID));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testParseSearchResponseWithFields() throws Exception {
+    Map<String, Object> result =
+        ContentSearchUtil.parseSearchResponse(
+            toStream(SEARCH_RESPONSE),
+            new HashSet<>(Arrays.asList(JsonKey.IDENTIFIER, "leafNodes", "appIcon")));
+
+    List<Map<String, Object>> contents = (List<Map<String, Object>>) result.get(JsonKey.CONTENTS);
+    Assert.assertEquals(2, contents.size());
+    Assert.assertEquals(2, contents.get(0).size());
+    Assert.assertEquals(Arrays.asList("do_11", "do_12"), contents.get(0).get("leafNodes"));
+    Assert.assertFalse(contents.get(0).containsKey("children"));
+    Assert.assertEquals(2, contents.get(1).size());
+    Assert.assertEquals(
+        "icon.png", ((Map<String, Object>) contents.get(1).get("appIcon")).get("url"));
+    Assert.assertEquals(2, result.get("count"));
+  }
+
+  @Test
+  public void testParseSearchResponseWithoutResult() throws Exception {
+    Assert.assertNull(
+        ContentSearchUtil.parseSearchResponse(
+            toStream("{\"id\":\"api.content.search\",\"params\":{\"status\":\"failed\"}}"), null));
+  }
+
+  private InputStream toStream(String json) {
+    return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+  }
+}
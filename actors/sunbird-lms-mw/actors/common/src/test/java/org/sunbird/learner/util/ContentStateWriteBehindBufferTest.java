@@ -0,0 +1,154 @@
+package org.sunbird.learner.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.sunbird.common.models.util.JsonKey;
+
+public class ContentStateWriteBehindBufferTest {
+
+  private static final String USER_ID = "user1";
+  private static final String BATCH_ID = "batch1";
+  private static final String COURSE_ID = "course1";
+  private static final String CONTENT_ID = "content1";
+
+  private RecordingSink sink;
+  private ContentStateWriteBehindBuffer buffer;
+  private int loadCount;
+  private Map<String, Object> stored;
+
+  @Before
+  public void setUp() {
+    sink = new RecordingSink();
+    buffer = new ContentStateWriteBehindBuffer(sink, 3600000, 1000, 3600000);
+    loadCount = 0;
+    stored = null;
+  }
+
+  @After
+  public void tearDown() {
+    buffer.shutdown();
+  }
+
+  @Test
+  public void testFlushCoalescesUpdatesOfSameContent() {
+    update(10);
+    update(40);
+    update(20);
+    buffer.flush();
+
+    Assert.assertEquals(1, loadCount);
+    Assert.assertEquals(1, sink.contents.size());
+    Assert.assertEquals(40, sink.contents.get(0).get(JsonKey.PROGRESS));
+    Assert.assertEquals(3, sink.contents.get(0).get(JsonKey.VIEW_COUNT));
+    Assert.assertEquals(1, sink.userBatchWrites);
+    Assert.assertEquals(3.0, (double) buffer.getMetrics().get("coalescingRatio"), 0.001);
+  }
+
+  @Test
+  public void testFlushRetriesContentsOfFailedWrite() {
+    update(10);
+    sink.fail = true;
+    buffer.flush();
+    Assert.assertEquals(1, buffer.getMetrics().get("pendingContents"));
+
+    sink.fail = false;
+    buffer.flush();
+    Assert.assertEquals(1, sink.contents.size());
+    Assert.assertEquals(0, buffer.getMetrics().get("pendingContents"));
+  }
+
+  @Test
+  public void testUpdateAfterFlushReadsStoredContent() {
+    update(10);
+    buffer.flush();
+    stored = createContent(60);
+    stored.put(JsonKey.VIEW_COUNT, 5);
+    update(20);
+    buffer.flush();
+
+    Assert.assertEquals(2, loadCount);
+    Assert.assertEquals(2, sink.contents.size());
+    Assert.assertEquals(60, sink.contents.get(1).get(JsonKey.PROGRESS));
+    Assert.assertEquals(6, sink.contents.get(1).get(JsonKey.VIEW_COUNT));
+  }
+
+  @Test
+  public void testUpdateAfterShutdownIsRejected() {
+    buffer.shutdown();
+    Assert.assertFalse(
+        buffer.update(
+            USER_ID,
+            BATCH_ID,
+            COURSE_ID,
+            Collections.singletonList(createContent(10)),
+            this::loadContents,
+            this::merge));
+  }
+
+  private void update(int progress) {
+    Assert.assertTrue(
+        buffer.update(
+            USER_ID,
+            BATCH_ID,
+            COURSE_ID,
+            Collections.singletonList(createContent(progress)),
+            this::loadContents,
+            this::merge));
+  }
+
+  private List<Map<String, Object>> loadContents(List<String> contentIds) {
+    loadCount++;
+    List<Map<String, Object>> contents = new ArrayList<>();
+    if (stored != null) {
+      contents.add(stored);
+    }
+    return contents;
+  }
+
+  private Map<String, Object> merge(Map<String, Object> input, Map<String, Object> existing) {
+    if (existing == null) {
+      input.put(JsonKey.VIEW_COUNT, 1);
+      return input;
+    }
+    input.put(JsonKey.VIEW_COUNT, (int) existing.get(JsonKey.VIEW_COUNT) + 1);
+    input.put(
+        JsonKey.PROGRESS,
+        Math.max((int) input.get(JsonKey.PROGRESS), (int) existing.get(JsonKey.PROGRESS)));
+    return input;
+  }
+
+  private Map<String, Object> createContent(int progress) {
+    Map<String, Object> content = new HashMap<>();
+    content.put(JsonKey.CONTENT_ID, CONTENT_ID);
+    content.put(JsonKey.BATCH_ID, BATCH_ID);
+    content.put(JsonKey.PROGRESS, progress);
+    return content;
+  }
+
+  private static class RecordingSink implements ContentStateWriteBehindBuffer.Sink {
+    private List<Map<String, Object>> contents = new ArrayList<>();
+    private int userBatchWrites;
+    private boolean fail;
+
+    @Override
+    public void writeContents(List<Map<String, Object>> contents) throws Exception {
+      if (fail) {
+        throw new Exception("write failed");
+      }
+      this.contents.addAll(contents);
+    }
+
+    @Override
+    public void writeUserBatch(
+        String userId, String batchId, String courseId, List<Map<String, Object>> contents) {
+      userBatchWrites++;
+    }
+  }
+}
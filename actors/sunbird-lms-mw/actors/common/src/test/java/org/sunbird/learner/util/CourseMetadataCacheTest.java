@@ -0,0 +1,83 @@
+package org.sunbird.learner.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.sunbird.common.models.util.JsonKey;
+import org.sunbird.common.models.util.ProjectUtil;
+import org.sunbird.learner.constants.CourseJsonKey;
+import org.sunbird.learner.util.CourseMetadataCache.CourseMetadata;
+
+public class CourseMetadataCacheTest {
+
+  private static final String COURSE_ID = "course1";
+
+  private int loadCount;
+
+  @Before
+  public void setUp() {
+    CourseMetadataCache.getInstance().invalidateAll();
+    loadCount = 0;
+  }
+
+  @Test
+  public void testGetAllLoadsMissingCoursesOnce() {
+    Map<String, CourseMetadata> courses =
+        CourseMetadataCache.getInstance().getAll(Arrays.asList(COURSE_ID, "course2"), this::load);
+    Assert.assertEquals(1, courses.size());
+    Assert.assertEquals("name", courses.get(COURSE_ID).getName());
+
+    CourseMetadataCache.getInstance().getAll(Collections.singletonList(COURSE_ID), this::load);
+    Assert.assertEquals(1, loadCount);
+  }
+
+  @Test
+  public void testRefreshInvalidatesCourseWithNewVersionKey() {
+    CourseMetadataCache.getInstance().getAll(Collections.singletonList(COURSE_ID), this::load);
+    CourseMetadataCache.getInstance()
+        .refresh(Collections.singletonList(createContent(COURSE_ID, "v1")));
+    CourseMetadataCache.getInstance().getAll(Collections.singletonList(COURSE_ID), this::load);
+    Assert.assertEquals(1, loadCount);
+
+    CourseMetadataCache.getInstance()
+        .refresh(Collections.singletonList(createContent(COURSE_ID, "v2")));
+    CourseMetadataCache.getInstance().getAll(Collections.singletonList(COURSE_ID), this::load);
+    Assert.assertEquals(2, loadCount);
+  }
+
+  @Test
+  public void testCountCompletedLeafNodes() {
+    CourseMetadata metadata =
+        CourseMetadataCache.getInstance().get(COURSE_ID, id -> createContent(id, "v1"));
+    Map<String, Object> contentStatus = new HashMap<>();
+    contentStatus.put("leaf1", ProjectUtil.ProgressStatus.COMPLETED.getValue());
+    contentStatus.put("leaf2", ProjectUtil.ProgressStatus.STARTED.getValue());
+    contentStatus.put("other", ProjectUtil.ProgressStatus.COMPLETED.getValue());
+    Assert.assertEquals(1, metadata.countCompletedLeafNodes(contentStatus));
+  }
+
+  private List<Map<String, Object>> load(Collection<String> courseIds) {
+    loadCount++;
+    List<Map<String, Object>> contents = new ArrayList<>();
+    if (courseIds.contains(COURSE_ID)) {
+      contents.add(createContent(COURSE_ID, "v1"));
+    }
+    return contents;
+  }
+
+  private Map<String, Object> createContent(String courseId, String versionKey) {
+    Map<String, Object> content = new HashMap<>();
+    content.put(JsonKey.IDENTIFIER, courseId);
+    content.put(JsonKey.NAME, "name");
+    content.put(JsonKey.VERSION_KEY, versionKey);
+    content.put(CourseJsonKey.LEAF_NODES, Arrays.asList("leaf1", "leaf2"));
+    return content;
+  }
+}
@@ -0,0 +1,245 @@
+package org.sunbird.learner.util;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import akka.dispatch.Futures;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.sunbird.common.inf.ElasticSearchService;
+import org.sunbird.common.models.util.JsonKey;
+
+public class EsIndexOutboxTest {
+
+  private static final String TYPE = "usercourses";
+  private static final int MAX_ATTEMPTS = 3;
+
+  private InMemoryDao dao;
+  private DistributedLease lease;
+  private ElasticSearchService esService;
+  private List<String> indexedIds;
+  private EsIndexOutbox outbox;
+
+  @Before
+  public void setUp() {
+    dao = new InMemoryDao();
+    lease = mock(DistributedLease.class);
+    when(lease.acquire(Mockito.anyString(), Mockito.anyLong())).thenReturn(true);
+    esService = mock(ElasticSearchService.class);
+    indexedIds = new ArrayList<>();
+    outbox = createOutbox(1, 100);
+  }
+
+  @Test
+  public void testOfferIsSkippedForReadYourWritesOperation() {
+    Assert.assertFalse(outbox.offer(TYPE, "id1", createDoc("name", "a"), false, "createBatch"));
+    Assert.assertTrue(dao.entries.isEmpty());
+  }
+
+  @Test
+  public void testDrainMergesPartialDocuments() {
+    when(esService.upsert(Mockito.anyString(), Mockito.anyString(), Mockito.anyMap()))
+        .thenReturn(Futures.successful(true));
+    outbox.offer(TYPE, "id1", createDoc(JsonKey.ACTIVE, true), true, null);
+    outbox.offer(TYPE, "id1", createDoc(JsonKey.STATUS, 1), true, null);
+
+    Assert.assertEquals(1, outbox.drain());
+    ArgumentCaptor<Map> doc = ArgumentCaptor.forClass(Map.class);
+    Mockito.verify(esService).upsert(Mockito.eq(TYPE), Mockito.eq("id1"), doc.capture());
+    Assert.assertEquals(true, doc.getValue().get(JsonKey.ACTIVE));
+    Assert.assertEquals(1, doc.getValue().get(JsonKey.STATUS));
+    Assert.assertTrue(dao.entries.isEmpty());
+    Assert.assertEquals(Collections.singletonList("id1"), indexedIds);
+  }
+
+  @Test
+  public void testDrainIndexesFullDocumentsInBulk() {
+    when(esService.bulkInsert(Mockito.anyString(), Mockito.anyList()))
+        .thenReturn(Futures.successful(true));
+    outbox.offer(TYPE, "id1", createDoc(JsonKey.NAME, "a"), false, null);
+    outbox.offer(TYPE, "id1", createDoc(JsonKey.STATUS, 1), true, null);
+    outbox.offer(TYPE, "id2", createDoc(JsonKey.NAME, "b"), false, null);
+
+    Assert.assertEquals(2, outbox.drain());
+    ArgumentCaptor<List> docs = ArgumentCaptor.forClass(List.class);
+    Mockito.verify(esService).bulkInsert(Mockito.eq(TYPE), docs.capture());
+    Map<String, Object> doc = (Map<String, Object>) docs.getValue().get(0);
+    Assert.assertEquals("a", doc.get(JsonKey.NAME));
+    Assert.assertEquals(1, doc.get(JsonKey.STATUS));
+    Assert.assertEquals(2, docs.getValue().size());
+    Mockito.verify(esService, Mockito.never())
+        .upsert(Mockito.anyString(), Mockito.anyString(), Mockito.anyMap());
+  }
+
+  @Test
+  public void testFailedDocumentIsKeptForRetry() {
+    when(esService.upsert(Mockito.anyString(), Mockito.anyString(), Mockito.anyMap()))
+        .thenReturn(Futures.successful(false));
+    outbox.offer(TYPE, "id1", createDoc(JsonKey.ACTIVE, false), true, null);
+
+    Assert.assertEquals(0, outbox.drain());
+    Assert.assertEquals(1, dao.entries.size());
+    Assert.assertEquals(1, dao.entries.get(0).get(EsIndexOutbox.ATTEMPTS));
+    Assert.assertTrue(indexedIds.isEmpty());
+  }
+
+  @Test
+  public void testRetryBackoffIsCapped() {
+    when(esService.upsert(Mockito.anyString(), Mockito.anyString(), Mockito.anyMap()))
+        .thenReturn(Futures.successful(false));
+    outbox.offer(TYPE, "id1", createDoc(JsonKey.ACTIVE, false), true, null);
+    // the backoff is 1 second doubled per attempt, capped at 1 minute
+    dao.entries.get(0).put(EsIndexOutbox.ATTEMPTS, 1);
+
+    long before = System.currentTimeMillis();
+    outbox.drain();
+    long nextAttemptOn = (long) dao.entries.get(0).get(EsIndexOutbox.NEXT_ATTEMPT_ON);
+    Assert.assertTrue(nextAttemptOn >= before + 2000);
+    Assert.assertTrue(nextAttemptOn <= System.currentTimeMillis() + 2000);
+
+    outbox = createOutbox(1, 100, Integer.MAX_VALUE);
+    dao.entries.get(0).put(EsIndexOutbox.ATTEMPTS, 40);
+    dao.entries.get(0).put(EsIndexOutbox.NEXT_ATTEMPT_ON, 0L);
+    outbox.drain();
+    nextAttemptOn = (long) dao.entries.get(0).get(EsIndexOutbox.NEXT_ATTEMPT_ON);
+    Assert.assertTrue(nextAttemptOn >= before + 60000);
+    Assert.assertTrue(nextAttemptOn <= System.currentTimeMillis() + 60000);
+  }
+
+  @Test
+  public void testDocumentIsDeadLetteredAfterMaxAttempts() {
+    when(esService.upsert(Mockito.anyString(), Mockito.anyString(), Mockito.anyMap()))
+        .thenReturn(Futures.successful(false));
+    outbox.offer(TYPE, "id1", createDoc(JsonKey.ACTIVE, false), true, null);
+    outbox.offer(TYPE, "id1", createDoc(JsonKey.STATUS, 1), true, null);
+
+    for (int i = 0; i < MAX_ATTEMPTS; i++) {
+      Assert.assertEquals(2, dao.entries.size());
+      dao.entries.forEach(entry -> entry.put(EsIndexOutbox.NEXT_ATTEMPT_ON, 0L));
+      outbox.drain();
+    }
+    Assert.assertTrue(dao.entries.isEmpty());
+    Assert.assertEquals(2, dao.deadLetters.size());
+    Assert.assertEquals(MAX_ATTEMPTS, dao.deadLetters.get(0).get(EsIndexOutbox.ATTEMPTS));
+    Assert.assertEquals(1L, outbox.getMetrics().get("deadLettered"));
+    Assert.assertEquals((long) MAX_ATTEMPTS, outbox.getMetrics().get("failed"));
+    Assert.assertTrue(indexedIds.isEmpty());
+  }
+
+  @Test
+  public void testDrainSkipsShardLeasedByOtherNode() {
+    outbox = createOutbox(2, 100);
+    when(esService.upsert(Mockito.anyString(), Mockito.anyString(), Mockito.anyMap()))
+        .thenReturn(Futures.successful(true));
+    when(lease.acquire(Mockito.eq("esIndexOutbox/0"), Mockito.anyLong())).thenReturn(false);
+    for (int i = 0; i < 10; i++) {
+      outbox.offer(TYPE, "id" + i, createDoc(JsonKey.ACTIVE, true), true, null);
+    }
+
+    outbox.drain();
+    Assert.assertFalse(dao.entries.isEmpty());
+    for (Map<String, Object> entry : dao.entries) {
+      Assert.assertEquals(0, entry.get(EsIndexOutbox.SHARD));
+    }
+    Mockito.verify(lease, Mockito.never()).release("esIndexOutbox/0");
+    Mockito.verify(lease).release("esIndexOutbox/1");
+  }
+
+  @Test
+  public void testDrainReadsBoundedNumberOfEntries() {
+    outbox = createOutbox(1, 2);
+    when(esService.upsert(Mockito.anyString(), Mockito.anyString(), Mockito.anyMap()))
+        .thenReturn(Futures.successful(true));
+    for (int i = 0; i < 20; i++) {
+      outbox.offer(TYPE, "id" + i, createDoc(JsonKey.ACTIVE, true), true, null);
+    }
+
+    Assert.assertEquals(2, outbox.drain());
+    Assert.assertEquals(8, dao.lastReadLimit);
+    Assert.assertEquals(Arrays.asList("id0", "id1"), indexedIds);
+  }
+
+  private EsIndexOutbox createOutbox(int shardCount, int drainBatchSize) {
+    return createOutbox(shardCount, drainBatchSize, MAX_ATTEMPTS);
+  }
+
+  private EsIndexOutbox createOutbox(int shardCount, int drainBatchSize, int maxAttempts) {
+    return new EsIndexOutbox(
+        dao,
+        lease,
+        esService,
+        (esType, docId) -> indexedIds.add(docId),
+        true,
+        Collections.singleton("createBatch"),
+        shardCount,
+        drainBatchSize,
+        1000,
+        60000,
+        maxAttempts,
+        60000);
+  }
+
+  private Map<String, Object> createDoc(String key, Object value) {
+    Map<String, Object> doc = new HashMap<>();
+    doc.put(key, value);
+    return doc;
+  }
+
+  private static class InMemoryDao implements EsIndexOutboxDao {
+
+    private final List<Map<String, Object>> entries = new ArrayList<>();
+    private final List<Map<String, Object>> deadLetters = new ArrayList<>();
+    private int lastReadLimit;
+
+    @Override
+    public void insert(List<Map<String, Object>> newEntries) {
+      entries.addAll(newEntries);
+    }
+
+    @Override
+    public List<Map<String, Object>> read(int shard, int limit) {
+      lastReadLimit = limit;
+      return entries
+          .stream()
+          .filter(entry -> shard == (int) entry.get(EsIndexOutbox.SHARD))
+          .sorted(Comparator.comparingLong(entry -> (long) entry.get(EsIndexOutbox.CREATED_ON)))
+          .limit(limit)
+          .map(HashMap::new)
+          .collect(Collectors.toList());
+    }
+
+    @Override
+    public void delete(Map<String, Object> entry) {
+      entries.removeIf(stored -> stored.get(EsIndexOutbox.ID).equals(entry.get(EsIndexOutbox.ID)));
+    }
+
+    @Override
+    public void updateAttempts(Map<String, Object> entry, int attempts, long nextAttemptOn) {
+      for (Map<String, Object> stored : entries) {
+        if (stored.get(EsIndexOutbox.ID).equals(entry.get(EsIndexOutbox.ID))) {
+          stored.put(EsIndexOutbox.ATTEMPTS, attempts);
+          stored.put(EsIndexOutbox.NEXT_ATTEMPT_ON, nextAttemptOn);
+        }
+      }
+    }
+
+    @Override
+    public void moveToDeadLetter(Map<String, Object> entry, int attempts) {
+      Map<String, Object> deadLetter = new HashMap<>(entry);
+      deadLetter.put(EsIndexOutbox.ATTEMPTS, attempts);
+      deadLetters.add(deadLetter);
+      delete(entry);
+    }
+  }
+}
@@ -0,0 +1,48 @@
+package org.sunbird.learner.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LocalCacheTest {
+
+  @Test
+  public void testGetReturnsCachedValue() {
+    LocalCache<String, String> cache = new LocalCache<>(10, 60000);
+    cache.put("key1", "value1");
+    Assert.assertEquals("value1", cache.get("key1"));
+    Assert.assertNull(cache.get("key2"));
+    Assert.assertEquals(1L, cache.getMetrics().get("hitCount"));
+    Assert.assertEquals(1L, cache.getMetrics().get("missCount"));
+  }
+
+  @Test
+  public void testPutEvictsLeastRecentlyUsedEntry() {
+    LocalCache<String, String> cache = new LocalCache<>(2, 60000);
+    cache.put("key1", "value1");
+    cache.put("key2", "value2");
+    cache.get("key1");
+    cache.put("key3", "value3");
+    Assert.assertEquals("value1", cache.get("key1"));
+    Assert.assertNull(cache.get("key2"));
+    Assert.assertEquals(2, cache.size());
+  }
+
+  @Test
+  public void testGetDropsExpiredEntry() {
+    LocalCache<String, String> cache = new LocalCache<>(10, 0);
+    cache.put("key1", "value1");
+    Assert.assertNull(cache.get("key1"));
+    Assert.assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testInvalidateRemovesEntry() {
+    LocalCache<String, String> cache = new LocalCache<>(10, 60000);
+    cache.put("key1", "value1");
+    cache.put("key2", "value2");
+    cache.invalidate("key1");
+    Assert.assertNull(cache.get("key1"));
+    cache.invalidateAll();
+    Assert.assertEquals(0, cache.size());
+  }
+}
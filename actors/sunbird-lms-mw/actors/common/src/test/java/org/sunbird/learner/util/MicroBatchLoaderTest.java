@@ -0,0 +1,151 @@
+package org.sunbird.learner.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MicroBatchLoaderTest {
+
+  private List<List<String>> batches;
+  private CountDownLatch firstBatchRelease;
+
+  @Before
+  public void setUp() {
+    batches = Collections.synchronizedList(new ArrayList<>());
+    firstBatchRelease = new CountDownLatch(1);
+  }
+
+  @Test
+  public void testKeyIsDispatchedAtOnceWhenNoBatchIsLoading() throws Exception {
+    firstBatchRelease.countDown();
+    MicroBatchLoader<String, String> loader = createLoader(60000, 100);
+
+    Assert.assertEquals("A", loader.load("a").get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testKeysArrivingDuringLoadAreLoadedTogether() throws Exception {
+    MicroBatchLoader<String, String> loader = createLoader(20, 100);
+    CompletableFuture<String> first = loader.load("a");
+    awaitBatches(1);
+    CompletableFuture<String> second = loader.load("b");
+    CompletableFuture<String> third = loader.load("c");
+    CompletableFuture<String> duplicate = loader.load("a");
+    firstBatchRelease.countDown();
+
+    Assert.assertEquals("A", first.get(5, TimeUnit.SECONDS));
+    Assert.assertEquals("B", second.get(5, TimeUnit.SECONDS));
+    Assert.assertEquals("C", third.get(5, TimeUnit.SECONDS));
+    Assert.assertSame(first, duplicate);
+    Assert.assertEquals(2, batches.size());
+    Assert.assertEquals(Arrays.asList("b", "c"), batches.get(1));
+  }
+
+  @Test
+  public void testFullBatchIsDispatchedBeforeWindowEnds() throws Exception {
+    MicroBatchLoader<String, String> loader = createLoader(60000, 2);
+    loader.load("a");
+    awaitBatches(1);
+    CompletableFuture<String> second = loader.load("b");
+    CompletableFuture<String> third = loader.load("c");
+
+    Assert.assertEquals("B", second.get(5, TimeUnit.SECONDS));
+    Assert.assertEquals("C", third.get(5, TimeUnit.SECONDS));
+    firstBatchRelease.countDown();
+  }
+
+  @Test
+  public void testKeysOfOneCallerAreLoadedInOneBatch() throws Exception {
+    MicroBatchLoader<String, String> loader = createLoader(60000, 100);
+    List<CompletableFuture<String>> values = loader.loadAll(Arrays.asList("b", "c", "d"));
+
+    Assert.assertEquals("B", values.get(0).get(5, TimeUnit.SECONDS));
+    Assert.assertEquals("D", values.get(2).get(5, TimeUnit.SECONDS));
+    Assert.assertEquals(1, batches.size());
+    Assert.assertEquals(Arrays.asList("b", "c", "d"), batches.get(0));
+  }
+
+  @Test
+  public void testKeysOfOneCallerAreSplitIntoFullBatches() throws Exception {
+    MicroBatchLoader<String, String> loader = createLoader(60000, 2);
+    List<CompletableFuture<String>> values = loader.loadAll(Arrays.asList("b", "c", "d"));
+
+    Assert.assertEquals("D", values.get(2).get(5, TimeUnit.SECONDS));
+    Assert.assertEquals(2, batches.size());
+    Assert.assertEquals(Arrays.asList("b", "c"), batches.get(0));
+    Assert.assertEquals(Collections.singletonList("d"), batches.get(1));
+  }
+
+  @Test
+  public void testMissingKeyCompletesWithNull() throws Exception {
+    firstBatchRelease.countDown();
+    MicroBatchLoader<String, String> loader = createLoader(1, 100);
+
+    Assert.assertNull(loader.load("unknown").get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testBatchFailureFailsAllCallers() {
+    MicroBatchLoader<String, String> loader =
+        new MicroBatchLoader<>(
+            keys -> {
+              throw new IllegalStateException("failed");
+            },
+            1,
+            100,
+            Executors.newSingleThreadExecutor());
+
+    try {
+      loader.load("a").join();
+      Assert.fail();
+    } catch (RuntimeException e) {
+      Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+  }
+
+  private void awaitBatches(int count) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (batches.size() < count && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5);
+    }
+    Assert.assertEquals(count, batches.size());
+  }
+
+  private MicroBatchLoader<String, String> createLoader(long windowMillis, int maxBatchSize) {
+    return new MicroBatchLoader<>(
+        keys -> {
+          batches.add(keys);
+          if (keys.contains("a")) {
+            awaitRelease();
+          }
+          Map<String, String> values = new HashMap<>();
+          for (String key : keys) {
+            if (!"unknown".equals(key)) {
+              values.put(key, key.toUpperCase());
+            }
+          }
+          return values;
+        },
+        windowMillis,
+        maxBatchSize,
+        Executors.newCachedThreadPool());
+  }
+
+  private void awaitRelease() {
+    try {
+      firstBatchRelease.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
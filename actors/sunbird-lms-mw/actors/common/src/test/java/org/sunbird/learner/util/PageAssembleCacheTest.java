@@ -0,0 +1,61 @@
+package org.sunbird.learner.util;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import org.junit.Assert;
+import org.junit.Test;
+import org.sunbird.common.models.response.Response;
+
+public class PageAssembleCacheTest {
+
+  private static final String KEY = "requestHash";
+  private static final String PAGE_NAME = "Course";
+
+  @Test
+  public void testGetReturnsCopyOfCachedResponse() {
+    PageAssembleCache cache = new PageAssembleCache(true, 10, 60000, 60000);
+    cache.put(KEY, PAGE_NAME, new HashSet<>(Arrays.asList(PAGE_NAME)), createResponse(), 0);
+
+    PageAssembleCache.CachedResponse cached = cache.get(KEY);
+    Assert.assertFalse(cached.isRefreshRequired());
+    cached.getResponse().getResult().remove("response");
+    Assert.assertEquals("page", cache.get(KEY).getResponse().get("response"));
+  }
+
+  @Test
+  public void testGetRequestsSingleRefreshOfStaleResponse() {
+    PageAssembleCache cache = new PageAssembleCache(true, 10, 0, 60000);
+    cache.put(KEY, PAGE_NAME, new HashSet<>(Arrays.asList(PAGE_NAME)), createResponse(), 0);
+
+    Assert.assertTrue(cache.get(KEY).isRefreshRequired());
+    Assert.assertFalse(cache.get(KEY).isRefreshRequired());
+    cache.refreshFailed(KEY);
+    Assert.assertTrue(cache.get(KEY).isRefreshRequired());
+  }
+
+  @Test
+  public void testGetDropsResponseOlderThanMaxStale() {
+    PageAssembleCache cache = new PageAssembleCache(true, 10, 0, 0);
+    cache.put(KEY, PAGE_NAME, new HashSet<>(Arrays.asList(PAGE_NAME)), createResponse(), 0);
+    Assert.assertNull(cache.get(KEY));
+  }
+
+  @Test
+  public void testInvalidateRemovesResponsesOfSection() {
+    PageAssembleCache cache = new PageAssembleCache(true, 10, 60000, 60000);
+    long version = cache.getVersion();
+    cache.put(
+        KEY, PAGE_NAME, new HashSet<>(Arrays.asList(PAGE_NAME, "section1")), createResponse(), 0);
+    cache.invalidate("section1");
+    Assert.assertNull(cache.get(KEY));
+
+    cache.put(KEY, PAGE_NAME, new HashSet<>(Arrays.asList(PAGE_NAME)), createResponse(), version);
+    Assert.assertNull(cache.get(KEY));
+  }
+
+  private Response createResponse() {
+    Response response = new Response();
+    response.put("response", "page");
+    return response;
+  }
+}
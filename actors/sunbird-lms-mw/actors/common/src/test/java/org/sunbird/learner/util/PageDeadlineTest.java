@@ -0,0 +1,86 @@
+package org.sunbird.learner.util;
+
+import akka.actor.ActorSystem;
+import akka.dispatch.Futures;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Test;
+import scala.concurrent.Await;
+import scala.concurrent.ExecutionContext;
+import scala.concurrent.Future;
+import scala.concurrent.Promise;
+import scala.concurrent.duration.Duration;
+
+public class PageDeadlineTest {
+
+  private static final ActorSystem system = ActorSystem.create("PageDeadlineTest");
+  private static final ExecutionContext ec = system.dispatcher();
+  private static final Duration WAIT = Duration.create(5, TimeUnit.SECONDS);
+
+  private final AtomicInteger fallbackCount = new AtomicInteger();
+
+  @AfterClass
+  public static void tearDown() {
+    system.terminate();
+  }
+
+  @Test
+  public void testLimitReturnsResultWithoutBuildingFallback() throws Exception {
+    PageDeadline deadline = new PageDeadline(system.scheduler(), ec, 5000, 5000);
+    Future<String> section = limit(deadline, Futures.successful("result"));
+
+    Assert.assertEquals("result", Await.result(section, WAIT));
+    deadline.cancel();
+    Assert.assertEquals(0, fallbackCount.get());
+  }
+
+  @Test
+  public void testLimitReturnsFallbackOnFailure() throws Exception {
+    PageDeadline deadline = new PageDeadline(system.scheduler(), ec, 5000, 5000);
+    Future<String> section = limit(deadline, Futures.failed(new RuntimeException("failed")));
+
+    Assert.assertEquals("failed", Await.result(section, WAIT));
+    deadline.cancel();
+  }
+
+  @Test
+  public void testLimitReturnsFallbackAfterSectionTimeout() throws Exception {
+    PageDeadline deadline = new PageDeadline(system.scheduler(), ec, 5000, 100);
+    Future<String> section = limit(deadline, Futures.<String>promise().future());
+
+    Assert.assertEquals("timedOut", Await.result(section, WAIT));
+    Assert.assertFalse(deadline.isExpired());
+    deadline.cancel();
+  }
+
+  @Test
+  public void testPageDeadlineLimitsSectionsStartedLate() throws Exception {
+    long startTime = System.currentTimeMillis();
+    PageDeadline deadline = new PageDeadline(system.scheduler(), ec, 300, 5000);
+    Promise<String> first = Futures.promise();
+    Future<String> firstSection = limit(deadline, first.future());
+    Thread.sleep(200);
+    Future<String> secondSection = limit(deadline, Futures.<String>promise().future());
+
+    Assert.assertEquals("timedOut", Await.result(firstSection, WAIT));
+    Assert.assertEquals("timedOut", Await.result(secondSection, WAIT));
+    Assert.assertTrue(deadline.isExpired());
+    Assert.assertTrue(System.currentTimeMillis() - startTime < 5000);
+    Assert.assertEquals(2, fallbackCount.get());
+
+    first.success("late");
+    Assert.assertEquals("timedOut", Await.result(firstSection, WAIT));
+  }
+
+  private Future<String> limit(PageDeadline deadline, Future<String> search) {
+    return deadline.limit(
+        search,
+        failure -> failure.getMessage(),
+        () -> {
+          fallbackCount.incrementAndGet();
+          return "timedOut";
+        });
+  }
+}
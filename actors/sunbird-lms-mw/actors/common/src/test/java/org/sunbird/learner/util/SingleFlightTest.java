@@ -0,0 +1,72 @@
+package org.sunbird.learner.util;
+
+import akka.dispatch.ExecutionContexts;
+import akka.dispatch.Futures;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+import scala.concurrent.Await;
+import scala.concurrent.ExecutionContext;
+import scala.concurrent.Future;
+import scala.concurrent.Promise;
+import scala.concurrent.duration.Duration;
+
+public class SingleFlightTest {
+
+  private static final ExecutionContext ec = ExecutionContexts.global();
+
+  @Test
+  public void testExecuteCoalescesConcurrentCallsWithSameKey() throws Exception {
+    SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    AtomicInteger callCount = new AtomicInteger();
+    Promise<String> promise = Futures.promise();
+
+    Future<String> first =
+        singleFlight.execute(
+            "key",
+            () -> {
+              callCount.incrementAndGet();
+              return promise.future();
+            },
+            ec);
+    Future<String> second =
+        singleFlight.execute(
+            "key",
+            () -> {
+              callCount.incrementAndGet();
+              return promise.future();
+            },
+            ec);
+    promise.success("result");
+
+    Assert.assertEquals("result", Await.result(first, Duration.create(5, TimeUnit.SECONDS)));
+    Assert.assertEquals("result", Await.result(second, Duration.create(5, TimeUnit.SECONDS)));
+    Assert.assertEquals(1, callCount.get());
+    Assert.assertEquals(1L, singleFlight.getMetrics().get("missCount"));
+    Assert.assertEquals(1L, singleFlight.getMetrics().get("coalescedCount"));
+  }
+
+  @Test
+  public void testExecuteStartsNewCallForDifferentKey() {
+    SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    singleFlight.execute("key1", () -> Futures.<String>promise().future(), ec);
+    singleFlight.execute("key2", () -> Futures.<String>promise().future(), ec);
+    Assert.assertEquals(2L, singleFlight.getMetrics().get("missCount"));
+    Assert.assertEquals(2, singleFlight.getMetrics().get("inFlightCount"));
+  }
+
+  @Test
+  public void testExecuteFailsWhenCallCannotBeStarted() throws Exception {
+    SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    Future<String> result =
+        singleFlight.execute(
+            "key",
+            () -> {
+              throw new IllegalStateException("failed");
+            },
+            ec);
+    Assert.assertTrue(result.isCompleted());
+    Assert.assertEquals(0, singleFlight.getMetrics().get("inFlightCount"));
+  }
+}
@@ -0,0 +1,60 @@
+package org.sunbird.learner.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.sunbird.common.models.util.JsonKey;
+
+public class UserRootOrgCacheTest {
+
+  private int loadCount;
+
+  @Before
+  public void setUp() {
+    UserRootOrgCache.getInstance().invalidateAll();
+    loadCount = 0;
+  }
+
+  @Test
+  public void testGetReadsUserOnce() {
+    Assert.assertEquals("rootOrg1", UserRootOrgCache.getInstance().get("user1", this::load));
+    Assert.assertEquals("rootOrg1", UserRootOrgCache.getInstance().get("user1", this::load));
+    Assert.assertEquals(1, loadCount);
+  }
+
+  @Test
+  public void testPutAllCachesUsersReadElsewhere() {
+    Map<String, Object> userWithoutId = createUser(null);
+    userWithoutId.put(JsonKey.USER_ID, "user2");
+    UserRootOrgCache.getInstance().putAll(Arrays.asList(createUser("user1"), userWithoutId));
+
+    Assert.assertEquals("rootOrg1", UserRootOrgCache.getInstance().get("user1"));
+    Assert.assertEquals("rootOrg1", UserRootOrgCache.getInstance().get("user2"));
+  }
+
+  @Test
+  public void testLoadPassesRootOrgIdToCallback() throws Exception {
+    CompletableFuture<String> rootOrgId = new CompletableFuture<>();
+    UserRootOrgCache.getInstance().load("user1", this::load, rootOrgId::complete);
+
+    Assert.assertEquals("rootOrg1", rootOrgId.get(5, TimeUnit.SECONDS));
+    Assert.assertEquals("rootOrg1", UserRootOrgCache.getInstance().get("user1"));
+  }
+
+  private Map<String, Object> load(String userId) {
+    loadCount++;
+    return createUser(userId);
+  }
+
+  private Map<String, Object> createUser(String userId) {
+    Map<String, Object> user = new HashMap<>();
+    user.put(JsonKey.ID, userId);
+    user.put(JsonKey.ROOT_ORG_ID, "rootOrg1");
+    return user;
+  }
+}
@@ -12,19 +12,12 @@ import akka.testkit.javadsl.TestKit;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mashape.unirest.http.HttpMethod;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import org.apache.http.HttpEntity;
-import org.apache.http.StatusLine;
-import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.client.methods.HttpPost;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -41,6 +34,9 @@ import org.sunbird.common.ElasticSearchHelper;
 import org.sunbird.common.ElasticSearchRestHighImpl;
 import org.sunbird.common.exception.ProjectCommonException;
 import org.sunbird.common.factory.EsClientFactory;
+import org.sunbird.common.http.OutboundHttpClient;
+import org.sunbird.common.http.OutboundHttpClients;
+import org.sunbird.common.http.OutboundHttpResponse;
 import org.sunbird.common.inf.ElasticSearchService;
 import org.sunbird.common.models.response.Response;
 import org.sunbird.common.models.util.ActorOperations;
@@ -50,6 +46,7 @@ import org.sunbird.common.responsecode.ResponseCode;
 import org.sunbird.common.util.CloudStorageUtil;
 import org.sunbird.helper.ServiceFactory;
 import org.sunbird.learner.util.ContentSearchUtil;
+import org.sunbird.learner.util.CourseBatchCache;
 import org.sunbird.userorg.UserOrgService;
 import org.sunbird.userorg.UserOrgServiceImpl;
 import scala.concurrent.Future;
@@ -64,13 +61,13 @@ import scala.concurrent.Promise;
 @PrepareForTest({
   ElasticSearchRestHighImpl.class,
   ElasticSearchHelper.class,
-  HttpClientBuilder.class,
+  OutboundHttpClients.class,
+  OutboundHttpClient.class,
   ServiceFactory.class,
   CloudStorageUtil.class,
   EsClientFactory.class,
   UserOrgServiceImpl.class,
-  ContentSearchUtil.class,
-  HttpClientBuilder.class
+  ContentSearchUtil.class
 })
 @PowerMockIgnore("javax.management.*")
 @Ignore
@@ -93,7 +90,6 @@ public class CourseMetricsActorTest {
   private static ElasticSearchService esService;
   private static final String SIGNED_URL = "SIGNED_URL";
   private static UserOrgService userOrgService;
-  private static CloseableHttpClient httpClient;
 
   @BeforeClass
   public static void setUp() {
@@ -106,6 +102,7 @@ public class CourseMetricsActorTest {
 
   @Before
   public void before() {
+    CourseBatchCache.getInstance().invalidateAll();
     esService = mock(ElasticSearchRestHighImpl.class);
     PowerMockito.mockStatic(EsClientFactory.class);
     PowerMockito.mockStatic(ElasticSearchHelper.class);
@@ -120,7 +117,7 @@ public class CourseMetricsActorTest {
     when(userOrgService.getUserById(Mockito.anyString())).thenReturn(userMap);
     PowerMockito.mockStatic(ContentSearchUtil.class);
     when(ContentSearchUtil.searchContentSync(
-            Mockito.anyString(), Mockito.anyString(), Mockito.anyMap()))
+            Mockito.anyString(), Mockito.anyString(), Mockito.anyMap(), Mockito.anySet()))
         .thenReturn(getContentMap());
     mockCourseBatch(false);
   }
@@ -378,10 +375,7 @@ public class CourseMetricsActorTest {
     TestKit probe = new TestKit(system);
     ActorRef subject = system.actorOf(props);
 
-    mockHttpPostSuccess(
-        HTTP_POST,
-        new ByteArrayInputStream(
-            (mapper.writeValueAsString(courseConsumptionSuccessMap())).getBytes()));
+    mockHttpPostSuccess(HTTP_POST, mapper.writeValueAsString(courseConsumptionSuccessMap()));
 
     Request actorMessage = new Request();
     actorMessage.put(JsonKey.COURSE_ID, "mclr309f39");
@@ -449,34 +443,15 @@ public class CourseMetricsActorTest {
     Assert.assertEquals("INVALID_PERIOD", e.getCode());
   }
 
-  private static void mockHttpPostSuccess(String methodType, InputStream inputStream) {
+  private static void mockHttpPostSuccess(String methodType, String body) {
 
     if (HttpMethod.POST.name().equalsIgnoreCase(methodType)) {
-      HttpClientBuilder httpClientBuilder = PowerMockito.mock(HttpClientBuilder.class);
-      CloseableHttpClient client = PowerMockito.mock(CloseableHttpClient.class);
-      CloseableHttpResponse httpResponse = Mockito.mock(CloseableHttpResponse.class);
-      when(HttpClientBuilder.create()).thenReturn(httpClientBuilder);
-      when(httpClientBuilder.build()).thenReturn(client);
-
-      try {
-        when(client.execute(Mockito.any(HttpPost.class))).thenReturn(httpResponse);
-      } catch (IOException e) {
-        e.printStackTrace();
-      }
-      HttpEntity httpEntity = Mockito.mock(HttpEntity.class);
-      when(httpResponse.getEntity()).thenReturn(httpEntity);
-      StatusLine statusLine = Mockito.mock(StatusLine.class);
-      when(httpResponse.getStatusLine()).thenReturn(statusLine);
-      when(statusLine.getStatusCode()).thenReturn(200);
-      Map<String, Object> responseMap = new HashMap<>();
-      Map<String, Object> resultMap = new HashMap<>();
-      Map<String, Object> aggregateMap = new HashMap<>();
-      Map<String, Object> statusMap = new HashMap<>();
-      aggregateMap.put(JsonKey.STATUS, statusMap);
-      resultMap.put(JsonKey.AGGREGATIONS, aggregateMap);
-      responseMap.put(JsonKey.RESULT, resultMap);
+      OutboundHttpClient client = PowerMockito.mock(OutboundHttpClient.class);
+      PowerMockito.mockStatic(OutboundHttpClients.class);
+      when(OutboundHttpClients.get(Mockito.anyString())).thenReturn(client);
       try {
-        when(httpEntity.getContent()).thenReturn(inputStream);
+        when(client.postSync(Mockito.anyString(), Mockito.anyMap(), Mockito.anyString()))
+            .thenReturn(new OutboundHttpResponse(200, body.getBytes(StandardCharsets.UTF_8)));
       } catch (IOException e) {
         e.printStackTrace();
       }
@@ -519,7 +494,7 @@ public class CourseMetricsActorTest {
     contentList.add(esComplexSearchMap);
     esMap.put(JsonKey.CONTENT, contentList);
 
-    PowerMockito.mockStatic(HttpClientBuilder.class);
+    PowerMockito.mockStatic(OutboundHttpClients.class);
     Promise<Map<String, Object>> promise = Futures.promise();
     promise.success(esMap);
     when(esService.search(Mockito.any(), Mockito.any())).thenReturn(promise.future());
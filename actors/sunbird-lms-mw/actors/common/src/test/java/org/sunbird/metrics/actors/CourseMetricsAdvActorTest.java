@@ -26,6 +26,7 @@ import org.sunbird.common.models.util.ProjectUtil.EsType;
 import org.sunbird.common.request.Request;
 import org.sunbird.common.util.CloudStorageUtil;
 import org.sunbird.learner.util.ContentSearchUtil;
+import org.sunbird.learner.util.CourseBatchCache;
 import org.sunbird.learner.util.EkStepRequestUtil;
 import org.sunbird.userorg.UserOrgServiceImpl;
 
@@ -44,6 +45,7 @@ public class CourseMetricsAdvActorTest extends SunbirdApplicationActorTest {
 
   @Before
   public void setUp() {
+    CourseBatchCache.getInstance().invalidateAll();
     group =
         MockerBuilder.getFreshMockerGroup()
             .withESMock(new ESMocker())
@@ -112,7 +114,7 @@ public class CourseMetricsAdvActorTest extends SunbirdApplicationActorTest {
                 .buildList()
                 .asESSearchResult());
     when(ContentSearchUtil.searchContentSync(
-            Mockito.anyString(), Mockito.anyString(), Mockito.anyMap()))
+            Mockito.anyString(), Mockito.anyString(), Mockito.anyMap(), Mockito.anySet()))
         .thenReturn(CustomObjectBuilder.getRandomCourse().get());
     Request request = new Request();
     request.put(JsonKey.REQUESTED_BY, "randomUserId");
@@ -144,7 +146,7 @@ public class CourseMetricsAdvActorTest extends SunbirdApplicationActorTest {
                 .buildList()
                 .asESSearchResult());
     when(ContentSearchUtil.searchContentSync(
-            Mockito.anyString(), Mockito.anyString(), Mockito.anyMap()))
+            Mockito.anyString(), Mockito.anyString(), Mockito.anyMap(), Mockito.anySet()))
         .thenReturn(CustomObjectBuilder.getRandomCourse().get());
     Request request = new Request();
     request.put(JsonKey.REQUESTED_BY, "randomUserId");
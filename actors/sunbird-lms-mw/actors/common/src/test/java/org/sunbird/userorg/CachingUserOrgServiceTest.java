@@ -0,0 +1,231 @@
+package org.sunbird.userorg;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.sunbird.common.models.util.JsonKey;
+
+public class CachingUserOrgServiceTest {
+
+  private List<List<String>> requestedIds;
+  private List<String> readIds;
+  private CountDownLatch searchRelease;
+  private CachingUserOrgService service;
+
+  @Before
+  public void setUp() {
+    requestedIds = Collections.synchronizedList(new ArrayList<>());
+    readIds = Collections.synchronizedList(new ArrayList<>());
+    searchRelease = null;
+    service = new CachingUserOrgService(new StubUserOrgService(), 60000, 60000, 100, 2, 2, 0);
+  }
+
+  @Test
+  public void testGetUsersByIdsRequestsOnlyMissingIds() {
+    service.getUsersByIds(Arrays.asList("user1", "user2"));
+    List<Map<String, Object>> users = service.getUsersByIds(Arrays.asList("user2", "user3"));
+
+    Assert.assertEquals(2, requestedIds.size());
+    Assert.assertEquals(Collections.singletonList("user3"), requestedIds.get(1));
+    Assert.assertEquals("user2", users.get(0).get(JsonKey.ID));
+    Assert.assertEquals("user3", users.get(1).get(JsonKey.ID));
+  }
+
+  @Test
+  public void testGetOrganisationsByIdsSplitsIdsIntoChunks() {
+    List<Map<String, Object>> orgs =
+        service.getOrganisationsByIds(Arrays.asList("org5", "org4", "org3", "org2", "org1"));
+
+    Assert.assertEquals(3, requestedIds.size());
+    Assert.assertEquals(5, orgs.size());
+    Assert.assertEquals("org5", orgs.get(0).get(JsonKey.ID));
+    Assert.assertEquals("org1", orgs.get(4).get(JsonKey.ID));
+  }
+
+  @Test
+  public void testGetOrganisationByIdIsServedFromCache() {
+    service.getOrganisationsByIds(Collections.singletonList("org1"));
+    Map<String, Object> org = service.getOrganisationById("org1");
+    org.put(JsonKey.NAME, "changed");
+
+    Assert.assertEquals(1, requestedIds.size());
+    Assert.assertEquals("org1", service.getOrganisationById("org1").get(JsonKey.NAME));
+  }
+
+  @Test
+  public void testGetUsersByIdsSkipsUnknownAndDuplicateIds() {
+    List<Map<String, Object>> users =
+        service.getUsersByIds(Arrays.asList("user1", "unknown", "user1"));
+
+    Assert.assertEquals(1, users.size());
+  }
+
+  @Test
+  public void testGetUserByIdUsesUserReadApiWithoutBatching() {
+    service.getUsersByIds(Collections.singletonList("user1"));
+    Map<String, Object> user = service.getUserById("user1");
+
+    Assert.assertEquals("user1", user.get(JsonKey.ID));
+    Assert.assertEquals(Collections.singletonList("user1"), readIds);
+    service.getUserById("user1");
+    Assert.assertEquals(1, readIds.size());
+  }
+
+  @Test
+  public void testConcurrentUserReadsAreCombined() throws Exception {
+    searchRelease = new CountDownLatch(1);
+    CachingUserOrgService batchingService =
+        new CachingUserOrgService(new StubUserOrgService(), 60000, 60000, 100, 2, 2, 60000);
+    CompletableFuture<Map<String, Object>> first =
+        CompletableFuture.supplyAsync(() -> batchingService.getUserById("user1"));
+    awaitSearches(1);
+    CompletableFuture<Map<String, Object>> second =
+        CompletableFuture.supplyAsync(() -> batchingService.getUserById("user2"));
+    CompletableFuture<Map<String, Object>> third =
+        CompletableFuture.supplyAsync(() -> batchingService.getUserById("user3"));
+
+    Assert.assertEquals("user2", second.get(5, TimeUnit.SECONDS).get(JsonKey.ID));
+    Assert.assertEquals("user3", third.get(5, TimeUnit.SECONDS).get(JsonKey.ID));
+    searchRelease.countDown();
+    Assert.assertEquals("user1", first.get(5, TimeUnit.SECONDS).get(JsonKey.ID));
+    Assert.assertEquals(2, requestedIds.size());
+    Assert.assertEquals(2, requestedIds.get(1).size());
+    Assert.assertTrue(readIds.isEmpty());
+  }
+
+  @Test
+  public void testUserReadBySearchGetsOrganisations() {
+    CachingUserOrgService batchingService =
+        new CachingUserOrgService(new StubUserOrgService(), 60000, 60000, 100, 2, 2, 60000);
+    Map<String, Object> user = batchingService.getUserById("member1");
+
+    Assert.assertEquals("org2", ((Map) user.get(JsonKey.REGISTERED_ORG)).get(JsonKey.ID));
+    Assert.assertEquals("org1", ((Map) user.get(JsonKey.ROOT_ORG)).get(JsonKey.ID));
+    Assert.assertEquals(
+        Arrays.asList(Collections.singletonList("member1"), Arrays.asList("org2", "org1")),
+        requestedIds);
+    Assert.assertTrue(readIds.isEmpty());
+  }
+
+  @Test
+  public void testUserNotFoundBySearchIsRead() {
+    CachingUserOrgService batchingService =
+        new CachingUserOrgService(new StubUserOrgService(), 60000, 60000, 100, 2, 2, 60000);
+    Map<String, Object> user = batchingService.getUserById("unknown");
+
+    Assert.assertEquals("unknown", user.get(JsonKey.ID));
+    Assert.assertEquals(Collections.singletonList("unknown"), readIds);
+  }
+
+  @Test
+  public void testIdsOfOneSearchAreSearchedTogether() {
+    CachingUserOrgService batchingService =
+        new CachingUserOrgService(new StubUserOrgService(), 60000, 60000, 100, 3, 2, 60000);
+    List<Map<String, Object>> users =
+        batchingService.getUsersByIds(Arrays.asList("user1", "user2", "user3"));
+
+    Assert.assertEquals(3, users.size());
+    Assert.assertEquals(
+        Collections.singletonList(Arrays.asList("user1", "user2", "user3")), requestedIds);
+  }
+
+  @Test
+  public void testConcurrentSearchesAreCombined() throws Exception {
+    searchRelease = new CountDownLatch(1);
+    CachingUserOrgService batchingService =
+        new CachingUserOrgService(new StubUserOrgService(), 60000, 60000, 100, 2, 2, 60000);
+    CompletableFuture<List<Map<String, Object>>> first =
+        CompletableFuture.supplyAsync(
+            () -> batchingService.getUsersByIds(Collections.singletonList("user1")));
+    awaitSearches(1);
+    CompletableFuture<List<Map<String, Object>>> second =
+        CompletableFuture.supplyAsync(
+            () -> batchingService.getUsersByIds(Collections.singletonList("user2")));
+    CompletableFuture<List<Map<String, Object>>> third =
+        CompletableFuture.supplyAsync(
+            () -> batchingService.getUsersByIds(Collections.singletonList("user3")));
+
+    Assert.assertEquals("user2", second.get(5, TimeUnit.SECONDS).get(0).get(JsonKey.ID));
+    Assert.assertEquals("user3", third.get(5, TimeUnit.SECONDS).get(0).get(JsonKey.ID));
+    searchRelease.countDown();
+    Assert.assertEquals("user1", first.get(5, TimeUnit.SECONDS).get(0).get(JsonKey.ID));
+    Assert.assertEquals(2, requestedIds.size());
+    Assert.assertEquals(2, requestedIds.get(1).size());
+  }
+
+  private void awaitSearches(int count) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (requestedIds.size() < count && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5);
+    }
+    Assert.assertEquals(count, requestedIds.size());
+  }
+
+  private Map<String, Object> create(String id) {
+    Map<String, Object> entry = new HashMap<>();
+    entry.put(JsonKey.ID, id);
+    entry.put(JsonKey.NAME, id);
+    return entry;
+  }
+
+  private List<Map<String, Object>> search(List<String> ids) {
+    requestedIds.add(new ArrayList<>(ids));
+    if (searchRelease != null && ids.contains("user1")) {
+      try {
+        searchRelease.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    List<Map<String, Object>> entries = new ArrayList<>();
+    for (String id : ids) {
+      if (!"unknown".equals(id)) {
+        Map<String, Object> entry = create(id);
+        if (id.startsWith("member")) {
+          entry.put(JsonKey.ROOT_ORG_ID, "org1");
+          entry.put(JsonKey.REGISTERED_ORG_ID, "org2");
+        }
+        entries.add(entry);
+      }
+    }
+    return entries;
+  }
+
+  private class StubUserOrgService implements UserOrgService {
+
+    @Override
+    public Map<String, Object> getOrganisationById(String id) {
+      return search(Collections.singletonList(id)).get(0);
+    }
+
+    @Override
+    public List<Map<String, Object>> getOrganisationsByIds(List<String> ids) {
+      return search(ids);
+    }
+
+    @Override
+    public Map<String, Object> getUserById(String id) {
+      readIds.add(id);
+      return create(id);
+    }
+
+    @Override
+    public List<Map<String, Object>> getUsersByIds(List<String> ids) {
+      return search(ids);
+    }
+
+    @Override
+    public List<Map<String, Object>> getUsers(Map<String, Object> request) {
+      return new ArrayList<>();
+    }
+  }
+}
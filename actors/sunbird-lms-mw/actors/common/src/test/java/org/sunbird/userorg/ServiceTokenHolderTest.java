@@ -0,0 +1,64 @@
+package org.sunbird.userorg;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ServiceTokenHolderTest {
+
+  @Test
+  public void testGetTokenReusesValidToken() {
+    AtomicInteger logins = new AtomicInteger();
+    ServiceTokenHolder holder =
+        new ServiceTokenHolder(() -> "token" + logins.incrementAndGet(), 60000, 1000);
+
+    Assert.assertEquals("token1", holder.getToken());
+    Assert.assertEquals("token1", holder.getToken());
+    Assert.assertEquals(1, logins.get());
+  }
+
+  @Test
+  public void testInvalidateForcesLogin() {
+    AtomicInteger logins = new AtomicInteger();
+    ServiceTokenHolder holder =
+        new ServiceTokenHolder(() -> "token" + logins.incrementAndGet(), 60000, 1000);
+
+    String token = holder.getToken();
+    holder.invalidate("otherToken");
+    Assert.assertEquals(token, holder.getToken());
+    holder.invalidate(token);
+    Assert.assertEquals("token2", holder.getToken());
+  }
+
+  @Test
+  public void testGetTokenLogsInAgainAfterExpiry() {
+    AtomicInteger logins = new AtomicInteger();
+    long expiredAt = System.currentTimeMillis() / 1000 - 10;
+    ServiceTokenHolder holder =
+        new ServiceTokenHolder(() -> createJwt(expiredAt) + logins.incrementAndGet(), 60000, 1000);
+
+    holder.getToken();
+    holder.getToken();
+    Assert.assertEquals(2, logins.get());
+  }
+
+  @Test
+  public void testGetTokenDoesNotCacheFailedLogin() {
+    AtomicInteger logins = new AtomicInteger();
+    ServiceTokenHolder holder =
+        new ServiceTokenHolder(() -> logins.incrementAndGet() == 1 ? null : "token", 60000, 1000);
+
+    Assert.assertNull(holder.getToken());
+    Assert.assertEquals("token", holder.getToken());
+  }
+
+  private String createJwt(long exp) {
+    Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+    return encoder.encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8))
+        + "."
+        + encoder.encodeToString(("{\"exp\":" + exp + "}").getBytes(StandardCharsets.UTF_8))
+        + ".sig";
+  }
+}
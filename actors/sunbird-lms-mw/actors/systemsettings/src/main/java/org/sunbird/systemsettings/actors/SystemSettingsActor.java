@@ -18,6 +18,7 @@ import org.sunbird.common.request.ExecutionContext;
 import org.sunbird.common.request.Request;
 import org.sunbird.common.responsecode.ResponseCode;
 import org.sunbird.helper.ServiceFactory;
+import org.sunbird.learner.util.CacheInvalidationBus;
 import org.sunbird.learner.util.Util;
 import org.sunbird.models.systemsetting.SystemSetting;
 import org.sunbird.systemsettings.dao.impl.SystemSettingDaoImpl;
@@ -134,6 +135,7 @@ public class SystemSettingsActor extends BaseActor {
     Response response = systemSettingDaoImpl.write(systemSetting);
     if (response != null) {
       cache.put(ActorOperations.GET_SYSTEM_SETTING.getValue(), field, systemSetting);
+      CacheInvalidationBus.getInstance().publish(CacheInvalidationBus.SYSTEM_SETTING, field);
     }
     sender().tell(response, self());
   }
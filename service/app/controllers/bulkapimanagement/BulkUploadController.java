@@ -1,9 +1,11 @@
 package controllers.bulkapimanagement;
 
+import org.apache.commons.lang3.math.NumberUtils;
 import org.sunbird.common.models.util.ActorOperations;
 import org.sunbird.common.models.util.JsonKey;
 import org.sunbird.common.request.BaseRequestValidator;
 import org.sunbird.common.request.Request;
+import org.sunbird.learner.constants.CourseJsonKey;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.CompletableFuture;
 
@@ -37,14 +39,21 @@ public class BulkUploadController extends BaseBulkUploadController {
   }
 
   public CompletionStage<Result> getUploadStatus(String processId, Http.Request httpRequest) {
+    final boolean summary = Boolean.parseBoolean(httpRequest.getQueryString(CourseJsonKey.SUMMARY));
+    final String cursor = httpRequest.getQueryString(CourseJsonKey.CURSOR);
+    final int limit = NumberUtils.toInt(httpRequest.getQueryString(JsonKey.LIMIT), 0);
     return handleRequest(
         ActorOperations.GET_BULK_OP_STATUS.getValue(),
-        null,
-        null,
+        (request) -> {
+          Request req = (Request) request;
+          req.getContext().put(CourseJsonKey.SUMMARY, summary);
+          req.getContext().put(CourseJsonKey.CURSOR, cursor);
+          req.getContext().put(JsonKey.LIMIT, limit);
+          return null;
+        },
         processId,
         JsonKey.PROCESS_ID,
-        false,
-            httpRequest);
+        httpRequest);
   }
 
   public CompletionStage<Result> getStatusDownloadLink(String processId, Http.Request httpRequest) {
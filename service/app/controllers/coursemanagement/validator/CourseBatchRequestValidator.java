@@ -16,6 +16,7 @@ import org.sunbird.common.models.util.ProjectUtil;
 import org.sunbird.common.request.BaseRequestValidator;
 import org.sunbird.common.request.Request;
 import org.sunbird.common.responsecode.ResponseCode;
+import org.sunbird.learner.constants.CourseJsonKey;
 
 public class CourseBatchRequestValidator extends BaseRequestValidator {
   private static final int ERROR_CODE = ResponseCode.CLIENT_ERROR.getResponseCode();
@@ -357,5 +358,35 @@ public class CourseBatchRequestValidator extends BaseRequestValidator {
             (String) ((Map<String, Object>)request.getRequest().get(JsonKey.BATCH)).get(JsonKey.BATCH_ID),
             ResponseCode.mandatoryParamsMissing,
             JsonKey.BATCH_ID);
+    validateParticipantsPaging((Map<String, Object>) request.getRequest().get(JsonKey.BATCH));
+  }
+
+  private void validateParticipantsPaging(Map<String, Object> batch) {
+    Object limit = batch.get(JsonKey.LIMIT);
+    if (limit != null && !(limit instanceof Integer)) {
+      throw new ProjectCommonException(
+          ResponseCode.dataTypeError.getErrorCode(),
+          ResponseCode.dataTypeError.getErrorMessage(),
+          ResponseCode.CLIENT_ERROR.getResponseCode(),
+          JsonKey.LIMIT,
+          "Integer");
+    }
+    if (limit != null && (Integer) limit <= 0) {
+      throw new ProjectCommonException(
+          ResponseCode.invalidParameterValue.getErrorCode(),
+          ResponseCode.invalidParameterValue.getErrorMessage(),
+          ResponseCode.CLIENT_ERROR.getResponseCode(),
+          String.valueOf(limit),
+          JsonKey.LIMIT);
+    }
+    Object cursor = batch.get(CourseJsonKey.CURSOR);
+    if (cursor != null && !(cursor instanceof String)) {
+      throw new ProjectCommonException(
+          ResponseCode.dataTypeError.getErrorCode(),
+          ResponseCode.dataTypeError.getErrorMessage(),
+          ResponseCode.CLIENT_ERROR.getResponseCode(),
+          CourseJsonKey.CURSOR,
+          "String");
+    }
   }
 }